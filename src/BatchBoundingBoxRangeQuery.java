@@ -0,0 +1,85 @@
+import java.util.ArrayList;
+
+/**
+ * The BatchBoundingBoxRangeQuery class is used for executing many range queries at once, such as the tiles of a map
+ * view, with a single traversal of the RStarTree. At every node the windows still active are tested against the
+ * node's entries, and a child is read only once, for the subset of the windows that overlap it.
+ *
+ * @author Akompian Georgios
+ */
+class BatchBoundingBoxRangeQuery extends BatchQuery {
+    private IndexStore indexStore; // The store of the index that is searched
+    private ArrayList<BoundingBox> searchBoundingBoxes; // The windows of the range queries
+    private ArrayList<ArrayList<Long>> qualifyingRecordIds; // The IDs of the qualifying records of every window
+    private NodeKernels nodeKernels; // Used for checking all the entries of a node against a window at once
+
+    /**
+     * Constructs a new BatchBoundingBoxRangeQuery with the specified windows.
+     *
+     * @param indexStore          The IndexStore of the RStarTree that is searched.
+     * @param searchBoundingBoxes The BoundingBoxes defining the areas of the range queries.
+     */
+    BatchBoundingBoxRangeQuery(IndexStore indexStore, ArrayList<BoundingBox> searchBoundingBoxes) {
+        this.indexStore = indexStore;
+        this.searchBoundingBoxes = searchBoundingBoxes;
+        this.nodeKernels = new NodeKernels();
+    }
+
+    /**
+     * Returns the IDs of the records that fall within every window.
+     *
+     * @param node The root node of the RStarTree to start the queries from.
+     * @return The qualifying record IDs of every window, in the order of the windows.
+     */
+    @Override
+    ArrayList<ArrayList<Long>> getQueryRecordIds(Node node) {
+        qualifyingRecordIds = new ArrayList<>();
+        int[] activeQueries = new int[searchBoundingBoxes.size()];
+        for (int q = 0; q < activeQueries.length; q++) {
+            qualifyingRecordIds.add(new ArrayList<>());
+            activeQueries[q] = q;
+        }
+        if (activeQueries.length > 0)
+            search(node, activeQueries, activeQueries.length);
+        return qualifyingRecordIds;
+    }
+
+    /**
+     * Recursively searches for the records within the active windows.
+     *
+     * @param node          The current node being examined in the RStarTree.
+     * @param activeQueries The indexes of the windows that overlap the node.
+     * @param activeCount   The number of the active windows.
+     */
+    private void search(Node node, int[] activeQueries, int activeCount) {
+        getStatistics().nodeVisited(node);
+        nodeKernels.load(node);
+        int size = node.getEntries().size();
+        int[] overlapping = new int[size];
+        boolean leaf = node.getLevel() == RStarTree.getLeafLevel();
+        // The windows that overlap every child, filled in only for inner nodes
+        int[][] childQueries = leaf ? null : new int[size][];
+        int[] childCounts = leaf ? null : new int[size];
+        for (int a = 0; a < activeCount; a++) {
+            int q = activeQueries[a];
+            int found = nodeKernels.findOverlapping(searchBoundingBoxes.get(q), overlapping);
+            for (int i = 0; i < found; i++) {
+                int e = overlapping[i];
+                if (leaf)
+                    qualifyingRecordIds.get(q).add(((LeafEntry) node.getEntries().get(e)).getRecordID());
+                else {
+                    if (childQueries[e] == null)
+                        childQueries[e] = new int[activeCount - a];
+                    childQueries[e][childCounts[e]++] = q;
+                }
+            }
+        }
+        if (leaf)
+            return;
+        // The children are read in the order of the entries, the order every window reads them on its own
+        for (int e = 0; e < size; e++) {
+            if (childCounts[e] > 0)
+                search(indexStore.readIndexFileBlock(node.getEntries().get(e).getChildNodeBlockID(), getStatistics()), childQueries[e], childCounts[e]);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.PriorityQueue;
+
+/**
+ * The BatchNearestNeighbourQuery class is used for finding the k nearest neighbours of many points at once, with a
+ * single branch and bound traversal of the RStarTree. Every point keeps its own neighbours and search radius, the
+ * children of a node are visited by increasing distance from the closest active point and a child is read only once,
+ * for the points whose radius it may still improve.
+ *
+ * @author Akompian Georgios
+ */
+class BatchNearestNeighbourQuery extends BatchQuery {
+    private IndexStore indexStore; // The store of the index that is searched
+    private ArrayList<ArrayList<Double>> searchPoints; // The coordinates of the search points
+    private int k; // The number of nearest neighbours to be found for every point
+    private ArrayList<PriorityQueue<IdDistancePair>> nearestNeighbours; // A max heap of the neighbours of every point
+    private double[] searchPointRadiuses; // The distance of every point's farthest neighbour, used as a bound
+    private NodeKernels nodeKernels; // Used for calculating the distances of all the entries of a node at once
+
+    /**
+     * Constructs a BatchNearestNeighbourQuery with the given search points and the number of neighbours to find.
+     *
+     * @param indexStore   The IndexStore of the RStarTree that is searched.
+     * @param searchPoints The coordinates of the search points.
+     * @param k            The number of nearest neighbours to find for every point.
+     * @throws IllegalArgumentException if k is a negative integer.
+     */
+    BatchNearestNeighbourQuery(IndexStore indexStore, ArrayList<ArrayList<Double>> searchPoints, int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("Parameter 'k' for the nearest neighbors must be a positive integer.");
+        this.indexStore = indexStore;
+        this.searchPoints = searchPoints;
+        this.k = k;
+        this.nodeKernels = new NodeKernels();
+    }
+
+    /**
+     * Returns the IDs of the neighbours of every point, the closest first.
+     *
+     * @param node The R-tree node to start the queries from.
+     * @return The qualifying record IDs of every point, in the order of the points.
+     */
+    @Override
+    ArrayList<ArrayList<Long>> getQueryRecordIds(Node node) {
+        ArrayList<ArrayList<Long>> qualifyingRecordIds = new ArrayList<>();
+        for (ArrayList<LeafEntry> leafEntries : getQueryLeafEntries(node)) {
+            ArrayList<Long> recordIds = new ArrayList<>();
+            for (LeafEntry leafEntry : leafEntries)
+                recordIds.add(leafEntry.getRecordID());
+            qualifyingRecordIds.add(recordIds);
+        }
+        return qualifyingRecordIds;
+    }
+
+    /**
+     * Returns the leaf entries of the neighbours of every point, the closest first.
+     *
+     * @param node The R-tree node to start the queries from.
+     * @return The qualifying leaf entries of every point, in the order of the points.
+     */
+    ArrayList<ArrayList<LeafEntry>> getQueryLeafEntries(Node node) {
+        nearestNeighbours = new ArrayList<>();
+        searchPointRadiuses = new double[searchPoints.size()];
+        int[] activeQueries = new int[searchPoints.size()];
+        for (int q = 0; q < activeQueries.length; q++) {
+            nearestNeighbours.add(new PriorityQueue<>(Math.max(k, 1), (recordDistancePairA, recordDistancePairB) ->
+                    Double.compare(recordDistancePairB.getDistanceFromItem(), recordDistancePairA.getDistanceFromItem()))); // In order to make a MAX heap
+            searchPointRadiuses[q] = Double.MAX_VALUE;
+            activeQueries[q] = q;
+        }
+        if (activeQueries.length > 0 && k > 0)
+            findNeighbours(node, activeQueries, activeQueries.length);
+
+        ArrayList<ArrayList<LeafEntry>> qualifyingLeafEntries = new ArrayList<>();
+        for (PriorityQueue<IdDistancePair> neighbours : nearestNeighbours) {
+            ArrayList<LeafEntry> leafEntries = new ArrayList<>();
+            while (neighbours.size() != 0)
+                leafEntries.add(neighbours.poll().getLeafEntry());
+            // Reverse the list to return the closest neighbors first instead of the farthest.
+            Collections.reverse(leafEntries);
+            qualifyingLeafEntries.add(leafEntries);
+        }
+        return qualifyingLeafEntries;
+    }
+
+    /**
+     * Checks if an entry at the given distance from a point may be, or lead to, one of the point's neighbours.
+     *
+     * @param q        The index of the point.
+     * @param distance The distance of the entry from the point.
+     * @return True if the point has fewer than k neighbours or the entry is not farther than its farthest neighbour.
+     */
+    private boolean mayImprove(int q, double distance) {
+        return nearestNeighbours.get(q).size() < k || distance <= searchPointRadiuses[q];
+    }
+
+    /**
+     * Finds the neighbours of the active points under a node, by the same branch and bound algorithm as the
+     * NearestNeighbourQuery, run for all the active points together.
+     *
+     * @param node          The R-tree node to search for neighbours.
+     * @param activeQueries The indexes of the points whose neighbours may be under the node.
+     * @param activeCount   The number of the active points.
+     */
+    private void findNeighbours(Node node, int[] activeQueries, int activeCount) {
+        getStatistics().nodeVisited(node);
+        int size = node.getEntries().size();
+        nodeKernels.load(node);
+        // The distance of every entry from every active point is calculated once
+        double[][] distances = new double[activeCount][size];
+        for (int a = 0; a < activeCount; a++)
+            nodeKernels.findMinPointDistances(searchPoints.get(activeQueries[a]), distances[a]);
+
+        if (node.getLevel() == RStarTree.getLeafLevel()) {
+            int[] order = new int[size];
+            for (int a = 0; a < activeCount; a++) {
+                int q = activeQueries[a];
+                for (int e = 0; e < size; e++)
+                    order[e] = e;
+                NodeKernels.sortByKeys(order, distances[a], 0, size - 1);
+                PriorityQueue<IdDistancePair> neighbours = nearestNeighbours.get(q);
+                for (int i = 0; i < size && mayImprove(q, distances[a][order[i]]); i++) {
+                    if (neighbours.size() >= k)
+                        neighbours.poll();
+                    neighbours.add(new IdDistancePair((LeafEntry) node.getEntries().get(order[i]), distances[a][order[i]]));
+                    searchPointRadiuses[q] = neighbours.peek().getDistanceFromItem();
+                }
+            }
+            return;
+        }
+
+        // The children are visited by increasing distance from the closest active point
+        double[] closestDistances = new double[size];
+        int[] order = new int[size];
+        for (int e = 0; e < size; e++) {
+            closestDistances[e] = Double.MAX_VALUE;
+            for (int a = 0; a < activeCount; a++)
+                closestDistances[e] = Math.min(closestDistances[e], distances[a][e]);
+            order[e] = e;
+        }
+        NodeKernels.sortByKeys(order, closestDistances, 0, size - 1);
+        int[] childQueries = new int[activeCount];
+        for (int i = 0; i < size; i++) {
+            int e = order[i];
+            // The radiuses shrink as the children are visited, so the points of every child are found just before it is read
+            int childCount = 0;
+            for (int a = 0; a < activeCount; a++) {
+                if (mayImprove(activeQueries[a], distances[a][e]))
+                    childQueries[childCount++] = activeQueries[a];
+            }
+            if (childCount > 0)
+                findNeighbours(indexStore.readIndexFileBlock(node.getEntries().get(e).getChildNodeBlockID(), getStatistics()), childQueries.clone(), childCount);
+        }
+    }
+}
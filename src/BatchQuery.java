@@ -0,0 +1,30 @@
+import java.util.ArrayList;
+
+/**
+ * BatchQuery is an abstract class used for executing many queries of the same type at once with the use of the
+ * RStarTree, traversing the tree a single time. Every node is read once for the whole batch and only the queries that
+ * may still have results under a node are tested against its entries, so the upper nodes that the queries share are
+ * not read again for every query.
+ * Subclasses of BatchQuery implement specific types of queries.
+ *
+ * @author Akompian Georgios
+ */
+abstract class BatchQuery {
+    private final QueryStatistics statistics = new QueryStatistics(); // The execution statistics of the whole batch
+
+    /**
+     * Retrieves the execution statistics of the batch, filled in while the batch is executed.
+     *
+     * @return The statistics of the batch.
+     */
+    QueryStatistics getStatistics() {return statistics;}
+
+    /**
+     * Returns the IDs of the records of every query of the batch based on the provided R-tree node,
+     * the same as the IDs returned by executing every query on its own.
+     *
+     * @param node The R-tree node to start the queries from.
+     * @return The qualifying record IDs of every query, in the order of the queries.
+     */
+    abstract ArrayList<ArrayList<Long>> getQueryRecordIds(Node node);
+}
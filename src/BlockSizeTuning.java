@@ -0,0 +1,218 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * BlockSizeTuning is a class for choosing the block size of a new index from the data.
+ * It builds trees with several block sizes from a sample of the csv file, once with the R* and once with the
+ * revised R* (RR*) insertion, and runs the same range and k-nearest neighbor (KNN) queries on each one,
+ * measuring the build time, the node accesses and the latency. It records the results in a CSV file.
+ *
+ * @author Akompian Georgios
+ */
+public class BlockSizeTuning {
+    private static final String PATH_TO_SAMPLE_CSV = "tuningSample.csv";
+    private static final String PATH_TO_SAMPLE_DATAFILE = "tuningDatafile.dat";
+    private static final String PATH_TO_SAMPLE_INDEXFILE = "tuningIndexfile.dat";
+    private static final String PATH_TO_RESULTS = "blockSizeTuningResults.csv";
+    private static final int[] DEFAULT_BLOCK_SIZES_IN_KB = {4, 8, 16, 32, 64};
+    private static final int DEFAULT_SAMPLE_SIZE = 2000; // The records taken from the csv file for each tree
+    private static final int QUERY_POINTS = 20; // The query points (centers of the windows) taken from the sample
+    private static final double[] RANGE_WINDOW_SIDES = {0.01, 0.05}; // Side of the range windows, as a fraction of the data's extent
+    private static final int[] KNN_K = {10, 100};
+    private static final int MEASURED_RUNS = 5; // How many times each workload is timed after the warmup run
+
+    /**
+     * Main method for building the trees and recording the query results in a CSV file.
+     *
+     * @param args Optional arguments: the data dimensions, the sample size and the block sizes in KB
+     *             (for example "2 2000 4 8 32").
+     */
+    public static void main(String[] args) {
+        int dataDimensions = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int sampleSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SAMPLE_SIZE;
+        int[] blockSizesInKB = DEFAULT_BLOCK_SIZES_IN_KB;
+        if (args.length > 2) {
+            blockSizesInKB = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++)
+                blockSizesInKB[i - 2] = Integer.parseInt(args[i]);
+        }
+
+        ArrayList<Record> sample = writeSample(dataDimensions, sampleSize);
+        if (sample.isEmpty())
+            throw new IllegalStateException("Could not take a sample of the " + FilesHelper.getPathToCsv() + " file");
+        ArrayList<BoundingBox> rangeQueries = makeRangeQueries(sample, dataDimensions);
+        ArrayList<ArrayList<Double>> knnPoints = makeKnnPoints(sample, dataDimensions);
+
+        ArrayList<String> results = new ArrayList<>();
+        for (int blockSizeInKB : blockSizesInKB) {
+            for (boolean revised : new boolean[]{false, true}) {
+                IndexStore indexStore = new IndexStore(PATH_TO_SAMPLE_CSV, PATH_TO_SAMPLE_DATAFILE, PATH_TO_SAMPLE_INDEXFILE, blockSizeInKB * 1024);
+                indexStore.initializeDataFile(dataDimensions, true);
+                indexStore.initializeIndexFile(dataDimensions, true);
+                InsertionStrategy insertionStrategy = revised ? new RevisedRStarInsertionStrategy(indexStore) : new RStarInsertionStrategy(indexStore);
+
+                long startTreeTime = System.nanoTime();
+                RStarTree rStarTree = new RStarTree(indexStore, true, insertionStrategy);
+                long stopTreeTime = System.nanoTime();
+                double buildTime = (double) (stopTreeTime - startTreeTime) / 1000000;
+
+                String row = blockSizeInKB + "," + insertionStrategy.getName() + "," + indexStore.getMaxEntriesInNode() + "," + indexStore.getTotalLevelsOfTreeIndex()
+                        + "," + (indexStore.getTotalBlocksInIndexFile() - 1) + "," + buildTime;
+
+                // Range queries of each window size
+                for (int w = 0; w < RANGE_WINDOW_SIDES.length; w++) {
+                    final int window = w;
+                    row += "," + measure(indexStore, () -> {
+                        for (int q = window * QUERY_POINTS; q < (window + 1) * QUERY_POINTS; q++)
+                            rStarTree.getBoundingBoxData(rangeQueries.get(q));
+                    });
+                }
+                // KNN queries of each k
+                for (int k : KNN_K) {
+                    row += "," + measure(indexStore, () -> {
+                        for (ArrayList<Double> point : knnPoints)
+                            rStarTree.getNearestNeighbours(point, k);
+                    });
+                }
+                System.out.println("Block size " + blockSizeInKB + "KB, " + insertionStrategy.getName() + ": " + row);
+                results.add(row);
+            }
+        }
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(PATH_TO_RESULTS))) {
+            StringBuilder tagString = new StringBuilder("Block Size(KB),Insertion,Max Entries,Levels,Nodes,Build Time(ms)");
+            for (double side : RANGE_WINDOW_SIDES)
+                tagString.append(",Range ").append(side).append(" Node Accesses,Range ").append(side).append(" Time(ms)");
+            for (int k : KNN_K)
+                tagString.append(",KNN ").append(k).append(" Node Accesses,KNN ").append(k).append(" Time(ms)");
+            writer.write(tagString.append('\n').toString());
+            for (String row : results)
+                writer.write(row + "\n");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        try {
+            Files.deleteIfExists(Paths.get(PATH_TO_SAMPLE_CSV));
+            Files.deleteIfExists(Paths.get(PATH_TO_SAMPLE_DATAFILE));
+            Files.deleteIfExists(Paths.get(PATH_TO_SAMPLE_INDEXFILE));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs the workload once as a warmup and then MEASURED_RUNS times,
+     * returning the average node accesses and time of a single query.
+     *
+     * @param indexStore The IndexStore of the tree that the workload uses.
+     * @param workload   The queries to be executed, QUERY_POINTS in total.
+     * @return The average node accesses and time (ms) per query, separated by a comma.
+     */
+    private static String measure(IndexStore indexStore, Runnable workload) {
+        workload.run();
+        long startBlocksRead = indexStore.getIndexBlocksRead();
+        long startTime = System.nanoTime();
+        for (int run = 0; run < MEASURED_RUNS; run++)
+            workload.run();
+        long stopTime = System.nanoTime();
+        double queries = (double) MEASURED_RUNS * QUERY_POINTS;
+        return (indexStore.getIndexBlocksRead() - startBlocksRead) / queries + "," + (stopTime - startTime) / 1000000 / queries;
+    }
+
+    /**
+     * Takes a uniform random sample of the csv file's records (reservoir sampling with a fixed seed,
+     * so that every run uses the same sample) and writes it to the sample csv file.
+     *
+     * @param dataDimensions The number of dimensions in the data.
+     * @param sampleSize     The number of records of the sample.
+     * @return The records of the sample.
+     */
+    private static ArrayList<Record> writeSample(int dataDimensions, int sampleSize) {
+        ArrayList<String> sampleLines = new ArrayList<>();
+        Random random = new Random(sampleSize);
+        try (BufferedReader csvReader = new BufferedReader(new FileReader(FilesHelper.getPathToCsv()))) {
+            String stringRecord;
+            long linesRead = 0;
+            while ((stringRecord = csvReader.readLine()) != null) {
+                if (sampleLines.size() < sampleSize)
+                    sampleLines.add(stringRecord);
+                else {
+                    long replaced = (long) (random.nextDouble() * (linesRead + 1));
+                    if (replaced < sampleSize)
+                        sampleLines.set((int) replaced, stringRecord);
+                }
+                linesRead++;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        ArrayList<Record> sample = new ArrayList<>();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(PATH_TO_SAMPLE_CSV))) {
+            for (String line : sampleLines) {
+                sample.add(new Record(line, dataDimensions));
+                writer.write(line + "\n");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return sample;
+    }
+
+    /**
+     * Creates square range windows centered at records of the sample, QUERY_POINTS for each size in RANGE_WINDOW_SIDES.
+     *
+     * @param sample         The records of the sample.
+     * @param dataDimensions The number of dimensions in the data.
+     * @return The bounding boxes of the range queries, grouped by window size.
+     */
+    private static ArrayList<BoundingBox> makeRangeQueries(ArrayList<Record> sample, int dataDimensions) {
+        double[] extent = new double[dataDimensions];
+        for (int d = 0; d < dataDimensions; d++) {
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (Record record : sample) {
+                min = Math.min(min, record.getCoordinate(d));
+                max = Math.max(max, record.getCoordinate(d));
+            }
+            extent[d] = max - min;
+        }
+
+        ArrayList<BoundingBox> rangeQueries = new ArrayList<>();
+        for (double side : RANGE_WINDOW_SIDES) {
+            Random random = new Random(QUERY_POINTS);
+            for (int q = 0; q < QUERY_POINTS; q++) {
+                Record center = sample.get(random.nextInt(sample.size()));
+                ArrayList<Bounds> queryBounds = new ArrayList<>();
+                for (int d = 0; d < dataDimensions; d++)
+                    queryBounds.add(new Bounds(center.getCoordinate(d) - extent[d] * side / 2, center.getCoordinate(d) + extent[d] * side / 2));
+                rangeQueries.add(new BoundingBox(queryBounds));
+            }
+        }
+        return rangeQueries;
+    }
+
+    /**
+     * Takes QUERY_POINTS points of the sample to be used as the search points of the KNN queries.
+     *
+     * @param sample         The records of the sample.
+     * @param dataDimensions The number of dimensions in the data.
+     * @return The coordinates of the KNN search points.
+     */
+    private static ArrayList<ArrayList<Double>> makeKnnPoints(ArrayList<Record> sample, int dataDimensions) {
+        ArrayList<ArrayList<Double>> knnPoints = new ArrayList<>();
+        Random random = new Random(QUERY_POINTS + 1);
+        for (int q = 0; q < QUERY_POINTS; q++) {
+            Record record = sample.get(random.nextInt(sample.size()));
+            ArrayList<Double> point = new ArrayList<>();
+            for (int d = 0; d < dataDimensions; d++)
+                point.add(record.getCoordinate(d));
+            knnPoints.add(point);
+        }
+        return knnPoints;
+    }
+}
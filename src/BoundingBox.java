@@ -65,7 +65,7 @@ public class BoundingBox implements Serializable {
     private double calcArea()
     {
         double product = 1;
-        for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+        for (int i = 0; i < bounds.size(); i++)
         {
             product = product * (bounds.get(i).getUpper() - bounds.get(i).getLower());
         }
@@ -74,7 +74,7 @@ public class BoundingBox implements Serializable {
     private double calcPerimeter()
     {
         double sum = 0;
-        for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+        for (int i = 0; i < bounds.size(); i++)
         {
             sum += abs(bounds.get(i).getUpper() - bounds.get(i).getLower());
         }
@@ -83,7 +83,7 @@ public class BoundingBox implements Serializable {
     private ArrayList<Double> calcCenter()
     {
         ArrayList<Double> centers = new ArrayList<>();
-        for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+        for (int i = 0; i < bounds.size(); i++)
         {
             centers.add((bounds.get(i).getUpper() + bounds.get(i).getLower())/2);
         }
@@ -98,21 +98,22 @@ public class BoundingBox implements Serializable {
     double findMinPointDistance(ArrayList<Double> point)
     {
         double minDist = 0;
-        double rd;
-        for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+        for (int i = 0; i < bounds.size(); i++)
         {
-            if(getBounds().get(i).getLower() > point.get(i))
+            double coordinate = point.get(i);
+            double rd;
+            if(bounds.get(i).getLower() > coordinate)
             {
-                rd = getBounds().get(i).getLower();
+                rd = bounds.get(i).getLower();
             }
-            else if (getBounds().get(i).getUpper() < point.get(i))
+            else if (bounds.get(i).getUpper() < coordinate)
             {
-                rd = getBounds().get(i).getUpper();
+                rd = bounds.get(i).getUpper();
             }
             else
-                rd = point.get(i);
+                rd = coordinate;
 
-            minDist += Math.pow(point.get(i) - rd,2);
+            minDist += (coordinate - rd) * (coordinate - rd);
         }
         return sqrt(minDist);
     }
@@ -125,7 +126,7 @@ public class BoundingBox implements Serializable {
      */
     static boolean checkBoxOverlap(BoundingBox boundingBoxA, BoundingBox boundingBoxB)
     {
-        for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+        for (int i = 0; i < boundingBoxA.getBounds().size(); i++)
         {
             double overlapD = Math.min(boundingBoxA.getBounds().get(i).getUpper(), boundingBoxB.getBounds().get(i).getUpper())
                     - Math.max(boundingBoxA.getBounds().get(i).getLower(),boundingBoxB.getBounds().get(i).getLower());
@@ -147,7 +148,7 @@ public class BoundingBox implements Serializable {
     static double calcOverlapVal(BoundingBox boundingBoxA, BoundingBox boundingBoxB)
     {
         double overlapVal = 1;
-        for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+        for (int i = 0; i < boundingBoxA.getBounds().size(); i++)
         {
             double overlapD = Math.min(boundingBoxA.getBounds().get(i).getUpper(), boundingBoxB.getBounds().get(i).getUpper())
                     - Math.max(boundingBoxA.getBounds().get(i).getLower(),boundingBoxB.getBounds().get(i).getLower());
@@ -171,7 +172,7 @@ public class BoundingBox implements Serializable {
     static double findBoundBoxDist(BoundingBox boundingBoxA, BoundingBox boundingBoxB)
     {
         double dist = 0;
-        for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+        for (int i = 0; i < boundingBoxA.getBounds().size(); i++)
         {
             dist += Math.pow(boundingBoxA.getCenter().get(i) - boundingBoxB.getCenter().get(i),2);
         }
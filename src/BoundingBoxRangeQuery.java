@@ -1,21 +1,31 @@
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
 /**
  * The BoundingBoxRangeQuery class is used for executing a range query within a specific bounding box
  * using the RStarTree index. It searches for records that fall within the specified bounding box.
+ * If the IndexStore reads with a queue depth above 1, the overlapping children of every node are read
+ * asynchronously, up to that many at a time, and processed in the order their reads complete.
  *
  * @author Akompian Georgios
  */
 class BoundingBoxRangeQuery extends Query {
-    private ArrayList<Long> qualifyingRecordIds; // Record ids used for queries
+    private IndexStore indexStore; // The store of the index that is searched
+    private ArrayList<LeafEntry> qualifyingLeafEntries; // The leaf entries of the qualifying records
     private BoundingBox searchBoundingBox; // BoundingBox used for range queries
+    private NodeKernels nodeKernels; // Used for checking all the entries of a node against the searchBoundingBox at once
 
     /**
      * Constructs a new BoundingBoxRangeQuery with the specified searchBoundingBox.
      *
+     * @param indexStore        The IndexStore of the RStarTree that is searched.
      * @param searchBoundingBox The BoundingBox defining the range query area.
      */
-    BoundingBoxRangeQuery(BoundingBox searchBoundingBox) {
+    BoundingBoxRangeQuery(IndexStore indexStore, BoundingBox searchBoundingBox) {
+        this.indexStore = indexStore;
         this.searchBoundingBox = searchBoundingBox;
+        this.nodeKernels = new NodeKernels();
     }
 
 
@@ -28,11 +38,30 @@ class BoundingBoxRangeQuery extends Query {
      */
     @Override
     ArrayList<Long> getQueryRecordIds(Node node) {
-        qualifyingRecordIds = new ArrayList<>();
-        search(node); // Start the search from the root node of the RStarTree.
+        ArrayList<Long> qualifyingRecordIds = new ArrayList<>();
+        for (LeafEntry leafEntry : getQueryLeafEntries(node))
+            qualifyingRecordIds.add(leafEntry.getRecordID());
         return qualifyingRecordIds;
     }
 
+    /**
+     * Returns the leaf entries of the records that fall within the specified bounding box.
+     *
+     * @param node The root node of the RStarTree to start the query from.
+     * @return An ArrayList containing the qualifying leaf entries.
+     */
+    @Override
+    ArrayList<LeafEntry> getQueryLeafEntries(Node node) {
+        qualifyingLeafEntries = new ArrayList<>();
+        // Start the search from the root node of the RStarTree, with the read queue of the store when the query starts
+        IndexStore.ReadQueue readQueue = indexStore.getReadQueue();
+        if (readQueue.getDepth() > 1)
+            searchAsynchronously(node, readQueue);
+        else
+            search(node);
+        return qualifyingLeafEntries;
+    }
+
 
 
     /**
@@ -41,29 +70,72 @@ class BoundingBoxRangeQuery extends Query {
      * @param node The current node being examined in the RStarTree.
      */
     private void search(Node node) {
+        getStatistics().nodeVisited(node);
+        nodeKernels.load(node);
+        int[] overlapping = new int[node.getEntries().size()];
+        int found = nodeKernels.findOverlapping(searchBoundingBox, overlapping);
         // [Search subtrees]
-        // If the current node is not a leaf, check each entry to determine whether it overlaps with the searchBoundingBox.
+        // If the current node is not a leaf, invoke the search on the tree whose root is pointed to by E.childPTR
+        // for every entry that overlaps with the searchBoundingBox.
         if (node.getLevel() != RStarTree.getLeafLevel()) {
-            for (Entry entry : node.getEntries()) {
-                // For all overlapping entries, invoke the search on the tree whose root is
-                // pointed to by E.childPTR.
-                if (BoundingBox.checkBoxOverlap(entry.getBoundingBox(), searchBoundingBox)) {
-                    search(FilesHelper.readIndexFileBlock(entry.getChildNodeBlockID()));
-                }
+            for (int i = 0; i < found; i++) {
+                search(indexStore.readIndexFileBlock(node.getEntries().get(overlapping[i]).getChildNodeBlockID(), getStatistics()));
             }
         }
         // [Search leaf node]
-        // If the current node is a leaf, check all entries to determine whether they overlap with S.
-        // If so, E is a qualifying record.
+        // If the current node is a leaf, every entry that overlaps with S is a qualifying record.
         else {
-            for (Entry entry : node.getEntries()) {
-                // For all overlapping entries, invoke the search on the tree whose root is
-                // pointed to by E.childPTR.
-                if (BoundingBox.checkBoxOverlap(entry.getBoundingBox(), searchBoundingBox)) {
-                    LeafEntry leafEntry = (LeafEntry) entry;
-                    qualifyingRecordIds.add(leafEntry.getRecordID());
-                }
+            for (int i = 0; i < found; i++) {
+                qualifyingLeafEntries.add((LeafEntry) node.getEntries().get(overlapping[i]));
+            }
+        }
+    }
+
+    /**
+     * Searches for records within the searchBoundingBox, reading the overlapping children of the nodes
+     * asynchronously. The blocks still to be read are kept in a stack, so the search goes deep first and
+     * few blocks wait to be read, and up to the read queue depth of them are read at a time.
+     *
+     * @param root      The root node of the RStarTree.
+     * @param readQueue The read queue of the store when the query started, used for all the reads of the query.
+     * @throws IllegalStateException If a block cannot be read or the query is interrupted.
+     */
+    private void searchAsynchronously(Node root, IndexStore.ReadQueue readQueue) {
+        int readQueueDepth = readQueue.getDepth();
+        ArrayDeque<Long> unreadBlocks = new ArrayDeque<>(); // The blocks of the overlapping children not read yet
+        LinkedBlockingQueue<CompletableFuture<Node>> completedReads = new LinkedBlockingQueue<>();
+        int pendingReads = 0;
+        Node node = root;
+        while (true) {
+            nodeKernels.load(node);
+            getStatistics().nodeVisited(node);
+            int[] overlapping = new int[node.getEntries().size()];
+            int found = nodeKernels.findOverlapping(searchBoundingBox, overlapping);
+            if (node.getLevel() != RStarTree.getLeafLevel()) {
+                // Pushed backwards, so the first overlapping child is the first read
+                for (int i = found - 1; i >= 0; i--)
+                    unreadBlocks.push(node.getEntries().get(overlapping[i]).getChildNodeBlockID());
+            } else {
+                for (int i = 0; i < found; i++)
+                    qualifyingLeafEntries.add((LeafEntry) node.getEntries().get(overlapping[i]));
+            }
+
+            while (pendingReads < readQueueDepth && !unreadBlocks.isEmpty()) {
+                CompletableFuture<Node> read = indexStore.readIndexFileBlockAsync(readQueue, unreadBlocks.pop(), getStatistics());
+                read.whenComplete((readNode, error) -> completedReads.add(read));
+                pendingReads++;
+            }
+            if (pendingReads == 0)
+                return;
+            try {
+                node = completedReads.take().join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("The range query was interrupted");
             }
+            pendingReads--;
+            if (node == null)
+                throw new IllegalStateException("Couldn't read a node of the range query from the indexfile");
         }
     }
 }
@@ -1,6 +1,5 @@
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
 /**
  * A class representing bounds in an n-dimensional space. Bounds consist of a lower and upper value for a dimension.
  * @author Christos Kontos
@@ -48,12 +47,27 @@ public class Bounds implements Serializable {
      */
     static ArrayList<Bounds> findMinBounds(ArrayList<Entry> entries)
     {
+        int dimensions = entries.get(0).getBoundingBox().getBounds().size();
+        double[] lower = new double[dimensions];
+        double[] upper = new double[dimensions];
+        for (int i = 0; i < dimensions; i++)
+        {
+            lower[i] = Double.MAX_VALUE;
+            upper[i] = -Double.MAX_VALUE;
+        }
+        for (Entry entry : entries)
+        {
+            ArrayList<Bounds> entryBounds = entry.getBoundingBox().getBounds();
+            for (int i = 0; i < dimensions; i++)
+            {
+                lower[i] = Math.min(lower[i], entryBounds.get(i).getLower());
+                upper[i] = Math.max(upper[i], entryBounds.get(i).getUpper());
+            }
+        }
         ArrayList<Bounds> minBounds = new ArrayList<>();
-        for (int i=0; i < FilesHelper.getDataDimensions() ; i++)
+        for (int i = 0; i < dimensions; i++)
         {
-            Entry lowerEntry = Collections.min(entries, new EntryCompare.EntryBoundCompare(entries,i,false));
-            Entry upperEntry = Collections.max(entries, new EntryCompare.EntryBoundCompare(entries,i,true));
-            minBounds.add(new Bounds(lowerEntry.getBoundingBox().getBounds().get(i).getLower(),upperEntry.getBoundingBox().getBounds().get(i).getUpper()));
+            minBounds.add(new Bounds(lower[i],upper[i]));
         }
         return minBounds;
     }
@@ -67,7 +81,7 @@ public class Bounds implements Serializable {
     static ArrayList<Bounds> findMinBounds(BoundingBox boundingBoxA, BoundingBox boundingBoxB)
     {
         ArrayList<Bounds> minBounds = new ArrayList<>();
-        for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+        for (int i = 0; i < boundingBoxA.getBounds().size(); i++)
         {
             double lower = Math.min(boundingBoxA.getBounds().get(i).getLower(), boundingBoxB.getBounds().get(i).getLower());
             double upper = Math.max(boundingBoxA.getBounds().get(i).getUpper(), boundingBoxB.getBounds().get(i).getUpper());
@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * ChooseSubtreeBenchmark compares the SubtreeChooser with the previous ChooseSubtree implementation
+ * (which created a bounding box for every entry and compared entries through EntryAreaEnlargement and EntryCompare)
+ * on random nodes of realistic fanouts. It prints the average time of a single choice for each implementation,
+ * and how many times both implementations picked the same entry.
+ *
+ * @author Christos Kontos
+ */
+public class ChooseSubtreeBenchmark {
+    private static final int[] FANOUTS = {18, 41, 174, 350}; // The M of 2D nodes with 4, 8, 32 and 64KB blocks
+    private static final int CHOOSE_SUBTREE_P_ENTRIES = 32;
+    private static final int NODES = 200; // The random nodes of each fanout
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    /**
+     * Main method that runs the comparison for every fanout and prints the results.
+     *
+     * @param args The command-line arguments (not used in this application).
+     */
+    public static void main(String[] args) {
+        Random random = new Random(FANOUTS.length);
+        System.out.println("Fanout,Children Are Leaves,Previous Time(us),SubtreeChooser Time(us),Speedup,Same Choice");
+        for (int fanout : FANOUTS) {
+            ArrayList<Node> nodes = new ArrayList<>();
+            ArrayList<BoundingBox> boxes = new ArrayList<>();
+            for (int n = 0; n < NODES; n++) {
+                nodes.add(randomNode(random, fanout));
+                boxes.add(randomBox(random, 0.0));
+            }
+            for (boolean childrenAreLeaves : new boolean[]{true, false}) {
+                SubtreeChooser subtreeChooser = new SubtreeChooser(fanout, CHOOSE_SUBTREE_P_ENTRIES);
+                int sameChoice = 0;
+                for (int n = 0; n < NODES; n++) {
+                    if (previousPickSubTree(nodes.get(n), boxes.get(n), childrenAreLeaves, fanout)
+                            == subtreeChooser.chooseSubtree(nodes.get(n), boxes.get(n), childrenAreLeaves))
+                        sameChoice++;
+                }
+                for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                    for (int n = 0; n < NODES; n++) {
+                        previousPickSubTree(nodes.get(n), boxes.get(n), childrenAreLeaves, fanout);
+                        subtreeChooser.chooseSubtree(nodes.get(n), boxes.get(n), childrenAreLeaves);
+                    }
+                }
+
+                long startPreviousTime = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++)
+                    for (int n = 0; n < NODES; n++)
+                        previousPickSubTree(nodes.get(n), boxes.get(n), childrenAreLeaves, fanout);
+                long stopPreviousTime = System.nanoTime();
+
+                long startChooserTime = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++)
+                    for (int n = 0; n < NODES; n++)
+                        subtreeChooser.chooseSubtree(nodes.get(n), boxes.get(n), childrenAreLeaves);
+                long stopChooserTime = System.nanoTime();
+
+                double choices = (double) MEASURED_ROUNDS * NODES;
+                double previousTime = (stopPreviousTime - startPreviousTime) / 1000.0 / choices;
+                double chooserTime = (stopChooserTime - startChooserTime) / 1000.0 / choices;
+                System.out.println(fanout + "," + childrenAreLeaves + "," + String.format("%.3f", previousTime) + ","
+                        + String.format("%.3f", chooserTime) + "," + String.format("%.1f", previousTime / chooserTime) + ","
+                        + sameChoice + "/" + NODES);
+            }
+        }
+    }
+
+    /**
+     * The ChooseSubtree implementation that RStarTree used before the SubtreeChooser.
+     *
+     * @param node              The node whose entries are examined.
+     * @param boundingBox       The bounding box of the entry that is inserted.
+     * @param childrenAreLeaves True if the entries of the node point to nodes of the insertion level.
+     * @param maxEntries        The maximum entries (M) of a node.
+     * @return The chosen entry.
+     */
+    private static Entry previousPickSubTree(Node node, BoundingBox boundingBox, boolean childrenAreLeaves, int maxEntries) {
+        Entry bestEntry;
+        if (childrenAreLeaves) {
+            if (maxEntries > (CHOOSE_SUBTREE_P_ENTRIES * 2) / 3 && node.getEntries().size() > CHOOSE_SUBTREE_P_ENTRIES) {
+                ArrayList<EntryAreaEnlargement> entryAreaEnlargements = new ArrayList<>();
+                for (Entry entry : node.getEntries()) {
+                    BoundingBox newBoundingBox = new BoundingBox(Bounds.findMinBounds(entry.getBoundingBox(), boundingBox));
+                    double areaEnlargement = newBoundingBox.getArea() - entry.getBoundingBox().getArea();
+                    entryAreaEnlargements.add(new EntryAreaEnlargement(entry, areaEnlargement));
+                }
+                entryAreaEnlargements.sort(EntryAreaEnlargement::compareTo);
+                ArrayList<Entry> sortedEntries = new ArrayList<>();
+                for (EntryAreaEnlargement entryAreaEnlargement : entryAreaEnlargements)
+                    sortedEntries.add(entryAreaEnlargement.getEntry());
+                return Collections.min(sortedEntries.subList(0, CHOOSE_SUBTREE_P_ENTRIES), new EntryCompare.EntryEnlargementOverlapCompare(sortedEntries.subList(0, CHOOSE_SUBTREE_P_ENTRIES), boundingBox, node.getEntries()));
+            }
+            bestEntry = Collections.min(node.getEntries(), new EntryCompare.EntryEnlargementOverlapCompare(node.getEntries(), boundingBox, node.getEntries()));
+            return bestEntry;
+        }
+        ArrayList<EntryAreaEnlargement> entryAreaEnlargements = new ArrayList<>();
+        for (Entry entry : node.getEntries()) {
+            BoundingBox newBox = new BoundingBox(Bounds.findMinBounds(entry.getBoundingBox(), boundingBox));
+            double areaEnlargement = newBox.getArea() - entry.getBoundingBox().getArea();
+            entryAreaEnlargements.add(new EntryAreaEnlargement(entry, areaEnlargement));
+        }
+        bestEntry = Collections.min(entryAreaEnlargements, EntryAreaEnlargement::compareTo).getEntry();
+        return bestEntry;
+    }
+
+    /**
+     * Creates a node with the given number of entries with random, partly overlapping 2D boxes.
+     *
+     * @param random  The random generator used.
+     * @param entries The number of entries of the node.
+     * @return The random node.
+     */
+    private static Node randomNode(Random random, int entries) {
+        ArrayList<Entry> nodeEntries = new ArrayList<>();
+        double side = 2.0 / Math.sqrt(entries); // Boxes of this side roughly cover the unit square twice
+        for (int e = 0; e < entries; e++)
+            nodeEntries.add(new Entry(randomBox(random, side)));
+        return new Node(RStarTree.getLeafLevel() + 1, nodeEntries);
+    }
+
+    /**
+     * Creates a random 2D box inside the unit square.
+     *
+     * @param random  The random generator used.
+     * @param maxSide The maximum side of the box (0 for a point).
+     * @return The random box.
+     */
+    private static BoundingBox randomBox(Random random, double maxSide) {
+        ArrayList<Bounds> bounds = new ArrayList<>();
+        for (int d = 0; d < 2; d++) {
+            double lower = random.nextDouble();
+            bounds.add(new Bounds(lower, lower + random.nextDouble() * maxSide));
+        }
+        return new BoundingBox(bounds);
+    }
+}
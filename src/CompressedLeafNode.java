@@ -0,0 +1,134 @@
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * This class is the compressed block format of a leaf node of the tree.
+ * Instead of full LeafEntry objects, the entries are written with DeltaEncoding: the record ID and the datafile block ID
+ * as their difference from the previous entry's, the lower bounds as the XOR with the previous entry's lower bounds and
+ * the upper bounds as the XOR with the entry's own lower bounds. Entries of points only keep their lower bounds.
+ * The encoding is lossless and keeps the order of the entries.
+ * @author Christos Kontos
+ */
+class CompressedLeafNode implements Serializable {
+    private static final int POINT = 1; // The flag of an entry whose lower and upper bounds are the same
+    private final long blockID; // The unique ID of the file block that the node refers to.
+    private final int dimensions; // The dimensions of the entries' bounds.
+    private final int width; // The bytes of every bound, 8 for doubles or 4 for floats (Float32LeafEntry).
+    private final int size; // The number of entries.
+    private final byte[] data; // The encoded entries.
+
+    /**
+     * The constructor of the compressed leaf, used by encode.
+     * @param blockID the block ID of the node.
+     * @param dimensions the dimensions of the entries' bounds.
+     * @param width the bytes of every bound.
+     * @param size the number of entries.
+     * @param data the encoded entries.
+     */
+    private CompressedLeafNode(long blockID, int dimensions, int width, int size, byte[] data)
+    {
+        this.blockID = blockID;
+        this.dimensions = dimensions;
+        this.width = width;
+        this.size = size;
+        this.data = data;
+    }
+
+    /**
+     * This method compresses a leaf node.
+     * @param node the leaf node.
+     * @param dimensions the dimensions of the entries' bounds.
+     * @param float32Coordinates true if the entries are Float32LeafEntry entries.
+     * @return the compressed leaf.
+     */
+    static CompressedLeafNode encode(Node node, int dimensions, boolean float32Coordinates)
+    {
+        int width = float32Coordinates ? DeltaEncoding.FLOAT_WIDTH : DeltaEncoding.DOUBLE_WIDTH;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previousRecordID = 0;
+        long previousDataFileBlockID = 0;
+        long[] previousLowerBits = new long[dimensions];
+        long[] upperBits = new long[dimensions];
+        for (Entry entry : node.getEntries())
+        {
+            LeafEntry leafEntry = (LeafEntry) entry;
+            DeltaEncoding.writeVarLong(out, DeltaEncoding.zigZag(leafEntry.getRecordID() - previousRecordID));
+            DeltaEncoding.writeVarLong(out, DeltaEncoding.zigZag(leafEntry.getDataFileBlockID() - previousDataFileBlockID));
+            previousRecordID = leafEntry.getRecordID();
+            previousDataFileBlockID = leafEntry.getDataFileBlockID();
+
+            ArrayList<Bounds> bounds = entry.getBoundingBox().getBounds();
+            boolean point = true;
+            for (int d = 0; d < dimensions; d++)
+            {
+                point &= bounds.get(d).getLower() == bounds.get(d).getUpper();
+            }
+            out.write(point ? POINT : 0);
+            for (int d = 0; d < dimensions; d++)
+            {
+                long lowerBits = DeltaEncoding.coordinateBits(bounds.get(d).getLower(), width);
+                DeltaEncoding.writeXor(out, lowerBits ^ previousLowerBits[d], width);
+                previousLowerBits[d] = lowerBits;
+                upperBits[d] = DeltaEncoding.coordinateBits(bounds.get(d).getUpper(), width);
+            }
+            if(!point)
+            {
+                for (int d = 0; d < dimensions; d++)
+                {
+                    DeltaEncoding.writeXor(out, upperBits[d] ^ previousLowerBits[d], width);
+                }
+            }
+        }
+        return new CompressedLeafNode(node.getBlockID(), dimensions, width, node.getEntries().size(), out.toByteArray());
+    }
+
+    /**
+     * Calculates the most bytes an entry can take in a compressed leaf.
+     * @param dimensions the dimensions of the entries' bounds.
+     * @param float32Coordinates true if the entries are Float32LeafEntry entries.
+     * @return the maximum bytes of an entry.
+     */
+    static int maxEntryLength(int dimensions, boolean float32Coordinates)
+    {
+        int width = float32Coordinates ? DeltaEncoding.FLOAT_WIDTH : DeltaEncoding.DOUBLE_WIDTH;
+        return 2 * DeltaEncoding.maxVarLongLength() + 1 + 2 * dimensions * DeltaEncoding.maxXorLength(width);
+    }
+
+    /**
+     * This method turns the compressed leaf back into a leaf node with the same entries.
+     * @return the decoded node.
+     */
+    Node decode()
+    {
+        DeltaEncoding.Reader reader = new DeltaEncoding.Reader(data, 0);
+        ArrayList<Entry> entries = new ArrayList<>(size);
+        long recordID = 0;
+        long dataFileBlockID = 0;
+        long[] lowerBits = new long[dimensions];
+        for (int e = 0; e < size; e++)
+        {
+            recordID += DeltaEncoding.unZigZag(reader.readVarLong());
+            dataFileBlockID += DeltaEncoding.unZigZag(reader.readVarLong());
+            boolean point = reader.readByte() == POINT;
+            for (int d = 0; d < dimensions; d++)
+            {
+                lowerBits[d] ^= reader.readXor(width);
+            }
+            ArrayList<Bounds> bounds = new ArrayList<>(dimensions);
+            for (int d = 0; d < dimensions; d++)
+            {
+                double lower = DeltaEncoding.coordinate(lowerBits[d], width);
+                double upper = point ? lower : DeltaEncoding.coordinate(lowerBits[d] ^ reader.readXor(width), width);
+                bounds.add(new Bounds(lower, upper));
+            }
+            if(width == DeltaEncoding.FLOAT_WIDTH)
+                entries.add(new Float32LeafEntry(recordID, dataFileBlockID, bounds));
+            else
+                entries.add(new LeafEntry(recordID, dataFileBlockID, bounds));
+        }
+        Node node = new Node(RStarTree.getLeafLevel(), entries);
+        node.setBlockID(blockID);
+        return node;
+    }
+}
@@ -0,0 +1,177 @@
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * This class is the compressed block format of the datafile.
+ * The records of a block are sorted by their ID and written with DeltaEncoding: every ID as its difference from the
+ * previous one and every coordinate as the XOR with the previous record's coordinate in the same dimension.
+ * Every RESTART_INTERVAL records the differences start over, and a directory keeps the ID and the position of the
+ * first record of every such group, so a single record is found by decoding only its own group.
+ *
+ * @author Akompian Georgios
+ */
+class CompressedRecordPage implements Serializable {
+    private static final int RESTART_INTERVAL = 16; // The records of every group that is decoded on its own
+    private final int dimensions; // The dimensions of the records
+    private final int width; // The bytes of every coordinate, 8 for doubles or 4 for floats
+    private final int size; // The number of records in the block
+    private final long[] groupFirstIds; // The ID of the first record of every group
+    private final int[] groupPositions; // The position in data of the first record of every group
+    private final byte[] data; // The encoded records
+
+    /**
+     * The constructor of the compressed page, used by encode.
+     *
+     * @param dimensions     The dimensions of the records.
+     * @param width          The bytes of every coordinate.
+     * @param size           The number of records.
+     * @param groupFirstIds  The ID of the first record of every group.
+     * @param groupPositions The position of the first record of every group.
+     * @param data           The encoded records.
+     */
+    private CompressedRecordPage(int dimensions, int width, int size, long[] groupFirstIds, int[] groupPositions, byte[] data) {
+        this.dimensions = dimensions;
+        this.width = width;
+        this.size = size;
+        this.groupFirstIds = groupFirstIds;
+        this.groupPositions = groupPositions;
+        this.data = data;
+    }
+
+    /**
+     * This method compresses the records of a datafile block.
+     *
+     * @param records            The records of the block, in any order.
+     * @param dimensions         The dimensions of the records.
+     * @param float32Coordinates True if the records keep their coordinates as floats.
+     * @return The compressed page.
+     */
+    static CompressedRecordPage encode(ArrayList<Record> records, int dimensions, boolean float32Coordinates) {
+        ArrayList<Record> sortedRecords = new ArrayList<>(records);
+        sortedRecords.sort(Comparator.comparingLong(Record::getId));
+        int width = float32Coordinates ? DeltaEncoding.FLOAT_WIDTH : DeltaEncoding.DOUBLE_WIDTH;
+        int groups = (sortedRecords.size() + RESTART_INTERVAL - 1) / RESTART_INTERVAL;
+        long[] groupFirstIds = new long[groups];
+        int[] groupPositions = new int[groups];
+        long[] previousBits = new long[dimensions];
+        long previousId = 0;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int r = 0; r < sortedRecords.size(); r++) {
+            Record record = sortedRecords.get(r);
+            if (r % RESTART_INTERVAL == 0) {
+                // The first record of a group keeps its ID in the directory and its coordinates are XORed with zero
+                groupFirstIds[r / RESTART_INTERVAL] = record.getId();
+                groupPositions[r / RESTART_INTERVAL] = out.size();
+                previousId = record.getId();
+                Arrays.fill(previousBits, 0);
+            } else {
+                DeltaEncoding.writeVarLong(out, record.getId() - previousId);
+                previousId = record.getId();
+            }
+            for (int d = 0; d < dimensions; d++) {
+                long bits = DeltaEncoding.coordinateBits(record.getCoordinate(d), width);
+                DeltaEncoding.writeXor(out, bits ^ previousBits[d], width);
+                previousBits[d] = bits;
+            }
+        }
+        return new CompressedRecordPage(dimensions, width, sortedRecords.size(), groupFirstIds, groupPositions, out.toByteArray());
+    }
+
+    /**
+     * Calculates the most bytes a record can take in a compressed page, directory included.
+     *
+     * @param dimensions         The dimensions of the records.
+     * @param float32Coordinates True if the records keep their coordinates as floats.
+     * @return The maximum bytes of a record.
+     */
+    static int maxRecordLength(int dimensions, boolean float32Coordinates) {
+        int width = float32Coordinates ? DeltaEncoding.FLOAT_WIDTH : DeltaEncoding.DOUBLE_WIDTH;
+        // Every record may be the first of its group, with a long and an int in the directory
+        return Math.max(DeltaEncoding.maxVarLongLength(), Long.BYTES + Integer.BYTES) + dimensions * DeltaEncoding.maxXorLength(width);
+    }
+
+    /**
+     * This method turns the compressed page back into the records of the block, sorted by their ID.
+     *
+     * @return The records of the block.
+     */
+    ArrayList<Record> decode() {
+        ArrayList<Record> records = new ArrayList<>(size);
+        for (int group = 0; group < groupFirstIds.length; group++)
+            decodeGroup(group, records);
+        return records;
+    }
+
+    /**
+     * Finds a single record of the block, decoding only the group it belongs to.
+     *
+     * @param recordId The ID of the record.
+     * @return The record, or null if it is not in the block.
+     */
+    Record find(long recordId) {
+        // The last group whose first ID is not bigger than the record's ID
+        int low = 0;
+        int high = groupFirstIds.length - 1;
+        int group = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (groupFirstIds[middle] <= recordId) {
+                group = middle;
+                low = middle + 1;
+            } else
+                high = middle - 1;
+        }
+        if (group == -1)
+            return null;
+        ArrayList<Record> records = new ArrayList<>(RESTART_INTERVAL);
+        decodeGroup(group, records);
+        for (Record record : records) {
+            if (record.getId() == recordId)
+                return record;
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the records of a group.
+     *
+     * @param group   The index of the group.
+     * @param records The list the records are added to.
+     */
+    private void decodeGroup(int group, ArrayList<Record> records) {
+        DeltaEncoding.Reader reader = new DeltaEncoding.Reader(data, groupPositions[group]);
+        int groupSize = Math.min(RESTART_INTERVAL, size - group * RESTART_INTERVAL);
+        long[] previousBits = new long[dimensions];
+        long id = groupFirstIds[group];
+        for (int r = 0; r < groupSize; r++) {
+            if (r > 0)
+                id += reader.readVarLong();
+            for (int d = 0; d < dimensions; d++)
+                previousBits[d] ^= reader.readXor(width);
+            records.add(createRecord(id, previousBits));
+        }
+    }
+
+    /**
+     * Creates a record of the page's precision from the bits of its coordinates.
+     *
+     * @param id   The ID of the record.
+     * @param bits The bits of every coordinate.
+     * @return The record.
+     */
+    private Record createRecord(long id, long[] bits) {
+        if (width == DeltaEncoding.FLOAT_WIDTH) {
+            float[] coordinates = new float[dimensions];
+            for (int d = 0; d < dimensions; d++)
+                coordinates[d] = (float) DeltaEncoding.coordinate(bits[d], width);
+            return new Record(id, coordinates);
+        }
+        ArrayList<Double> coordinates = new ArrayList<>(dimensions);
+        for (int d = 0; d < dimensions; d++)
+            coordinates.add(DeltaEncoding.coordinate(bits[d], width));
+        return new Record(id, coordinates);
+    }
+}
@@ -0,0 +1,299 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * CsvChunkParser parses the records of a newline-aligned chunk of a csv file, read straight from the bytes of the
+ * memory-mapped file, so that the chunks of a big file can be parsed in parallel.
+ * The numbers are parsed without String.split or Double.parseDouble: a coordinate of at most 18 significant digits
+ * whose value is exact in a double and whose power of ten is within 10^22 (every coordinate of ordinary data) is
+ * computed with a single multiplication or division of two exact doubles, which is correctly rounded and so the same
+ * as the value of Double.parseDouble. Only other coordinates, such as ones in hexadecimal or with many digits, are
+ * copied to a string and parsed with Double.parseDouble.
+ *
+ * @author Akompian Georgios
+ */
+class CsvChunkParser {
+    private static final int MAX_FAST_DIGITS = 18; // The most significant digits that fit in a long in every case
+    private static final long MAX_EXACT_MANTISSA = 1L << 53; // The mantissas below are exact as doubles
+    private static final double[] POWERS_OF_TEN = new double[23]; // The powers of ten that are exact as doubles
+    private static final int BOUNDARY_SEARCH_BYTES = 4096; // The bytes read at a time while searching for the end of a line
+    private final ByteBuffer chunk; // The bytes of the chunk, from its start to its end
+    private final int dataDimensions; // The number of coordinates of every record
+    private final boolean float32Coordinates; // True to keep the coordinates of the records as floats
+    private final byte delimiter; // The separator of the values of a line
+    private final long chunkStart; // The offset of the chunk in the file, used in the error messages
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int p = 1; p < POWERS_OF_TEN.length; p++)
+            POWERS_OF_TEN[p] = POWERS_OF_TEN[p - 1] * 10;
+    }
+
+    /**
+     * Constructs a parser of a chunk of a memory-mapped csv file.
+     *
+     * @param channel            The channel of the csv file.
+     * @param chunkStart         The offset of the first byte of the chunk, the start of a line.
+     * @param chunkEnd           The offset after the last byte of the chunk, the start of a line or the end of the file.
+     * @param dataDimensions     The number of coordinates of every record.
+     * @param float32Coordinates True to keep the coordinates of the records as floats.
+     * @throws IOException If the chunk cannot be mapped.
+     */
+    CsvChunkParser(FileChannel channel, long chunkStart, long chunkEnd, int dataDimensions, boolean float32Coordinates) throws IOException {
+        MappedByteBuffer mappedChunk = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart);
+        this.chunk = mappedChunk;
+        this.dataDimensions = dataDimensions;
+        this.float32Coordinates = float32Coordinates;
+        this.delimiter = (byte) FilesHelper.getDELIMITER().charAt(0);
+        this.chunkStart = chunkStart;
+    }
+
+    /**
+     * Divides a csv file into chunks of about the given size, every one starting at the start of a line.
+     *
+     * @param channel   The channel of the csv file.
+     * @param chunkSize The size of the chunks in bytes, the last one being smaller.
+     * @return The offsets of the chunks' starts, followed by the size of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    static ArrayList<Long> findChunkBoundaries(FileChannel channel, long chunkSize) throws IOException {
+        long fileSize = channel.size();
+        ArrayList<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SEARCH_BYTES);
+        long position = chunkSize;
+        while (position < fileSize) {
+            // The chunk ends after the first newline from its nominal end
+            long lineEnd = -1;
+            while (lineEnd == -1 && position < fileSize) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                for (int b = 0; b < read && lineEnd == -1; b++) {
+                    if (buffer.get(b) == '\n')
+                        lineEnd = position + b + 1;
+                }
+                position += Math.max(read, 0);
+            }
+            if (lineEnd == -1 || lineEnd >= fileSize)
+                break;
+            boundaries.add(lineEnd);
+            position = lineEnd + chunkSize;
+        }
+        boundaries.add(fileSize);
+        return boundaries;
+    }
+
+    /**
+     * Parses all the records of the chunk, skipping the empty lines.
+     *
+     * @return The records in the order of their lines.
+     * @throws IllegalArgumentException If a line is not an ID followed by a coordinate for each dimension.
+     */
+    ArrayList<Record> parseRecords() {
+        ArrayList<Record> records = new ArrayList<>();
+        int limit = chunk.limit();
+        int position = 0;
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && chunk.get(lineEnd) != '\n')
+                lineEnd++;
+            // Lines ending in "\r\n" are parsed without the '\r'
+            int valuesEnd = lineEnd > position && chunk.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            if (valuesEnd > position)
+                records.add(parseRecord(position, valuesEnd));
+            position = lineEnd + 1;
+        }
+        return records;
+    }
+
+    /**
+     * Parses the record of a line, with the same result as the Record(String) constructor.
+     *
+     * @param lineStart The position of the line's first byte in the chunk.
+     * @param lineEnd   The position after the line's last value.
+     * @return The record.
+     * @throws IllegalArgumentException If the line is not an ID followed by a coordinate for each dimension.
+     */
+    private Record parseRecord(int lineStart, int lineEnd) {
+        int[] valueBounds = new int[2 * (dataDimensions + 1)];
+        int values = 0;
+        int valueStart = lineStart;
+        for (int b = lineStart; b <= lineEnd; b++) {
+            if (b == lineEnd || chunk.get(b) == delimiter) {
+                if (values == dataDimensions + 1)
+                    throw lineFormatException(lineStart);
+                valueBounds[2 * values] = valueStart;
+                valueBounds[2 * values + 1] = b;
+                values++;
+                valueStart = b + 1;
+            }
+        }
+        if (values != dataDimensions + 1)
+            throw lineFormatException(lineStart);
+
+        long id = parseLong(valueBounds[0], valueBounds[1], lineStart);
+        if (float32Coordinates) {
+            float[] floatCoordinates = new float[dataDimensions];
+            for (int d = 0; d < dataDimensions; d++)
+                floatCoordinates[d] = (float) parseDouble(valueBounds[2 * d + 2], valueBounds[2 * d + 3], lineStart);
+            return new Record(id, floatCoordinates);
+        }
+        ArrayList<Double> coordinates = new ArrayList<>(dataDimensions);
+        for (int d = 0; d < dataDimensions; d++)
+            coordinates.add(parseDouble(valueBounds[2 * d + 2], valueBounds[2 * d + 3], lineStart));
+        return new Record(id, coordinates);
+    }
+
+    /**
+     * Parses an ID, a decimal integer with an optional sign.
+     *
+     * @param start     The position of the value's first byte.
+     * @param end       The position after the value's last byte.
+     * @param lineStart The position of the line's first byte, used in the error message.
+     * @return The ID.
+     * @throws IllegalArgumentException If the value is not an integer that fits in a long.
+     */
+    private long parseLong(int start, int end, int lineStart) {
+        int b = start;
+        boolean negative = b < end && chunk.get(b) == '-';
+        if (b < end && (chunk.get(b) == '-' || chunk.get(b) == '+'))
+            b++;
+        if (b == end)
+            throw lineFormatException(lineStart);
+        long value = 0;
+        for (; b < end; b++) {
+            int digit = chunk.get(b) - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10)
+                throw lineFormatException(lineStart);
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a coordinate, in decimal notation with an optional sign, fraction and exponent, on the fast path
+     * if its value is exactly computed there and with Double.parseDouble otherwise.
+     *
+     * @param start     The position of the value's first byte.
+     * @param end       The position after the value's last byte.
+     * @param lineStart The position of the line's first byte, used in the error message.
+     * @return The coordinate, the same as Double.parseDouble returns for it.
+     * @throws IllegalArgumentException If the value is not a number.
+     */
+    private double parseDouble(int start, int end, int lineStart) {
+        int b = start;
+        boolean negative = b < end && chunk.get(b) == '-';
+        if (b < end && (chunk.get(b) == '-' || chunk.get(b) == '+'))
+            b++;
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int exponent = 0; // The power of ten that the mantissa is multiplied by
+        boolean fraction = false;
+        boolean fast = true;
+        for (; b < end; b++) {
+            byte character = chunk.get(b);
+            if (character >= '0' && character <= '9') {
+                digits++;
+                if (mantissa == 0 && character == '0') {
+                    // Leading zeros are not significant
+                    if (fraction)
+                        exponent--;
+                    continue;
+                }
+                if (++significantDigits > MAX_FAST_DIGITS) {
+                    fast = false;
+                    break;
+                }
+                mantissa = mantissa * 10 + (character - '0');
+                if (fraction)
+                    exponent--;
+            } else if (character == '.' && !fraction)
+                fraction = true;
+            else if ((character == 'e' || character == 'E') && digits > 0) {
+                int exponentValue = parseExponent(b + 1, end);
+                if (exponentValue == Integer.MIN_VALUE)
+                    fast = false;
+                else
+                    exponent += exponentValue;
+                b = end;
+                break;
+            } else {
+                fast = false;
+                break;
+            }
+        }
+        if (fast && digits > 0 && mantissa < MAX_EXACT_MANTISSA) {
+            double value;
+            if (mantissa == 0)
+                value = 0;
+            else if (exponent >= 0 && exponent < POWERS_OF_TEN.length)
+                value = mantissa * POWERS_OF_TEN[exponent];
+            else if (exponent < 0 && -exponent < POWERS_OF_TEN.length)
+                value = mantissa / POWERS_OF_TEN[-exponent];
+            else
+                return parseDoubleSlowly(start, end, lineStart);
+            return negative ? -value : value;
+        }
+        return parseDoubleSlowly(start, end, lineStart);
+    }
+
+    /**
+     * Parses the exponent of a coordinate, a decimal integer with an optional sign.
+     *
+     * @param start The position of the exponent's first byte.
+     * @param end   The position after the exponent's last byte.
+     * @return The exponent, or Integer.MIN_VALUE if it is not an integer of at most 4 digits.
+     */
+    private int parseExponent(int start, int end) {
+        int b = start;
+        boolean negative = b < end && chunk.get(b) == '-';
+        if (b < end && (chunk.get(b) == '-' || chunk.get(b) == '+'))
+            b++;
+        if (b == end || end - b > 4)
+            return Integer.MIN_VALUE;
+        int value = 0;
+        for (; b < end; b++) {
+            int digit = chunk.get(b) - '0';
+            if (digit < 0 || digit > 9)
+                return Integer.MIN_VALUE;
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a coordinate with Double.parseDouble, for the values that the fast path does not compute exactly.
+     *
+     * @param start     The position of the value's first byte.
+     * @param end       The position after the value's last byte.
+     * @param lineStart The position of the line's first byte, used in the error message.
+     * @return The coordinate.
+     * @throws IllegalArgumentException If the value is not a number.
+     */
+    private double parseDoubleSlowly(int start, int end, int lineStart) {
+        byte[] value = new byte[end - start];
+        for (int b = start; b < end; b++)
+            value[b - start] = chunk.get(b);
+        try {
+            return Double.parseDouble(new String(value, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw lineFormatException(lineStart);
+        }
+    }
+
+    /**
+     * Creates the exception of a line that is not in the format of a record.
+     *
+     * @param lineStart The position of the line's first byte in the chunk.
+     * @return The exception.
+     */
+    private IllegalArgumentException lineFormatException(int lineStart) {
+        return new IllegalArgumentException("The line at byte " + (chunkStart + lineStart) + " of the csv file is not a Long ID followed by "
+                + dataDimensions + " coordinates");
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.ByteArrayOutputStream;
+
+/**
+ * DeltaEncoding holds the byte level encodings used by the compressed blocks of the files.
+ * Integers (IDs and their differences) are written as variable length integers of 7 bits per byte,
+ * and coordinates are written as the XOR of their bits with the previous coordinate of the same dimension,
+ * keeping only the bytes between the leading and trailing zero bytes of the XOR.
+ * Neighbouring records have similar coordinates, so their XOR starts with the same sign and exponent bits (zeros).
+ *
+ * @author Akompian Georgios
+ */
+final class DeltaEncoding {
+    static final int DOUBLE_WIDTH = 8; // The bytes of a double coordinate
+    static final int FLOAT_WIDTH = 4; // The bytes of a float coordinate
+
+    private DeltaEncoding() {}
+
+    /**
+     * Calculates the most bytes that writeVarLong writes for any value.
+     *
+     * @return The maximum length of a variable length integer.
+     */
+    static int maxVarLongLength() {return 10;}
+
+    /**
+     * Calculates the most bytes that writeXor writes for a coordinate of the given width.
+     *
+     * @param width The bytes of the coordinate, 8 for doubles or 4 for floats.
+     * @return The maximum length of an encoded coordinate.
+     */
+    static int maxXorLength(int width) {return width + 1;}
+
+    /**
+     * Writes a non-negative (or unsigned) long with 7 bits in every byte, the high bit marking that more bytes follow.
+     *
+     * @param out   The stream the bytes are written to.
+     * @param value The value to be written.
+     */
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Maps a signed difference to an unsigned value, so that small negative differences are also written in few bytes.
+     *
+     * @param value The signed value.
+     * @return The zigzag encoded value.
+     */
+    static long zigZag(long value) {return (value << 1) ^ (value >> 63);}
+
+    /**
+     * Reverses zigZag.
+     *
+     * @param value The zigzag encoded value.
+     * @return The signed value.
+     */
+    static long unZigZag(long value) {return (value >>> 1) ^ -(value & 1);}
+
+    /**
+     * Returns the raw bits of a coordinate in the given width.
+     *
+     * @param coordinate The coordinate.
+     * @param width      8 for the bits of the double, 4 for the bits of the float.
+     * @return The bits of the coordinate, in the low bytes for floats.
+     */
+    static long coordinateBits(double coordinate, int width) {
+        if (width == FLOAT_WIDTH)
+            return Float.floatToRawIntBits((float) coordinate) & 0xFFFFFFFFL;
+        return Double.doubleToRawLongBits(coordinate);
+    }
+
+    /**
+     * Reverses coordinateBits.
+     *
+     * @param bits  The bits of the coordinate.
+     * @param width 8 for a double, 4 for a float.
+     * @return The coordinate.
+     */
+    static double coordinate(long bits, int width) {
+        if (width == FLOAT_WIDTH)
+            return Float.intBitsToFloat((int) bits);
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Writes the XOR of the bits of two coordinates: a header byte with the number of leading and trailing zero bytes,
+     * followed by the bytes between them, most significant first. Equal coordinates take only the header byte.
+     *
+     * @param out   The stream the bytes are written to.
+     * @param xor   The XOR of the bits of the two coordinates.
+     * @param width The bytes of the coordinates, 8 for doubles or 4 for floats.
+     */
+    static void writeXor(ByteArrayOutputStream out, long xor, int width) {
+        if (xor == 0) {
+            out.write(width << 4);
+            return;
+        }
+        int leadingZeroBytes = (Long.numberOfLeadingZeros(xor) - (64 - 8 * width)) / 8;
+        int trailingZeroBytes = Long.numberOfTrailingZeros(xor) / 8;
+        out.write((leadingZeroBytes << 4) | trailingZeroBytes);
+        for (int b = width - 1 - leadingZeroBytes; b >= trailingZeroBytes; b--)
+            out.write((int) (xor >>> (8 * b)));
+    }
+
+    /**
+     * Reads the values written by DeltaEncoding from a byte array, keeping its position between calls.
+     */
+    static class Reader {
+        private final byte[] data; // The encoded bytes
+        private int position; // The position of the next byte to be read
+
+        /**
+         * Constructs a reader that starts at the given position.
+         *
+         * @param data     The encoded bytes.
+         * @param position The position of the first byte to be read.
+         */
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        /**
+         * Reads a value written by writeVarLong.
+         *
+         * @return The value.
+         */
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        /**
+         * Reads a value written by writeXor.
+         *
+         * @param width The bytes of the coordinates, 8 for doubles or 4 for floats.
+         * @return The XOR of the bits of the two coordinates.
+         */
+        long readXor(int width) {
+            int header = data[position++] & 0xFF;
+            int leadingZeroBytes = header >>> 4;
+            int trailingZeroBytes = header & 0x0F;
+            long xor = 0;
+            for (int b = width - 1 - leadingZeroBytes; b >= trailingZeroBytes; b--)
+                xor |= (long) (data[position++] & 0xFF) << (8 * b);
+            return xor;
+        }
+
+        /**
+         * Reads a single byte.
+         *
+         * @return The unsigned value of the byte.
+         */
+        int readByte() {return data[position++] & 0xFF;}
+    }
+}
@@ -121,6 +121,7 @@ public class Entry implements Serializable {
      * @return True if this entry is in the skyline, false otherwise.
      */
     public boolean isSkyline(ArrayList<Double> queryPoint) {
+        BoundingBox boundingBox = getBoundingBox();
         if (boundingBox == null) {
             // Entry does not have a bounding box, cannot determine skyline status
             return false;
@@ -149,13 +150,14 @@ public class Entry implements Serializable {
      */
 
     public boolean dominates(Entry otherEntry) {
+        BoundingBox boundingBox = getBoundingBox();
         if (boundingBox == null || otherEntry == null) {
             // Entries without bounding boxes cannot dominate
             return false;
         }
 
         ArrayList<Double> thisCenter = boundingBox.getCenter();
-        ArrayList<Double> otherCenter = otherEntry.boundingBox.getCenter();
+        ArrayList<Double> otherCenter = otherEntry.getBoundingBox().getCenter();
 
         boolean dominatesInAllDimensions = true;
         boolean equalsInAnyDimension = false;
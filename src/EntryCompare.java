@@ -7,30 +7,6 @@ import java.util.List;
  * @author Christos Kontos
  */
 public class EntryCompare {
-    /**
-     * A comparator class for comparing entries based on their bounding box bounds in a specific dimension.
-     */
-    static class EntryBoundCompare implements Comparator<Entry> {
-        private HashMap<Entry, Double> entryCompareMap;
-
-        EntryBoundCompare(List<Entry> entries, int dimension, boolean compareByUpper) {
-            this.entryCompareMap = new HashMap<>();
-            if (compareByUpper) {
-                for (Entry entry : entries) {
-                    entryCompareMap.put(entry, entry.getBoundingBox().getBounds().get(dimension).getUpper());
-                }
-            } else {
-                for (Entry entry : entries) {
-                    entryCompareMap.put(entry, entry.getBoundingBox().getBounds().get(dimension).getLower());
-                }
-            }
-        }
-
-        public int compare(Entry entry1, Entry entry2) {
-            return Double.compare(entryCompareMap.get(entry1), entryCompareMap.get(entry2));
-        }
-    }
-
     /**
      * A comparator class for comparing entries based on their distance from a specified point.
      */
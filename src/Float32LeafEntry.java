@@ -0,0 +1,77 @@
+import java.util.ArrayList;
+
+/**
+ * This class implements the leaf entries of an index that stores its coordinates as floats (float32).
+ * The bounds of the record are kept in float arrays instead of a BoundingBox of Bounds objects, and a point record
+ * keeps a single array for both bounds, so a leaf block fits about twice as many entries.
+ * The bounds are rounded outward to floats, so the stored box always contains the exact one and no query misses a record.
+ * The BoundingBox is only built when it is first asked for and is not written to the indexfile.
+ * @author Christos Kontos
+ */
+public class Float32LeafEntry extends LeafEntry {
+    private final float[] lower; // The lower bound of the record in every dimension, rounded down
+    private final float[] upper; // The upper bound of the record in every dimension, rounded up, the same array as lower for a point
+    private transient BoundingBox boundingBox; // The bounding box built from the float bounds
+
+    /**
+     * The constructor for the float leaf entry of the RStarTree.
+     * @param recordID the recordID of the record being represented by the entry.
+     * @param dataFileBlockID the dataFileBlockID of the block the record is in.
+     * @param recordBounds the bounds of the record.
+     */
+    Float32LeafEntry(long recordID, long dataFileBlockID, ArrayList<Bounds> recordBounds)
+    {
+        super(recordID, dataFileBlockID);
+        int dimensions = recordBounds.size();
+        float[] lower = new float[dimensions];
+        float[] upper = new float[dimensions];
+        boolean point = true;
+        for (int d = 0; d < dimensions; d++)
+        {
+            lower[d] = floorFloat(recordBounds.get(d).getLower());
+            upper[d] = ceilFloat(recordBounds.get(d).getUpper());
+            point &= lower[d] == upper[d];
+        }
+        this.lower = lower;
+        this.upper = point ? lower : upper;
+    }
+
+    /**
+     * Gets the bounding box of the entry, built from the float bounds the first time it is asked for.
+     * @return The bounding box of the entry.
+     */
+    @Override
+    public BoundingBox getBoundingBox()
+    {
+        if(boundingBox == null)
+        {
+            ArrayList<Bounds> bounds = new ArrayList<>(lower.length);
+            for (int d = 0; d < lower.length; d++)
+                bounds.add(new Bounds(lower[d], upper[d]));
+            boundingBox = new BoundingBox(bounds);
+        }
+        return boundingBox;
+    }
+
+    /**
+     * Rounds a value to the largest float that is not bigger than it.
+     * @param value the value.
+     * @return the float value rounded down.
+     */
+    static float floorFloat(double value)
+    {
+        float rounded = (float) value;
+        return rounded > value ? Math.nextDown(rounded) : rounded;
+    }
+
+    /**
+     * Rounds a value to the smallest float that is not smaller than it.
+     * @param value the value.
+     * @return the float value rounded up.
+     */
+    static float ceilFloat(double value)
+    {
+        float rounded = (float) value;
+        return rounded < value ? Math.nextUp(rounded) : rounded;
+    }
+}
@@ -5,6 +5,7 @@
 class IdDistancePair {
     private long recordId; // The id of the record
     private double distanceFromItem; // The distance from an item
+    private LeafEntry leafEntry; // The leaf entry of the record, null if the pair was made from the ID only
 
     /**
      * Constructs an IdDistancePair with the specified record ID and distance from an item.
@@ -16,6 +17,24 @@ class IdDistancePair {
         this.distanceFromItem = distanceFromItem;
     }
 
+    /**
+     * Constructs an IdDistancePair for the record of the given leaf entry, keeping the entry.
+     * @param leafEntry         The leaf entry of the record.
+     * @param distanceFromItem  The distance from the specific item.
+     */
+    IdDistancePair(LeafEntry leafEntry, double distanceFromItem) {
+        this(leafEntry.getRecordID(), distanceFromItem);
+        this.leafEntry = leafEntry;
+    }
+
+    /**
+     * Get the leaf entry of the record stored in this pair.
+     * @return The leaf entry, or null if the pair was made from the ID only.
+     */
+    LeafEntry getLeafEntry() {
+        return leafEntry;
+    }
+
     /**
      * Get the record ID stored in this pair.
      * @return The record ID.
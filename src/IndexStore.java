@@ -0,0 +1,1645 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The IndexStore class holds the files and the metadata of a single R* tree index:
+ * the paths of its csv, datafile and indexfile, the data dimensions, the block size, the node capacities
+ * the block format of the inner nodes (full entries or QuantizedNode), the precision of the coordinates (double or float)
+ * and the block format of the datafile and the leaves (serialized objects or CompressedRecordPage and CompressedLeafNode).
+ * Every RStarTree works on its own IndexStore, so more than one tree (each one with different dimensions)
+ * can be used in the same JVM.
+ *
+ * @author Akompian Georgios
+ */
+class IndexStore {
+    private final String pathToCsv; // The path of the csv file with the initial data
+    private final String pathToDatafile; // The path of the datafile
+    private final String pathToIndexfile; // The path of the indexfile
+    private final String pathToRecordIndexfile; // The path of the record location index of the datafile
+    private static final int MIN_ENTRIES_IN_NODE = 4; // The fewest entries a block must fit for the node split to work
+    private static final long INGEST_CHUNK_SIZE = 8 * 1024 * 1024; // The bytes of the csv file parsed by a thread at a time
+    private static final long READER_KEEP_ALIVE_SECONDS = 30; // The idle time after which a thread of a read queue ends
+    private int blockSize; // The size of each block of the files, read from the metadata block of existing files
+    private int dataDimensions; // The data's used dimensions
+    private int totalBlocksInDatafile;  // The total blocks written in the datafile
+    private int totalBlocksInIndexFile; // The total blocks written in the indexfile
+    private int totalLevelsOfTreeIndex; // The total levels of the R* tree
+    private int maxEntriesInNode; // The maximum entries that a Node can fit, calculated when the dimensions are known
+    private int maxRecordsInBlock; // The maximum records that a datafile block can fit, calculated when the dimensions are known
+    private int innerNodeQuantizationBits; // The bits of the codes of the inner nodes' child bounds, 0 if inner nodes are not compressed
+    private int maxEntriesInInnerNode; // The maximum entries that an inner Node can fit if it differs from a leaf's, calculated when the dimensions are known
+    private boolean float32Coordinates; // True if the records and the leaf entries keep their coordinates as floats
+    private boolean pageCompression; // True if the datafile blocks and the leaves are compressed
+    private final LongAdder indexBlocksRead = new LongAdder(); // The total blocks read from the indexfile, used for counting node accesses
+    private boolean readOnly; // True if the files are only opened and read, never created or changed
+    private volatile ReadQueue readQueue = new ReadQueue(1, null); // The read queue of the queries, replaced as a whole when its depth is set
+    private RecordLocationIndex recordLocationIndex; // The index from the ID of every record to its block and slot in the datafile
+    private static final LongAdder INDEX_BLOCKS_READ = MetricsRegistry.getInstance().counter("indexstore_index_blocks_read_total", "The blocks read from the indexfiles.");
+    private static final LongAdder DATA_BLOCKS_READ = MetricsRegistry.getInstance().counter("indexstore_data_blocks_read_total", "The blocks read from the datafiles.");
+    private static final LongAdder INDEX_BLOCKS_WRITTEN = MetricsRegistry.getInstance().counter("indexstore_index_blocks_written_total", "The blocks written to the indexfiles.");
+    private static final LongAdder DATA_BLOCKS_WRITTEN = MetricsRegistry.getInstance().counter("indexstore_data_blocks_written_total", "The blocks written to the datafiles.");
+    private static final LatencyHistogram INDEX_BLOCK_READ_LATENCY = MetricsRegistry.getInstance().histogram("indexstore_index_block_read_seconds", "The latency of reading and decoding an indexfile block.");
+    private static final LatencyHistogram DATA_BLOCK_READ_LATENCY = MetricsRegistry.getInstance().histogram("indexstore_data_block_read_seconds", "The latency of reading and decoding a datafile block.");
+
+    /**
+     * Constructs an IndexStore that uses the default files of the application.
+     */
+    IndexStore() {
+        this(FilesHelper.getPathToCsv(), FilesHelper.PATH_TO_DATAFILE, FilesHelper.PATH_TO_INDEXFILE);
+    }
+
+    /**
+     * Constructs an IndexStore with the given file paths and the default block size.
+     *
+     * @param pathToCsv       The path to the CSV file containing the initial data.
+     * @param pathToDatafile  The path to the datafile.
+     * @param pathToIndexfile The path to the indexfile.
+     */
+    IndexStore(String pathToCsv, String pathToDatafile, String pathToIndexfile) {
+        this(pathToCsv, pathToDatafile, pathToIndexfile, FilesHelper.BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs an IndexStore with the given file paths and block size.
+     * The block size is only used when new files are created, existing files keep the one saved in their metadata block.
+     *
+     * @param pathToCsv       The path to the CSV file containing the initial data.
+     * @param pathToDatafile  The path to the datafile.
+     * @param pathToIndexfile The path to the indexfile.
+     * @param blockSize       The size of each block of the new files in bytes.
+     */
+    IndexStore(String pathToCsv, String pathToDatafile, String pathToIndexfile, int blockSize) {
+        this.pathToCsv = pathToCsv;
+        this.pathToDatafile = pathToDatafile;
+        this.pathToIndexfile = pathToIndexfile;
+        this.pathToRecordIndexfile = FilesHelper.getPathToRecordIndexfile(pathToDatafile);
+        setBlockSize(blockSize);
+    }
+
+    /**
+     * Retrieves the path to the CSV file containing the initial data.
+     *
+     * @return The path to the CSV file.
+     */
+    String getPathToCsv() {return pathToCsv;}
+
+    /**
+     * Retrieves the path to the datafile.
+     *
+     * @return The path to the datafile.
+     */
+    String getPathToDatafile() {return pathToDatafile;}
+
+    /**
+     * Retrieves the path to the indexfile.
+     *
+     * @return The path to the indexfile.
+     */
+    String getPathToIndexfile() {return pathToIndexfile;}
+
+    /**
+     * Retrieves the size of the blocks of the files.
+     *
+     * @return The block size in bytes.
+     */
+    int getBlockSize() {return blockSize;}
+
+    /**
+     * Sets the block size that will be used for new files and resets the capacities that depend on it.
+     * Existing files keep the block size saved in their metadata block.
+     *
+     * @param blockSize The size of each block in bytes.
+     */
+    void setBlockSize(int blockSize) {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("The block size must be a positive integer");
+        if (this.blockSize != blockSize) {
+            maxEntriesInNode = 0;
+            maxRecordsInBlock = 0;
+            maxEntriesInInnerNode = 0;
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Retrieves the number of dimensions in the data.
+     *
+     * @return The number of data dimensions.
+     */
+    int getDataDimensions() {return dataDimensions;}
+
+    /**
+     * Retrieves the total number of blocks in the data file.
+     *
+     * @return The total blocks in the data file.
+     */
+    int getTotalBlocksInDatafile() {return totalBlocksInDatafile;}
+
+    /**
+     * Retrieves the total number of blocks in the index file.
+     *
+     * @return The total blocks in the index file.
+     */
+    int getTotalBlocksInIndexFile() {return totalBlocksInIndexFile;}
+
+    /**
+     * Retrieves the total levels (height) of the R* tree index.
+     *
+     * @return The total levels of the tree index.
+     */
+    int getTotalLevelsOfTreeIndex() {return totalLevelsOfTreeIndex;}
+
+    /**
+     * Retrieves the maximum number of entries (M) that a node of the index can fit.
+     *
+     * @return The maximum entries of a node.
+     */
+    int getMaxEntriesInNode() {
+        if (maxEntriesInNode == 0) {
+            maxEntriesInNode = pageCompression ? calculateMaxEntriesInCompressedLeaf() : calculateMaxEntriesInNode(float32Coordinates);
+            if (maxEntriesInNode < MIN_ENTRIES_IN_NODE)
+                throw new IllegalStateException("A block of " + blockSize + " bytes cannot fit the minimum of " + MIN_ENTRIES_IN_NODE + " entries of a node");
+        }
+        return maxEntriesInNode;
+    }
+
+    /**
+     * Retrieves the minimum number of entries (m) that a node of the index must have, set to 40% of M.
+     *
+     * @return The minimum entries of a node.
+     */
+    int getMinEntriesInNode() {return (int) (0.4 * getMaxEntriesInNode());}
+
+    /**
+     * Retrieves the bits of the codes that the inner nodes store the bounds of their children in.
+     *
+     * @return 8 or 16, or 0 if the inner nodes are stored with full entries.
+     */
+    int getInnerNodeQuantizationBits() {return innerNodeQuantizationBits;}
+
+    /**
+     * Sets the bits of the codes that the inner nodes of new indexfiles will store the bounds of their children in,
+     * and resets the inner node capacity. Existing indexfiles keep the format saved in their metadata block.
+     *
+     * @param innerNodeQuantizationBits 8 or 16 for compressed inner nodes, or 0 for full entries.
+     */
+    void setInnerNodeQuantizationBits(int innerNodeQuantizationBits) {
+        if (innerNodeQuantizationBits != 0 && !QuantizedNode.isSupported(innerNodeQuantizationBits))
+            throw new IllegalArgumentException("The bounds of the inner nodes can only be stored in 8 or 16 bits, or 0 for no compression");
+        if (this.innerNodeQuantizationBits != innerNodeQuantizationBits)
+            maxEntriesInInnerNode = 0;
+        this.innerNodeQuantizationBits = innerNodeQuantizationBits;
+    }
+
+    /**
+     * Retrieves the maximum number of entries that an inner node of the index can fit,
+     * which is bigger than that of a leaf if the inner nodes are compressed,
+     * and smaller if only the leaves keep their coordinates as floats or are compressed.
+     *
+     * @return The maximum entries of an inner node.
+     */
+    int getMaxEntriesInInnerNode() {
+        if (innerNodeQuantizationBits == 0 && !float32Coordinates && !pageCompression)
+            return getMaxEntriesInNode();
+        if (maxEntriesInInnerNode == 0) {
+            // Inner nodes that are not compressed keep full entries, with the capacity of double leaves
+            maxEntriesInInnerNode = innerNodeQuantizationBits == 0 ? calculateMaxEntriesInNode(false) : calculateMaxEntriesInInnerNode();
+            if (maxEntriesInInnerNode < MIN_ENTRIES_IN_NODE)
+                throw new IllegalStateException("A block of " + blockSize + " bytes cannot fit the minimum of " + MIN_ENTRIES_IN_NODE + " entries of a node");
+        }
+        return maxEntriesInInnerNode;
+    }
+
+    /**
+     * Retrieves the minimum number of entries that an inner node of the index must have, set to 40% of its maximum.
+     *
+     * @return The minimum entries of an inner node.
+     */
+    int getMinEntriesInInnerNode() {return (int) (0.4 * getMaxEntriesInInnerNode());}
+
+    /**
+     * Checks if the records of the datafile and the leaf entries of the indexfile keep their coordinates as floats.
+     *
+     * @return True for float (float32) coordinates, false for double coordinates.
+     */
+    boolean isFloat32Coordinates() {return float32Coordinates;}
+
+    /**
+     * Sets if the records and the leaf entries of new files will keep their coordinates as floats,
+     * and resets the capacities that depend on it. Existing files keep the precision saved in their metadata block.
+     *
+     * @param float32Coordinates True for float (float32) coordinates, false for double coordinates.
+     */
+    void setFloat32Coordinates(boolean float32Coordinates) {
+        if (this.float32Coordinates != float32Coordinates) {
+            maxEntriesInNode = 0;
+            maxRecordsInBlock = 0;
+            maxEntriesInInnerNode = 0;
+        }
+        this.float32Coordinates = float32Coordinates;
+    }
+
+    /**
+     * Checks if the blocks of the datafile and the leaves of the indexfile are compressed.
+     *
+     * @return True for CompressedRecordPage and CompressedLeafNode blocks, false for serialized objects.
+     */
+    boolean isPageCompression() {return pageCompression;}
+
+    /**
+     * Sets if the blocks of the datafile and the leaves of the indexfile of new files will be compressed,
+     * and resets the capacities that depend on it. Existing files keep the format saved in their metadata block.
+     *
+     * @param pageCompression True for compressed blocks, false for serialized objects.
+     */
+    void setPageCompression(boolean pageCompression) {
+        if (this.pageCompression != pageCompression) {
+            maxEntriesInNode = 0;
+            maxRecordsInBlock = 0;
+            maxEntriesInInnerNode = 0;
+        }
+        this.pageCompression = pageCompression;
+    }
+
+    /**
+     * Creates the leaf entry of a record with the precision of the index.
+     *
+     * @param recordID        The ID of the record.
+     * @param dataFileBlockID The datafile block the record is in.
+     * @param recordBounds    The bounds of the record.
+     * @return A Float32LeafEntry for float coordinates, a LeafEntry otherwise.
+     */
+    LeafEntry createLeafEntry(long recordID, long dataFileBlockID, ArrayList<Bounds> recordBounds) {
+        if (float32Coordinates)
+            return new Float32LeafEntry(recordID, dataFileBlockID, recordBounds);
+        return new LeafEntry(recordID, dataFileBlockID, recordBounds);
+    }
+
+    /**
+     * Retrieves the maximum number of entries of a node of the given level.
+     *
+     * @param level The level of the node.
+     * @return The maximum entries of a leaf for the leaf level, or of an inner node otherwise.
+     */
+    int getMaxEntriesInNode(int level) {
+        return level == RStarTree.getLeafLevel() ? getMaxEntriesInNode() : getMaxEntriesInInnerNode();
+    }
+
+    /**
+     * Retrieves the maximum number of records that a datafile block can fit.
+     *
+     * @return The maximum records in a block.
+     */
+    int getMaxRecordsInBlock() {
+        if (maxRecordsInBlock == 0)
+            maxRecordsInBlock = calculateMaxRecordsInBlock();
+        return maxRecordsInBlock;
+    }
+
+    /**
+     * Retrieves the total number of blocks (nodes) read from the index file since the store was created.
+     *
+     * @return The total index file blocks read.
+     */
+    long getIndexBlocksRead() {return indexBlocksRead.sum();}
+
+    /**
+     * The read queue of the asynchronous indexfile reads: the most blocks that a query reads at a time and the threads
+     * that read them. It never changes, so a query that takes the read queue when it starts uses the same depth and
+     * threads until it ends, even if the depth of the store is set in the meantime.
+     */
+    static class ReadQueue {
+        private final int depth; // The most indexfile blocks a query reads at a time, 1 if it reads them one at a time
+        private final ExecutorService readers; // The threads reading the blocks asynchronously, null if the depth is 1
+
+        /**
+         * Constructs a read queue.
+         *
+         * @param depth   The most blocks a query reads at a time.
+         * @param readers The threads reading the blocks, null if the depth is 1.
+         */
+        private ReadQueue(int depth, ExecutorService readers) {
+            this.depth = depth;
+            this.readers = readers;
+        }
+
+        /**
+         * Retrieves the most indexfile blocks that a query reads at a time.
+         *
+         * @return The read queue depth, 1 if the blocks are read one at a time.
+         */
+        int getDepth() {return depth;}
+    }
+
+    /**
+     * Retrieves the current read queue, which a query takes once when it starts.
+     *
+     * @return The read queue.
+     */
+    ReadQueue getReadQueue() {return readQueue;}
+
+    /**
+     * Retrieves the most indexfile blocks that a query reads at a time.
+     *
+     * @return The read queue depth, 1 if the blocks are read one at a time.
+     */
+    int getReadQueueDepth() {return readQueue.getDepth();}
+
+    /**
+     * Checks if the files are only opened and read.
+     *
+     * @return True if the store is read only.
+     */
+    boolean isReadOnly() {return readOnly;}
+
+    /**
+     * Sets whether the files are only opened and read, such as the files of an index that is only queried or that
+     * is on a read only mount. A read only store must be set before its files are initialized: it opens the existing
+     * datafile and indexfile without creating or changing them, and fails instead of building the record location
+     * index of a datafile that has none.
+     *
+     * @param readOnly True to only open and read the files.
+     */
+    void setReadOnly(boolean readOnly) {this.readOnly = readOnly;}
+
+    /**
+     * Sets the most indexfile blocks that a query reads at a time. With a depth above 1, a range query reads the
+     * children of a node asynchronously, as soon as it finds that they overlap its window, so a cold query keeps
+     * the device busy with that many reads instead of one. The reads are made by a pool of as many threads.
+     * The queries already running keep the read queue they started with. The threads of that queue are not shut
+     * down, so the reads of those queries are not rejected, but end once they have been idle for a while.
+     *
+     * @param readQueueDepth The read queue depth, 1 for reading the blocks one at a time.
+     * @throws IllegalArgumentException If the depth is not positive.
+     */
+    void setReadQueueDepth(int readQueueDepth) {
+        if (readQueueDepth < 1)
+            throw new IllegalArgumentException("The read queue depth must be a positive number");
+        ThreadPoolExecutor readers = null;
+        if (readQueueDepth > 1) {
+            // The threads do not keep the application running once the queries are done
+            readers = new ThreadPoolExecutor(readQueueDepth, readQueueDepth, READER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+                Thread thread = new Thread(task, "IndexStore-reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            readers.allowCoreThreadTimeOut(true);
+        }
+        readQueue = new ReadQueue(readQueueDepth, readers);
+    }
+
+    /**
+     * Sets the data dimensions of the store and resets the capacities that depend on them.
+     *
+     * @param dataDimensions The number of dimensions in the data.
+     */
+    private void setDataDimensions(int dataDimensions) {
+        if (dataDimensions <= 0)
+            throw new IllegalStateException("The number of data dimensions must be a positive integer");
+        if (this.dataDimensions != dataDimensions) {
+            maxEntriesInNode = 0;
+            maxRecordsInBlock = 0;
+            maxEntriesInInnerNode = 0;
+        }
+        this.dataDimensions = dataDimensions;
+    }
+
+    // Metadata methods
+
+    /**
+     * Reads the metadata from the given file path.
+     * Reads the start of Block 0, which contains metadata information about the file.
+     * Only the serialized metadata is read, since the block size of the file is itself part of the metadata.
+     * @param pathToFile The path to the file containing metadata.
+     * @return An ArrayList<Integer> containing metadata values.
+     */
+    private ArrayList<Integer> readMetaDataBlock(String pathToFile){
+        try {
+            // Open the file for reading
+            RandomAccessFile raf = new RandomAccessFile(new File(pathToFile), "r");
+
+            // Serialize an integer to determine the size of the 'goodPutLength' in bytes
+            byte[] goodPutLengthInBytes = FilesHelper.serialize(new Random().nextInt());
+
+            // Read the serialized 'goodPutLength' from the start of the block
+            raf.readFully(goodPutLengthInBytes);
+
+            // Deserialize the 'goodPutLength' to obtain the actual data size
+            byte[] dataInBlock = new byte[(Integer) FilesHelper.deserialize(goodPutLengthInBytes)];
+
+            // Read the metadata values that follow the 'goodPutLength'
+            raf.readFully(dataInBlock);
+            raf.close();
+
+            // Deserialize the 'dataInBlock' to obtain the ArrayList of Integer metadata values
+            return (ArrayList<Integer>) FilesHelper.deserialize(dataInBlock);
+
+        } catch (Exception e) {
+            // Handle any exceptions that may occur during the process
+            e.printStackTrace();
+        }
+
+        // Return null in case of errors
+        return null;
+    }
+
+
+    /**
+     * Updates the metadata block in the specified file (block size, data dimensions, total block0 blocks),
+     * counting one more block in the file, the block that is written.
+     *
+     * @param pathToFile The path to the file to update metadata for.
+     */
+    private void updateMetaDataBlock(String pathToFile) {
+        if (pathToFile.equals(pathToDatafile))
+            totalBlocksInDatafile++;
+        else if (pathToFile.equals(pathToIndexfile))
+            totalBlocksInIndexFile++;
+        writeMetaDataBlock(pathToFile);
+    }
+
+    /**
+     * Writes the metadata block of the specified file with the current total blocks of the file,
+     * such as once after many blocks were written and counted.
+     *
+     * @param pathToFile The path to the file to write the metadata of.
+     */
+    private void writeMetaDataBlock(String pathToFile) {
+        try {
+            // Create an ArrayList to store metadata values
+            ArrayList<Integer> dataFileMetaData = new ArrayList<>();
+
+            // Add metadata values to the ArrayList
+            dataFileMetaData.add(dataDimensions); // Data dimensions
+            dataFileMetaData.add(blockSize); // Block size
+
+            // Depending on the file type, update different metadata values
+            if (pathToFile.equals(pathToDatafile)) {
+                // Add the total blocks in the data file
+                dataFileMetaData.add(totalBlocksInDatafile);
+
+                // Add the precision of the coordinates
+                dataFileMetaData.add(float32Coordinates ? 1 : 0);
+
+                // Add the block format of the datafile and the leaves
+                dataFileMetaData.add(pageCompression ? 1 : 0);
+            } else if (pathToFile.equals(pathToIndexfile)) {
+                // Add the total blocks in the index file
+                dataFileMetaData.add(totalBlocksInIndexFile);
+
+                // Add the total levels of the tree index
+                dataFileMetaData.add(totalLevelsOfTreeIndex);
+
+                // Add the block format of the inner nodes
+                dataFileMetaData.add(innerNodeQuantizationBits);
+
+                // Add the precision of the coordinates
+                dataFileMetaData.add(float32Coordinates ? 1 : 0);
+
+                // Add the block format of the datafile and the leaves
+                dataFileMetaData.add(pageCompression ? 1 : 0);
+            }
+
+            // Serialize the metadata ArrayList and its size to bytes
+            byte[] metaDataInBytes = FilesHelper.serialize(dataFileMetaData);
+            // Calculate the length of 'metaDataInBytes'
+            int metaDataLength = metaDataInBytes.length;
+
+            // Check if the metadata length exceeds the block size
+            if (metaDataLength > blockSize) {
+                throw new IllegalArgumentException("Metadata length exceeds block size");
+            }
+            byte[] goodPutLengthInBytes = FilesHelper.serialize(metaDataLength);
+
+            // Create a byte array to hold the entire block
+            byte[] block = new byte[blockSize];
+
+            // Copy the serialized metadata and its length to the 'block'
+            System.arraycopy(goodPutLengthInBytes, 0, block, 0, goodPutLengthInBytes.length);
+            System.arraycopy(metaDataInBytes, 0, block, goodPutLengthInBytes.length, metaDataInBytes.length);
+
+            // Open the specified file for writing
+            RandomAccessFile f = new RandomAccessFile(new File(pathToFile), "rw");
+
+            // Write the updated metadata block to the file
+            f.write(block);
+            f.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+
+
+    // Datafile methods
+    /**
+     * Reads and then adds the data from the csv file to the datafile.
+     *
+     * @param dataDimensions    The number of dimensions in the data.
+     * @param makeNewDataFile   A flag indicating whether to create a new datafile or use an existing one.
+     * @throws IllegalStateException If the store is read only and the datafile or its record location index cannot be opened.
+     */
+    void initializeDataFile(int dataDimensions, boolean makeNewDataFile) {
+        if (readOnly && (makeNewDataFile || !Files.exists(Paths.get(pathToDatafile))))
+            throw new IllegalStateException("The read only datafile " + pathToDatafile + " must already exist");
+        try {
+            // Checks if a datafile already exists, initialize the metaData from the metadata block (block 0 of the file)
+            // If it already exists, initialize the variables with the values of the dimensions, block size, and total blocks of the data file
+            if (!makeNewDataFile && Files.exists(Paths.get(pathToDatafile))) {
+                ArrayList<Integer> dataFileMetaData = readMetaDataBlock(pathToDatafile);
+                if (dataFileMetaData == null)
+                    throw new IllegalStateException("Could not read datafile's Meta Data Block properly");
+                setDataDimensions(dataFileMetaData.get(0));
+                setBlockSize(dataFileMetaData.get(1));
+                totalBlocksInDatafile = dataFileMetaData.get(2);
+                if (totalBlocksInDatafile < 0)
+                    throw new IllegalStateException("The total blocks of the datafile cannot be a negative number");
+
+                // Datafiles written before the float coordinates have no precision value and use doubles
+                setFloat32Coordinates(dataFileMetaData.size() > 3 && dataFileMetaData.get(3) == 1);
+
+                // Datafiles written before the compressed blocks have no format value and use serialized records
+                setPageCompression(dataFileMetaData.size() > 4 && dataFileMetaData.get(4) == 1);
+
+                // Datafiles written before the record location index get one built from their blocks,
+                // unless the files are read only
+                recordLocationIndex = new RecordLocationIndex(pathToRecordIndexfile, blockSize);
+                if (!recordLocationIndex.open()) {
+                    if (readOnly)
+                        recordLocationIndex = null;
+                    else
+                        buildRecordLocationIndex();
+                }
+            }
+            // Else initialize a new datafile
+            else {
+                Files.deleteIfExists(Paths.get(pathToDatafile)); // Resetting/Deleting dataFile data
+                totalBlocksInDatafile = 0;
+                setDataDimensions(dataDimensions);
+                updateMetaDataBlock(pathToDatafile);
+
+                // Create a list to hold record bytes for the current block
+                ArrayList<Record> blockRecords = new ArrayList<>();
+                BufferedReader csvReader = new BufferedReader(new FileReader(pathToCsv)); // BufferedReader used to read the data from the CSV file
+                String stringRecord; // String used to read each line (row) of the CSV file
+                int recordsToRead = getRecordsToReadPerBlock();
+
+                while ((stringRecord = csvReader.readLine()) != null) {
+                    if (blockRecords.size() == recordsToRead) {
+                        // Write the block to the data file
+                        blockRecords = writeDataFileBlockFromStart(blockRecords);
+                    }
+                    blockRecords.add(new Record(stringRecord, this.dataDimensions, float32Coordinates));
+                }
+                csvReader.close();
+
+                while (blockRecords.size() > 0) {
+                    // Write the remaining records as the final blocks
+                    blockRecords = writeDataFileBlockFromStart(blockRecords);
+                }
+
+                recordLocationIndex = new RecordLocationIndex(pathToRecordIndexfile, blockSize);
+                buildRecordLocationIndex();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        if (readOnly && recordLocationIndex == null)
+            throw new IllegalStateException("The read only datafile " + pathToDatafile + " could not be opened with its record location index " + pathToRecordIndexfile);
+    }
+
+    /**
+     * Creates a new datafile from the csv file, parsing the csv and assembling the datafile blocks in parallel.
+     * The csv file is memory-mapped and divided into newline-aligned chunks, which worker threads parse with a
+     * CsvChunkParser and pack into blocks, while this thread appends the blocks of the chunks to the datafile in the
+     * order of the chunks. At most two chunks per thread are parsed ahead of the writes, which bounds the memory used.
+     * Every chunk starts a new block, so its last block may not be full.
+     * The records per second of the ingestion are printed when it completes.
+     *
+     * @param dataDimensions The number of dimensions in the data.
+     * @param threads        The threads parsing the csv file.
+     * @throws IllegalArgumentException If the threads are not positive.
+     */
+    void initializeDataFileInParallel(int dataDimensions, int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("The threads of the ingestion must be a positive number");
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try (FileChannel csvChannel = FileChannel.open(Paths.get(pathToCsv), StandardOpenOption.READ)) {
+            long startTime = System.nanoTime();
+            Files.deleteIfExists(Paths.get(pathToDatafile)); // Resetting/Deleting dataFile data
+            totalBlocksInDatafile = 0;
+            setDataDimensions(dataDimensions);
+            updateMetaDataBlock(pathToDatafile);
+            // The capacity is calculated once, before the workers use it
+            int recordsToRead = getRecordsToReadPerBlock();
+
+            ArrayList<Long> chunkBoundaries = CsvChunkParser.findChunkBoundaries(csvChannel, INGEST_CHUNK_SIZE);
+            ArrayDeque<Future<DataFileChunk>> parsedChunks = new ArrayDeque<>();
+            int nextChunk = 0;
+            int totalRecords = 0;
+            long[] recordIds = new long[1024];
+            int[] blockIds = new int[1024];
+            int[] slots = new int[1024];
+            try (BufferedOutputStream datafile = new BufferedOutputStream(new FileOutputStream(pathToDatafile, true))) {
+                while (nextChunk < chunkBoundaries.size() - 1 || !parsedChunks.isEmpty()) {
+                    while (nextChunk < chunkBoundaries.size() - 1 && parsedChunks.size() < 2 * threads) {
+                        long chunkStart = chunkBoundaries.get(nextChunk);
+                        long chunkEnd = chunkBoundaries.get(nextChunk + 1);
+                        parsedChunks.add(workers.submit(() -> makeDataFileChunk(csvChannel, chunkStart, chunkEnd, recordsToRead)));
+                        nextChunk++;
+                    }
+                    DataFileChunk chunk = parsedChunks.poll().get();
+                    if (totalRecords + chunk.recordIds.length > recordIds.length) {
+                        int length = Math.max(2 * recordIds.length, totalRecords + chunk.recordIds.length);
+                        recordIds = Arrays.copyOf(recordIds, length);
+                        blockIds = Arrays.copyOf(blockIds, length);
+                        slots = Arrays.copyOf(slots, length);
+                    }
+                    int record = 0;
+                    for (int b = 0; b < chunk.blocks.size(); b++) {
+                        datafile.write(chunk.blocks.get(b));
+                        // The metadata block is block 0, so the block written is the one numbered by the total blocks
+                        for (int slot = 0; slot < chunk.recordsPerBlock[b]; slot++) {
+                            recordIds[totalRecords] = chunk.recordIds[record++];
+                            blockIds[totalRecords] = totalBlocksInDatafile;
+                            slots[totalRecords] = slot;
+                            totalRecords++;
+                        }
+                        totalBlocksInDatafile++;
+                    }
+                    DATA_BLOCKS_WRITTEN.add(chunk.blocks.size());
+                }
+            }
+            // The metadata is written once for all the blocks
+            writeMetaDataBlock(pathToDatafile);
+
+            recordLocationIndex = new RecordLocationIndex(pathToRecordIndexfile, blockSize);
+            recordLocationIndex.build(recordIds, blockIds, slots, totalRecords);
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.println("Ingested " + totalRecords + " records into " + (totalBlocksInDatafile - 1) + " blocks with " + threads
+                    + " threads in " + String.format("%.3f", seconds) + " s (" + String.format("%.0f", totalRecords / seconds) + " records/s)");
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * The datafile blocks of a chunk of the csv file, assembled by a worker thread of the parallel ingestion.
+     */
+    private static class DataFileChunk {
+        private final ArrayList<byte[]> blocks = new ArrayList<>(); // The blocks of the chunk, ready to be written
+        private int[] recordsPerBlock = new int[0]; // The number of records in every block
+        private long[] recordIds; // The IDs of the chunk's records, in the order of the blocks and of their slots
+    }
+
+    /**
+     * Appends the records of a delta csv file to the datafile, in new blocks after the existing ones, and adds their
+     * locations to the record location index, so the existing blocks are neither deleted nor rewritten.
+     *
+     * @param pathToDeltaCsv The path to the csv file with the new records.
+     * @param recordBlocks   The map that the datafile block of every appended record is put in.
+     * @return The appended records in the order of the csv file, or null if they could not be appended.
+     * @throws IllegalStateException If the datafile is not initialized.
+     */
+    ArrayList<Record> appendDataFile(String pathToDeltaCsv, IdentityHashMap<Record, Integer> recordBlocks) {
+        if (recordLocationIndex == null)
+            throw new IllegalStateException("The datafile must be initialized before records are appended to it");
+        try (FileChannel csvChannel = FileChannel.open(Paths.get(pathToDeltaCsv), StandardOpenOption.READ)) {
+            ArrayList<Record> records = new ArrayList<>();
+            ArrayList<Long> chunkBoundaries = CsvChunkParser.findChunkBoundaries(csvChannel, INGEST_CHUNK_SIZE);
+            for (int c = 0; c < chunkBoundaries.size() - 1; c++)
+                records.addAll(new CsvChunkParser(csvChannel, chunkBoundaries.get(c), chunkBoundaries.get(c + 1), dataDimensions, float32Coordinates).parseRecords());
+            return appendDataFileRecords(records, recordBlocks) ? records : null;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Appends records to the datafile, in new blocks after the existing ones written sequentially,
+     * and adds their locations to the record location index.
+     *
+     * @param records      The records, in the order they are written.
+     * @param recordBlocks The map that the datafile block of every appended record is put in.
+     * @return True if the records were appended, false if they could not be written.
+     * @throws IllegalStateException If the datafile is not initialized.
+     */
+    boolean appendDataFileRecords(ArrayList<Record> records, IdentityHashMap<Record, Integer> recordBlocks) {
+        if (recordLocationIndex == null)
+            throw new IllegalStateException("The datafile must be initialized before records are appended to it");
+        try {
+            DataFileChunk chunk = packDataFileChunk(records, getRecordsToReadPerBlock());
+            int[] blockIds = new int[records.size()];
+            int[] slots = new int[records.size()];
+            int record = 0;
+            try (BufferedOutputStream datafile = new BufferedOutputStream(new FileOutputStream(pathToDatafile, true))) {
+                for (int b = 0; b < chunk.blocks.size(); b++) {
+                    datafile.write(chunk.blocks.get(b));
+                    for (int slot = 0; slot < chunk.recordsPerBlock[b]; slot++) {
+                        recordBlocks.put(records.get(record), totalBlocksInDatafile);
+                        blockIds[record] = totalBlocksInDatafile;
+                        slots[record++] = slot;
+                    }
+                    totalBlocksInDatafile++;
+                }
+            }
+            recordLocationIndex.insertAll(chunk.recordIds, blockIds, slots, records.size());
+            DATA_BLOCKS_WRITTEN.add(chunk.blocks.size());
+            // The metadata is written once for all the blocks
+            writeMetaDataBlock(pathToDatafile);
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Parses a chunk of the csv file and packs its records into datafile blocks, the same way initializeDataFile does.
+     *
+     * @param csvChannel    The channel of the csv file.
+     * @param chunkStart    The offset of the chunk's first line.
+     * @param chunkEnd      The offset after the chunk's last line.
+     * @param recordsToRead The records gathered before each block is packed.
+     * @return The blocks of the chunk.
+     * @throws IOException If the chunk cannot be read or the records cannot be serialized.
+     */
+    private DataFileChunk makeDataFileChunk(FileChannel csvChannel, long chunkStart, long chunkEnd, int recordsToRead) throws IOException {
+        return packDataFileChunk(new CsvChunkParser(csvChannel, chunkStart, chunkEnd, dataDimensions, float32Coordinates).parseRecords(), recordsToRead);
+    }
+
+    /**
+     * Packs records into datafile blocks, in their order, the same way initializeDataFile does.
+     *
+     * @param records       The records.
+     * @param recordsToRead The records gathered before each block is packed.
+     * @return The blocks of the records.
+     * @throws IOException If the records cannot be serialized.
+     */
+    private DataFileChunk packDataFileChunk(ArrayList<Record> records, int recordsToRead) throws IOException {
+        DataFileChunk chunk = new DataFileChunk();
+        chunk.recordIds = new long[records.size()];
+        for (int r = 0; r < records.size(); r++)
+            chunk.recordIds[r] = records.get(r).getId();
+        int packed = 0;
+        while (packed < records.size()) {
+            ArrayList<Record> blockRecords = new ArrayList<>(records.subList(packed, Math.min(records.size(), packed + recordsToRead)));
+            int recordsInBlock = countRecordsFittingInBlock(blockRecords);
+            chunk.blocks.add(makeDataFileBlock(new ArrayList<>(blockRecords.subList(0, recordsInBlock))));
+            if (chunk.blocks.size() > chunk.recordsPerBlock.length)
+                chunk.recordsPerBlock = Arrays.copyOf(chunk.recordsPerBlock, Math.max(16, 2 * chunk.recordsPerBlock.length));
+            chunk.recordsPerBlock[chunk.blocks.size() - 1] = recordsInBlock;
+            packed += recordsInBlock;
+        }
+        return chunk;
+    }
+
+    /**
+     * Calculates the records that are gathered before each datafile block is written. Compressed blocks fit as many
+     * records as their encoding allows, so more records than a block can fit (at least 1 byte for the ID and every
+     * coordinate) are gathered.
+     *
+     * @return The records gathered for every block.
+     */
+    private int getRecordsToReadPerBlock() {
+        return pageCompression ? blockSize / (1 + this.dataDimensions) : getMaxRecordsInBlock();
+    }
+
+    /**
+     * Creates the record location index of the datafile from the records of all its blocks.
+     */
+    private void buildRecordLocationIndex() {
+        int totalRecords = 0;
+        long[] recordIds = new long[1024];
+        int[] blockIds = new int[1024];
+        int[] slots = new int[1024];
+        for (int blockId = 1; blockId < totalBlocksInDatafile; blockId++) {
+            ArrayList<Record> records = readDataFileBlock(blockId);
+            if (records == null)
+                throw new IllegalStateException("Couldn't read records from datafile properly.");
+            if (totalRecords + records.size() > recordIds.length) {
+                int length = Math.max(2 * recordIds.length, totalRecords + records.size());
+                recordIds = Arrays.copyOf(recordIds, length);
+                blockIds = Arrays.copyOf(blockIds, length);
+                slots = Arrays.copyOf(slots, length);
+            }
+            for (int slot = 0; slot < records.size(); slot++) {
+                recordIds[totalRecords] = records.get(slot).getId();
+                blockIds[totalRecords] = blockId;
+                slots[totalRecords] = slot;
+                totalRecords++;
+            }
+        }
+        recordLocationIndex.build(recordIds, blockIds, slots, totalRecords);
+    }
+
+    /**
+     * Writes as many of the given records as a block fits, starting from the first one, as a new block of the datafile.
+     *
+     * @param records The records to be written, in the order of the csv file.
+     * @return The records that did not fit in the block.
+     * @throws IOException If the records cannot be serialized.
+     */
+    private ArrayList<Record> writeDataFileBlockFromStart(ArrayList<Record> records) throws IOException {
+        int recordsInBlock = countRecordsFittingInBlock(records);
+        writeDataFileBlock(new ArrayList<>(records.subList(0, recordsInBlock)));
+        return new ArrayList<>(records.subList(recordsInBlock, records.size()));
+    }
+
+    /**
+     * Counts how many of the given records, starting from the first one, fit in a datafile block.
+     *
+     * @param records The records to be written, in the order of the csv file.
+     * @return The number of records that fit.
+     * @throws IOException If the records cannot be serialized.
+     */
+    private int countRecordsFittingInBlock(ArrayList<Record> records) throws IOException {
+        int recordsInBlock = Math.min(records.size(), getMaxRecordsInBlock());
+        if (pageCompression) {
+            // The biggest number of records whose compressed page fits, found with a binary search
+            // between the records that always fit and all the given ones
+            int low = recordsInBlock + 1;
+            int high = records.size();
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (fitsInBlock(serializeDataFileBlock(new ArrayList<>(records.subList(0, middle))))) {
+                    recordsInBlock = middle;
+                    low = middle + 1;
+                } else
+                    high = middle - 1;
+            }
+        }
+        return recordsInBlock;
+    }
+
+    /**
+     * Checks if the given bytes fit in a block together with their length.
+     *
+     * @param bytes The serialized block data.
+     * @return True if they fit in a block of the store's block size.
+     * @throws IOException If the length cannot be serialized.
+     */
+    private boolean fitsInBlock(byte[] bytes) throws IOException {
+        return FilesHelper.serialize(bytes.length).length + bytes.length <= blockSize;
+    }
+
+    /**
+     * Serializes the records of a datafile block in the block format of the datafile.
+     *
+     * @param records The records of the block.
+     * @return The bytes of the block's records.
+     * @throws IOException If the records cannot be serialized.
+     */
+    private byte[] serializeDataFileBlock(ArrayList<Record> records) throws IOException {
+        if (pageCompression)
+            return FilesHelper.serialize(CompressedRecordPage.encode(records, dataDimensions, float32Coordinates));
+        return FilesHelper.serialize(records);
+    }
+
+    /**
+     * Calculates and returns an integer representing the maximum number of records
+     * a block of the store's block size can have.
+     * For compressed blocks it is the number of records that always fit, whatever their coordinates.
+     *
+     * @return The maximum number of records in a block.
+     */
+    private int calculateMaxRecordsInBlock() {
+        if (pageCompression) {
+            try {
+                byte[] emptyPageInBytes = serializeDataFileBlock(new ArrayList<>());
+                int freeBytes = blockSize - FilesHelper.serialize(blockSize).length - emptyPageInBytes.length;
+                return Math.max(0, freeBytes / CompressedRecordPage.maxRecordLength(dataDimensions, float32Coordinates));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return 0;
+            }
+        }
+        ArrayList<Record> blockRecords = new ArrayList<>();
+        int i;
+        for (i = 0; i < Integer.MAX_VALUE; i++) {
+            Record record;
+            if (float32Coordinates) {
+                record = new Record(0, new float[dataDimensions]);
+            } else {
+                ArrayList<Double> coordinateForEachDimension = new ArrayList<>();
+                for (int d = 0; d < dataDimensions; d++)
+                    coordinateForEachDimension.add(0.0);
+                record = new Record(0, coordinateForEachDimension);
+            }
+            blockRecords.add(record);
+            byte[] recordInBytes = new byte[0];
+            byte[] goodPutLengthInBytes = new byte[0];
+            try {
+                recordInBytes = FilesHelper.serialize(blockRecords);
+                goodPutLengthInBytes = FilesHelper.serialize(recordInBytes.length);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            if (goodPutLengthInBytes.length + recordInBytes.length > blockSize)
+                break;
+        }
+        return i;
+    }
+
+    /**
+     * Creates the bytes of a datafile block: the length of the serialized records followed by the records.
+     *
+     * @param records The records of the block.
+     * @return The block, of the store's block size.
+     * @throws IOException If the records cannot be serialized.
+     */
+    private byte[] makeDataFileBlock(ArrayList<Record> records) throws IOException {
+        // Serialize the list of records and its length to bytes
+        byte[] recordInBytes = serializeDataFileBlock(records);
+        byte[] goodPutLengthInBytes = FilesHelper.serialize(recordInBytes.length);
+
+        // Create a block of bytes to write
+        byte[] block = new byte[blockSize];
+
+        // Copy the length of the record to the block
+        System.arraycopy(goodPutLengthInBytes, 0, block, 0, goodPutLengthInBytes.length);
+
+        // Copy the serialized record data to the block
+        System.arraycopy(recordInBytes, 0, block, goodPutLengthInBytes.length, recordInBytes.length);
+        return block;
+    }
+
+    /**
+     * Used for writing and saving an array of records as a new block of bytes in the datafile.
+     *
+     * @param records The records to be written to the datafile.
+     */
+    void writeDataFileBlock(ArrayList<Record> records) {
+        try {
+            // Create a block of bytes to write
+            byte[] block = makeDataFileBlock(records);
+
+            // Open the data file in append mode
+            FileOutputStream fos = new FileOutputStream(pathToDatafile, true);
+            BufferedOutputStream bout = new BufferedOutputStream(fos);
+
+            // Write the block to the data file
+            bout.write(block);
+            bout.close();
+            DATA_BLOCKS_WRITTEN.increment();
+
+            // Update metadata block in the data file
+            updateMetaDataBlock(pathToDatafile);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads a specific block of data from the data file.
+     *
+     * @param blockId The identifier of the block to read.
+     * @return An ArrayList of Record objects containing the data from the specified block.
+     */
+    ArrayList<Record> readDataFileBlock(int blockId) {
+        return readDataFileBlock(blockId, null);
+    }
+
+    /**
+     * Reads a specific block of data from the data file, recording the read in the statistics of a query.
+     *
+     * @param blockId    The identifier of the block to read.
+     * @param statistics The statistics of the query the block is read for, or null.
+     * @return An ArrayList of Record objects containing the data from the specified block.
+     */
+    ArrayList<Record> readDataFileBlock(int blockId, QueryStatistics statistics) {
+        try {
+            long startReadTime = System.nanoTime();
+            // Open a RandomAccessFile for reading the data file.
+            RandomAccessFile raf = new RandomAccessFile(new File(pathToDatafile), "r");
+
+            // Create a FileInputStream and a BufferedInputStream to efficiently read from the file.
+            FileInputStream fis = new FileInputStream(raf.getFD());
+            BufferedInputStream bis = new BufferedInputStream(fis);
+
+            // Seek to the specified block within the file by calculating the byte offset.
+            raf.seek((long) blockId * blockSize);
+
+            // Read the block of data from the file into a byte array called 'block'.
+            byte[] block = new byte[blockSize];
+
+            // Ensure that the read block is of the expected size (blockSize).
+            if (bis.read(block, 0, blockSize) != blockSize) {
+                throw new IllegalStateException("Block size read was not of " + blockSize + " bytes");
+            }
+            raf.close();
+            long stopReadTime = System.nanoTime();
+
+            // Serialize a random integer to determine the size of the metadata (goodPutLength).
+            byte[] goodPutLengthInBytes = FilesHelper.serialize(new Random().nextInt());
+
+            // Copy the serialized metadata size from the beginning of the block.
+            System.arraycopy(block, 0, goodPutLengthInBytes, 0, goodPutLengthInBytes.length);
+
+            // Calculate the size of the serialized records based on goodPutLength.
+            byte[] recordsInBlock = new byte[(Integer) FilesHelper.deserialize(goodPutLengthInBytes)];
+
+            // Copy the serialized records from the block.
+            System.arraycopy(block, goodPutLengthInBytes.length, recordsInBlock, 0, recordsInBlock.length);
+
+            // Deserialize the recordsInBlock byte array into an ArrayList of Record objects, decoding it if it is compressed.
+            Object recordsInPage = FilesHelper.deserialize(recordsInBlock);
+            ArrayList<Record> records = recordsInPage instanceof CompressedRecordPage ? ((CompressedRecordPage) recordsInPage).decode() : (ArrayList<Record>) recordsInPage;
+            DATA_BLOCKS_READ.increment();
+            DATA_BLOCK_READ_LATENCY.record(System.nanoTime() - startReadTime);
+            if (statistics != null)
+                statistics.blockRead(false, recordsInBlock.length, stopReadTime - startReadTime, System.nanoTime() - stopReadTime);
+            return records;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null; // Return null in case of errors or if the block could not be read.
+    }
+
+    /**
+     * Reads a single record of the data file, found with the record location index.
+     *
+     * @param recordId The ID of the record.
+     * @return The record, or null if there is no record with the given ID.
+     */
+    Record readDataFileRecord(long recordId) {
+        return readDataFileRecord(recordId, null);
+    }
+
+    /**
+     * Reads a single record of the data file, found with the record location index,
+     * recording the read in the statistics of a query.
+     *
+     * @param recordId   The ID of the record.
+     * @param statistics The statistics of the query the record is read for, or null.
+     * @return The record, or null if there is no record with the given ID.
+     */
+    Record readDataFileRecord(long recordId, QueryStatistics statistics) {
+        int[] location = recordLocationIndex.find(recordId);
+        if (location == null)
+            return null;
+        if (pageCompression)
+            return readDataFileRecord(location[0], recordId, statistics);
+        ArrayList<Record> records = readDataFileBlock(location[0], statistics);
+        return records != null ? records.get(location[1]) : null;
+    }
+
+    /**
+     * Reads the records with the given IDs from the data file.
+     * The records are found with the record location index and are read in the order of their blocks,
+     * so every datafile block that holds any of them is read only once.
+     *
+     * @param recordIds The IDs of the records.
+     * @return The records in the order of the given IDs, without the IDs that have no record.
+     */
+    ArrayList<Record> readDataFileRecords(ArrayList<Long> recordIds) {
+        long[] ids = new long[recordIds.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = recordIds.get(i);
+        int[][] locations = recordLocationIndex.findAll(ids);
+
+        ArrayList<Integer> found = new ArrayList<>();
+        for (int i = 0; i < locations.length; i++) {
+            if (locations[i] != null)
+                found.add(i);
+        }
+        found.sort((a, b) -> locations[a][0] != locations[b][0] ? Integer.compare(locations[a][0], locations[b][0])
+                : Integer.compare(locations[a][1], locations[b][1]));
+
+        Record[] records = new Record[ids.length];
+        ArrayList<Record> recordsInBlock = null;
+        int blockOfRecords = -1;
+        for (int i : found) {
+            if (locations[i][0] != blockOfRecords) {
+                blockOfRecords = locations[i][0];
+                recordsInBlock = readDataFileBlock(blockOfRecords);
+                if (recordsInBlock == null)
+                    throw new IllegalStateException("Couldn't read records from datafile properly.");
+            }
+            records[i] = recordsInBlock.get(locations[i][1]);
+        }
+
+        ArrayList<Record> result = new ArrayList<>(found.size());
+        for (Record record : records) {
+            if (record != null)
+                result.add(record);
+        }
+        return result;
+    }
+
+    /**
+     * Reads a single record from a block of the data file.
+     * Compressed blocks only decode the group of records that the record belongs to.
+     *
+     * @param blockId    The identifier of the block the record is in.
+     * @param recordId   The ID of the record.
+     * @param statistics The statistics of the query the record is read for, or null.
+     * @return The record, or null if it is not in the block or the block could not be read.
+     */
+    Record readDataFileRecord(int blockId, long recordId, QueryStatistics statistics) {
+        try {
+            long startReadTime = System.nanoTime();
+            RandomAccessFile raf = new RandomAccessFile(new File(pathToDatafile), "r");
+            raf.seek((long) blockId * blockSize);
+            byte[] block = new byte[blockSize];
+            raf.readFully(block);
+            raf.close();
+            long stopReadTime = System.nanoTime();
+
+            byte[] goodPutLengthInBytes = FilesHelper.serialize(new Random().nextInt());
+            System.arraycopy(block, 0, goodPutLengthInBytes, 0, goodPutLengthInBytes.length);
+            byte[] recordsInBlock = new byte[(Integer) FilesHelper.deserialize(goodPutLengthInBytes)];
+            System.arraycopy(block, goodPutLengthInBytes.length, recordsInBlock, 0, recordsInBlock.length);
+
+            Object recordsInPage = FilesHelper.deserialize(recordsInBlock);
+            Record found = null;
+            if (recordsInPage instanceof CompressedRecordPage)
+                found = ((CompressedRecordPage) recordsInPage).find(recordId);
+            else {
+                for (Record record : (ArrayList<Record>) recordsInPage) {
+                    if (record.getId() == recordId) {
+                        found = record;
+                        break;
+                    }
+                }
+            }
+            DATA_BLOCKS_READ.increment();
+            DATA_BLOCK_READ_LATENCY.record(System.nanoTime() - startReadTime);
+            if (statistics != null)
+                statistics.blockRead(false, recordsInBlock.length, stopReadTime - startReadTime, System.nanoTime() - stopReadTime);
+            return found;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+
+
+
+    // Indexfile methods
+
+    /**
+     * Calculates and returns an estimate of the maximum number of entries (records) that can fit
+     * within a block of the store's block size.
+     *
+     * @param float32LeafEntries True to estimate it for Float32LeafEntry entries, false for LeafEntry entries.
+     * @return The estimated maximum number of entries in a block.
+     */
+    private int calculateMaxEntriesInNode(boolean float32LeafEntries) {
+        // Create an array to store random entries
+        ArrayList<Entry> randomEntries = new ArrayList<>();
+
+        int i; // Initialize a counter for the loop
+
+        // Start a loop to generate random entries until the cumulative size exceeds the block size
+        for (i = 0; i < Integer.MAX_VALUE; i++) {
+            // Create random bounds for each dimension and a child node ID
+            ArrayList<Bounds> boundsForEachDimension = new ArrayList<>();
+            for (int d = 0; d < dataDimensions; d++)
+                boundsForEachDimension.add(new Bounds(0.0, 0.0));
+
+            // Create a random leaf entry with bounds and child node ID
+            Entry entry1 = float32LeafEntries ? new Float32LeafEntry(new Random().nextLong(), new Random().nextLong(), boundsForEachDimension)
+                    : new LeafEntry(new Random().nextLong(), new Random().nextLong(), boundsForEachDimension);
+            entry1.setChildNodeBlockID(new Random().nextLong());
+            randomEntries.add(entry1);
+            // Serialize the entry into bytes
+            byte[] nodeInBytes = new byte[0];
+            byte[] goodPutBytes = new byte[0];
+            try {
+                nodeInBytes = FilesHelper.serialize(new Node(new Random().nextInt(), randomEntries));
+                goodPutBytes = FilesHelper.serialize(nodeInBytes.length);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+
+            // Check if adding this entry exceeds the block size
+            if (goodPutBytes.length + nodeInBytes.length > blockSize)
+                break;
+        }
+        return i;
+    }
+
+    /**
+     * Calculates the maximum number of entries that a compressed leaf can fit within a block of the store's block size,
+     * whatever the bounds of its entries.
+     *
+     * @return The maximum number of entries in a compressed leaf.
+     */
+    private int calculateMaxEntriesInCompressedLeaf() {
+        try {
+            byte[] emptyLeafInBytes = FilesHelper.serialize(CompressedLeafNode.encode(new Node(RStarTree.getLeafLevel()), dataDimensions, float32Coordinates));
+            int freeBytes = blockSize - FilesHelper.serialize(blockSize).length - emptyLeafInBytes.length;
+            // A node is written with M+1 entries before its overflow is treated, so M+1 entries must also fit in a block
+            return freeBytes / CompressedLeafNode.maxEntryLength(dataDimensions, float32Coordinates) - 1;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Calculates the maximum number of entries that a compressed inner node can fit
+     * within a block of the store's block size.
+     *
+     * @return The maximum number of entries in a compressed inner node.
+     */
+    private int calculateMaxEntriesInInnerNode() {
+        ArrayList<Entry> entries = new ArrayList<>();
+        int i;
+        for (i = 0; i < Integer.MAX_VALUE; i++) {
+            ArrayList<Bounds> boundsForEachDimension = new ArrayList<>();
+            for (int d = 0; d < dataDimensions; d++)
+                boundsForEachDimension.add(new Bounds(0.0, 0.0));
+            Entry entry = new Entry(new BoundingBox(boundsForEachDimension));
+            entry.setChildNodeBlockID(new Random().nextLong());
+            entries.add(entry);
+            byte[] nodeInBytes = new byte[0];
+            byte[] goodPutBytes = new byte[0];
+            try {
+                nodeInBytes = FilesHelper.serialize(QuantizedNode.encode(new Node(RStarTree.getLeafLevel() + 1, entries), innerNodeQuantizationBits));
+                goodPutBytes = FilesHelper.serialize(nodeInBytes.length);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            if (goodPutBytes.length + nodeInBytes.length > blockSize)
+                break;
+        }
+        // A node is written with M+1 entries before its overflow is treated, so M+1 entries must also fit in a block
+        return i - 1;
+    }
+
+    /**
+     * Serializes a node in the block format of its level: inner nodes are compressed if the index uses
+     * compressed inner nodes, and leaves are compressed if the index uses compressed pages.
+     *
+     * @param node The node to be serialized.
+     * @return The bytes of the node.
+     * @throws IOException If the node cannot be serialized.
+     */
+    private byte[] serializeNode(Node node) throws IOException {
+        if (innerNodeQuantizationBits != 0 && !node.isLeaf() && !node.getEntries().isEmpty())
+            return FilesHelper.serialize(QuantizedNode.encode(node, innerNodeQuantizationBits));
+        if (pageCompression && node.isLeaf())
+            return FilesHelper.serialize(CompressedLeafNode.encode(node, dataDimensions, float32Coordinates));
+        return FilesHelper.serialize(node);
+    }
+
+    /**
+     * Updates the metadata block in the indexFile with the new levels of the tree index.
+     * This method saves the current data dimensions, block size, total blocks in the index file,
+     * and the given total levels of the tree index.
+     *
+     * @param totalLevelsOfTreeIndex The new total levels (height) of the tree index.
+     */
+    private void updateLevelsOfTreeInIndexFile(int totalLevelsOfTreeIndex) {
+        try {
+            // Create an ArrayList to store metadata values
+            ArrayList<Integer> dataFileMetaData = new ArrayList<>();
+
+            // Add the current data dimensions, block size, total blocks in the index file,
+            // and the new total levels of the tree index
+            this.totalLevelsOfTreeIndex = totalLevelsOfTreeIndex;
+            dataFileMetaData.add(dataDimensions);
+            dataFileMetaData.add(blockSize);
+            dataFileMetaData.add(totalBlocksInIndexFile);
+            dataFileMetaData.add(totalLevelsOfTreeIndex);
+            dataFileMetaData.add(innerNodeQuantizationBits);
+            dataFileMetaData.add(float32Coordinates ? 1 : 0);
+            dataFileMetaData.add(pageCompression ? 1 : 0);
+
+            // Serialize the metadata into bytes
+            byte[] metaDataInBytes = FilesHelper.serialize(dataFileMetaData);
+
+            // Serialize the length of metadata bytes for later retrieval
+            byte[] goodPutLengthInBytes = FilesHelper.serialize(metaDataInBytes.length);
+
+            // Create a block of the store's block size and copy serialized metadata into it
+            byte[] block = new byte[blockSize];
+            System.arraycopy(goodPutLengthInBytes, 0, block, 0, goodPutLengthInBytes.length);
+            System.arraycopy(metaDataInBytes, 0, block, goodPutLengthInBytes.length, metaDataInBytes.length);
+
+            // Open the indexFile in read-write mode
+            RandomAccessFile f = new RandomAccessFile(new File(pathToIndexfile), "rw");
+
+            // Write the updated metadata block to the indexFile
+            f.write(block);
+            f.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Initializes the indexFile,which stores metadata for the R* tree index,
+     * calculating the total number of blocks in the index file and reads the metadata considering that the file exists
+     * If the file doesn't exist, a new indexFile with the specified data dimensions is created
+     *
+     * @param dataDimensions: The number of dimensions in the data.
+     * @param makeNewDataFile: A flag indicating whether to create a new indexFile or use an existing one.
+     * @throws IllegalStateException If the store is read only and the indexFile does not exist or a new one is asked for.
+     */
+    void initializeIndexFile(int dataDimensions, boolean makeNewDataFile) {
+        if (readOnly && (makeNewDataFile || !Files.exists(Paths.get(pathToIndexfile))))
+            throw new IllegalStateException("The read only indexFile " + pathToIndexfile + " must already exist");
+        try {
+            // Checks if an indexFile already exists, and if so, reads its metadata block (block 0).
+            // Initializes the data dimensions, block size, total blocks, and levels (height) of the R* tree index.
+            if (!makeNewDataFile && Files.exists(Paths.get(pathToIndexfile))) {
+                ArrayList<Integer> indexFileMetaData = readMetaDataBlock(pathToIndexfile);
+
+                // Ensure that the metadata block is read properly
+                if (indexFileMetaData == null)
+                    throw new IllegalStateException("Could not read indexFile's Meta Data Block properly");
+
+                // Set data dimensions, block size, total blocks, and levels of the tree index
+                setDataDimensions(indexFileMetaData.get(0));
+
+                // Use the block size the indexFile was created with, it has to match the datafile's if one is opened
+                if (totalBlocksInDatafile > 0 && indexFileMetaData.get(1) != blockSize)
+                    throw new IllegalStateException("The indexFile's block size of " + indexFileMetaData.get(1) + " bytes does not match the datafile's " + blockSize + " bytes");
+                setBlockSize(indexFileMetaData.get(1));
+
+                totalBlocksInIndexFile = indexFileMetaData.get(2);
+                if (totalBlocksInIndexFile  < 0)
+                    throw new IllegalStateException("The total blocks of the index file cannot be a negative number");
+
+                totalLevelsOfTreeIndex = indexFileMetaData.get(3);
+                if (totalLevelsOfTreeIndex  < 0)
+                    throw new IllegalStateException("The total index's tree levels cannot be a negative number");
+
+                // Indexfiles written before the compressed inner nodes have no format value and use full entries
+                setInnerNodeQuantizationBits(indexFileMetaData.size() > 4 ? indexFileMetaData.get(4) : 0);
+
+                // Indexfiles written before the float coordinates have no precision value and use doubles,
+                // the leaf entries have to be of the same precision as the records of the datafile if one is opened
+                boolean indexFileFloat32Coordinates = indexFileMetaData.size() > 5 && indexFileMetaData.get(5) == 1;
+                if (totalBlocksInDatafile > 0 && indexFileFloat32Coordinates != float32Coordinates)
+                    throw new IllegalStateException("The indexFile's coordinate precision does not match the datafile's");
+                setFloat32Coordinates(indexFileFloat32Coordinates);
+
+                // The same holds for the block format of the leaves, which is the format of the datafile blocks
+                boolean indexFilePageCompression = indexFileMetaData.size() > 6 && indexFileMetaData.get(6) == 1;
+                if (totalBlocksInDatafile > 0 && indexFilePageCompression != pageCompression)
+                    throw new IllegalStateException("The indexFile's block format does not match the datafile's");
+                setPageCompression(indexFilePageCompression);
+            }
+            // If the indexFile does not exist or a new one is to be created, initialize a new indexFile.
+            else {
+                // Reset or delete the existing index file data
+                Files.deleteIfExists(Paths.get(pathToIndexfile));
+                totalBlocksInIndexFile = 0;
+
+                // Set data dimensions and initialize the total levels of the tree index (root level)
+                setDataDimensions(dataDimensions);
+                totalLevelsOfTreeIndex = 1; // The root (top level) will always have the highest level
+
+                // Update the metadata block for the new indexFile
+                updateMetaDataBlock(pathToIndexfile);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Used for writing and saving the provided R* tree node as a new block of bytes in the indexfile
+     * This method works in an append-only fashion, adding the node to the end of the file.
+     * @param node: The R* tree node to be written to the indexFile.
+     */
+    void writeNewIndexFileBlock(Node node) {
+        try {
+            // Serialize the node into bytes
+            byte[] nodeInBytes = serializeNode(node);
+
+            // Serialize the length of the node's byte representation
+            byte[] goodPutLengthInBytes = FilesHelper.serialize(nodeInBytes.length);
+
+            // Create a byte block to store the serialized node
+            byte[] block = new byte[blockSize];
+
+            // Copy the length of the serialized node into the block
+            System.arraycopy(goodPutLengthInBytes, 0, block, 0, goodPutLengthInBytes.length);
+
+            // Copy the serialized node data into the block
+            System.arraycopy(nodeInBytes, 0, block, goodPutLengthInBytes.length, nodeInBytes.length);
+
+            // Open the indexFile for appending
+            FileOutputStream fos = new FileOutputStream(pathToIndexfile, true);
+            BufferedOutputStream bout = new BufferedOutputStream(fos);
+
+            // Write the block to the indexFile
+            bout.write(block);
+            bout.close();
+            INDEX_BLOCKS_WRITTEN.increment();
+
+            // Update the metadata block in the indexFile to reflect the changes
+            updateMetaDataBlock(pathToIndexfile);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Writes R* tree nodes as new blocks at the end of the indexfile, all through one stream and with one update of
+     * the metadata block, so that a packed tree is written sequentially.
+     * The block IDs of the nodes must already be set to the blocks they are written to, in the order of the nodes.
+     * If the blocks cannot be written, the indexFile is cut back to its blocks before the call and its metadata
+     * is left as it was.
+     * @param nodes: The R* tree nodes to be written to the indexFile.
+     * @return True if the nodes were written, false if they could not be written.
+     * @throws IllegalStateException If the block IDs of the nodes are not the next blocks of the indexFile.
+     */
+    boolean writeNewIndexFileBlocks(ArrayList<Node> nodes) {
+        for (int n = 0; n < nodes.size(); n++) {
+            if (nodes.get(n).getBlockID() != totalBlocksInIndexFile + n)
+                throw new IllegalStateException("The node of block " + nodes.get(n).getBlockID() + " is not the next block of the indexfile");
+        }
+        if (nodes.isEmpty())
+            return true;
+        int firstBlock = totalBlocksInIndexFile;
+        try (BufferedOutputStream bout = new BufferedOutputStream(new FileOutputStream(pathToIndexfile, true))) {
+            for (Node node : nodes) {
+                byte[] nodeInBytes = serializeNode(node);
+                byte[] goodPutLengthInBytes = FilesHelper.serialize(nodeInBytes.length);
+                byte[] block = new byte[blockSize];
+                System.arraycopy(goodPutLengthInBytes, 0, block, 0, goodPutLengthInBytes.length);
+                System.arraycopy(nodeInBytes, 0, block, goodPutLengthInBytes.length, nodeInBytes.length);
+                bout.write(block);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            // The blocks written before the failure are cut off, so the next blocks are appended at their offsets
+            try (RandomAccessFile f = new RandomAccessFile(new File(pathToIndexfile), "rw")) {
+                f.setLength((long) firstBlock * blockSize);
+            } catch (IOException truncateException) {
+                truncateException.printStackTrace();
+            }
+            return false;
+        }
+        totalBlocksInIndexFile += nodes.size();
+        INDEX_BLOCKS_WRITTEN.add(nodes.size());
+        // The metadata is written once for all the blocks
+        writeMetaDataBlock(pathToIndexfile);
+        return true;
+    }
+
+    /**
+     * Updates the indexFile block with the provided serialized R* tree node data.
+     * If the node's block ID is the root node's block ID and the given totalLevelsOfTreeIndex
+     * differs from the current totalLevelsOfTreeIndex, it saves the given totalLevelsOfTreeIndex.
+     * @param node: The R* tree node containing the updated data.
+     * @param totalLevelsOfTreeIndex: The total levels (height) of the R* tree index.
+     */
+    void updateIndexFileBlock(Node node, int totalLevelsOfTreeIndex) {
+        try {
+            // Serialize the provided R* tree node into bytes
+            byte[] nodeInBytes = serializeNode(node);
+
+            // Serialize the length of the serialized node
+            byte[] goodPutLengthInBytes = FilesHelper.serialize(nodeInBytes.length);
+
+            // Create a byte block to store the serialized node
+            byte[] block = new byte[blockSize];
+
+            // Copy the length of the serialized node into the block
+            System.arraycopy(goodPutLengthInBytes, 0, block, 0, goodPutLengthInBytes.length);
+
+            // Copy the serialized node data into the block
+            System.arraycopy(nodeInBytes, 0, block, goodPutLengthInBytes.length, nodeInBytes.length);
+
+            // Open the indexFile for read and write operations
+            RandomAccessFile f = new RandomAccessFile(new File(pathToIndexfile), "rw");
+
+            // Move the file pointer to the position of the node's block in the indexFile
+            f.seek(node.getBlockID() * blockSize);
+
+            // Write the block containing the updated node data to the indexFile
+            f.write(block);
+            f.close();
+            INDEX_BLOCKS_WRITTEN.increment();
+
+            // If the updated node is the root node and the totalLevelsOfTreeIndex has changed,
+            // update the totalLevelsOfTreeIndex in the indexFile
+            if (node.getBlockID() == RStarTree.getRootNodeBlockId() && this.totalLevelsOfTreeIndex != totalLevelsOfTreeIndex)
+                updateLevelsOfTreeInIndexFile(totalLevelsOfTreeIndex);
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Reads an indexFile block specified by its block ID and returns the deserialized R* tree node.
+     * @param blockId: The unique identifier of the block to be read from the indexFile.
+     * @return A deserialized R* tree node containing the data read from the block, or null if an error occurs.
+    */
+    Node readIndexFileBlock(long blockId) {
+        return readIndexFileBlock(blockId, null);
+    }
+
+    /**
+     * Reads an indexFile block asynchronously, on the threads of a read queue, recording the read in the statistics of a query.
+     * @param readQueue: The read queue that the query took when it started.
+     * @param blockId: The unique identifier of the block to be read from the indexFile.
+     * @param statistics: The statistics of the query the block is read for, or null.
+     * @return The future of the deserialized R* tree node, completed with null if an error occurs.
+     * @throws IllegalStateException If the depth of the read queue is 1, so there are no threads to read the block.
+     */
+    CompletableFuture<Node> readIndexFileBlockAsync(ReadQueue readQueue, long blockId, QueryStatistics statistics) {
+        if (readQueue.readers == null)
+            throw new IllegalStateException("The indexfile blocks are not read asynchronously with a read queue depth of 1");
+        return CompletableFuture.supplyAsync(() -> readIndexFileBlock(blockId, statistics), readQueue.readers);
+    }
+
+    /**
+     * Reads an indexFile block specified by its block ID, recording the read in the statistics of a query.
+     * @param blockId: The unique identifier of the block to be read from the indexFile.
+     * @param statistics: The statistics of the query the block is read for, or null.
+     * @return A deserialized R* tree node containing the data read from the block, or null if an error occurs.
+     */
+    Node readIndexFileBlock(long blockId, QueryStatistics statistics) {
+        try {
+            long startReadTime = System.nanoTime();
+            // Open the indexFile for reading
+            RandomAccessFile raf = new RandomAccessFile(new File(pathToIndexfile), "r");
+
+            // Create an input stream for reading from the indexFile
+            FileInputStream fis = new FileInputStream(raf.getFD());
+
+            // Create a buffered input stream for efficient reading
+            BufferedInputStream bis = new BufferedInputStream(fis);
+
+            // Move the file pointer to the position of the specified block in the indexFile
+            raf.seek(blockId * blockSize);
+
+            // Create a byte array to store the block data
+            byte[] block = new byte[blockSize];
+
+            // Read the block data from the indexFile into the byte array
+            if (bis.read(block, 0, blockSize) != blockSize)
+                throw new IllegalStateException("Block size read was not of " + blockSize + " bytes");
+            raf.close();
+            indexBlocksRead.increment();
+            long stopReadTime = System.nanoTime();
+
+            // Serialize an integer to determine the size of the "goodPutLength" in bytes
+            byte[] goodPutLengthInBytes = FilesHelper.serialize(new Random().nextInt());
+
+            // Copy the "goodPutLength" bytes from the block data
+            System.arraycopy(block, 0, goodPutLengthInBytes, 0, goodPutLengthInBytes.length);
+
+            // Create a byte array to store the deserialized node data
+            byte[] nodeInBytes = new byte[(Integer) FilesHelper.deserialize(goodPutLengthInBytes)];
+
+            // Copy the deserialized node data from the block data
+            System.arraycopy(block, goodPutLengthInBytes.length, nodeInBytes, 0, nodeInBytes.length);
+
+            // Deserialize the node data to reconstruct the R* tree node, decoding it if it is a compressed node
+            Object nodeInBlock = FilesHelper.deserialize(nodeInBytes);
+            Node node;
+            if (nodeInBlock instanceof QuantizedNode)
+                node = ((QuantizedNode) nodeInBlock).decode();
+            else if (nodeInBlock instanceof CompressedLeafNode)
+                node = ((CompressedLeafNode) nodeInBlock).decode();
+            else
+                node = (Node) nodeInBlock;
+            INDEX_BLOCKS_READ.increment();
+            INDEX_BLOCK_READ_LATENCY.record(System.nanoTime() - startReadTime);
+            if (statistics != null)
+                statistics.blockRead(true, nodeInBytes.length, stopReadTime - startReadTime, System.nanoTime() - stopReadTime);
+            return node;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
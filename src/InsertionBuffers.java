@@ -0,0 +1,197 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Predicate;
+
+/**
+ * This class keeps the buffers of the buffered insertion of the RStarTree, as in the buffer tree.
+ * Every inner node can have a buffer of leaf entries that are waiting to be inserted into its subtree, kept in memory
+ * by the block ID of the node. The entries are added to the buffer of the root and, when a buffer is full, they are
+ * pushed down into the buffers of the node's children all together, so that the nodes of a subtree are read and written
+ * once for a whole batch of entries instead of once for every entry.
+ * The bounds of the entries of every buffer are kept, so that a query only searches the buffers that may hold results.
+ * @author Christos Kontos
+ */
+class InsertionBuffers {
+    private final int capacity; // The entries of a buffer that make it full.
+    private final HashMap<Long, NodeBuffer> buffers = new HashMap<>(); // The non-empty buffers, by the block ID of their node.
+    private int bufferedEntries; // The total entries of all the buffers.
+
+    /**
+     * The buffer of a node: its entries and the box that bounds them.
+     */
+    private static class NodeBuffer {
+        private final int level; // The level of the node of the buffer.
+        private final ArrayList<Entry> entries = new ArrayList<>(); // The entries waiting to be inserted into the node's subtree.
+        private double[] lower; // The lower bound of the entries in every dimension.
+        private double[] upper; // The upper bound of the entries in every dimension.
+
+        /**
+         * The constructor of an empty buffer of a node.
+         * @param level the level of the node.
+         */
+        NodeBuffer(int level)
+        {
+            this.level = level;
+        }
+
+        /**
+         * Adds an entry to the buffer, extending the bounds of the buffer by its box.
+         * @param entry the entry that is added.
+         */
+        void add(Entry entry)
+        {
+            ArrayList<Bounds> bounds = entry.getBoundingBox().getBounds();
+            if(lower == null)
+            {
+                lower = new double[bounds.size()];
+                upper = new double[bounds.size()];
+                for (int d = 0; d < bounds.size(); d++)
+                {
+                    lower[d] = bounds.get(d).getLower();
+                    upper[d] = bounds.get(d).getUpper();
+                }
+            }
+            for (int d = 0; d < bounds.size(); d++)
+            {
+                lower[d] = Math.min(lower[d], bounds.get(d).getLower());
+                upper[d] = Math.max(upper[d], bounds.get(d).getUpper());
+            }
+            entries.add(entry);
+        }
+
+        /**
+         * Gets the box that bounds the entries of the buffer.
+         * @return the bounding box of the entries.
+         */
+        BoundingBox getBoundingBox()
+        {
+            ArrayList<Bounds> bounds = new ArrayList<>();
+            for (int d = 0; d < lower.length; d++)
+            {
+                bounds.add(new Bounds(lower[d], upper[d]));
+            }
+            return new BoundingBox(bounds);
+        }
+    }
+
+    /**
+     * The constructor of the buffers of a tree.
+     * @param capacity the entries of a buffer that make it full and make it be pushed down.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    InsertionBuffers(int capacity)
+    {
+        if(capacity < 1)
+        {
+            throw new IllegalArgumentException("The capacity of the insertion buffers must be positive.");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the entries of a buffer that make it full.
+     * @return the capacity of the buffers.
+     */
+    int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Adds entries to the buffer of a node.
+     * @param blockID the block ID of the node.
+     * @param level the level of the node.
+     * @param entries the entries that are added.
+     */
+    void add(long blockID, int level, ArrayList<Entry> entries)
+    {
+        NodeBuffer buffer = buffers.computeIfAbsent(blockID, id -> new NodeBuffer(level));
+        for (Entry entry : entries)
+        {
+            buffer.add(entry);
+        }
+        bufferedEntries += entries.size();
+    }
+
+    /**
+     * Checks if the buffer of a node is full.
+     * @param blockID the block ID of the node.
+     * @return true if the buffer has at least as many entries as the capacity.
+     */
+    boolean isFull(long blockID)
+    {
+        NodeBuffer buffer = buffers.get(blockID);
+        return buffer != null && buffer.entries.size() >= capacity;
+    }
+
+    /**
+     * Removes all the entries of the buffer of a node, to be pushed down into the node's subtree.
+     * @param blockID the block ID of the node.
+     * @return the entries of the buffer, empty if the node has no buffer.
+     */
+    ArrayList<Entry> take(long blockID)
+    {
+        NodeBuffer buffer = buffers.remove(blockID);
+        if(buffer == null)
+        {
+            return new ArrayList<>();
+        }
+        bufferedEntries -= buffer.entries.size();
+        return buffer.entries;
+    }
+
+    /**
+     * Checks if any node of the given level or of a lower one has a buffer,
+     * in which case the subtrees of the nodes of the level may have buffered entries.
+     * @param level the level of the nodes.
+     * @return true if a node of the level or of a lower one has a buffer.
+     */
+    boolean hasBuffersUpToLevel(int level)
+    {
+        for (NodeBuffer buffer : buffers.values())
+        {
+            if(buffer.level <= level)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the entries of the buffers whose bounding box passes the given filter,
+     * such as the buffers that overlap with the window of a range query.
+     * @param bufferFilter the test of the bounding box of a buffer.
+     * @return the entries of the buffers that pass the filter.
+     */
+    ArrayList<Entry> getEntries(Predicate<BoundingBox> bufferFilter)
+    {
+        ArrayList<Entry> entries = new ArrayList<>();
+        for (NodeBuffer buffer : buffers.values())
+        {
+            if(bufferFilter.test(buffer.getBoundingBox()))
+            {
+                entries.addAll(buffer.entries);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Gets the total entries of all the buffers.
+     * @return the number of buffered entries.
+     */
+    int size()
+    {
+        return bufferedEntries;
+    }
+
+    /**
+     * Checks if there are no buffered entries.
+     * @return true if all the buffers are empty.
+     */
+    boolean isEmpty()
+    {
+        return bufferedEntries == 0;
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.ArrayList;
+
+/**
+ * This interface describes the insertion policy of an RStarTree: how the subtree of a new entry is chosen,
+ * how an overflowing node is split and whether the tree reinserts entries before splitting a node.
+ * An implementation keeps buffers between insertions, so it must be used by one tree (thread) at a time.
+ * @author Christos Kontos
+ */
+interface InsertionStrategy {
+
+    /**
+     * This method picks the entry of the node whose subtree the new box will be inserted into.
+     * @param node the node whose entries are examined.
+     * @param boundingBox the bounding box of the entry that is inserted.
+     * @param childrenAreLeaves true if the entries of the node point to nodes of the insertion level.
+     * @return the chosen entry.
+     */
+    Entry chooseSubtree(Node node, BoundingBox boundingBox, boolean childrenAreLeaves);
+
+    /**
+     * This method splits the entries of the given node into two nodes of the same level.
+     * @param node the node that overflowed.
+     * @return the 2 nodes that occurred from the split.
+     */
+    ArrayList<Node> splitNode(Node node);
+
+    /**
+     * Tells if the first overflow of each level during an insertion reinserts entries instead of splitting the node.
+     * @return true if forced reinsertion is used.
+     */
+    boolean usesForcedReinsert();
+
+    /**
+     * Gets the name of the strategy, used in prompts and measurements.
+     * @return the name of the strategy.
+     */
+    String getName();
+}
@@ -0,0 +1,135 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram is a lock-free distribution of latencies in nanoseconds, with buckets in the manner of HdrHistogram:
+ * every power of two is divided into SUB_BUCKETS linear buckets, so every latency is kept with a relative error of
+ * at most 1/SUB_BUCKETS, from nanoseconds up to centuries, in a fixed number of buckets.
+ * Every bucket is a LongAdder, so recording from many threads does not contend and allocates nothing once the
+ * adders are striped, which keeps the histograms cheap enough to stay on in production.
+ *
+ * @author Akompian Georgios
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // The linear buckets of every power of two
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS; // Enough for every non-negative long
+    private final LongAdder[] buckets; // The number of latencies recorded in every bucket
+    private final LongAdder count; // The number of latencies recorded
+    private final LongAdder sum; // The sum of the latencies recorded
+    private final LongAccumulator max; // The biggest latency recorded
+
+    /**
+     * Constructs an empty histogram.
+     */
+    LatencyHistogram() {
+        buckets = new LongAdder[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++)
+            buckets[b] = new LongAdder();
+        count = new LongAdder();
+        sum = new LongAdder();
+        max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds, negative latencies are recorded as zero.
+     */
+    void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        buckets[bucketOf(nanos)].increment();
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Finds the bucket of a latency. Latencies below SUB_BUCKETS have a bucket each, bigger ones are put in the
+     * bucket of their highest bit and of the SUB_BUCKET_BITS bits that follow it.
+     *
+     * @param nanos The latency.
+     * @return The index of the bucket.
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS)
+            return (int) nanos;
+        int highestBit = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (highestBit - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Finds the middle of the latencies of a bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The latency that stands for the bucket.
+     */
+    private static long valueOf(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+
+    /**
+     * Retrieves the number of latencies recorded.
+     *
+     * @return The count.
+     */
+    long getCount() {return count.sum();}
+
+    /**
+     * Retrieves the sum of the latencies recorded.
+     *
+     * @return The sum in nanoseconds.
+     */
+    long getSum() {return sum.sum();}
+
+    /**
+     * Retrieves the biggest latency recorded.
+     *
+     * @return The maximum in nanoseconds.
+     */
+    long getMax() {return max.get();}
+
+    /**
+     * Retrieves the mean of the latencies recorded.
+     *
+     * @return The mean in nanoseconds, 0 if nothing is recorded.
+     */
+    double getMean() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : (double) sum.sum() / recorded;
+    }
+
+    /**
+     * Finds the latency below which the given percentage of the recorded latencies fall.
+     * The buckets are read while other threads may record, so the result is consistent to within those recordings.
+     *
+     * @param percentile The percentage, from 0 to 100.
+     * @return The latency in nanoseconds, 0 if nothing is recorded.
+     */
+    long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("The percentile must be between 0 and 100");
+        long[] counts = new long[BUCKETS];
+        long recorded = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] = buckets[b].sum();
+            recorded += counts[b];
+        }
+        if (recorded == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank)
+                return Math.min(valueOf(b), getMax());
+        }
+        return getMax();
+    }
+}
@@ -21,6 +21,18 @@ public class LeafEntry extends Entry {
         this.dataFileBlockID = dataFileBlockID;
     }
 
+    /**
+     * The constructor for leaf entries that keep their bounds in another form and build their bounding box themselves.
+     * @param recordID the recordID of the record being represented by the entry.
+     * @param dataFileBlockID the dataFileBlockID of the block the record is in.
+     */
+    protected LeafEntry(long recordID, long dataFileBlockID)
+    {
+        super((BoundingBox) null);
+        this.recordID = recordID;
+        this.dataFileBlockID = dataFileBlockID;
+    }
+
     public long getRecordID()
     {
         return recordID;
@@ -0,0 +1,762 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class implements a log-structured organization of the R* tree index, for write-heavy workloads.
+ * The inserted records are kept in memory, in the memtable, until it is full. Then the memtable is flushed: its records
+ * are appended to the datafile and their leaf entries are packed into an immutable RStarTree, a run, which is written
+ * sequentially to an indexfile of its own. So an insertion never updates a block in place.
+ * The runs are merged into bigger runs in the background, by a compaction policy that bounds the number of runs:
+ * with TIERED compaction the runs of a tier are merged into a run of the next tier once there are as many as the size
+ * ratio, and with LEVELED compaction every level above 0 has a single run, merged into the next level once it grows
+ * past the capacity of its level. Queries search the memtable and every run and merge their results.
+ * The runs are listed in a manifest file, so the index can be opened again once it is closed.
+ * @author Christos Kontos
+ */
+public class LogStructuredRStarTree {
+
+    private static final int DEFAULT_MEMTABLE_CAPACITY = 4096; // The records of a full memtable, if not given.
+    private static final int DEFAULT_SIZE_RATIO = 4; // The growth of the runs from one tier or level to the next, if not given.
+    private static final String MANIFEST_SUFFIX = ".manifest"; // Added to the path of the runs for the path of their manifest.
+    private static final String RUN_SUFFIX = ".run"; // Added to the path of the runs, with the number of the run, for the path of a run's indexfile.
+    private final IndexStore dataStore; // The store of the datafile, to which the records of the flushed memtables are appended.
+    private final String pathToRuns; // The path that the paths of the runs' indexfiles and of the manifest start with.
+    private final int memtableCapacity; // The records of a full memtable, also the size of the runs of tier or level 0.
+    private final int sizeRatio; // The growth of the runs from one tier or level to the next.
+    private final CompactionPolicy compactionPolicy; // The policy that picks the runs to be merged.
+    private final ArrayList<Record> memtableRecords = new ArrayList<>(); // The records inserted since the last flush.
+    private final ArrayList<Entry> memtableEntries = new ArrayList<>(); // The leaf entries of the memtable's records, searched by the queries.
+    private final ArrayList<Run> runs = new ArrayList<>(); // The runs of the index.
+    private final AtomicInteger nextRunNumber = new AtomicInteger(); // The number of the next run that is written.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); // Held by the queries for reading and by the insertions and the changes of the runs for writing.
+    private final ExecutorService compactor; // The thread that merges the runs in the background.
+    private static final LatencyHistogram INSERT_LATENCY = MetricsRegistry.getInstance().histogram("logstructuredrstartree_insert_seconds", "The latency of inserting a record into the log-structured tree.");
+    private static final LatencyHistogram FLUSH_LATENCY = MetricsRegistry.getInstance().histogram("logstructuredrstartree_flush_seconds", "The latency of flushing the memtable to a new run.");
+    private static final LatencyHistogram COMPACTION_LATENCY = MetricsRegistry.getInstance().histogram("logstructuredrstartree_compaction_seconds", "The latency of merging runs into a new run.");
+    private static final LatencyHistogram RANGE_LATENCY = MetricsRegistry.getInstance().histogram("logstructuredrstartree_range_seconds", "The latency of range queries on the log-structured tree.");
+    private static final LatencyHistogram KNN_LATENCY = MetricsRegistry.getInstance().histogram("logstructuredrstartree_knn_seconds", "The latency of k-nearest neighbour queries on the log-structured tree.");
+    private static final LatencyHistogram RADIUS_LATENCY = MetricsRegistry.getInstance().histogram("logstructuredrstartree_radius_seconds", "The latency of radius queries on the log-structured tree.");
+    private static final LongAdder RUNS_MERGED = MetricsRegistry.getInstance().counter("logstructuredrstartree_runs_merged_total", "The runs merged by the compactions.");
+
+    /**
+     * The policies of merging the runs.
+     */
+    enum CompactionPolicy {
+        TIERED, // The runs of a tier are merged into one run of the next tier once the tier has size ratio runs
+        LEVELED // Level 0 is merged into the run of level 1 once it has size ratio runs, and a bigger level into the next one once it outgrows its capacity
+    }
+
+    /**
+     * A run of the index: an immutable packed RStarTree in an indexfile of its own.
+     */
+    private static class Run {
+        private final IndexStore store; // The store of the run's indexfile, which shares the datafile of the index.
+        private final int level; // The tier or level of the run.
+        private final long entries; // The leaf entries of the run.
+
+        /**
+         * The constructor of a run.
+         * @param store the store of the run's indexfile.
+         * @param level the tier or level of the run.
+         * @param entries the leaf entries of the run.
+         */
+        Run(IndexStore store, int level, long entries)
+        {
+            this.store = store;
+            this.level = level;
+            this.entries = entries;
+        }
+
+        /**
+         * Reads the root of the run's tree on behalf of a query.
+         * @param statistics the statistics of the query.
+         * @return the root node of the run.
+         */
+        Node getRoot(QueryStatistics statistics)
+        {
+            Node root = store.readIndexFileBlock(RStarTree.getRootNodeBlockId(), statistics);
+            if(root == null)
+            {
+                throw new IllegalStateException("Couldn't read the root of the run " + store.getPathToIndexfile());
+            }
+            return root;
+        }
+    }
+
+    /**
+     * This is the constructor for the log-structured tree with the default memtable capacity, size ratio and TIERED compaction.
+     * @param dataStore the store of the datafile, already initialized.
+     * @param pathToRuns the path that the paths of the runs' indexfiles and of their manifest start with.
+     * @param makeNewRuns true to replace the runs of the manifest with a run of the records of the datafile,
+     *                    false to open the runs of the manifest if it exists.
+     */
+    public LogStructuredRStarTree(IndexStore dataStore, String pathToRuns, boolean makeNewRuns)
+    {
+        this(dataStore, pathToRuns, makeNewRuns, DEFAULT_MEMTABLE_CAPACITY, DEFAULT_SIZE_RATIO, CompactionPolicy.TIERED);
+    }
+
+    /**
+     * This is the constructor for the log-structured tree.
+     * A new index starts with a single run of all the records of the datafile, packed in one go,
+     * in the tier or level of its size.
+     * @param dataStore the store of the datafile, already initialized.
+     * @param pathToRuns the path that the paths of the runs' indexfiles and of their manifest start with.
+     * @param makeNewRuns true to replace the runs of the manifest with a run of the records of the datafile,
+     *                    false to open the runs of the manifest if it exists.
+     * @param memtableCapacity the records of a full memtable.
+     * @param sizeRatio the growth of the runs from one tier or level to the next.
+     * @param compactionPolicy the policy that picks the runs to be merged.
+     * @throws IllegalArgumentException if the memtable capacity is not positive or the size ratio is smaller than 2.
+     */
+    public LogStructuredRStarTree(IndexStore dataStore, String pathToRuns, boolean makeNewRuns, int memtableCapacity, int sizeRatio, CompactionPolicy compactionPolicy)
+    {
+        if(memtableCapacity < 1)
+        {
+            throw new IllegalArgumentException("The capacity of the memtable must be positive.");
+        }
+        if(sizeRatio < 2)
+        {
+            throw new IllegalArgumentException("The size ratio of the runs must be at least 2.");
+        }
+        this.dataStore = dataStore;
+        this.pathToRuns = pathToRuns;
+        this.memtableCapacity = memtableCapacity;
+        this.sizeRatio = sizeRatio;
+        this.compactionPolicy = compactionPolicy;
+        if(!makeNewRuns && Files.exists(Paths.get(pathToRuns + MANIFEST_SUFFIX)))
+        {
+            openRuns();
+        }
+        else
+        {
+            deleteRuns();
+            ArrayList<Entry> leafEntries = new ArrayList<>();
+            for (int i = 1; i < dataStore.getTotalBlocksInDatafile(); i++)
+            {
+                ArrayList<Record> records = dataStore.readDataFileBlock(i);
+                if(records == null)
+                {
+                    throw new IllegalStateException("Couldn't read records from datafile properly.");
+                }
+                for (Record record : records)
+                {
+                    leafEntries.add(createLeafEntry(record, i));
+                }
+            }
+            if(!leafEntries.isEmpty())
+            {
+                runs.add(writeRun(leafEntries, getLevelOfSize(leafEntries.size())));
+            }
+            writeManifest();
+        }
+        this.compactor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "LogStructuredRStarTree-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        startCompaction();
+    }
+
+    /**
+     * Inserts a record into the memtable, flushing the memtable to a new run if it becomes full.
+     * The record is written to the datafile when the memtable is flushed.
+     * @param record the record that is inserted.
+     */
+    void insertRecord(Record record)
+    {
+        long startTime = System.nanoTime();
+        lock.writeLock().lock();
+        try
+        {
+            memtableRecords.add(record);
+            // The block of the record is not known until it is written, the entry is only searched by the queries
+            memtableEntries.add(createLeafEntry(record, 0));
+            if(memtableRecords.size() >= memtableCapacity)
+            {
+                flushMemtable();
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+        INSERT_LATENCY.record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Flushes the records of the memtable to a new run, even if the memtable is not full.
+     */
+    void flush()
+    {
+        lock.writeLock().lock();
+        try
+        {
+            flushMemtable();
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the memtable, waits for the compactions to finish and stops the compaction thread.
+     * The index can be opened again with the same path to its runs.
+     */
+    void close()
+    {
+        flush();
+        awaitCompaction();
+        compactor.shutdown();
+    }
+
+    /**
+     * Waits until the runs are merged as much as the compaction policy requires.
+     */
+    void awaitCompaction()
+    {
+        try
+        {
+            compactor.submit(() -> {}).get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets the number of runs that the queries search.
+     * @return the number of runs.
+     */
+    int getRunCount()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return runs.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of records in the memtable, not yet flushed to a run.
+     * @return the number of records of the memtable.
+     */
+    int getMemtableSize()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return memtableRecords.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Query which returns the ids of the Records that are inside the given searchBoundingBox,
+     * searching the memtable and every run.
+     * @param searchBoundingBox the bounding box we want to search in.
+     * @return the ids of the Records that are inside the given searchBoundingBox.
+     */
+    ArrayList<Long> getBoundingBoxData(BoundingBox searchBoundingBox)
+    {
+        long startTime = System.nanoTime();
+        lock.readLock().lock();
+        try
+        {
+            ArrayList<LeafEntry> leafEntries = new BoundingBoxRangeQuery(dataStore, searchBoundingBox).getQueryLeafEntries(getMemtableLeaf());
+            for (Run run : runs)
+            {
+                Query query = new BoundingBoxRangeQuery(run.store, searchBoundingBox);
+                leafEntries.addAll(query.getQueryLeafEntries(run.getRoot(query.getStatistics())));
+            }
+            return getRecordIds(leafEntries);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+            RANGE_LATENCY.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Query which returns the ids of the K Records that are closer to the given point. The K nearest records of the
+     * memtable and of every run are found and the K nearest of all of them are returned.
+     * @param searchPoint the point around which we will find the neighbours.
+     * @param k the amount of neighbours.
+     * @return the ids of the K Records that are closer to the given point, the closest first.
+     */
+    ArrayList<Long> getNearestNeighbours(ArrayList<Double> searchPoint, int k)
+    {
+        long startTime = System.nanoTime();
+        lock.readLock().lock();
+        try
+        {
+            ArrayList<Entry> candidates = new ArrayList<>(new NearestNeighbourQuery(dataStore, searchPoint, k).getQueryLeafEntries(getMemtableLeaf()));
+            for (Run run : runs)
+            {
+                Query query = new NearestNeighbourQuery(run.store, searchPoint, k);
+                candidates.addAll(query.getQueryLeafEntries(run.getRoot(query.getStatistics())));
+            }
+            return getRecordIds(new NearestNeighbourQuery(dataStore, searchPoint, k).getQueryLeafEntries(new Node(RStarTree.getLeafLevel(), candidates)));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+            KNN_LATENCY.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Query which returns the ids of the Records whose distance from the given point is at most the given radius,
+     * searching the memtable and every run.
+     * @param searchPoint the center of the search.
+     * @param radius the largest distance of a record from the searchPoint.
+     * @return the ids of the Records within the radius of the given point.
+     */
+    ArrayList<Long> getRadiusData(ArrayList<Double> searchPoint, double radius)
+    {
+        long startTime = System.nanoTime();
+        lock.readLock().lock();
+        try
+        {
+            ArrayList<LeafEntry> leafEntries = new RadiusQuery(dataStore, searchPoint, radius).getQueryLeafEntries(getMemtableLeaf());
+            for (Run run : runs)
+            {
+                Query query = new RadiusQuery(run.store, searchPoint, radius);
+                leafEntries.addAll(query.getQueryLeafEntries(run.getRoot(query.getStatistics())));
+            }
+            return getRecordIds(leafEntries);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+            RADIUS_LATENCY.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Fetches the records with the given IDs, such as the IDs returned by a query,
+     * from the memtable or, with the record location index, from the datafile.
+     * @param recordIds the IDs of the records.
+     * @return the records in the order of the given IDs, without the IDs that have no record.
+     */
+    ArrayList<Record> getRecords(ArrayList<Long> recordIds)
+    {
+        lock.readLock().lock();
+        try
+        {
+            HashMap<Long, Record> foundRecords = new HashMap<>();
+            for (Record record : memtableRecords)
+            {
+                foundRecords.put(record.getId(), record);
+            }
+            ArrayList<Long> storedRecordIds = new ArrayList<>();
+            for (Long recordId : recordIds)
+            {
+                if(!foundRecords.containsKey(recordId))
+                {
+                    storedRecordIds.add(recordId);
+                }
+            }
+            for (Record record : dataStore.readDataFileRecords(storedRecordIds))
+            {
+                foundRecords.put(record.getId(), record);
+            }
+            ArrayList<Record> records = new ArrayList<>();
+            for (Long recordId : recordIds)
+            {
+                if(foundRecords.containsKey(recordId))
+                {
+                    records.add(foundRecords.get(recordId));
+                }
+            }
+            return records;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the memtable to a new run of tier or level 0, appending its records to the datafile,
+     * and starts a compaction. The write lock must be held.
+     * @throws IllegalStateException if the records cannot be appended to the datafile.
+     */
+    private void flushMemtable()
+    {
+        if(memtableRecords.isEmpty())
+        {
+            return;
+        }
+        long startTime = System.nanoTime();
+        IdentityHashMap<Record, Integer> recordBlocks = new IdentityHashMap<>(); // The datafile block of every record
+        if(!dataStore.appendDataFileRecords(memtableRecords, recordBlocks))
+        {
+            throw new IllegalStateException("Couldn't append the records of the memtable to the datafile.");
+        }
+        ArrayList<Entry> leafEntries = new ArrayList<>();
+        for (Record record : memtableRecords)
+        {
+            leafEntries.add(createLeafEntry(record, recordBlocks.get(record)));
+        }
+        runs.add(writeRun(leafEntries, 0));
+        writeManifest();
+        memtableRecords.clear();
+        memtableEntries.clear();
+        FLUSH_LATENCY.record(System.nanoTime() - startTime);
+        startCompaction();
+    }
+
+    /**
+     * Starts merging the runs on the compaction thread.
+     */
+    private void startCompaction()
+    {
+        compactor.submit(() -> {
+            try
+            {
+                compact();
+            }
+            catch (RuntimeException e)
+            {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Merges the runs picked by the compaction policy until it picks none. The leaf entries of the merged runs are
+     * packed into a new run of the next tier or level without holding the lock, as the runs do not change, and then
+     * the new run replaces them, with the write lock held, and their indexfiles are deleted.
+     */
+    private void compact()
+    {
+        while (true)
+        {
+            ArrayList<Run> mergedRuns;
+            lock.readLock().lock();
+            try
+            {
+                mergedRuns = pickRunsToMerge();
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+            if(mergedRuns.isEmpty())
+            {
+                return;
+            }
+            long startTime = System.nanoTime();
+            int level = Integer.MAX_VALUE;
+            ArrayList<Entry> leafEntries = new ArrayList<>();
+            for (Run run : mergedRuns)
+            {
+                level = Math.min(level, run.level);
+                leafEntries.addAll(readLeafEntries(run));
+            }
+            Run mergedRun = writeRun(leafEntries, level + 1);
+            lock.writeLock().lock();
+            try
+            {
+                runs.removeAll(mergedRuns);
+                runs.add(mergedRun);
+                writeManifest();
+                for (Run run : mergedRuns)
+                {
+                    Files.deleteIfExists(Paths.get(run.store.getPathToIndexfile()));
+                }
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+            RUNS_MERGED.add(mergedRuns.size());
+            COMPACTION_LATENCY.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Picks the runs that have to be merged by the compaction policy, the lowest tier or level first.
+     * With TIERED compaction, size ratio runs of the same tier. With LEVELED compaction, the runs of level 0 and the
+     * run of level 1 once level 0 has size ratio runs, or the run of a higher level and the run of the next one once
+     * the run outgrows the capacity of its level. A lock must be held.
+     * @return the runs to be merged, empty if no runs have to be merged.
+     */
+    private ArrayList<Run> pickRunsToMerge()
+    {
+        int maxLevel = 0;
+        for (Run run : runs)
+        {
+            maxLevel = Math.max(maxLevel, run.level);
+        }
+        for (int level = 0; level <= maxLevel; level++)
+        {
+            ArrayList<Run> levelRuns = getRunsOfLevel(level);
+            if(compactionPolicy == CompactionPolicy.TIERED)
+            {
+                if(levelRuns.size() >= sizeRatio)
+                {
+                    return new ArrayList<>(levelRuns.subList(0, sizeRatio));
+                }
+            }
+            else if((level == 0 && levelRuns.size() >= sizeRatio) || (level > 0 && !levelRuns.isEmpty() && levelRuns.get(0).entries > getLevelCapacity(level)))
+            {
+                levelRuns.addAll(getRunsOfLevel(level + 1));
+                return levelRuns;
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Gets the runs of a tier or level, the oldest first.
+     * @param level the tier or level.
+     * @return the runs of the level.
+     */
+    private ArrayList<Run> getRunsOfLevel(int level)
+    {
+        ArrayList<Run> levelRuns = new ArrayList<>();
+        for (Run run : runs)
+        {
+            if(run.level == level)
+            {
+                levelRuns.add(run);
+            }
+        }
+        return levelRuns;
+    }
+
+    /**
+     * Gets the most leaf entries of a run of a tier or level, the memtable capacity multiplied by the size ratio once
+     * for every level.
+     * @param level the tier or level.
+     * @return the capacity of the level.
+     */
+    private double getLevelCapacity(int level)
+    {
+        return memtableCapacity * Math.pow(sizeRatio, level);
+    }
+
+    /**
+     * Gets the lowest tier or level whose capacity fits a run of the given size,
+     * level 1 or above with LEVELED compaction, where level 0 only has the flushed memtables.
+     * @param entries the leaf entries of the run.
+     * @return the tier or level of the run.
+     */
+    private int getLevelOfSize(long entries)
+    {
+        int level = compactionPolicy == CompactionPolicy.LEVELED ? 1 : 0;
+        while (entries > getLevelCapacity(level))
+        {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Writes a new run of the given leaf entries, packed into an RStarTree in an indexfile of its own.
+     * @param leafEntries the leaf entries of the run.
+     * @param level the tier or level of the run.
+     * @return the new run.
+     */
+    private Run writeRun(ArrayList<Entry> leafEntries, int level)
+    {
+        IndexStore runStore = newRunStore(pathToRuns + RUN_SUFFIX + nextRunNumber.getAndIncrement());
+        runStore.initializeIndexFile(dataStore.getDataDimensions(), true);
+        new RStarTree(runStore, leafEntries);
+        return new Run(runStore, level, leafEntries.size());
+    }
+
+    /**
+     * Reads the leaf entries of a run, reading the blocks of its indexfile in their order.
+     * @param run the run.
+     * @return the leaf entries of the run.
+     */
+    private ArrayList<Entry> readLeafEntries(Run run)
+    {
+        ArrayList<Entry> leafEntries = new ArrayList<>();
+        for (int i = 1; i < run.store.getTotalBlocksInIndexFile(); i++)
+        {
+            Node node = run.store.readIndexFileBlock(i);
+            if(node == null)
+            {
+                throw new IllegalStateException("Couldn't read a node of the run " + run.store.getPathToIndexfile());
+            }
+            if(node.isLeaf())
+            {
+                leafEntries.addAll(node.getEntries());
+            }
+        }
+        return leafEntries;
+    }
+
+    /**
+     * Creates the store of the indexfile of a run, which shares the datafile and the block format of the index.
+     * @param pathToIndexfile the path of the run's indexfile.
+     * @return the store of the run, whose indexfile is not initialized yet.
+     */
+    private IndexStore newRunStore(String pathToIndexfile)
+    {
+        IndexStore runStore = new IndexStore(dataStore.getPathToCsv(), dataStore.getPathToDatafile(), pathToIndexfile, dataStore.getBlockSize());
+        runStore.setFloat32Coordinates(dataStore.isFloat32Coordinates());
+        runStore.setPageCompression(dataStore.isPageCompression());
+        runStore.setInnerNodeQuantizationBits(dataStore.getInnerNodeQuantizationBits());
+        return runStore;
+    }
+
+    /**
+     * Writes the manifest of the runs, to a temporary file which then replaces the manifest,
+     * so that the manifest lists either the runs before a change or the runs after it. A lock must be held.
+     */
+    private void writeManifest()
+    {
+        Path pathToManifest = Paths.get(pathToRuns + MANIFEST_SUFFIX);
+        Path pathToTemporaryManifest = Paths.get(pathToRuns + MANIFEST_SUFFIX + ".tmp");
+        try
+        {
+            try (BufferedWriter writer = Files.newBufferedWriter(pathToTemporaryManifest))
+            {
+                writer.write("next," + nextRunNumber.get() + "\n");
+                for (Run run : runs)
+                {
+                    writer.write("run," + run.level + "," + run.entries + "," + run.store.getPathToIndexfile() + "\n");
+                }
+            }
+            Files.move(pathToTemporaryManifest, pathToManifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Opens the runs listed in the manifest.
+     * @throws IllegalStateException if the manifest cannot be read.
+     */
+    private void openRuns()
+    {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(pathToRuns + MANIFEST_SUFFIX)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                String[] values = line.split(",", 4);
+                if(values[0].equals("next"))
+                {
+                    nextRunNumber.set(Integer.parseInt(values[1]));
+                }
+                else if(values[0].equals("run"))
+                {
+                    IndexStore runStore = newRunStore(values[3]);
+                    runStore.initializeIndexFile(dataStore.getDataDimensions(), false);
+                    runs.add(new Run(runStore, Integer.parseInt(values[1]), Long.parseLong(values[2])));
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Couldn't read the manifest of the runs " + pathToRuns + MANIFEST_SUFFIX);
+        }
+    }
+
+    /**
+     * Deletes the indexfiles of the runs listed in the manifest and the manifest.
+     */
+    private void deleteRuns()
+    {
+        Path pathToManifest = Paths.get(pathToRuns + MANIFEST_SUFFIX);
+        if(!Files.exists(pathToManifest))
+        {
+            return;
+        }
+        try
+        {
+            for (String line : Files.readAllLines(pathToManifest))
+            {
+                String[] values = line.split(",", 4);
+                if(values[0].equals("run"))
+                {
+                    Files.deleteIfExists(Paths.get(values[3]));
+                }
+            }
+            Files.delete(pathToManifest);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets the entries of the memtable as a leaf node that the queries can search. The node is only kept in memory.
+     * @return the leaf node of the memtable's entries.
+     */
+    private Node getMemtableLeaf()
+    {
+        return new Node(RStarTree.getLeafLevel(), new ArrayList<>(memtableEntries));
+    }
+
+    /**
+     * Creates the leaf entry of a record, the point of its coordinates.
+     * @param record the record.
+     * @param datafileBlockID the datafile block of the record.
+     * @return the leaf entry of the record.
+     */
+    private LeafEntry createLeafEntry(Record record, long datafileBlockID)
+    {
+        ArrayList<Bounds> dimensionBounds = new ArrayList<>();
+        for (int i = 0; i < dataStore.getDataDimensions(); i++)
+        {
+            dimensionBounds.add(new Bounds(record.getCoordinate(i), record.getCoordinate(i)));
+        }
+        return dataStore.createLeafEntry(record.getId(), datafileBlockID, dimensionBounds);
+    }
+
+    /**
+     * Gets the record IDs of leaf entries.
+     * @param leafEntries the leaf entries.
+     * @return the IDs of the records of the entries, in the same order.
+     */
+    private static ArrayList<Long> getRecordIds(ArrayList<LeafEntry> leafEntries)
+    {
+        ArrayList<Long> recordIds = new ArrayList<>();
+        for (LeafEntry leafEntry : leafEntries)
+        {
+            recordIds.add(leafEntry.getRecordID());
+        }
+        return recordIds;
+    }
+}
@@ -1,12 +1,29 @@
+import java.io.IOException;
 import java.util.Scanner;
 
 /**
  * This is the main class of the RStarTree implementation where the creation of the tree is called as well as showing the time it took to build.
+ * The runtime metrics are registered in JMX and, if a port is given as the first argument, served in the Prometheus
+ * text format at http://localhost:port/metrics.
  * @author Christos Kontos
  */
 public class Main {
     public static void main(String[] args){
-        boolean reconstructingTree = UserInterface.startApplication();
+        MetricsRegistry.getInstance().registerMBean();
+        if(args.length > 0)
+        {
+            try
+            {
+                MetricsRegistry.getInstance().startHttpServer(Integer.parseInt(args[0]));
+                System.out.println("Metrics served at http://localhost:" + args[0] + "/metrics");
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+            }
+        }
+        IndexStore indexStore = new IndexStore();
+        boolean reconstructingTree = UserInterface.startApplication(indexStore);
         boolean bulk = false;
         RStarTree rStarTree;
         if(reconstructingTree)
@@ -30,21 +47,35 @@ public class Main {
             if(bulk)
             {
                 long startTreeTime = System.nanoTime();
-                rStarTree = new RStarTree(true, true);
+                rStarTree = new RStarTree(indexStore, true, true);
                 long stopTreeTime = System.nanoTime();
                 System.out.println("Time taken for R*Tree Bulk Loading with Zorder time: " + (double) (stopTreeTime - startTreeTime) / 1000000 + " ms");
             }
             else
             {
+                InsertionStrategy insertionStrategy = new RStarInsertionStrategy(indexStore);
+                System.out.println("Do you want the revised R* (RR*) insertion? (y/n)");
+                while (true) {
+                    answer = scan.nextLine().trim().toLowerCase();
+                    System.out.println();
+                    if (answer.equals("y")) {
+                        insertionStrategy = new RevisedRStarInsertionStrategy(indexStore);
+                        break;
+                    } else if (answer.equals("n")) {
+                        break;
+                    } else {
+                        System.out.println("Please answer with y/n: ");
+                    }
+                }
                 long startTreeTime = System.nanoTime();
-                rStarTree = new RStarTree(true);
+                rStarTree = new RStarTree(indexStore, true, insertionStrategy);
                 long stopTreeTime = System.nanoTime();
-                System.out.println("Time taken for normal R*Tree: " + (double) (stopTreeTime - startTreeTime) / 1000000 + " ms");
+                System.out.println("Time taken for normal " + insertionStrategy.getName() + "Tree: " + (double) (stopTreeTime - startTreeTime) / 1000000 + " ms");
             }
         }
         else
         {
-            rStarTree = new RStarTree(false);
+            rStarTree = new RStarTree(indexStore, false);
         }
         UserInterface.runApplication(rStarTree);
     }
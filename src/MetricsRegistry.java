@@ -0,0 +1,225 @@
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MetricsRegistry holds the runtime metrics of the application: counters, kept in LongAdders, and latency
+ * distributions, kept in LatencyHistograms, of the RStarTree operations and of the file I/O.
+ * The metrics are registered once, by the classes that record them, and recording is lock-free and allocates nothing.
+ * The metrics can be read through JMX, as the attributes of an MBean, and exported in the Prometheus text format,
+ * to a file or through an embedded HTTP endpoint.
+ *
+ * @author Akompian Georgios
+ */
+class MetricsRegistry implements DynamicMBean {
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry(); // The registry of the application
+    private static final String OBJECT_NAME = "RStarTreeDB:type=Metrics"; // The JMX name of the registry
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999}; // The quantiles exported of every histogram
+    private static final String[] HISTOGRAM_ATTRIBUTES = {"Count", "MeanMillis", "P50Millis", "P99Millis", "MaxMillis"};
+    private final LinkedHashMap<String, LongAdder> counters = new LinkedHashMap<>(); // The counters by their name
+    private final LinkedHashMap<String, LatencyHistogram> histograms = new LinkedHashMap<>(); // The histograms by their name
+    private final LinkedHashMap<String, String> helps = new LinkedHashMap<>(); // The description of every metric
+
+    /**
+     * Retrieves the registry of the application.
+     *
+     * @return The registry.
+     */
+    static MetricsRegistry getInstance() {return INSTANCE;}
+
+    /**
+     * Registers a counter, or finds the counter already registered with the name.
+     *
+     * @param name The name of the counter, in the Prometheus format (ending in "_total").
+     * @param help The description of the counter.
+     * @return The counter.
+     */
+    synchronized LongAdder counter(String name, String help) {
+        if (histograms.containsKey(name))
+            throw new IllegalArgumentException("The metric " + name + " is already registered as a histogram");
+        helps.putIfAbsent(name, help);
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Registers a latency histogram, or finds the histogram already registered with the name.
+     *
+     * @param name The name of the histogram, in the Prometheus format (ending in "_seconds").
+     * @param help The description of the histogram.
+     * @return The histogram.
+     */
+    synchronized LatencyHistogram histogram(String name, String help) {
+        if (counters.containsKey(name))
+            throw new IllegalArgumentException("The metric " + name + " is already registered as a counter");
+        helps.putIfAbsent(name, help);
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns the metrics in the Prometheus text format, the histograms as summaries of their quantiles in seconds.
+     *
+     * @return The metrics as text.
+     */
+    synchronized String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            text.append("# HELP ").append(counter.getKey()).append(' ').append(helps.get(counter.getKey())).append('\n');
+            text.append("# TYPE ").append(counter.getKey()).append(" counter\n");
+            text.append(counter.getKey()).append(' ').append(counter.getValue().sum()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> histogram : histograms.entrySet()) {
+            String name = histogram.getKey();
+            LatencyHistogram latencies = histogram.getValue();
+            text.append("# HELP ").append(name).append(' ').append(helps.get(name)).append('\n');
+            text.append("# TYPE ").append(name).append(" summary\n");
+            for (double quantile : QUANTILES)
+                text.append(name).append("{quantile=\"").append(quantile).append("\"} ").append(latencies.getValueAtPercentile(quantile * 100) / 1e9).append('\n');
+            text.append(name).append("_sum ").append(latencies.getSum() / 1e9).append('\n');
+            text.append(name).append("_count ").append(latencies.getCount()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format to a file, such as one read by the node exporter's textfile collector.
+     *
+     * @param path The path of the file.
+     * @return True if the file was written, false otherwise.
+     */
+    boolean writePrometheusText(String path) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
+            writer.write(toPrometheusText());
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Starts an embedded HTTP server that serves the metrics in the Prometheus text format at "/metrics".
+     *
+     * @param port The port of the server.
+     * @return The server, which is stopped with its stop method.
+     * @throws IOException If the server cannot be bound to the port.
+     */
+    HttpServer startHttpServer(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] response = toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    /**
+     * Registers the registry in the platform MBean server, so that the metrics can be read through JMX.
+     *
+     * @return True if the registry is registered, false otherwise.
+     */
+    boolean registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(objectName))
+                server.registerMBean(this, objectName);
+            return true;
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Reads a metric as an attribute of the MBean: a counter by its name, or a statistic of a histogram by the
+     * histogram's name followed by one of the HISTOGRAM_ATTRIBUTES (for example "rstartree_range_seconds_P99Millis").
+     *
+     * @param attribute The name of the attribute.
+     * @return The value of the metric.
+     * @throws AttributeNotFoundException If there is no such metric.
+     */
+    @Override
+    public synchronized Object getAttribute(String attribute) throws AttributeNotFoundException {
+        LongAdder counter = counters.get(attribute);
+        if (counter != null)
+            return counter.sum();
+        int separator = attribute.lastIndexOf('_');
+        LatencyHistogram histogram = separator > 0 ? histograms.get(attribute.substring(0, separator)) : null;
+        if (histogram != null) {
+            switch (attribute.substring(separator + 1)) {
+                case "Count":
+                    return histogram.getCount();
+                case "MeanMillis":
+                    return histogram.getMean() / 1e6;
+                case "P50Millis":
+                    return histogram.getValueAtPercentile(50) / 1e6;
+                case "P99Millis":
+                    return histogram.getValueAtPercentile(99) / 1e6;
+                case "MaxMillis":
+                    return histogram.getMax() / 1e6;
+            }
+        }
+        throw new AttributeNotFoundException("There is no metric " + attribute);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("The metrics are read only");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // Attributes that are not found are left out, as the MBean contract requires
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName), "The metrics have no operations");
+    }
+
+    /**
+     * Describes the attributes of the MBean: every counter and the statistics of every histogram.
+     *
+     * @return The description of the MBean.
+     */
+    @Override
+    public synchronized MBeanInfo getMBeanInfo() {
+        ArrayList<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String name : counters.keySet())
+            attributes.add(new MBeanAttributeInfo(name, "java.lang.Long", helps.get(name), true, false, false));
+        for (String name : histograms.keySet()) {
+            for (String statistic : HISTOGRAM_ATTRIBUTES) {
+                String type = statistic.equals("Count") ? "java.lang.Long" : "java.lang.Double";
+                attributes.add(new MBeanAttributeInfo(name + "_" + statistic, type, helps.get(name), true, false, false));
+            }
+        }
+        return new MBeanInfo(getClass().getName(), "The runtime metrics of the R* tree", attributes.toArray(new MBeanAttributeInfo[0]),
+                null, null, null);
+    }
+}
@@ -4,7 +4,8 @@ import java.util.ArrayList;
 /**
  * Multiple2DQueries is a class for testing range and k-nearest neighbor (KNN) queries
  * on a two-dimensional dataset using both R* tree and sequential scan methods.
- * It measures query execution times and records the results in CSV files.
+ * It measures query execution times, together with the execution statistics of every query
+ * (nodes visited, blocks read and the time spent reading, decoding and testing the geometry), and records the results in CSV files.
  *
  * @author Akompian Georgios
  */
@@ -16,8 +17,10 @@ public class Multiple2DQueries {
      */
     public static void main(String[] args){
 
-        RStarTree rStarTree = new RStarTree(false);
-        FilesHelper.initializeDataFile(2, false);
+        IndexStore indexStore = new IndexStore();
+        indexStore.initializeDataFile(2, false);
+        indexStore.initializeIndexFile(2, false);
+        RStarTree rStarTree = new RStarTree(indexStore, false);
 
         ArrayList<Double> centerPoint = new ArrayList<>(); // ArrayList with the coordinates of an approximate center point
         centerPoint.add(22.2121); // Coordinate of second dimension
@@ -30,10 +33,14 @@ public class Multiple2DQueries {
         ArrayList<Double> seqScanRangeQueryTimes = new ArrayList<>();
         ArrayList<Double> areaOfRectangles = new ArrayList<>();
         ArrayList<Integer> rangeQueryRecords = new ArrayList<>();
+        ArrayList<QueryStatistics> rStarRangeQueryStatistics = new ArrayList<>();
+        ArrayList<QueryStatistics> seqScanRangeQueryStatistics = new ArrayList<>();
 
         // KNN Query Data
         ArrayList<Double> knnRStarTimes = new ArrayList<>();
         ArrayList<Double> knnSeqScanTimes = new ArrayList<>();
+        ArrayList<QueryStatistics> knnRStarStatistics = new ArrayList<>();
+        ArrayList<QueryStatistics> knnSeqScanStatistics = new ArrayList<>();
 
         int i = 1;
         while(i < 10000){
@@ -50,13 +57,15 @@ public class Multiple2DQueries {
                 rangeQueryRecords.add(rStarTree.getBoundingBoxData(new BoundingBox(queryBounds)).size());
                 long stopRangeQueryTime = System.nanoTime();
                 rStarRangeQueryTimes.add((double) (stopRangeQueryTime - startRangeQueryTime) / 1000000);
+                rStarRangeQueryStatistics.add(rStarTree.getLastQueryStatistics());
 
                 // Sequential Scan - Range Query
-                SeqScanBoundingBoxRangeQuery sequentialScanBoundingBoxRangeQuery = new SeqScanBoundingBoxRangeQuery(new BoundingBox(queryBounds));
+                SeqScanBoundingBoxRangeQuery sequentialScanBoundingBoxRangeQuery = new SeqScanBoundingBoxRangeQuery(indexStore, new BoundingBox(queryBounds));
                 long startSeqRangeQueryTime = System.nanoTime();
                 sequentialScanBoundingBoxRangeQuery.getQueryRecordIds();
                 long stopSeqRangeQueryTime = System.nanoTime();
                 seqScanRangeQueryTimes.add((double) (stopSeqRangeQueryTime - startSeqRangeQueryTime) / 1000000);
+                seqScanRangeQueryStatistics.add(sequentialScanBoundingBoxRangeQuery.getStatistics());
                 areaOfRectangles.add(new BoundingBox(queryBounds).getArea());
             }
             i++;
@@ -71,13 +80,15 @@ public class Multiple2DQueries {
                 rStarTree.getNearestNeighbours(centerPoint, i);
                 long stopKNNTime = System.nanoTime();
                 knnRStarTimes.add((double) (stopKNNTime - startKNNTime) / 1000000);
+                knnRStarStatistics.add(rStarTree.getLastQueryStatistics());
 
                 // Knn Sequential Scan Query
-                SeqScanQuery seqNearestNeighboursQuery = new SeqNearestNeighbourQuery(centerPoint, i);
+                SeqScanQuery seqNearestNeighboursQuery = new SeqNearestNeighbourQuery(indexStore, centerPoint, i);
                 long startSeqKNNTime = System.nanoTime();
                 seqNearestNeighboursQuery.getQueryRecordIds();
                 long stopSequentialKNNTime = System.nanoTime();
                 knnSeqScanTimes.add((double) (stopSequentialKNNTime - startSeqKNNTime) / 1000000);
+                knnSeqScanStatistics.add(seqNearestNeighboursQuery.getStatistics());
             }
             i++;
         }
@@ -90,13 +101,18 @@ public class Multiple2DQueries {
                     "R* Time(ms)" +
                     ',' +
                     "Sequential Scan Time(ms)" +
+                    ',' +
+                    statisticsTags("R* ") +
+                    ',' +
+                    statisticsTags("Sequential Scan ") +
                     '\n';
             writer.write(tagString);
 
             // Range Query File creation
             int j = 0;
             while(j < rStarRangeQueryTimes.size()){
-                writer.write(String.format("%.5f", areaOfRectangles.get(j))+ "," + rangeQueryRecords.get(j) +"," +rStarRangeQueryTimes.get(j)+ "," + seqScanRangeQueryTimes.get(j) + "\n");
+                writer.write(String.format("%.5f", areaOfRectangles.get(j))+ "," + rangeQueryRecords.get(j) +"," +rStarRangeQueryTimes.get(j)+ "," + seqScanRangeQueryTimes.get(j)
+                        + "," + statisticsValues(rStarRangeQueryStatistics.get(j)) + "," + statisticsValues(seqScanRangeQueryStatistics.get(j)) + "\n");
                 j++;
 
             }
@@ -110,13 +126,18 @@ public class Multiple2DQueries {
                     "R* Time(ms)" +
                     ',' +
                     "Sequential Scan Time(ms)" +
+                    ',' +
+                    statisticsTags("R* ") +
+                    ',' +
+                    statisticsTags("Sequential Scan ") +
                     '\n';
             writer.write(tagString);
 
             // Knn Query File creation
             int j = 0;
             while(j < knnRStarTimes.size()){
-                writer.write((j + 1)*1000 + "," + knnRStarTimes.get(j)+ "," + knnSeqScanTimes.get(j) + "\n");
+                writer.write((j + 1)*1000 + "," + knnRStarTimes.get(j)+ "," + knnSeqScanTimes.get(j)
+                        + "," + statisticsValues(knnRStarStatistics.get(j)) + "," + statisticsValues(knnSeqScanStatistics.get(j)) + "\n");
                 j++;
 
             }
@@ -125,5 +146,28 @@ public class Multiple2DQueries {
         }
 
     }
-}
 
+    /**
+     * Returns the column names of the execution statistics of a query.
+     *
+     * @param method The name of the method the query was executed with, prefixed to every column.
+     * @return The column names, separated by commas.
+     */
+    private static String statisticsTags(String method) {
+        return method + "Nodes Visited," + method + "Entries Tested," + method + "Index Blocks," + method + "Data Blocks,"
+                + method + "Bytes Deserialized," + method + "Read Time(ms)," + method + "Decode Time(ms)," + method + "Geometry Time(ms)";
+    }
+
+    /**
+     * Returns the values of the execution statistics of a query, in the order of statisticsTags.
+     *
+     * @param statistics The statistics of the query.
+     * @return The values, separated by commas.
+     */
+    private static String statisticsValues(QueryStatistics statistics) {
+        return statistics.getNodesVisited() + "," + (statistics.getLeafEntriesTested() + statistics.getInnerEntriesTested()) + ","
+                + statistics.getIndexBlocksRead() + "," + statistics.getDataBlocksRead() + "," + statistics.getBytesDeserialized() + ","
+                + (double) statistics.getReadNanos() / 1000000 + "," + (double) statistics.getDecodeNanos() / 1000000 + ","
+                + (double) statistics.getGeometryNanos() / 1000000;
+    }
+}
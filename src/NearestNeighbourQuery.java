@@ -7,25 +7,30 @@ import java.util.*;
  * @author Akompian Georgios
  */
 class NearestNeighbourQuery extends Query {
+    private IndexStore indexStore; // The store of the index that is searched
     private ArrayList<Double> searchPoint; // The coordinates of the point used for radius queries
     private double searchPointRadius; // The reference radius that is used as a bound
     private int k; // The number of nearest neighbors to be found
     private PriorityQueue<IdDistancePair> nearestNeighbours; // Using a max heap for the nearest neighbors
+    private NodeKernels nodeKernels; // Used for calculating the distances of all the entries of a node at once
 
 
     /**
      * Constructs a NearestNeighbourQuery with the given search point and the number of neighbors to find.
      *
+     * @param indexStore  The IndexStore of the RStarTree that is searched.
      * @param searchPoint The coordinates of the search point.
      * @param k           The number of nearest neighbors to find.
      * @throws IllegalArgumentException if k is a negative integer.
      */
-    NearestNeighbourQuery(ArrayList<Double> searchPoint, int k) {
+    NearestNeighbourQuery(IndexStore indexStore, ArrayList<Double> searchPoint, int k) {
         if (k < 0)
             throw new IllegalArgumentException("Parameter 'k' for the nearest neighbors must be a positive integer.");
+        this.indexStore = indexStore;
         this.searchPoint = searchPoint;
         this.k = k;
         this.searchPointRadius = Double.MAX_VALUE;
+        this.nodeKernels = new NodeKernels();
         this.nearestNeighbours = new PriorityQueue<>(k, (recordDistancePairA, recordDistancePairB) -> {
             return Double.compare(recordDistancePairB.getDistanceFromItem(), recordDistancePairA.getDistanceFromItem()); // In order to make a MAX heap
         });
@@ -40,44 +45,73 @@ class NearestNeighbourQuery extends Query {
     @Override
     ArrayList<Long> getQueryRecordIds(Node node) {
         ArrayList<Long> qualifyingRecordIds = new ArrayList<>();
+        for (LeafEntry leafEntry : getQueryLeafEntries(node))
+            qualifyingRecordIds.add(leafEntry.getRecordID());
+        return qualifyingRecordIds;
+    }
+
+    /**
+     * Returns the leaf entries of the query's records, the closest first.
+     *
+     * @param node The R-tree node to start the query from.
+     * @return ArrayList of the qualifying records' leaf entries.
+     */
+    @Override
+    ArrayList<LeafEntry> getQueryLeafEntries(Node node) {
+        ArrayList<LeafEntry> qualifyingLeafEntries = new ArrayList<>();
         findNeighbours(node);
         while (nearestNeighbours.size() != 0) {
             IdDistancePair recordDistancePair = nearestNeighbours.poll();
-            qualifyingRecordIds.add(recordDistancePair.getRecordId());
+            qualifyingLeafEntries.add(recordDistancePair.getLeafEntry());
         }
         // Reverse the list to return the closest neighbors first instead of the farthest.
-        Collections.reverse(qualifyingRecordIds);
-        return qualifyingRecordIds;
+        Collections.reverse(qualifyingLeafEntries);
+        return qualifyingLeafEntries;
     }
 
 
 
 
+    /**
+     * Returns the distance of the farthest neighbour found, which bounds the search once k neighbours are found.
+     *
+     * @return The radius around the search point, Double.MAX_VALUE if no neighbour is found.
+     */
+    double getSearchPointRadius() {
+        return searchPointRadius;
+    }
+
     /**
      * Finds the nearest neighbors by using a branch and bound algorithm with the use of the R* tree.
      *
      * @param node The R-tree node to search for neighbors.
      */
     private void findNeighbours(Node node) {
-        node.getEntries().sort(new EntryCompare.EntryDistanceFromPointCompare(node.getEntries(), searchPoint));
+        // The distance of every entry is calculated once and the entries are visited by increasing distance.
+        getStatistics().nodeVisited(node);
+        int size = node.getEntries().size();
+        double[] distances = new double[size];
+        int[] order = new int[size];
+        nodeKernels.load(node);
+        nodeKernels.findMinPointDistances(searchPoint, distances);
+        for (int e = 0; e < size; e++)
+            order[e] = e;
+        NodeKernels.sortByKeys(order, distances, 0, size - 1);
         int i = 0;
         if (node.getLevel() != RStarTree.getLeafLevel()) {
-            while (i < node.getEntries().size() && (nearestNeighbours.size() < k || node.getEntries().get(i).getBoundingBox().findMinPointDistance(searchPoint) <= searchPointRadius)) {
-                findNeighbours(FilesHelper.readIndexFileBlock(node.getEntries().get(i).getChildNodeBlockID()));
+            while (i < size && (nearestNeighbours.size() < k || distances[order[i]] <= searchPointRadius)) {
+                findNeighbours(indexStore.readIndexFileBlock(node.getEntries().get(order[i]).getChildNodeBlockID(), getStatistics()));
                 i++;
             }
         } else {
-            while (i < node.getEntries().size() && (nearestNeighbours.size() < k || node.getEntries().get(i).getBoundingBox().findMinPointDistance(searchPoint) <= searchPointRadius)) {
+            while (i < size && (nearestNeighbours.size() < k || distances[order[i]] <= searchPointRadius)) {
                 if (nearestNeighbours.size() >= k)
                     nearestNeighbours.poll();
-                LeafEntry leafEntry = (LeafEntry) node.getEntries().get(i);
-                double minDistance = leafEntry.getBoundingBox().findMinPointDistance(searchPoint);
-                nearestNeighbours.add(new IdDistancePair(leafEntry.getRecordID(), minDistance));
+                LeafEntry leafEntry = (LeafEntry) node.getEntries().get(order[i]);
+                nearestNeighbours.add(new IdDistancePair(leafEntry, distances[order[i]]));
                 searchPointRadius = nearestNeighbours.peek().getDistanceFromItem();
                 i++;
             }
         }
     }
 }
-
-
@@ -0,0 +1,308 @@
+import java.util.ArrayList;
+
+/**
+ * This class evaluates one query box or point against all the entries of a node at once.
+ * The bounds of the entries are copied in columnar form (all the lower bounds of a dimension next to each other)
+ * and every kernel is a branch-free loop over one column at a time, using only comparisons, subtraction and multiplication,
+ * so that the JIT compiler can turn it into SIMD instructions.
+ * For 2 and 3 dimensions the kernels read all the columns in a single unrolled loop, while any other number of
+ * dimensions uses the generic loops. The dimensions of a tree never change, so the same path is always taken.
+ * The scalar methods of BoundingBox remain the reference implementation and are used wherever single entries are checked.
+ * The buffers are kept between nodes, so an instance must be used by one query (thread) at a time.
+ * @author Christos Kontos
+ */
+class NodeKernels {
+    private int dimensions;
+    private int capacity; // The number of entries the buffers can hold.
+    private int size; // The number of entries loaded.
+    private double[] lower; // lower[d*capacity+e] is the lower bound of entry e in dimension d.
+    private double[] upper;
+    private double[] queryLower; // The bounds of the query box, or the coordinates of the query point.
+    private double[] queryUpper;
+    private double[] squaredDistances; // The squared distance of every entry from the search point.
+    private boolean[] overlaps; // If every entry overlaps the search box.
+
+    /**
+     * This method copies the bounds of the node's entries into the column buffers, growing them if needed.
+     * @param node the node whose entries are evaluated.
+     */
+    void load(Node node)
+    {
+        ArrayList<Entry> entries = node.getEntries();
+        size = entries.size();
+        if(size == 0)
+            return;
+        int entryDimensions = entries.get(0).getBoundingBox().getBounds().size();
+        if(size > capacity || entryDimensions != dimensions)
+        {
+            dimensions = entryDimensions;
+            capacity = Math.max(size, capacity);
+            lower = new double[capacity * dimensions];
+            upper = new double[capacity * dimensions];
+            queryLower = new double[dimensions];
+            queryUpper = new double[dimensions];
+            squaredDistances = new double[capacity];
+            overlaps = new boolean[capacity];
+        }
+        for (int e = 0; e < size; e++)
+        {
+            ArrayList<Bounds> bounds = entries.get(e).getBoundingBox().getBounds();
+            for (int d = 0; d < dimensions; d++)
+            {
+                Bounds dimensionBounds = bounds.get(d);
+                lower[d*capacity+e] = dimensionBounds.getLower();
+                upper[d*capacity+e] = dimensionBounds.getUpper();
+            }
+        }
+    }
+
+    /**
+     * Finds the loaded entries whose boxes overlap the search box, with the semantics of BoundingBox.checkBoxOverlap.
+     * @param searchBoundingBox the bounding box of the range query.
+     * @param overlapping the buffer where the indexes of the overlapping entries are stored, at least as big as the node.
+     * @return the number of overlapping entries.
+     */
+    int findOverlapping(BoundingBox searchBoundingBox, int[] overlapping)
+    {
+        if(size == 0)
+            return 0;
+        for (int d = 0; d < dimensions; d++)
+        {
+            queryLower[d] = searchBoundingBox.getBounds().get(d).getLower();
+            queryUpper[d] = searchBoundingBox.getBounds().get(d).getUpper();
+        }
+        if(dimensions == 2)
+            findOverlapping2D();
+        else if(dimensions == 3)
+            findOverlapping3D();
+        else
+            findOverlappingND();
+        int found = 0;
+        for (int e = 0; e < size; e++)
+        {
+            if(overlaps[e])
+                overlapping[found++] = e;
+        }
+        return found;
+    }
+
+    /**
+     * Calculates the minimum distance of the search point from the box of every loaded entry,
+     * with the semantics of BoundingBox.findMinPointDistance.
+     * @param searchPoint the coordinates of the point.
+     * @param distances the buffer where the distance of every entry is stored, at least as big as the node.
+     */
+    void findMinPointDistances(ArrayList<Double> searchPoint, double[] distances)
+    {
+        if(size == 0)
+            return;
+        for (int d = 0; d < dimensions; d++)
+        {
+            queryLower[d] = searchPoint.get(d);
+        }
+        if(dimensions == 2)
+            findSquaredDistances2D();
+        else if(dimensions == 3)
+            findSquaredDistances3D();
+        else
+            findSquaredDistancesND();
+        for (int e = 0; e < size; e++)
+        {
+            distances[e] = Math.sqrt(squaredDistances[e]);
+        }
+    }
+
+    /**
+     * The overlap kernel for any number of dimensions, one column at a time.
+     * overlaps[e] stays true while entry e overlaps the search box in every dimension checked so far.
+     */
+    private void findOverlappingND()
+    {
+        double qLower = queryLower[0];
+        double qUpper = queryUpper[0];
+        for (int e = 0; e < size; e++)
+        {
+            overlaps[e] = lower[e] <= qUpper & upper[e] >= qLower;
+        }
+        for (int d = 1; d < dimensions; d++)
+        {
+            int column = d * capacity;
+            qLower = queryLower[d];
+            qUpper = queryUpper[d];
+            for (int e = 0; e < size; e++)
+            {
+                overlaps[e] &= lower[column+e] <= qUpper & upper[column+e] >= qLower;
+            }
+        }
+    }
+
+    /**
+     * The overlap kernel for 2 dimensions, checking both columns in a single loop.
+     */
+    private void findOverlapping2D()
+    {
+        double xLower = queryLower[0], xUpper = queryUpper[0];
+        double yLower = queryLower[1], yUpper = queryUpper[1];
+        int y = capacity;
+        for (int e = 0; e < size; e++)
+        {
+            overlaps[e] = lower[e] <= xUpper & upper[e] >= xLower
+                    & lower[y+e] <= yUpper & upper[y+e] >= yLower;
+        }
+    }
+
+    /**
+     * The overlap kernel for 3 dimensions, checking all three columns in a single loop.
+     */
+    private void findOverlapping3D()
+    {
+        double xLower = queryLower[0], xUpper = queryUpper[0];
+        double yLower = queryLower[1], yUpper = queryUpper[1];
+        double zLower = queryLower[2], zUpper = queryUpper[2];
+        int y = capacity;
+        int z = 2 * capacity;
+        for (int e = 0; e < size; e++)
+        {
+            overlaps[e] = lower[e] <= xUpper & upper[e] >= xLower
+                    & lower[y+e] <= yUpper & upper[y+e] >= yLower
+                    & lower[z+e] <= zUpper & upper[z+e] >= zLower;
+        }
+    }
+
+    /**
+     * The distance kernel for any number of dimensions, adding the squared distance of one column at a time.
+     */
+    private void findSquaredDistancesND()
+    {
+        for (int e = 0; e < size; e++)
+        {
+            squaredDistances[e] = 0;
+        }
+        for (int d = 0; d < dimensions; d++)
+        {
+            int column = d * capacity;
+            double p = queryLower[d];
+            for (int e = 0; e < size; e++)
+            {
+                double outside = outside(lower[column+e], upper[column+e], p);
+                squaredDistances[e] += outside * outside;
+            }
+        }
+    }
+
+    /**
+     * The distance kernel for 2 dimensions, reading both columns in a single loop.
+     */
+    private void findSquaredDistances2D()
+    {
+        double px = queryLower[0];
+        double py = queryLower[1];
+        int y = capacity;
+        for (int e = 0; e < size; e++)
+        {
+            double dx = outside(lower[e], upper[e], px);
+            double dy = outside(lower[y+e], upper[y+e], py);
+            squaredDistances[e] = dx * dx + dy * dy;
+        }
+    }
+
+    /**
+     * The distance kernel for 3 dimensions, reading all three columns in a single loop.
+     */
+    private void findSquaredDistances3D()
+    {
+        double px = queryLower[0];
+        double py = queryLower[1];
+        double pz = queryLower[2];
+        int y = capacity;
+        int z = 2 * capacity;
+        for (int e = 0; e < size; e++)
+        {
+            double dx = outside(lower[e], upper[e], px);
+            double dy = outside(lower[y+e], upper[y+e], py);
+            double dz = outside(lower[z+e], upper[z+e], pz);
+            squaredDistances[e] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    /**
+     * Calculates the distance of a coordinate from the bounds of a dimension, 0 if it is inside them.
+     * At most one of the two terms is positive.
+     * @param lower the lower bound of the dimension.
+     * @param upper the upper bound of the dimension.
+     * @param p the coordinate.
+     * @return the distance of the coordinate outside the bounds.
+     */
+    private static double outside(double lower, double upper, double p)
+    {
+        double below = lower - p;
+        double above = p - upper;
+        return (below > 0 ? below : 0) + (above > 0 ? above : 0);
+    }
+
+    /**
+     * Sorts the given positions of the index buffer by their keys, ties ordered by the index,
+     * so the order is the same as that of a stable sort of the entries.
+     * In-place quicksort with insertion sort for short ranges.
+     * @param order the entry indexes to be sorted.
+     * @param keys the sort key of every entry index.
+     * @param from the first position of the range to be sorted.
+     * @param to the last position of the range to be sorted.
+     */
+    static void sortByKeys(int[] order, double[] keys, int from, int to)
+    {
+        while (to - from > 16)
+        {
+            int middle = (from + to) >>> 1;
+            int pivot = order[middle];
+            int i = from;
+            int j = to;
+            while (i <= j)
+            {
+                while (compare(keys, order[i], pivot) < 0) i++;
+                while (compare(keys, order[j], pivot) > 0) j--;
+                if(i <= j)
+                {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            // Recurse on the shorter range to keep the stack depth logarithmic.
+            if(j - from < to - i)
+            {
+                sortByKeys(order, keys, from, j);
+                from = i;
+            }
+            else
+            {
+                sortByKeys(order, keys, i, to);
+                to = j;
+            }
+        }
+        for (int i = from + 1; i <= to; i++)
+        {
+            int current = order[i];
+            int j = i - 1;
+            while (j >= from && compare(keys, order[j], current) > 0)
+            {
+                order[j+1] = order[j];
+                j--;
+            }
+            order[j+1] = current;
+        }
+    }
+
+    /**
+     * Compares two entries by their sort key and then by their index.
+     * @param keys the sort key of every entry index.
+     * @param entryA the index of the first entry.
+     * @param entryB the index of the second entry.
+     * @return a negative integer, zero, or a positive integer as the first entry is sorted before, with or after the second.
+     */
+    private static int compare(double[] keys, int entryA, int entryB)
+    {
+        int result = Double.compare(keys[entryA], keys[entryB]);
+        return result != 0 ? result : Integer.compare(entryA, entryB);
+    }
+}
@@ -0,0 +1,215 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * NodeKernelsBenchmark compares the columnar NodeKernels with the per entry methods of BoundingBox
+ * (checkBoxOverlap and findMinPointDistance) on random leaf nodes of realistic fanouts and several dimensions.
+ * It prints the average time of checking one node for each implementation, with the kernels timed both together with
+ * loading the node's columns (as the queries use them) and alone on a loaded node,
+ * and verifies that both implementations give the same results.
+ *
+ * @author Christos Kontos
+ */
+public class NodeKernelsBenchmark {
+    private static final int[] DIMENSIONS = {2, 3, 4, 8};
+    private static final int[] NODE_SIZES = {41, 174, 350};
+    private static final int NODES = 200; // The random nodes of each size
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    /**
+     * Main method that runs the comparison for every dimension and node size and prints the results.
+     *
+     * @param args The command-line arguments (not used in this application).
+     */
+    public static void main(String[] args) {
+        Random random = new Random(NODES);
+        System.out.println("Dimensions,Node Size,Overlap Scalar(us),Overlap Kernel(us),Overlap Speedup,"
+                + "Distance Scalar(us),Distance Kernel(us),Distance Speedup,Overlap Loaded Kernel(us),Distance Loaded Kernel(us),Same Results");
+        for (int dimensions : DIMENSIONS) {
+            for (int nodeSize : NODE_SIZES) {
+                ArrayList<Node> nodes = new ArrayList<>();
+                ArrayList<BoundingBox> searchBoxes = new ArrayList<>();
+                ArrayList<ArrayList<Double>> searchPoints = new ArrayList<>();
+                for (int n = 0; n < NODES; n++) {
+                    nodes.add(randomNode(random, nodeSize, dimensions));
+                    searchBoxes.add(randomBox(random, dimensions, 0.3));
+                    ArrayList<Double> point = new ArrayList<>();
+                    for (int d = 0; d < dimensions; d++)
+                        point.add(random.nextDouble());
+                    searchPoints.add(point);
+                }
+
+                NodeKernels nodeKernels = new NodeKernels();
+                int[] overlapping = new int[nodeSize];
+                double[] distances = new double[nodeSize];
+                boolean sameResults = true;
+                for (int n = 0; n < NODES; n++) {
+                    nodeKernels.load(nodes.get(n));
+                    int found = nodeKernels.findOverlapping(searchBoxes.get(n), overlapping);
+                    nodeKernels.findMinPointDistances(searchPoints.get(n), distances);
+                    int scalarFound = 0;
+                    for (int e = 0; e < nodeSize; e++) {
+                        BoundingBox entryBox = nodes.get(n).getEntries().get(e).getBoundingBox();
+                        if (BoundingBox.checkBoxOverlap(entryBox, searchBoxes.get(n)))
+                            sameResults &= scalarFound < found && overlapping[scalarFound++] == e;
+                        sameResults &= Math.abs(entryBox.findMinPointDistance(searchPoints.get(n)) - distances[e]) < 1e-12;
+                    }
+                    sameResults &= scalarFound == found;
+                }
+
+                for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                    scalarOverlap(nodes, searchBoxes);
+                    kernelOverlap(nodes, searchBoxes, nodeKernels, overlapping);
+                    scalarDistance(nodes, searchPoints);
+                    kernelDistance(nodes, searchPoints, nodeKernels, distances);
+                }
+                long startTime = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++)
+                    scalarOverlap(nodes, searchBoxes);
+                double scalarOverlapTime = perNode(startTime);
+                startTime = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++)
+                    kernelOverlap(nodes, searchBoxes, nodeKernels, overlapping);
+                double kernelOverlapTime = perNode(startTime);
+                startTime = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++)
+                    scalarDistance(nodes, searchPoints);
+                double scalarDistanceTime = perNode(startTime);
+                startTime = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++)
+                    kernelDistance(nodes, searchPoints, nodeKernels, distances);
+                double kernelDistanceTime = perNode(startTime);
+                // The kernels alone, on the columns of a node that is already loaded
+                nodeKernels.load(nodes.get(0));
+                startTime = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++)
+                    for (int n = 0; n < NODES; n++)
+                        nodeKernels.findOverlapping(searchBoxes.get(n), overlapping);
+                double loadedOverlapTime = perNode(startTime);
+                startTime = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++)
+                    for (int n = 0; n < NODES; n++)
+                        nodeKernels.findMinPointDistances(searchPoints.get(n), distances);
+                double loadedDistanceTime = perNode(startTime);
+
+                System.out.println(dimensions + "," + nodeSize + ","
+                        + String.format("%.3f", scalarOverlapTime) + "," + String.format("%.3f", kernelOverlapTime) + ","
+                        + String.format("%.1f", scalarOverlapTime / kernelOverlapTime) + ","
+                        + String.format("%.3f", scalarDistanceTime) + "," + String.format("%.3f", kernelDistanceTime) + ","
+                        + String.format("%.1f", scalarDistanceTime / kernelDistanceTime) + ","
+                        + String.format("%.3f", loadedOverlapTime) + "," + String.format("%.3f", loadedDistanceTime) + "," + sameResults);
+            }
+        }
+    }
+
+    /**
+     * Calculates the average time of checking one node since the given start time.
+     *
+     * @param startTime The time (ns) the measured rounds started.
+     * @return The average time (us) per node.
+     */
+    private static double perNode(long startTime) {
+        return (System.nanoTime() - startTime) / 1000.0 / ((double) MEASURED_ROUNDS * NODES);
+    }
+
+    /**
+     * Checks every entry of every node against the node's search box with BoundingBox.checkBoxOverlap.
+     *
+     * @param nodes       The random nodes.
+     * @param searchBoxes The search box of each node.
+     * @return The number of overlapping entries.
+     */
+    private static int scalarOverlap(ArrayList<Node> nodes, ArrayList<BoundingBox> searchBoxes) {
+        int found = 0;
+        for (int n = 0; n < nodes.size(); n++)
+            for (Entry entry : nodes.get(n).getEntries())
+                if (BoundingBox.checkBoxOverlap(entry.getBoundingBox(), searchBoxes.get(n)))
+                    found++;
+        return found;
+    }
+
+    /**
+     * Loads every node in the NodeKernels and finds the entries that overlap the node's search box.
+     *
+     * @param nodes       The random nodes.
+     * @param searchBoxes The search box of each node.
+     * @param nodeKernels The kernels used.
+     * @param overlapping The buffer for the indexes of the overlapping entries.
+     * @return The number of overlapping entries.
+     */
+    private static int kernelOverlap(ArrayList<Node> nodes, ArrayList<BoundingBox> searchBoxes, NodeKernels nodeKernels, int[] overlapping) {
+        int found = 0;
+        for (int n = 0; n < nodes.size(); n++) {
+            nodeKernels.load(nodes.get(n));
+            found += nodeKernels.findOverlapping(searchBoxes.get(n), overlapping);
+        }
+        return found;
+    }
+
+    /**
+     * Calculates the distance of every entry of every node from the node's search point with BoundingBox.findMinPointDistance.
+     *
+     * @param nodes        The random nodes.
+     * @param searchPoints The search point of each node.
+     * @return The sum of the distances, so that the work is not optimized away.
+     */
+    private static double scalarDistance(ArrayList<Node> nodes, ArrayList<ArrayList<Double>> searchPoints) {
+        double sum = 0;
+        for (int n = 0; n < nodes.size(); n++)
+            for (Entry entry : nodes.get(n).getEntries())
+                sum += entry.getBoundingBox().findMinPointDistance(searchPoints.get(n));
+        return sum;
+    }
+
+    /**
+     * Loads every node in the NodeKernels and calculates the distances of its entries from the node's search point.
+     *
+     * @param nodes        The random nodes.
+     * @param searchPoints The search point of each node.
+     * @param nodeKernels  The kernels used.
+     * @param distances    The buffer for the distances of the entries.
+     * @return The sum of the first distances, so that the work is not optimized away.
+     */
+    private static double kernelDistance(ArrayList<Node> nodes, ArrayList<ArrayList<Double>> searchPoints, NodeKernels nodeKernels, double[] distances) {
+        double sum = 0;
+        for (int n = 0; n < nodes.size(); n++) {
+            nodeKernels.load(nodes.get(n));
+            nodeKernels.findMinPointDistances(searchPoints.get(n), distances);
+            sum += distances[0];
+        }
+        return sum;
+    }
+
+    /**
+     * Creates a leaf node with the given number of entries with random small boxes.
+     *
+     * @param random     The random generator used.
+     * @param entries    The number of entries of the node.
+     * @param dimensions The dimensions of the boxes.
+     * @return The random node.
+     */
+    private static Node randomNode(Random random, int entries, int dimensions) {
+        ArrayList<Entry> nodeEntries = new ArrayList<>();
+        for (int e = 0; e < entries; e++)
+            nodeEntries.add(new Entry(randomBox(random, dimensions, 0.05)));
+        return new Node(RStarTree.getLeafLevel(), nodeEntries);
+    }
+
+    /**
+     * Creates a random box inside the unit cube.
+     *
+     * @param random     The random generator used.
+     * @param dimensions The dimensions of the box.
+     * @param maxSide    The maximum side of the box.
+     * @return The random box.
+     */
+    private static BoundingBox randomBox(Random random, int dimensions, double maxSide) {
+        ArrayList<Bounds> bounds = new ArrayList<>();
+        for (int d = 0; d < dimensions; d++) {
+            double lower = random.nextDouble();
+            bounds.add(new Bounds(lower, lower + random.nextDouble() * maxSide));
+        }
+        return new BoundingBox(bounds);
+    }
+}
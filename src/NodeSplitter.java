@@ -0,0 +1,342 @@
+import java.util.ArrayList;
+
+/**
+ * This class implements the R* split of an overflowing node.
+ * The bounds of the entries are copied once in primitive buffers and for each axis the entries are sorted once
+ * by their lower and once by their upper bound. The bounding boxes of every prefix and suffix of a sorted order
+ * are then computed in two linear passes, so the perimeter, overlap and area of every distribution are found
+ * without creating any groups or bounding boxes. Only the winning distribution is turned into nodes.
+ * Subclasses can change how the distribution of the split axis is chosen by overriding chooseSplitIndex.
+ * The buffers are kept between splits, so an instance must be used by one tree (thread) at a time.
+ * @author Christos Kontos
+ */
+class NodeSplitter {
+    protected final int minEntries; // The minimum entries (m) of a node.
+    protected final int maxEntries; // The maximum entries (M) of a node.
+    protected int dimensions;
+    private int capacity; // The number of entries the buffers can hold.
+    private double[] lower; // lower[e*dimensions+d] is the lower bound of entry e in dimension d.
+    private double[] upper;
+    protected double[] prefixLower; // prefixLower[k*dimensions+d] is the lower bound of the box of the first k+1 sorted entries.
+    protected double[] prefixUpper;
+    protected double[] suffixLower; // suffixLower[k*dimensions+d] is the lower bound of the box of the sorted entries from k to the end.
+    protected double[] suffixUpper;
+    private double[] sortKeys;
+    protected int[] lowerSortedOrder; // The entry indexes sorted by the lower bound of an axis.
+    protected int[] upperSortedOrder; // The entry indexes sorted by the upper bound of an axis.
+    protected int[] splitOrder; // The sorted order of the chosen distribution.
+    protected int splitFirstGroupSize; // The number of entries in the first group of the chosen distribution.
+
+    /**
+     * The constructor of the splitter with the node capacities of the tree.
+     * @param minEntries the minimum entries (m) of a node of the tree.
+     * @param maxEntries the maximum entries (M) of a node of the tree.
+     */
+    NodeSplitter(int minEntries, int maxEntries)
+    {
+        this.minEntries = minEntries;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * This method splits the entries of the given node into two nodes of the same level,
+     * using the distribution picked by chooseSplitIndex along the axis with the minimum perimeter sum.
+     * @param node the node that overflowed.
+     * @return the 2 nodes that occurred from the split.
+     */
+    ArrayList<Node> splitNode(Node node)
+    {
+        ArrayList<Entry> entries = node.getEntries();
+        int size = entries.size();
+        if(size < 2*minEntries || minEntries < 1)
+        {
+            throw new IllegalArgumentException("Wrong group size.");
+        }
+        loadEntries(entries);
+
+        // [ChooseSplitAxis] the axis with the minimum sum of the perimeters of all its distributions.
+        int splitAxis = 0;
+        double splitAxisPerimeterSum = Double.MAX_VALUE;
+        for (int axis = 0; axis < dimensions; axis++)
+        {
+            sortOrder(lowerSortedOrder, lower, axis, size);
+            sortOrder(upperSortedOrder, upper, axis, size);
+            double perimeterSum = perimeterSum(lowerSortedOrder, size) + perimeterSum(upperSortedOrder, size);
+            if(splitAxisPerimeterSum > perimeterSum)
+            {
+                splitAxisPerimeterSum = perimeterSum;
+                splitAxis = axis;
+            }
+        }
+
+        // [ChooseSplitIndex] among the distributions of both sort orders of the split axis.
+        sortOrder(lowerSortedOrder, lower, splitAxis, size);
+        sortOrder(upperSortedOrder, upper, splitAxis, size);
+        chooseSplitIndex(size);
+        int[] bestOrder = splitOrder;
+        int bestFirstGroupSize = splitFirstGroupSize;
+
+        ArrayList<Entry> groupA = new ArrayList<>(bestFirstGroupSize);
+        ArrayList<Entry> groupB = new ArrayList<>(size - bestFirstGroupSize);
+        for (int k = 0; k < size; k++)
+        {
+            if(k < bestFirstGroupSize)
+                groupA.add(entries.get(bestOrder[k]));
+            else
+                groupB.add(entries.get(bestOrder[k]));
+        }
+        ArrayList<Node> splitNodes = new ArrayList<>();
+        splitNodes.add(new Node(node.getLevel(),groupA));
+        splitNodes.add(new Node(node.getLevel(),groupB));
+        return splitNodes;
+    }
+
+    /**
+     * This method chooses the distribution of the split axis with the minimum overlap, ties resolved by the minimum area.
+     * The lower and upper sorted orders of the split axis must already be computed.
+     * It stores the chosen order and the size of its first group in splitOrder and splitFirstGroupSize.
+     * @param size the number of entries.
+     */
+    protected void chooseSplitIndex(int size)
+    {
+        double minOverlapVal = Double.MAX_VALUE;
+        double minAreaVal = Double.MAX_VALUE;
+        splitOrder = lowerSortedOrder;
+        splitFirstGroupSize = minEntries;
+        for (int sort = 0; sort < 2; sort++)
+        {
+            int[] order = sort == 0 ? lowerSortedOrder : upperSortedOrder;
+            computePrefixSuffixBoxes(order, size);
+            for (int firstGroupSize = minEntries; firstGroupSize <= size - minEntries; firstGroupSize++)
+            {
+                int a = (firstGroupSize - 1) * dimensions;
+                int b = firstGroupSize * dimensions;
+                double overlap = 1;
+                double areaA = 1;
+                double areaB = 1;
+                for (int d = 0; d < dimensions; d++)
+                {
+                    double overlapD = Math.min(prefixUpper[a+d], suffixUpper[b+d]) - Math.max(prefixLower[a+d], suffixLower[b+d]);
+                    overlap = overlapD <= 0 ? 0 : overlap * overlapD;
+                    areaA *= prefixUpper[a+d] - prefixLower[a+d];
+                    areaB *= suffixUpper[b+d] - suffixLower[b+d];
+                }
+                double area = areaA + areaB;
+                if(minOverlapVal > overlap || (minOverlapVal == overlap && minAreaVal > area))
+                {
+                    minOverlapVal = overlap;
+                    minAreaVal = area;
+                    splitOrder = order;
+                    splitFirstGroupSize = firstGroupSize;
+                }
+            }
+        }
+    }
+
+    /**
+     * This method copies the bounds of the entries into the lower and upper buffers, growing the buffers if needed.
+     * @param entries the entries of the node that is split.
+     */
+    private void loadEntries(ArrayList<Entry> entries)
+    {
+        int size = entries.size();
+        int entryDimensions = entries.get(0).getBoundingBox().getBounds().size();
+        if(size > capacity || entryDimensions != dimensions)
+        {
+            dimensions = entryDimensions;
+            capacity = Math.max(size, maxEntries + 1);
+            lower = new double[capacity * dimensions];
+            upper = new double[capacity * dimensions];
+            prefixLower = new double[capacity * dimensions];
+            prefixUpper = new double[capacity * dimensions];
+            suffixLower = new double[capacity * dimensions];
+            suffixUpper = new double[capacity * dimensions];
+            sortKeys = new double[capacity];
+            lowerSortedOrder = new int[capacity];
+            upperSortedOrder = new int[capacity];
+        }
+        for (int e = 0; e < size; e++)
+        {
+            ArrayList<Bounds> bounds = entries.get(e).getBoundingBox().getBounds();
+            for (int d = 0; d < dimensions; d++)
+            {
+                lower[e*dimensions+d] = bounds.get(d).getLower();
+                upper[e*dimensions+d] = bounds.get(d).getUpper();
+            }
+        }
+    }
+
+    /**
+     * This method sorts the entry indexes by the given bound of an axis, ties ordered by the entry index
+     * so the same entries always give the same split.
+     * @param order the buffer where the sorted entry indexes are stored.
+     * @param bound the lower or upper buffer.
+     * @param axis the axis whose bound is used for sorting.
+     * @param size the number of entries.
+     */
+    private void sortOrder(int[] order, double[] bound, int axis, int size)
+    {
+        for (int e = 0; e < size; e++)
+        {
+            order[e] = e;
+            sortKeys[e] = bound[e*dimensions+axis];
+        }
+        NodeKernels.sortByKeys(order, sortKeys, 0, size - 1);
+    }
+
+    /**
+     * This method computes the bounding boxes of every prefix and every suffix of the given sorted order,
+     * with unrolled loops for 2 and 3 dimensions.
+     * @param order the sorted entry indexes.
+     * @param size the number of entries.
+     */
+    protected void computePrefixSuffixBoxes(int[] order, int size)
+    {
+        if(dimensions == 2)
+        {
+            computePrefixSuffixBoxes2D(order, size);
+            return;
+        }
+        if(dimensions == 3)
+        {
+            computePrefixSuffixBoxes3D(order, size);
+            return;
+        }
+        for (int d = 0; d < dimensions; d++)
+        {
+            prefixLower[d] = lower[order[0]*dimensions+d];
+            prefixUpper[d] = upper[order[0]*dimensions+d];
+            int last = (size - 1) * dimensions + d;
+            suffixLower[last] = lower[order[size-1]*dimensions+d];
+            suffixUpper[last] = upper[order[size-1]*dimensions+d];
+        }
+        for (int k = 1; k < size; k++)
+        {
+            int entry = order[k] * dimensions;
+            int current = k * dimensions;
+            int previous = current - dimensions;
+            for (int d = 0; d < dimensions; d++)
+            {
+                prefixLower[current+d] = Math.min(prefixLower[previous+d], lower[entry+d]);
+                prefixUpper[current+d] = Math.max(prefixUpper[previous+d], upper[entry+d]);
+            }
+        }
+        for (int k = size - 2; k >= 0; k--)
+        {
+            int entry = order[k] * dimensions;
+            int current = k * dimensions;
+            int next = current + dimensions;
+            for (int d = 0; d < dimensions; d++)
+            {
+                suffixLower[current+d] = Math.min(suffixLower[next+d], lower[entry+d]);
+                suffixUpper[current+d] = Math.max(suffixUpper[next+d], upper[entry+d]);
+            }
+        }
+    }
+
+    /**
+     * The prefix and suffix boxes for 2 dimensions, with the running box kept in local variables.
+     * @param order the sorted entry indexes.
+     * @param size the number of entries.
+     */
+    private void computePrefixSuffixBoxes2D(int[] order, int size)
+    {
+        double xLower = Double.MAX_VALUE, xUpper = -Double.MAX_VALUE;
+        double yLower = Double.MAX_VALUE, yUpper = -Double.MAX_VALUE;
+        for (int k = 0; k < size; k++)
+        {
+            int entry = order[k] * 2;
+            xLower = Math.min(xLower, lower[entry]);
+            xUpper = Math.max(xUpper, upper[entry]);
+            yLower = Math.min(yLower, lower[entry+1]);
+            yUpper = Math.max(yUpper, upper[entry+1]);
+            prefixLower[2*k] = xLower;
+            prefixUpper[2*k] = xUpper;
+            prefixLower[2*k+1] = yLower;
+            prefixUpper[2*k+1] = yUpper;
+        }
+        xLower = Double.MAX_VALUE; xUpper = -Double.MAX_VALUE;
+        yLower = Double.MAX_VALUE; yUpper = -Double.MAX_VALUE;
+        for (int k = size - 1; k >= 0; k--)
+        {
+            int entry = order[k] * 2;
+            xLower = Math.min(xLower, lower[entry]);
+            xUpper = Math.max(xUpper, upper[entry]);
+            yLower = Math.min(yLower, lower[entry+1]);
+            yUpper = Math.max(yUpper, upper[entry+1]);
+            suffixLower[2*k] = xLower;
+            suffixUpper[2*k] = xUpper;
+            suffixLower[2*k+1] = yLower;
+            suffixUpper[2*k+1] = yUpper;
+        }
+    }
+
+    /**
+     * The prefix and suffix boxes for 3 dimensions, with the running box kept in local variables.
+     * @param order the sorted entry indexes.
+     * @param size the number of entries.
+     */
+    private void computePrefixSuffixBoxes3D(int[] order, int size)
+    {
+        double xLower = Double.MAX_VALUE, xUpper = -Double.MAX_VALUE;
+        double yLower = Double.MAX_VALUE, yUpper = -Double.MAX_VALUE;
+        double zLower = Double.MAX_VALUE, zUpper = -Double.MAX_VALUE;
+        for (int k = 0; k < size; k++)
+        {
+            int entry = order[k] * 3;
+            xLower = Math.min(xLower, lower[entry]);
+            xUpper = Math.max(xUpper, upper[entry]);
+            yLower = Math.min(yLower, lower[entry+1]);
+            yUpper = Math.max(yUpper, upper[entry+1]);
+            zLower = Math.min(zLower, lower[entry+2]);
+            zUpper = Math.max(zUpper, upper[entry+2]);
+            prefixLower[3*k] = xLower;
+            prefixUpper[3*k] = xUpper;
+            prefixLower[3*k+1] = yLower;
+            prefixUpper[3*k+1] = yUpper;
+            prefixLower[3*k+2] = zLower;
+            prefixUpper[3*k+2] = zUpper;
+        }
+        xLower = Double.MAX_VALUE; xUpper = -Double.MAX_VALUE;
+        yLower = Double.MAX_VALUE; yUpper = -Double.MAX_VALUE;
+        zLower = Double.MAX_VALUE; zUpper = -Double.MAX_VALUE;
+        for (int k = size - 1; k >= 0; k--)
+        {
+            int entry = order[k] * 3;
+            xLower = Math.min(xLower, lower[entry]);
+            xUpper = Math.max(xUpper, upper[entry]);
+            yLower = Math.min(yLower, lower[entry+1]);
+            yUpper = Math.max(yUpper, upper[entry+1]);
+            zLower = Math.min(zLower, lower[entry+2]);
+            zUpper = Math.max(zUpper, upper[entry+2]);
+            suffixLower[3*k] = xLower;
+            suffixUpper[3*k] = xUpper;
+            suffixLower[3*k+1] = yLower;
+            suffixUpper[3*k+1] = yUpper;
+            suffixLower[3*k+2] = zLower;
+            suffixUpper[3*k+2] = zUpper;
+        }
+    }
+
+    /**
+     * This method calculates the sum of the perimeters of the two groups of every distribution of the given sorted order.
+     * @param order the sorted entry indexes.
+     * @param size the number of entries.
+     * @return the perimeter sum of the distributions.
+     */
+    private double perimeterSum(int[] order, int size)
+    {
+        computePrefixSuffixBoxes(order, size);
+        double perimeterSum = 0;
+        for (int firstGroupSize = minEntries; firstGroupSize <= size - minEntries; firstGroupSize++)
+        {
+            int a = (firstGroupSize - 1) * dimensions;
+            int b = firstGroupSize * dimensions;
+            for (int d = 0; d < dimensions; d++)
+            {
+                perimeterSum += (prefixUpper[a+d] - prefixLower[a+d]) + (suffixUpper[b+d] - suffixLower[b+d]);
+            }
+        }
+        return perimeterSum;
+    }
+}
@@ -0,0 +1,212 @@
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * This class is the compressed block format of an inner node of the tree.
+ * Instead of full Entry objects, it stores the bounding box of the node once (the frame) and the bounds of every child
+ * as 8 or 16 bit codes of a grid laid over the frame, along with the block IDs of the children.
+ * The codes are rounded outward, so a decoded box always contains the original one and no query misses a subtree.
+ * Encoding a decoded box again on the same frame gives the same codes, so boxes do not grow while the node's box stays the same.
+ * @author Christos Kontos
+ */
+class QuantizedNode implements Serializable {
+    private final int level; // The level of the tree that the node is located at.
+    private final long blockID; // The unique ID of the file block that the node refers to.
+    private final int bits; // The bits of every code, 8 or 16.
+    private final double[] frameLower; // The lower bound of the node's box in every dimension.
+    private final double[] frameUpper; // The upper bound of the node's box in every dimension.
+    private final byte[] codes; // The lower and upper code of every child in every dimension, bits/8 bytes each.
+    private final long[] childNodeBlockIDs; // The block ID of every child.
+
+    /**
+     * The constructor of the compressed node, used by encode.
+     * @param level the level of the node.
+     * @param blockID the block ID of the node.
+     * @param bits the bits of every code, 8 or 16.
+     * @param frameLower the lower bound of the node's box in every dimension.
+     * @param frameUpper the upper bound of the node's box in every dimension.
+     * @param codes the codes of the children's bounds.
+     * @param childNodeBlockIDs the block ID of every child.
+     */
+    private QuantizedNode(int level, long blockID, int bits, double[] frameLower, double[] frameUpper, byte[] codes, long[] childNodeBlockIDs)
+    {
+        this.level = level;
+        this.blockID = blockID;
+        this.bits = bits;
+        this.frameLower = frameLower;
+        this.frameUpper = frameUpper;
+        this.codes = codes;
+        this.childNodeBlockIDs = childNodeBlockIDs;
+    }
+
+    /**
+     * Checks if the given number of bits can be used for the codes.
+     * @param bits the bits of every code.
+     * @return true for 8 or 16 bits.
+     */
+    static boolean isSupported(int bits)
+    {
+        return bits == 8 || bits == 16;
+    }
+
+    /**
+     * This method compresses an inner node, with the box of its entries as the frame.
+     * @param node the inner node, with at least one entry.
+     * @param bits the bits of every code, 8 or 16.
+     * @return the compressed node.
+     */
+    static QuantizedNode encode(Node node, int bits)
+    {
+        if(!isSupported(bits))
+            throw new IllegalArgumentException("The bounds of the inner nodes can only be stored in 8 or 16 bits.");
+        ArrayList<Entry> entries = node.getEntries();
+        ArrayList<Bounds> frame = Bounds.findMinBounds(entries);
+        int dimensions = frame.size();
+        double[] frameLower = new double[dimensions];
+        double[] frameUpper = new double[dimensions];
+        for (int d = 0; d < dimensions; d++)
+        {
+            frameLower[d] = frame.get(d).getLower();
+            frameUpper[d] = frame.get(d).getUpper();
+        }
+
+        int maxCode = (1 << bits) - 1;
+        int bytesPerCode = bits / 8;
+        byte[] codes = new byte[entries.size() * dimensions * 2 * bytesPerCode];
+        long[] childNodeBlockIDs = new long[entries.size()];
+        int position = 0;
+        for (int e = 0; e < entries.size(); e++)
+        {
+            ArrayList<Bounds> bounds = entries.get(e).getBoundingBox().getBounds();
+            for (int d = 0; d < dimensions; d++)
+            {
+                int lowerCode = encodeLower(bounds.get(d).getLower(), frameLower[d], frameUpper[d], maxCode);
+                int upperCode = encodeUpper(bounds.get(d).getUpper(), frameLower[d], frameUpper[d], maxCode);
+                position = putCode(codes, position, lowerCode, bytesPerCode);
+                position = putCode(codes, position, upperCode, bytesPerCode);
+            }
+            childNodeBlockIDs[e] = entries.get(e).getChildNodeBlockID();
+        }
+        return new QuantizedNode(node.getLevel(), node.getBlockID(), bits, frameLower, frameUpper, codes, childNodeBlockIDs);
+    }
+
+    /**
+     * This method turns the compressed node back into a node, whose entries have the decoded boxes.
+     * @return the decoded node.
+     */
+    Node decode()
+    {
+        int dimensions = frameLower.length;
+        int maxCode = (1 << bits) - 1;
+        int bytesPerCode = bits / 8;
+        ArrayList<Entry> entries = new ArrayList<>(childNodeBlockIDs.length);
+        int position = 0;
+        for (long childNodeBlockID : childNodeBlockIDs)
+        {
+            ArrayList<Bounds> bounds = new ArrayList<>(dimensions);
+            for (int d = 0; d < dimensions; d++)
+            {
+                int lowerCode = getCode(codes, position, bytesPerCode);
+                position += bytesPerCode;
+                int upperCode = getCode(codes, position, bytesPerCode);
+                position += bytesPerCode;
+                bounds.add(new Bounds(decode(lowerCode, frameLower[d], frameUpper[d], maxCode),
+                        decode(upperCode, frameLower[d], frameUpper[d], maxCode)));
+            }
+            Entry entry = new Entry(new BoundingBox(bounds));
+            entry.setChildNodeBlockID(childNodeBlockID);
+            entries.add(entry);
+        }
+        Node node = new Node(level, entries);
+        node.setBlockID(blockID);
+        return node;
+    }
+
+    /**
+     * Calculates the value of a grid code, with the first and last codes giving the exact bounds of the frame.
+     * @param code the code.
+     * @param frameLower the lower bound of the frame in the dimension.
+     * @param frameUpper the upper bound of the frame in the dimension.
+     * @param maxCode the last code of the grid.
+     * @return the value of the code.
+     */
+    private static double decode(int code, double frameLower, double frameUpper, int maxCode)
+    {
+        if(code == maxCode)
+            return frameUpper;
+        return frameLower + code * ((frameUpper - frameLower) / maxCode);
+    }
+
+    /**
+     * Finds the largest code whose value is not bigger than the given lower bound.
+     * @param lower the lower bound.
+     * @param frameLower the lower bound of the frame in the dimension.
+     * @param frameUpper the upper bound of the frame in the dimension.
+     * @param maxCode the last code of the grid.
+     * @return the code of the lower bound.
+     */
+    private static int encodeLower(double lower, double frameLower, double frameUpper, int maxCode)
+    {
+        double extent = frameUpper - frameLower;
+        if(extent == 0)
+            return 0; // Every code gives the same value in a flat dimension
+        int code = Math.max(0, Math.min(maxCode, (int) Math.floor((lower - frameLower) / extent * maxCode)));
+        // The estimate can be off by one because of rounding, the exact code is found by comparing the decoded values.
+        while (code > 0 && decode(code, frameLower, frameUpper, maxCode) > lower)
+            code--;
+        while (code < maxCode && decode(code + 1, frameLower, frameUpper, maxCode) <= lower)
+            code++;
+        return code;
+    }
+
+    /**
+     * Finds the smallest code whose value is not smaller than the given upper bound.
+     * @param upper the upper bound.
+     * @param frameLower the lower bound of the frame in the dimension.
+     * @param frameUpper the upper bound of the frame in the dimension.
+     * @param maxCode the last code of the grid.
+     * @return the code of the upper bound.
+     */
+    private static int encodeUpper(double upper, double frameLower, double frameUpper, int maxCode)
+    {
+        double extent = frameUpper - frameLower;
+        if(extent == 0)
+            return 0; // Every code gives the same value in a flat dimension
+        int code = Math.max(0, Math.min(maxCode, (int) Math.ceil((upper - frameLower) / extent * maxCode)));
+        while (code < maxCode && decode(code, frameLower, frameUpper, maxCode) < upper)
+            code++;
+        while (code > 0 && decode(code - 1, frameLower, frameUpper, maxCode) >= upper)
+            code--;
+        return code;
+    }
+
+    /**
+     * Writes a code in the given position of the codes, most significant byte first.
+     * @param codes the codes of the node.
+     * @param position the position of the code's first byte.
+     * @param code the code.
+     * @param bytesPerCode the bytes of every code.
+     * @return the position after the code.
+     */
+    private static int putCode(byte[] codes, int position, int code, int bytesPerCode)
+    {
+        if(bytesPerCode == 2)
+            codes[position++] = (byte) (code >>> 8);
+        codes[position++] = (byte) code;
+        return position;
+    }
+
+    /**
+     * Reads the code in the given position of the codes.
+     * @param codes the codes of the node.
+     * @param position the position of the code's first byte.
+     * @param bytesPerCode the bytes of every code.
+     * @return the code.
+     */
+    private static int getCode(byte[] codes, int position, int bytesPerCode)
+    {
+        if(bytesPerCode == 2)
+            return ((codes[position] & 0xFF) << 8) | (codes[position+1] & 0xFF);
+        return codes[position] & 0xFF;
+    }
+}
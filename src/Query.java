@@ -7,6 +7,15 @@ import java.util.ArrayList;
  *  Akompian Georgios
  */
 abstract class Query {
+    private final QueryStatistics statistics = new QueryStatistics(); // The execution statistics of the query
+
+    /**
+     * Retrieves the execution statistics of the query, filled in while the query is executed.
+     *
+     * @return The statistics of the query.
+     */
+    QueryStatistics getStatistics() {return statistics;}
+
     /**
      * Returns the IDs of the query's records based on the provided R-tree node.
      *
@@ -14,4 +23,16 @@ abstract class Query {
      * @return ArrayList of qualifying record IDs.
      */
     abstract ArrayList<Long> getQueryRecordIds(Node node);
+
+    /**
+     * Returns the leaf entries of the query's records based on the provided R-tree node,
+     * which also hold the datafile block of every record, in the same order as getQueryRecordIds.
+     *
+     * @param node The R-tree node to start the query from.
+     * @return ArrayList of the qualifying records' leaf entries.
+     * @throws UnsupportedOperationException If the query does not find its records through their leaf entries.
+     */
+    ArrayList<LeafEntry> getQueryLeafEntries(Node node) {
+        throw new UnsupportedOperationException("The query does not return the leaf entries of its records.");
+    }
 }
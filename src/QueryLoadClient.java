@@ -0,0 +1,179 @@
+import java.io.*;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QueryLoadClient generates load on a QueryServer, so that the throughput and the latency of the served index can be
+ * measured on localhost. It replays the queries of a workload file over a number of connections for a number of
+ * seconds, every connection sending its next request as soon as the previous one is answered, and reports the
+ * queries per second, the requests answered BUSY or failed, and the latency percentiles.
+ * The workload file has a query per line, in the format of WorkloadGenerator's mixed workloads:
+ * "range,selectivity,lower 1,upper 1,...", "knn,k,coordinates..." and also "radius,radius,coordinates..." and "skyline".
+ * Insertions are skipped, as the server is read only.
+ *
+ * @author Akompian Georgios
+ */
+public class QueryLoadClient {
+    private static final LatencyHistogram LATENCY = new LatencyHistogram(); // The latency of the answered requests
+    private static final LongAdder ANSWERED = new LongAdder(); // The requests answered with their records
+    private static final LongAdder BUSY = new LongAdder(); // The requests answered BUSY
+    private static final LongAdder FAILED = new LongAdder(); // The requests answered BAD_REQUEST or ERROR
+    private static final LongAdder RECORDS = new LongAdder(); // The records returned by the answered requests
+
+    /**
+     * Main method that runs the load and prints its results.
+     *
+     * @param args The workload file, then optionally the host, the port, the connections and the seconds of the load
+     *             (for example "uniformMixed.csv localhost 7878 8 30").
+     */
+    public static void main(String[] args) {
+        String pathToWorkload = args.length > 0 ? args[0] : "uniformMixed.csv";
+        String host = args.length > 1 ? args[1] : "localhost";
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : QueryServer.DEFAULT_PORT;
+        int connections = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        if (connections < 1 || seconds < 1)
+            throw new IllegalArgumentException("The connections and the seconds must be positive");
+
+        ArrayList<byte[]> requests = readRequests(pathToWorkload);
+        if (requests == null)
+            return;
+        if (requests.isEmpty())
+            throw new IllegalArgumentException("The workload " + pathToWorkload + " has no queries");
+
+        long endTime = System.nanoTime() + seconds * 1000000000L;
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            // Every connection starts from a different query, so they do not all send the same one
+            int firstRequest = c * requests.size() / connections;
+            Thread thread = new Thread(() -> sendRequests(host, port, requests, firstRequest, endTime));
+            threads.add(thread);
+            thread.start();
+        }
+        long startTime = System.nanoTime();
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.out.println("Connections: " + connections + ", seconds: " + String.format("%.1f", elapsedSeconds));
+        System.out.println("Answered: " + ANSWERED.sum() + " (" + String.format("%.1f", ANSWERED.sum() / elapsedSeconds) + " queries/s, "
+                + RECORDS.sum() + " records), busy: " + BUSY.sum() + ", failed: " + FAILED.sum());
+        System.out.println("Latency (ms): mean " + String.format("%.3f", LATENCY.getMean() / 1e6)
+                + ", p50 " + String.format("%.3f", LATENCY.getValueAtPercentile(50) / 1e6)
+                + ", p99 " + String.format("%.3f", LATENCY.getValueAtPercentile(99) / 1e6)
+                + ", p99.9 " + String.format("%.3f", LATENCY.getValueAtPercentile(99.9) / 1e6)
+                + ", max " + String.format("%.3f", LATENCY.getMax() / 1e6));
+    }
+
+    /**
+     * Sends the requests over a connection, one after the other and from the first given, until the end time.
+     *
+     * @param host         The host of the server.
+     * @param port         The port of the server.
+     * @param requests     The encoded requests.
+     * @param firstRequest The index of the first request sent.
+     * @param endTime      The time, of System.nanoTime, when the connection stops sending requests.
+     */
+    private static void sendRequests(String host, int port, ArrayList<byte[]> requests, int firstRequest, long endTime) {
+        try (Socket socket = new Socket(host, port);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            int r = firstRequest;
+            long startTime;
+            while ((startTime = System.nanoTime()) < endTime) {
+                out.write(requests.get(r));
+                out.flush();
+                byte status = in.readByte();
+                if (status == QueryServer.STATUS_OK) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++)
+                        in.readLong();
+                    LATENCY.record(System.nanoTime() - startTime);
+                    ANSWERED.increment();
+                    RECORDS.add(count);
+                } else {
+                    String message = in.readUTF();
+                    if (status == QueryServer.STATUS_BUSY) {
+                        BUSY.increment();
+                        // The server also answers BUSY to the connections above its limit, and then closes them
+                        if (message.equals("Too many connections"))
+                            return;
+                    } else {
+                        FAILED.increment();
+                        System.out.println("Request failed: " + message);
+                    }
+                }
+                r = (r + 1) % requests.size();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the queries of a workload file and encodes them as requests of the QueryServer protocol.
+     *
+     * @param pathToWorkload The path of the workload file.
+     * @return The encoded requests, or null if the file could not be read.
+     */
+    static ArrayList<byte[]> readRequests(String pathToWorkload) {
+        ArrayList<byte[]> requests = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(pathToWorkload))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.trim().split(FilesHelper.getDELIMITER());
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream request = new DataOutputStream(bytes);
+                switch (values[0]) {
+                    case "range":
+                        request.writeByte(QueryServer.REQUEST_RANGE);
+                        request.writeInt((values.length - 2) / 2);
+                        for (int v = 2; v < values.length; v++)
+                            request.writeDouble(Double.parseDouble(values[v]));
+                        break;
+                    case "knn":
+                        request.writeByte(QueryServer.REQUEST_KNN);
+                        writePoint(request, values);
+                        request.writeInt(Integer.parseInt(values[1]));
+                        break;
+                    case "radius":
+                        request.writeByte(QueryServer.REQUEST_RADIUS);
+                        writePoint(request, values);
+                        request.writeDouble(Double.parseDouble(values[1]));
+                        break;
+                    case "skyline":
+                        request.writeByte(QueryServer.REQUEST_SKYLINE);
+                        break;
+                    default:
+                        // Insertions and headers are not sent
+                        continue;
+                }
+                requests.add(bytes.toByteArray());
+            }
+            return requests;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Encodes the point of a KNN or radius query, whose coordinates follow the query's type and parameter.
+     *
+     * @param request The stream the request is encoded to.
+     * @param values  The values of the query's line.
+     * @throws IOException If the request cannot be written.
+     */
+    private static void writePoint(DataOutputStream request, String[] values) throws IOException {
+        request.writeInt(values.length - 2);
+        for (int v = 2; v < values.length; v++)
+            request.writeDouble(Double.parseDouble(values[v]));
+    }
+}
@@ -0,0 +1,257 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QueryResultCache keeps the results of range and KNN queries, so that repeated queries are answered without
+ * traversing the tree. The queries are keyed by their normalized parameters and the cache is bounded by the number
+ * of record IDs it holds, evicting the least recently used results first.
+ * A result is only invalidated when a change of the tree can alter it: a range result when the bounding box of an
+ * inserted or deleted record intersects its window, and a KNN result when the record is not farther from the
+ * search point than the k-th neighbour.
+ * The methods are synchronized, so a cache can be shared by the threads that query the same tree.
+ *
+ * @author Akompian Georgios
+ */
+class QueryResultCache {
+    private static final int RANGE = 0; // The type of the keys of range queries
+    private static final int NEAREST_NEIGHBOURS = 1; // The type of the keys of KNN queries
+    private static final LongAdder HITS = MetricsRegistry.getInstance().counter("queryresultcache_hits_total", "The queries answered from the result cache.");
+    private static final LongAdder MISSES = MetricsRegistry.getInstance().counter("queryresultcache_misses_total", "The queries not found in the result cache.");
+    private static final LongAdder EVICTIONS = MetricsRegistry.getInstance().counter("queryresultcache_evictions_total", "The results evicted from the result cache to keep it within its size.");
+    private static final LongAdder INVALIDATIONS = MetricsRegistry.getInstance().counter("queryresultcache_invalidations_total", "The results removed from the result cache because of a change of the tree.");
+    private final long maxCachedIds; // The most record IDs that the cached results can hold in total
+    private final LinkedHashMap<QueryKey, CachedResult> results; // The cached results, the least recently used first
+    private long cachedIds; // The record IDs held by the cached results
+
+    /**
+     * The normalized parameters of a query: its type, its k and the coordinates of its window or search point.
+     */
+    private static class QueryKey {
+        private final int type; // RANGE or NEAREST_NEIGHBOURS
+        private final int k; // The number of neighbours, 0 for range queries
+        private final double[] coordinates; // The lower and upper bound of every dimension, or the search point
+
+        private QueryKey(int type, int k, double[] coordinates) {
+            this.type = type;
+            this.k = k;
+            this.coordinates = coordinates;
+            // Both zeros are the same coordinate, so they are made the same key
+            for (int c = 0; c < coordinates.length; c++)
+                coordinates[c] += 0.0;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof QueryKey))
+                return false;
+            QueryKey key = (QueryKey) other;
+            return type == key.type && k == key.k && Arrays.equals(coordinates, key.coordinates);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * type + k) + Arrays.hashCode(coordinates);
+        }
+    }
+
+    /**
+     * A cached result, with what is needed to tell whether a change of the tree alters it.
+     */
+    private static class CachedResult {
+        private final ArrayList<Long> recordIds; // The IDs of the result's records
+        private final BoundingBox window; // The window of a range query, null for KNN queries
+        private final ArrayList<Double> searchPoint; // The search point of a KNN query, null for range queries
+        private final double radius; // The distance of the k-th neighbour, infinite if fewer than k were found
+
+        private CachedResult(ArrayList<Long> recordIds, BoundingBox window, ArrayList<Double> searchPoint, double radius) {
+            this.recordIds = recordIds;
+            this.window = window;
+            this.searchPoint = searchPoint;
+            this.radius = radius;
+        }
+
+        /**
+         * Checks if a record with the given bounding box can alter the result, if it is inserted or deleted.
+         *
+         * @param boundingBox The bounding box of the record.
+         * @return True if the result may be altered.
+         */
+        private boolean isAffectedBy(BoundingBox boundingBox) {
+            if (window != null)
+                return BoundingBox.checkBoxOverlap(window, boundingBox);
+            return boundingBox.findMinPointDistance(searchPoint) <= radius;
+        }
+    }
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param maxCachedIds The most record IDs that the cached results can hold in total.
+     * @throws IllegalArgumentException If the size is not positive.
+     */
+    QueryResultCache(long maxCachedIds) {
+        if (maxCachedIds <= 0)
+            throw new IllegalArgumentException("The size of the query result cache must be a positive number");
+        this.maxCachedIds = maxCachedIds;
+        this.results = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Finds the cached result of a range query.
+     *
+     * @param window The window of the query.
+     * @return A copy of the IDs of the result, or null if the result is not cached.
+     */
+    synchronized ArrayList<Long> getRange(BoundingBox window) {
+        return get(rangeKey(window));
+    }
+
+    /**
+     * Caches the result of a range query.
+     *
+     * @param window    The window of the query.
+     * @param recordIds The IDs of the result's records.
+     */
+    synchronized void putRange(BoundingBox window, ArrayList<Long> recordIds) {
+        put(rangeKey(window), new CachedResult(new ArrayList<>(recordIds), window, null, 0));
+    }
+
+    /**
+     * Finds the cached result of a KNN query.
+     *
+     * @param searchPoint The search point of the query.
+     * @param k           The number of neighbours.
+     * @return A copy of the IDs of the result, or null if the result is not cached.
+     */
+    synchronized ArrayList<Long> getNearestNeighbours(ArrayList<Double> searchPoint, int k) {
+        return get(nearestNeighboursKey(searchPoint, k));
+    }
+
+    /**
+     * Caches the result of a KNN query.
+     *
+     * @param searchPoint The search point of the query.
+     * @param k           The number of neighbours.
+     * @param recordIds   The IDs of the neighbours, the closest first.
+     * @param radius      The distance of the k-th neighbour from the search point, infinite if fewer than k were found.
+     */
+    synchronized void putNearestNeighbours(ArrayList<Double> searchPoint, int k, ArrayList<Long> recordIds, double radius) {
+        put(nearestNeighboursKey(searchPoint, k), new CachedResult(new ArrayList<>(recordIds), null, new ArrayList<>(searchPoint), radius));
+    }
+
+    /**
+     * Removes the cached results that a record with the given bounding box can alter,
+     * called when the record is inserted into or deleted from the tree.
+     *
+     * @param boundingBox The bounding box of the record.
+     */
+    synchronized void invalidate(BoundingBox boundingBox) {
+        Iterator<CachedResult> iterator = results.values().iterator();
+        while (iterator.hasNext()) {
+            CachedResult result = iterator.next();
+            if (result.isAffectedBy(boundingBox)) {
+                cachedIds -= weight(result);
+                iterator.remove();
+                INVALIDATIONS.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes all the cached results, such as after the tree is rebuilt.
+     */
+    synchronized void clear() {
+        results.clear();
+        cachedIds = 0;
+    }
+
+    /**
+     * Retrieves the number of cached results.
+     *
+     * @return The number of results.
+     */
+    synchronized int size() {return results.size();}
+
+    /**
+     * Finds a cached result and marks it as the most recently used.
+     *
+     * @param key The key of the query.
+     * @return A copy of the IDs of the result, or null if the result is not cached.
+     */
+    private ArrayList<Long> get(QueryKey key) {
+        CachedResult result = results.get(key);
+        if (result == null) {
+            MISSES.increment();
+            return null;
+        }
+        HITS.increment();
+        return new ArrayList<>(result.recordIds);
+    }
+
+    /**
+     * Caches a result, evicting the least recently used results while the cache holds too many IDs.
+     * Results that are bigger than the whole cache are not cached.
+     *
+     * @param key    The key of the query.
+     * @param result The result.
+     */
+    private void put(QueryKey key, CachedResult result) {
+        if (weight(result) > maxCachedIds)
+            return;
+        CachedResult previous = results.put(key, result);
+        if (previous != null)
+            cachedIds -= weight(previous);
+        cachedIds += weight(result);
+        Iterator<Map.Entry<QueryKey, CachedResult>> iterator = results.entrySet().iterator();
+        while (cachedIds > maxCachedIds && iterator.hasNext()) {
+            CachedResult eldest = iterator.next().getValue();
+            cachedIds -= weight(eldest);
+            iterator.remove();
+            EVICTIONS.increment();
+        }
+    }
+
+    /**
+     * The size of a result in the cache, the IDs it holds and one for the result itself, so empty results count too.
+     *
+     * @param result The result.
+     * @return The weight of the result.
+     */
+    private static long weight(CachedResult result) {
+        return result.recordIds.size() + 1L;
+    }
+
+    /**
+     * Creates the key of a range query.
+     *
+     * @param window The window of the query.
+     * @return The key.
+     */
+    private static QueryKey rangeKey(BoundingBox window) {
+        ArrayList<Bounds> bounds = window.getBounds();
+        double[] coordinates = new double[2 * bounds.size()];
+        for (int d = 0; d < bounds.size(); d++) {
+            coordinates[2 * d] = bounds.get(d).getLower();
+            coordinates[2 * d + 1] = bounds.get(d).getUpper();
+        }
+        return new QueryKey(RANGE, 0, coordinates);
+    }
+
+    /**
+     * Creates the key of a KNN query.
+     *
+     * @param searchPoint The search point of the query.
+     * @param k           The number of neighbours.
+     * @return The key.
+     */
+    private static QueryKey nearestNeighboursKey(ArrayList<Double> searchPoint, int k) {
+        double[] coordinates = new double[searchPoint.size()];
+        for (int d = 0; d < coordinates.length; d++)
+            coordinates[d] = searchPoint.get(d);
+        return new QueryKey(NEAREST_NEIGHBOURS, k, coordinates);
+    }
+}
@@ -0,0 +1,353 @@
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QueryServer serves the queries of an existing index to other processes over a local TCP socket, so that the index
+ * can be put behind other services and its throughput measured under real concurrency.
+ * The index is opened read only and the server answers range, KNN, radius and skyline queries with the IDs of the
+ * qualifying records, using a compact binary protocol of big-endian values (as written by DataOutputStream):
+ * <pre>
+ * request:  byte type, followed by
+ *           RANGE (1):   int dimensions, then the lower and the upper bound (doubles) of every dimension
+ *           KNN (2):     int dimensions, the coordinates (doubles) of the point, int k
+ *           RADIUS (3):  int dimensions, the coordinates (doubles) of the point, double radius
+ *           SKYLINE (4): nothing
+ * response: byte status, followed by
+ *           OK (0):      int count, then the IDs (longs) of the records
+ *           otherwise:   a message (UTF), BUSY (1), BAD_REQUEST (2) or ERROR (3)
+ * </pre>
+ * A connection may send any number of requests, one after the other, each answered before the next is read.
+ * A request of an unknown type or of other dimensions than the index is answered BAD_REQUEST and its connection
+ * is closed, as the length of the rest of the request is not known.
+ * Every connection is served by its own thread, and admission control keeps the server responsive under overload:
+ * at most maxConnections connections are served, the ones above are answered BUSY and closed, and at most
+ * "workers" queries are executed at a time, a request that cannot start within the admission wait being answered BUSY
+ * instead of queueing without bound.
+ *
+ * @author Akompian Georgios
+ */
+public class QueryServer {
+    static final byte REQUEST_RANGE = 1;
+    static final byte REQUEST_KNN = 2;
+    static final byte REQUEST_RADIUS = 3;
+    static final byte REQUEST_SKYLINE = 4;
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_BUSY = 1; // The request was not admitted and can be retried later
+    static final byte STATUS_BAD_REQUEST = 2; // The request was malformed or its parameters were not valid
+    static final byte STATUS_ERROR = 3; // The query failed
+    static final int DEFAULT_PORT = 7878;
+    private static final int DEFAULT_MAX_CONNECTIONS = 256;
+    private static final long DEFAULT_ADMISSION_WAIT_MILLIS = 100;
+    private static final LongAdder REQUESTS = MetricsRegistry.getInstance().counter("queryserver_requests_total", "The requests received by the query server.");
+    private static final LongAdder REJECTED = MetricsRegistry.getInstance().counter("queryserver_rejected_total", "The requests and connections that the query server answered as busy.");
+    private static final LatencyHistogram REQUEST_LATENCY = MetricsRegistry.getInstance().histogram("queryserver_request_seconds", "The latency of the requests answered by the query server, from reading to answering them.");
+    private final RStarTree rStarTree; // The tree whose queries are served
+    private final int dataDimensions; // The dimensions of the tree's records
+    private final Semaphore connectionPermits; // A permit for every connection that can be served at a time
+    private final Semaphore queryPermits; // A permit for every query that can be executed at a time
+    private final long admissionWaitMillis; // The longest a request waits for a query permit before it is answered BUSY
+    private final ExecutorService connectionThreads; // The threads serving the connections
+    private ServerSocket serverSocket; // The socket accepting the connections, null until the server is started
+    private volatile boolean running; // False once the server is stopped
+
+    /**
+     * Constructs a server for the queries of a tree.
+     *
+     * @param rStarTree           The tree, whose IndexStore is already initialized.
+     * @param workers             The most queries executed at a time.
+     * @param maxConnections      The most connections served at a time.
+     * @param admissionWaitMillis The longest a request waits to be executed before it is answered BUSY.
+     * @throws IllegalArgumentException If the workers or the connections are not positive.
+     */
+    QueryServer(RStarTree rStarTree, int workers, int maxConnections, long admissionWaitMillis) {
+        if (workers < 1 || maxConnections < 1)
+            throw new IllegalArgumentException("The workers and the connections of the server must be positive numbers");
+        this.rStarTree = rStarTree;
+        this.dataDimensions = rStarTree.getIndexStore().getDataDimensions();
+        this.connectionPermits = new Semaphore(maxConnections);
+        this.queryPermits = new Semaphore(workers);
+        this.admissionWaitMillis = admissionWaitMillis;
+        this.connectionThreads = Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Main method that serves an existing index until the process is stopped.
+     *
+     * @param args The datafile and the indexfile, then optionally the port, the workers, the most connections,
+     *             the size of the query result cache in record IDs and the read queue depth of the range queries
+     *             (for example "datafile.dat indexfile.dat 7878 4 256 0 8").
+     */
+    public static void main(String[] args) {
+        String pathToDatafile = args.length > 0 ? args[0] : FilesHelper.PATH_TO_DATAFILE;
+        String pathToIndexfile = args.length > 1 ? args[1] : FilesHelper.PATH_TO_INDEXFILE;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT;
+        int workers = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int maxConnections = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_MAX_CONNECTIONS;
+        long cachedIds = args.length > 5 ? Long.parseLong(args[5]) : 0;
+        int readQueueDepth = args.length > 6 ? Integer.parseInt(args[6]) : 1;
+        if (!Files.exists(Paths.get(pathToDatafile)) || !Files.exists(Paths.get(pathToIndexfile)))
+            throw new IllegalArgumentException("The datafile " + pathToDatafile + " and the indexfile " + pathToIndexfile + " must exist");
+
+        // The csv is not read, as the tree is not rebuilt, and the files are not changed
+        IndexStore indexStore = new IndexStore(FilesHelper.getPathToCsv(), pathToDatafile, pathToIndexfile);
+        indexStore.setReadOnly(true);
+        indexStore.setReadQueueDepth(readQueueDepth);
+        indexStore.initializeDataFile(0, false);
+        indexStore.initializeIndexFile(0, false);
+        RStarTree rStarTree = new RStarTree(indexStore, false);
+        if (cachedIds > 0)
+            rStarTree.setQueryResultCache(new QueryResultCache(cachedIds));
+        MetricsRegistry.getInstance().registerMBean();
+
+        QueryServer server = new QueryServer(rStarTree, workers, maxConnections, DEFAULT_ADMISSION_WAIT_MILLIS);
+        try {
+            server.start(port);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+            System.out.println("Serving " + pathToIndexfile + " on port " + server.getPort() + " with " + workers + " workers");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Starts accepting connections, on a thread of its own.
+     *
+     * @param port The port of the server, 0 for any free port.
+     * @throws IOException If the socket cannot be bound to the port.
+     */
+    void start(int port) throws IOException {
+        serverSocket = new ServerSocket(port);
+        running = true;
+        Thread acceptor = new Thread(this::acceptConnections, "QueryServer-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * Stops accepting connections and closes the connections being served.
+     */
+    void stop() {
+        running = false;
+        try {
+            if (serverSocket != null)
+                serverSocket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        connectionThreads.shutdownNow();
+    }
+
+    /**
+     * Retrieves the port the server accepts connections on.
+     *
+     * @return The port, or -1 if the server is not started.
+     */
+    int getPort() {return serverSocket != null ? serverSocket.getLocalPort() : -1;}
+
+    /**
+     * Accepts connections until the server is stopped, serving each one on a thread of its own while there are
+     * connection permits, and answering the others BUSY.
+     */
+    private void acceptConnections() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                if (!connectionPermits.tryAcquire()) {
+                    REJECTED.increment();
+                    try (socket; DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+                        writeFailure(out, STATUS_BUSY, "Too many connections");
+                    }
+                    continue;
+                }
+                connectionThreads.execute(() -> {
+                    try {
+                        serveConnection(socket);
+                    } finally {
+                        connectionPermits.release();
+                    }
+                });
+            } catch (SocketException e) {
+                // The socket is closed when the server is stopped
+                if (running)
+                    e.printStackTrace();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Answers the requests of a connection until the client closes it.
+     *
+     * @param socket The socket of the connection.
+     */
+    private void serveConnection(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            int type;
+            while ((type = in.read()) != -1) {
+                long startTime = System.nanoTime();
+                REQUESTS.increment();
+                if (!serveRequest((byte) type, in, out))
+                    break;
+                out.flush();
+                REQUEST_LATENCY.record(System.nanoTime() - startTime);
+            }
+            out.flush();
+        } catch (EOFException | SocketException e) {
+            // The client closed the connection in the middle of a request
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the parameters of a request, executes its query once it is admitted and writes the response.
+     *
+     * @param type The type of the request.
+     * @param in   The stream the parameters are read from.
+     * @param out  The stream the response is written to.
+     * @return False if the connection must be closed, because the request could not be read.
+     * @throws IOException If the connection fails.
+     */
+    private boolean serveRequest(byte type, DataInputStream in, DataOutputStream out) throws IOException {
+        BoundingBox searchBoundingBox = null;
+        ArrayList<Double> searchPoint = null;
+        int k = 0;
+        double radius = 0;
+        double[] boundValues = null;
+        switch (type) {
+            case REQUEST_RANGE:
+                if (!readDimensions(in, out))
+                    return false;
+                // The whole request is read before the bounds are checked, so the connection can still be read
+                boundValues = new double[2 * dataDimensions];
+                for (int v = 0; v < boundValues.length; v++)
+                    boundValues[v] = in.readDouble();
+                break;
+            case REQUEST_KNN:
+            case REQUEST_RADIUS:
+                if (!readDimensions(in, out))
+                    return false;
+                searchPoint = new ArrayList<>();
+                for (int d = 0; d < dataDimensions; d++)
+                    searchPoint.add(in.readDouble());
+                if (type == REQUEST_KNN)
+                    k = in.readInt();
+                else
+                    radius = in.readDouble();
+                break;
+            case REQUEST_SKYLINE:
+                break;
+            default:
+                // The length of an unknown request is not known, so the rest of the connection cannot be read
+                writeFailure(out, STATUS_BAD_REQUEST, "Unknown request type " + type);
+                return false;
+        }
+        if (boundValues != null) {
+            for (double value : boundValues) {
+                if (Double.isNaN(value)) {
+                    writeFailure(out, STATUS_BAD_REQUEST, "The bounds of a range request must be numbers");
+                    return true;
+                }
+            }
+            ArrayList<Bounds> bounds = new ArrayList<>();
+            try {
+                for (int d = 0; d < dataDimensions; d++)
+                    bounds.add(new Bounds(boundValues[2 * d], boundValues[2 * d + 1]));
+            } catch (IllegalArgumentException e) {
+                // A lower bound bigger than its upper bound
+                writeFailure(out, STATUS_BAD_REQUEST, e.getMessage());
+                return true;
+            }
+            searchBoundingBox = new BoundingBox(bounds);
+        }
+
+        try {
+            if (!queryPermits.tryAcquire(admissionWaitMillis, TimeUnit.MILLISECONDS)) {
+                REJECTED.increment();
+                writeFailure(out, STATUS_BUSY, "The server is busy");
+                return true;
+            }
+        } catch (InterruptedException e) {
+            // The server is stopped
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        ArrayList<Long> recordIds;
+        try {
+            switch (type) {
+                case REQUEST_RANGE:
+                    recordIds = rStarTree.getBoundingBoxData(searchBoundingBox);
+                    break;
+                case REQUEST_KNN:
+                    recordIds = rStarTree.getNearestNeighbours(searchPoint, k);
+                    break;
+                case REQUEST_RADIUS:
+                    recordIds = rStarTree.getRadiusData(searchPoint, radius);
+                    break;
+                default:
+                    recordIds = rStarTree.getSkyline();
+            }
+        } catch (IllegalArgumentException e) {
+            writeFailure(out, STATUS_BAD_REQUEST, e.getMessage());
+            return true;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            writeFailure(out, STATUS_ERROR, String.valueOf(e.getMessage()));
+            return true;
+        } finally {
+            queryPermits.release();
+        }
+
+        out.writeByte(STATUS_OK);
+        out.writeInt(recordIds.size());
+        for (long recordId : recordIds)
+            out.writeLong(recordId);
+        return true;
+    }
+
+    /**
+     * Reads the dimensions of a range, KNN or radius request and checks that they are the dimensions of the index.
+     * The length of the rest of a request of other dimensions cannot be trusted, so it is answered BAD_REQUEST
+     * without reading or allocating anything for the dimensions it declares, and its connection is closed.
+     *
+     * @param in  The stream the request is read from.
+     * @param out The stream the response is written to.
+     * @return True if the request has the dimensions of the index, false if its connection must be closed.
+     * @throws IOException If the connection fails.
+     */
+    private boolean readDimensions(DataInputStream in, DataOutputStream out) throws IOException {
+        int dimensions = in.readInt();
+        if (dimensions != dataDimensions) {
+            writeFailure(out, STATUS_BAD_REQUEST, "The index has " + dataDimensions + " dimensions, not " + dimensions);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the response of a request that was not answered.
+     *
+     * @param out     The stream the response is written to.
+     * @param status  The status of the response.
+     * @param message The reason the request was not answered.
+     * @throws IOException If the connection fails.
+     */
+    private static void writeFailure(DataOutputStream out, byte status, String message) throws IOException {
+        out.writeByte(status);
+        out.writeUTF(message);
+        out.flush();
+    }
+}
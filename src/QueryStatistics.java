@@ -0,0 +1,199 @@
+/**
+ * QueryStatistics holds the execution statistics of a single query: the nodes visited on every level of the tree,
+ * the entries tested, the index and data blocks read, the bytes deserialized and the time spent reading blocks,
+ * decoding them and in the rest of the query (the geometry of the entries), so the cost of a query can be explained.
+ * The statistics are filled in by the Query or SeqScanQuery that owns them and by the IndexStore, for every block
+ * read on behalf of the query. The recording methods are synchronized, as the datafile blocks of a query's records
+ * may be read in parallel.
+ *
+ * @author Akompian Georgios
+ */
+class QueryStatistics {
+    private long[] nodesVisitedPerLevel = new long[4]; // The nodes visited on every level, indexed by the level
+    private long leafEntriesTested; // The leaf entries (or, for a sequential scan, the records) tested against the query
+    private long innerEntriesTested; // The inner node entries tested against the query
+    private long indexBlocksRead; // The indexfile blocks read
+    private long dataBlocksRead; // The datafile blocks read
+    private long bufferMisses; // The blocks that had to be read from the file, every block read as the IndexStore has no buffer pool
+    private long bytesDeserialized; // The bytes of the serialized nodes and record pages that were deserialized
+    private long readNanos; // The time spent reading blocks from the files
+    private long decodeNanos; // The time spent deserializing and decoding blocks
+    private long startTime; // The time the query started
+    private long elapsedNanos; // The total time of the query, set when it stops
+
+    /**
+     * Marks the start of the query's execution.
+     */
+    synchronized void start() {
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of the query's execution.
+     *
+     * @return These statistics.
+     */
+    synchronized QueryStatistics stop() {
+        elapsedNanos = System.nanoTime() - startTime;
+        return this;
+    }
+
+    /**
+     * Records the visit of a node, whose entries are all tested against the query.
+     *
+     * @param node The node visited.
+     */
+    synchronized void nodeVisited(Node node) {
+        int level = node.getLevel();
+        if (level >= nodesVisitedPerLevel.length) {
+            long[] levels = new long[level + 1];
+            System.arraycopy(nodesVisitedPerLevel, 0, levels, 0, nodesVisitedPerLevel.length);
+            nodesVisitedPerLevel = levels;
+        }
+        nodesVisitedPerLevel[level]++;
+        if (level == RStarTree.getLeafLevel())
+            leafEntriesTested += node.getEntries().size();
+        else
+            innerEntriesTested += node.getEntries().size();
+    }
+
+    /**
+     * Records records tested against the query without the index, by a sequential scan.
+     *
+     * @param records The number of records tested.
+     */
+    synchronized void recordsTested(int records) {
+        leafEntriesTested += records;
+    }
+
+    /**
+     * Records a block read from a file.
+     *
+     * @param indexBlock  True for an indexfile block, false for a datafile block.
+     * @param bytes       The bytes deserialized from the block.
+     * @param readNanos   The time spent reading the block from the file.
+     * @param decodeNanos The time spent deserializing and decoding the block.
+     */
+    synchronized void blockRead(boolean indexBlock, long bytes, long readNanos, long decodeNanos) {
+        if (indexBlock)
+            indexBlocksRead++;
+        else
+            dataBlocksRead++;
+        // The IndexStore does not keep blocks in memory, so every block read is a miss
+        bufferMisses++;
+        bytesDeserialized += bytes;
+        this.readNanos += readNanos;
+        this.decodeNanos += decodeNanos;
+    }
+
+    /**
+     * Retrieves the nodes visited on a level of the tree.
+     *
+     * @param level The level.
+     * @return The nodes visited on the level.
+     */
+    synchronized long getNodesVisited(int level) {return level < nodesVisitedPerLevel.length ? nodesVisitedPerLevel[level] : 0;}
+
+    /**
+     * Retrieves the nodes visited on all the levels of the tree.
+     *
+     * @return The nodes visited.
+     */
+    synchronized long getNodesVisited() {
+        long nodesVisited = 0;
+        for (long nodes : nodesVisitedPerLevel)
+            nodesVisited += nodes;
+        return nodesVisited;
+    }
+
+    /**
+     * Retrieves the leaf entries, or the records of a sequential scan, tested against the query.
+     *
+     * @return The leaf entries tested.
+     */
+    synchronized long getLeafEntriesTested() {return leafEntriesTested;}
+
+    /**
+     * Retrieves the inner node entries tested against the query.
+     *
+     * @return The inner entries tested.
+     */
+    synchronized long getInnerEntriesTested() {return innerEntriesTested;}
+
+    /**
+     * Retrieves the indexfile blocks read by the query.
+     *
+     * @return The indexfile blocks read.
+     */
+    synchronized long getIndexBlocksRead() {return indexBlocksRead;}
+
+    /**
+     * Retrieves the datafile blocks read by the query.
+     *
+     * @return The datafile blocks read.
+     */
+    synchronized long getDataBlocksRead() {return dataBlocksRead;}
+
+    /**
+     * Retrieves the blocks of the query that had to be read from a file.
+     *
+     * @return The buffer misses.
+     */
+    synchronized long getBufferMisses() {return bufferMisses;}
+
+    /**
+     * Retrieves the bytes of the blocks that the query deserialized.
+     *
+     * @return The bytes deserialized.
+     */
+    synchronized long getBytesDeserialized() {return bytesDeserialized;}
+
+    /**
+     * Retrieves the time the query spent reading blocks from the files.
+     *
+     * @return The read time, in nanoseconds.
+     */
+    synchronized long getReadNanos() {return readNanos;}
+
+    /**
+     * Retrieves the time the query spent deserializing and decoding blocks.
+     *
+     * @return The decode time, in nanoseconds.
+     */
+    synchronized long getDecodeNanos() {return decodeNanos;}
+
+    /**
+     * Retrieves the total time of the query.
+     *
+     * @return The elapsed time, in nanoseconds.
+     */
+    synchronized long getElapsedNanos() {return elapsedNanos;}
+
+    /**
+     * Retrieves the time of the query that was not spent reading or decoding blocks,
+     * which is the time spent testing the geometry of the entries and in the query's own logic.
+     *
+     * @return The time spent in geometry, in nanoseconds.
+     */
+    synchronized long getGeometryNanos() {return Math.max(0, elapsedNanos - readNanos - decodeNanos);}
+
+    /**
+     * Returns the statistics in a readable form, one kind of statistic per line.
+     *
+     * @return The statistics as a string.
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder levels = new StringBuilder();
+        for (int level = nodesVisitedPerLevel.length - 1; level >= 0; level--) {
+            if (nodesVisitedPerLevel[level] > 0)
+                levels.append(levels.length() > 0 ? ", " : "").append("level ").append(level).append(": ").append(nodesVisitedPerLevel[level]);
+        }
+        return "Nodes visited: " + getNodesVisited() + (levels.length() > 0 ? " (" + levels + ")" : "") + "\n" +
+                "Entries tested: " + leafEntriesTested + " leaf, " + innerEntriesTested + " inner\n" +
+                "Blocks read: " + indexBlocksRead + " index, " + dataBlocksRead + " data (buffer misses: " + bufferMisses + ")\n" +
+                "Bytes deserialized: " + bytesDeserialized + "\n" +
+                "Time: " + String.format("%.3f", elapsedNanos / 1000000.0) + " ms (read: " + String.format("%.3f", readNanos / 1000000.0) +
+                " ms, decode: " + String.format("%.3f", decodeNanos / 1000000.0) + " ms, geometry: " + String.format("%.3f", getGeometryNanos() / 1000000.0) + " ms)";
+    }
+}
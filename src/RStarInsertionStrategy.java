@@ -0,0 +1,48 @@
+import java.util.ArrayList;
+
+/**
+ * This class implements the insertion policy of the R*-tree: ChooseSubtree by overlap enlargement for the nodes
+ * above the leaves and by area enlargement elsewhere, the R* split by minimum overlap and forced reinsertion.
+ * @author Christos Kontos
+ */
+class RStarInsertionStrategy implements InsertionStrategy {
+    private static final int CHOOSE_SUBTREE_P_ENTRIES = 32; // The entries with the least area enlargement whose overlap enlargement is checked.
+    private final SubtreeChooser subtreeChooser;
+    private final NodeSplitter leafSplitter; // Used for the leaves.
+    private final NodeSplitter innerNodeSplitter; // Used for the inner nodes, which can have a different capacity.
+
+    /**
+     * The constructor of the strategy for the node capacities of the given store.
+     * @param indexStore the store with the files of the tree, already initialized.
+     */
+    RStarInsertionStrategy(IndexStore indexStore)
+    {
+        this.subtreeChooser = new SubtreeChooser(indexStore.getMaxEntriesInInnerNode(), CHOOSE_SUBTREE_P_ENTRIES);
+        this.leafSplitter = new NodeSplitter(indexStore.getMinEntriesInNode(), indexStore.getMaxEntriesInNode());
+        this.innerNodeSplitter = new NodeSplitter(indexStore.getMinEntriesInInnerNode(), indexStore.getMaxEntriesInInnerNode());
+    }
+
+    @Override
+    public Entry chooseSubtree(Node node, BoundingBox boundingBox, boolean childrenAreLeaves)
+    {
+        return subtreeChooser.chooseSubtree(node, boundingBox, childrenAreLeaves);
+    }
+
+    @Override
+    public ArrayList<Node> splitNode(Node node)
+    {
+        return node.isLeaf() ? leafSplitter.splitNode(node) : innerNodeSplitter.splitNode(node);
+    }
+
+    @Override
+    public boolean usesForcedReinsert()
+    {
+        return true;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "R*";
+    }
+}
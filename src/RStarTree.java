@@ -1,5 +1,9 @@
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Predicate;
 
 /**
  *This class implements the RStarTree as well as the different methods it uses.
@@ -7,28 +11,73 @@ import java.util.Collections;
  */
 public class RStarTree {
 
+    private final IndexStore indexStore; // The files and metadata of the index that this tree is stored in.
     private int totalLevels; // The total levels of the tree, increasing the size starting with the root, the root (top level) will always have the highest level.
     private boolean[] levelsInserted; // Used for information on which levels have already called overflow on data insertion.
     private static final int ROOT_NODE_BLOCK_ID = 1; // Root node will always have 1 as its ID, in order to identify which block has the root Node.
     private static final int LEAF_LEVEL = 1; // Constant leaf level 1, since we are increasing the level from the root, the root (top level) will always have the highest level.
-    private static final int CHOOSE_SUBTREE_P_ENTRIES = 32;
-    private static final int REINSERT_P_ENTRIES = (int) (0.30 * Node.getMaxEntries()); // Setting p to 30% of max entries.
+    private static final double REINSERT_P_ENTRIES = 0.30; // Setting p to 30% of the max entries of the node's level.
+    private static final double BULK_APPEND_FRACTION = 0.10; // Deltas of at least this fraction of the datafile's blocks are bulk-built into sub-trees.
+    private final InsertionStrategy insertionStrategy; // Used for picking the subtree of an insertion and splitting the overflowing nodes.
+    private QueryStatistics lastQueryStatistics; // The execution statistics of the last query executed on the tree.
+    private QueryResultCache queryResultCache; // The cached results of the range and KNN queries, null if they are not cached.
+    private InsertionBuffers insertionBuffers; // The buffers of the entries waiting to be pushed down the tree, null if the insertions are not buffered.
+    private static final LatencyHistogram INSERT_LATENCY = MetricsRegistry.getInstance().histogram("rstartree_insert_seconds", "The latency of inserting a record into the tree.");
+    private static final LatencyHistogram SPLIT_LATENCY = MetricsRegistry.getInstance().histogram("rstartree_split_seconds", "The latency of splitting an overflowing node.");
+    private static final LatencyHistogram PUSH_DOWN_LATENCY = MetricsRegistry.getInstance().histogram("rstartree_buffer_push_down_seconds", "The latency of pushing down a full insertion buffer of the root.");
+    private static final LatencyHistogram REINSERT_LATENCY = MetricsRegistry.getInstance().histogram("rstartree_reinsert_seconds", "The latency of the forced reinsertion of an overflowing node's entries.");
+    private static final LatencyHistogram RANGE_LATENCY = MetricsRegistry.getInstance().histogram("rstartree_range_seconds", "The latency of range queries.");
+    private static final LatencyHistogram KNN_LATENCY = MetricsRegistry.getInstance().histogram("rstartree_knn_seconds", "The latency of k-nearest neighbour queries.");
+    private static final LatencyHistogram BATCH_RANGE_LATENCY = MetricsRegistry.getInstance().histogram("rstartree_batch_range_seconds", "The latency of batches of range queries.");
+    private static final LatencyHistogram BATCH_KNN_LATENCY = MetricsRegistry.getInstance().histogram("rstartree_batch_knn_seconds", "The latency of batches of k-nearest neighbour queries.");
+    private static final LatencyHistogram RADIUS_LATENCY = MetricsRegistry.getInstance().histogram("rstartree_radius_seconds", "The latency of radius queries.");
+    private static final LatencyHistogram SKYLINE_LATENCY = MetricsRegistry.getInstance().histogram("rstartree_skyline_seconds", "The latency of skyline queries.");
 
     /**
      * This is the constructor for the normal RStar Tree.
      * It uses a boolean parameter to identify whether to create a new tree in the data files or not.
+     * @param indexStore the store with the files of the tree, already initialized.
      * @param insertRecords boolean that is used to signal the making of a new tree or not.
      */
-    public RStarTree(boolean insertRecords)
+    public RStarTree(IndexStore indexStore, boolean insertRecords)
     {
-        this.totalLevels = FilesHelper.getTotalLevelsOfTreeIndex();
+        this(indexStore, insertRecords, new RStarInsertionStrategy(indexStore));
+    }
+
+    /**
+     * This is the constructor for the normal RStar Tree with the given insertion policy.
+     * It uses a boolean parameter to identify whether to create a new tree in the data files or not.
+     * @param indexStore the store with the files of the tree, already initialized.
+     * @param insertRecords boolean that is used to signal the making of a new tree or not.
+     * @param insertionStrategy the policy used for choosing subtrees and splitting nodes on insertion.
+     */
+    public RStarTree(IndexStore indexStore, boolean insertRecords, InsertionStrategy insertionStrategy)
+    {
+        this(indexStore, insertRecords, insertionStrategy, 0);
+    }
+
+    /**
+     * This is the constructor for the normal RStar Tree with the given insertion policy, whose records are inserted
+     * through insertion buffers of the given capacity (see setInsertionBufferCapacity).
+     * The buffers are pushed down to the leaves once all the records are inserted, and are kept for the later insertions.
+     * @param indexStore the store with the files of the tree, already initialized.
+     * @param insertRecords boolean that is used to signal the making of a new tree or not.
+     * @param insertionStrategy the policy used for choosing subtrees and splitting nodes on insertion.
+     * @param insertionBufferCapacity the entries of an insertion buffer that make it full, or 0 to insert every record on its own.
+     */
+    public RStarTree(IndexStore indexStore, boolean insertRecords, InsertionStrategy insertionStrategy, int insertionBufferCapacity)
+    {
+        this.indexStore = indexStore;
+        this.insertionStrategy = insertionStrategy;
+        this.totalLevels = indexStore.getTotalLevelsOfTreeIndex();
+        setInsertionBufferCapacity(insertionBufferCapacity);
         if(insertRecords)
         {
-            FilesHelper.writeNewIndexFileBlock(new Node(1));
+            indexStore.writeNewIndexFileBlock(new Node(1));
 
-            for (int i = 1; i < FilesHelper.getTotalBlocksInDatafile(); i++)
+            for (int i = 1; i < indexStore.getTotalBlocksInDatafile(); i++)
             {
-                ArrayList<Record> records = FilesHelper.readDataFileBlock(i);
+                ArrayList<Record> records = indexStore.readDataFileBlock(i);
                 if(records!=null)
                 {
                     for (Record record : records)
@@ -39,6 +88,7 @@ public class RStarTree {
                 else
                     throw new IllegalStateException("Couldn't read records from datafile properly.");
             }
+            flushInsertionBuffers();
         }
 
     }
@@ -47,26 +97,43 @@ public class RStarTree {
      * This is the constructor for the bulk loaded RStar Tree
      * It uses two boolean parameters to identify whether to create a new tree in the data files or not
      * and to differentiate it from the other constructor with the bulk parameter.
+     * @param indexStore the store with the files of the tree, already initialized.
+     * @param insertRecords boolean that is used to signal the making of a new tree or not.
+     * @param bulk boolean that is used to differentiate this constructor as the bulk load one.
+     */
+    public RStarTree(IndexStore indexStore, boolean insertRecords, boolean bulk)
+    {
+        this(indexStore, insertRecords, bulk, new RStarInsertionStrategy(indexStore));
+    }
+
+    /**
+     * This is the constructor for the bulk loaded RStar Tree with the given insertion policy.
+     * @param indexStore the store with the files of the tree, already initialized.
      * @param insertRecords boolean that is used to signal the making of a new tree or not.
      * @param bulk boolean that is used to differentiate this constructor as the bulk load one.
+     * @param insertionStrategy the policy used for choosing subtrees and splitting nodes on insertion.
      */
-    public RStarTree(boolean insertRecords, boolean bulk)
+    public RStarTree(IndexStore indexStore, boolean insertRecords, boolean bulk, InsertionStrategy insertionStrategy)
     {
-        this.totalLevels = FilesHelper.getTotalLevelsOfTreeIndex();
+        this.indexStore = indexStore;
+        this.insertionStrategy = insertionStrategy;
+        this.totalLevels = indexStore.getTotalLevelsOfTreeIndex();
         if(insertRecords)
         {
-            FilesHelper.writeNewIndexFileBlock(new Node(1));
+            indexStore.writeNewIndexFileBlock(new Node(1));
             ArrayList<Record> records = new ArrayList<>();
-            for (int i = 1; i < FilesHelper.getTotalBlocksInDatafile(); i++) {
-                for (Record record : FilesHelper.readDataFileBlock(i)) {
+            IdentityHashMap<Record, Integer> recordBlocks = new IdentityHashMap<>(); // The datafile block of every record
+            for (int i = 1; i < indexStore.getTotalBlocksInDatafile(); i++) {
+                for (Record record : indexStore.readDataFileBlock(i)) {
                     records.add(record);
+                    recordBlocks.put(record, i);
                 }
             }
             ArrayList<Long> zValues = new ArrayList<>();
             for (Record record : records)
             {
                 ArrayList<Double> coordinates = new ArrayList<>();
-                for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+                for (int i = 0; i < indexStore.getDataDimensions(); i++)
                 {
                     coordinates.add(record.getCoordinate(i));
                 }
@@ -79,13 +146,40 @@ public class RStarTree {
             });
 
             long startTreeTime = System.nanoTime();
-            insertRecord(records);
+            insertRecord(records, recordBlocks);
             long stopTreeTime = System.nanoTime();
             System.out.println("Time taken for R*Tree Bulk Loading: " + (double) (stopTreeTime - startTreeTime) / 1000000 + " ms");
         }
 
     }
 
+    /**
+     * This is the constructor for a packed RStar Tree of the given leaf entries, written to a new indexfile.
+     * The entries are packed into leaves with the sort-tile-recursive method and the leaves into the levels above
+     * them the same way, and every level is written sequentially at the end of the indexfile, the root last into
+     * its block, which is reserved first. The tree is built once and not changed afterwards, such as a run of the
+     * LogStructuredRStarTree.
+     * @param indexStore the store with the files of the tree, with a new indexfile.
+     * @param leafEntries the leaf entries of the tree.
+     */
+    public RStarTree(IndexStore indexStore, ArrayList<Entry> leafEntries)
+    {
+        this.indexStore = indexStore;
+        this.insertionStrategy = new RStarInsertionStrategy(indexStore);
+        indexStore.writeNewIndexFileBlock(new Node(LEAF_LEVEL));
+        ArrayList<Entry> entries = leafEntries;
+        int level = LEAF_LEVEL;
+        while (entries.size() > indexStore.getMaxEntriesInNode(level))
+        {
+            entries = packLevel(entries, level);
+            level++;
+        }
+        Node root = new Node(level, entries);
+        root.setBlockID(ROOT_NODE_BLOCK_ID);
+        this.totalLevels = level;
+        indexStore.updateIndexFileBlock(root, totalLevels);
+    }
+
     /**
      * This method is used to get the ZValue of the record given by calling the interleaveBits function.
      * @param record the record of which we want the ZValue.
@@ -94,7 +188,7 @@ public class RStarTree {
     private long getZValue(Record record)
     {
         ArrayList<Double> coordinates = new ArrayList<>();
-        for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+        for (int i = 0; i < indexStore.getDataDimensions(); i++)
         {
             coordinates.add(record.getCoordinate(i));
         }
@@ -109,50 +203,323 @@ public class RStarTree {
         return LEAF_LEVEL;
     }
 
+    /**
+     * Gets the store with the files and the metadata of this tree.
+     * @return the IndexStore of the tree.
+     */
+    IndexStore getIndexStore()
+    {
+        return indexStore;
+    }
+
     Node getRoot()
     {
-        return FilesHelper.readIndexFileBlock(ROOT_NODE_BLOCK_ID);
+        return indexStore.readIndexFileBlock(ROOT_NODE_BLOCK_ID);
+    }
+
+    /**
+     * Gets the execution statistics of the last query executed on this tree: the nodes visited, the entries tested,
+     * the blocks read and the time spent reading, decoding and testing the geometry of the entries.
+     * @return the statistics of the last query, or null if no query has been executed.
+     */
+    QueryStatistics getLastQueryStatistics()
+    {
+        return lastQueryStatistics;
+    }
+
+    /**
+     * Gets the cache of the results of the range and KNN queries of this tree.
+     * @return the cache, or null if the results are not cached.
+     */
+    QueryResultCache getQueryResultCache()
+    {
+        return queryResultCache;
+    }
+
+    /**
+     * Sets the cache of the results of the range and KNN queries of this tree,
+     * which is invalidated by the records inserted into the tree from then on.
+     * @param queryResultCache the cache, or null to stop caching the results.
+     */
+    void setQueryResultCache(QueryResultCache queryResultCache)
+    {
+        this.queryResultCache = queryResultCache;
+    }
+
+    /**
+     * Sets the capacity of the insertion buffers of the tree, with which the inserted records are buffered instead of
+     * being inserted one by one. A record is added to the buffer of the root and when a buffer fills up its entries
+     * are pushed down together, into the buffers of the node's children or into the leaves, so that every node on
+     * their paths is read and written once for the whole batch. The buffers are kept in memory and are searched by the
+     * queries along with the tree. Any buffered entries are pushed down to the leaves before the capacity changes.
+     * @param capacity the entries of a buffer that make it full, or 0 to insert every record on its own.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    void setInsertionBufferCapacity(int capacity)
+    {
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException("The capacity of the insertion buffers cannot be negative.");
+        }
+        flushInsertionBuffers();
+        insertionBuffers = capacity == 0 ? null : new InsertionBuffers(capacity);
+    }
+
+    /**
+     * Gets the capacity of the insertion buffers of the tree.
+     * @return the entries of a buffer that make it full, or 0 if the insertions are not buffered.
+     */
+    int getInsertionBufferCapacity()
+    {
+        return insertionBuffers == null ? 0 : insertionBuffers.getCapacity();
+    }
+
+    /**
+     * Pushes all the buffered entries down to the leaves of the tree, so that the indexfile holds every inserted record,
+     * as it must before the tree is closed.
+     */
+    void flushInsertionBuffers()
+    {
+        if (insertionBuffers == null || insertionBuffers.isEmpty())
+        {
+            return;
+        }
+        pushDownRootBuffer(true);
+    }
+
+    /**
+     * Starts the execution of a query, keeping its statistics as the statistics of the last query.
+     * @param query the query that is executed.
+     * @return the root node, read on behalf of the query.
+     */
+    private Node startQuery(Query query)
+    {
+        return startQuery(query.getStatistics());
+    }
+
+    /**
+     * Starts the execution of a batch of queries, keeping its statistics as the statistics of the last query.
+     * @param batchQuery the batch that is executed.
+     * @return the root node, read on behalf of the batch.
+     */
+    private Node startQuery(BatchQuery batchQuery)
+    {
+        return startQuery(batchQuery.getStatistics());
+    }
+
+    /**
+     * Starts the execution of a query or of a batch of queries, keeping its statistics as the statistics of the last query.
+     * @param statistics the statistics of the query.
+     * @return the root node, read on behalf of the query.
+     */
+    private Node startQuery(QueryStatistics statistics)
+    {
+        lastQueryStatistics = statistics;
+        lastQueryStatistics.start();
+        return indexStore.readIndexFileBlock(ROOT_NODE_BLOCK_ID, lastQueryStatistics);
+    }
+
+    /**
+     * Finishes the execution of a query, recording its latency in the metrics.
+     * @param query the query that was executed.
+     * @param latency the latency histogram of the query's type.
+     */
+    private void finishQuery(Query query, LatencyHistogram latency)
+    {
+        latency.record(query.getStatistics().stop().getElapsedNanos());
+    }
+
+    /**
+     * Finishes a query that was answered from the query result cache, without reading any block,
+     * keeping its statistics as the statistics of the last query and recording its latency in the metrics.
+     * @param statistics the statistics of the query, started before the cache was searched.
+     * @param latency the latency histogram of the query's type.
+     */
+    private void finishCachedQuery(QueryStatistics statistics, LatencyHistogram latency)
+    {
+        lastQueryStatistics = statistics;
+        latency.record(statistics.stop().getElapsedNanos());
     }
 
     /**
      * This method is used to insert a record into the normal RStarTree.
-     * It calls the insert function to insert the records in the tree as new LeafEntries.
+     * It calls the insert function to insert the records in the tree as new LeafEntries,
+     * or adds them to the insertion buffers if the insertions are buffered.
      * @param record the record we want to insert into the tree.
      * @param datafileBlockID the dataFileBlockID of the record.
      */
     private void insertRecord(Record record, long datafileBlockID)
     {
         ArrayList<Bounds> dimensionBounds = new ArrayList<>();
-        for (int i = 0; i < FilesHelper.getDataDimensions(); i++)
+        for (int i = 0; i < indexStore.getDataDimensions(); i++)
         {
             dimensionBounds.add(new Bounds(record.getCoordinate(i),record.getCoordinate(i)));
         }
         levelsInserted = new boolean[totalLevels];
-        insert(null,null, new LeafEntry(record.getId(), datafileBlockID, dimensionBounds), LEAF_LEVEL);
+        long startTime = System.nanoTime();
+        LeafEntry leafEntry = indexStore.createLeafEntry(record.getId(), datafileBlockID, dimensionBounds);
+        if (insertionBuffers != null)
+        {
+            insertBuffered(leafEntry);
+        }
+        else
+        {
+            insert(null,null, leafEntry, LEAF_LEVEL);
+        }
+        INSERT_LATENCY.record(System.nanoTime() - startTime);
+        if (queryResultCache != null)
+        {
+            queryResultCache.invalidate(leafEntry.getBoundingBox());
+        }
     }
 
     /**
      * This method is used to insert the records into the bulk loaded RStarTree.
-     * It calls the insert function to insert the records in the tree as new LeafEntries.
-     * @param records the records we want to insert into the tree.
+     * It calls the insert function to insert the records in the tree as new LeafEntries,
+     * each one with the datafile block that its record was read from.
+     * @param records the records we want to insert into the tree, in the order of insertion.
+     * @param recordBlocks the dataFileBlockID of every record.
      */
-    private void insertRecord(ArrayList<Record> records)
+    private void insertRecord(ArrayList<Record> records, IdentityHashMap<Record, Integer> recordBlocks)
     {
-        int sum = 0;
-        for (int i = 1; i < FilesHelper.getTotalBlocksInDatafile(); i++)
+        for (Record record : records)
         {
-            ArrayList<Record> size = FilesHelper.readDataFileBlock(i);
-            for (int s = sum ; s < sum + size.size() ; s++)
+            insertRecord(record, recordBlocks.get(record));
+        }
+    }
+
+    /**
+     * Appends the records of a delta csv file to the tree, without rebuilding it: the records are appended to new
+     * datafile blocks and only they are inserted into the existing tree, so the cost is proportional to the delta.
+     * A small delta is inserted record by record, in the z-order of the bulk loading, so that consecutive insertions
+     * go down the same paths. A delta of at least BULK_APPEND_FRACTION of the datafile's blocks is bulk-built into
+     * packed sub-trees (sort-tile-recursive), as high as the tree allows, whose roots are inserted as entries
+     * into the nodes of the level above them.
+     * @param pathToDeltaCsv the path to the csv file with the new records.
+     * @return the number of records appended.
+     * @throws IllegalStateException if the records cannot be appended to the datafile.
+     */
+    int appendRecords(String pathToDeltaCsv)
+    {
+        int datafileBlocksBefore = indexStore.getTotalBlocksInDatafile();
+        IdentityHashMap<Record, Integer> recordBlocks = new IdentityHashMap<>(); // The datafile block of every record
+        ArrayList<Record> records = indexStore.appendDataFile(pathToDeltaCsv, recordBlocks);
+        if (records == null)
+        {
+            throw new IllegalStateException("Couldn't append the records of " + pathToDeltaCsv + " to the datafile.");
+        }
+        long startTime = System.nanoTime();
+        int deltaBlocks = indexStore.getTotalBlocksInDatafile() - datafileBlocksBefore;
+        boolean bulk = deltaBlocks >= BULK_APPEND_FRACTION * (datafileBlocksBefore - 1) && totalLevels > LEAF_LEVEL;
+        if (bulk)
+        {
+            ArrayList<Entry> entries = new ArrayList<>();
+            for (Record record : records)
             {
-                ArrayList<Bounds> dimensionBounds = new ArrayList<>();
-                for (int j = 0; j < FilesHelper.getDataDimensions(); j++)
+                entries.add(indexStore.createLeafEntry(record.getId(), recordBlocks.get(record), getRecordBounds(record)));
+            }
+            // The sub-trees are built up to the level below the root, so their roots fit in the nodes of the tree
+            int level = LEAF_LEVEL;
+            while (level < totalLevels && entries.size() >= indexStore.getMaxEntriesInNode(level))
+            {
+                entries = packLevel(entries, level);
+                level++;
+            }
+            for (Entry entry : entries)
+            {
+                levelsInserted = new boolean[totalLevels];
+                insert(null, null, entry, level);
+                // The cached results are invalidated by the box of the whole sub-tree, instead of every record's
+                if (queryResultCache != null)
                 {
-                    dimensionBounds.add(new Bounds(records.get(s).getCoordinate(j),records.get(s).getCoordinate(j)));
+                    queryResultCache.invalidate(entry.getBoundingBox());
                 }
-                levelsInserted = new boolean[totalLevels];
-                insert(null,null, new LeafEntry(records.get(s).getId(), i, dimensionBounds), LEAF_LEVEL);
             }
-            sum += size.size();
+        }
+        else
+        {
+            records.sort((o1, o2) -> Long.compare(getZValue(o1), getZValue(o2)));
+            insertRecord(records, recordBlocks);
+        }
+        long stopTime = System.nanoTime();
+        System.out.println("Time taken for appending " + records.size() + " records " + (bulk ? "with bulk-built sub-trees" : "by insertion") + ": " + (double) (stopTime - startTime) / 1000000 + " ms");
+        return records.size();
+    }
+
+    /**
+     * Gets the bounds of the point of a record, a bound of zero length for every dimension.
+     * @param record the record.
+     * @return the bounds of the record.
+     */
+    private ArrayList<Bounds> getRecordBounds(Record record)
+    {
+        ArrayList<Bounds> dimensionBounds = new ArrayList<>();
+        for (int i = 0; i < indexStore.getDataDimensions(); i++)
+        {
+            dimensionBounds.add(new Bounds(record.getCoordinate(i),record.getCoordinate(i)));
+        }
+        return dimensionBounds;
+    }
+
+    /**
+     * Packs entries into new nodes of a level with the sort-tile-recursive method, and writes the nodes to the end of the indexfile.
+     * @param entries the entries of the nodes, at least as many as a node can fit.
+     * @param level the level of the new nodes.
+     * @return an entry for every new node.
+     * @throws IllegalStateException if the nodes cannot be written to the indexfile.
+     */
+    private ArrayList<Entry> packLevel(ArrayList<Entry> entries, int level)
+    {
+        ArrayList<ArrayList<Entry>> groups = new ArrayList<>();
+        sortTileRecursive(entries, 0, indexStore.getMaxEntriesInNode(level), groups);
+        ArrayList<Node> nodes = new ArrayList<>();
+        ArrayList<Entry> parentEntries = new ArrayList<>();
+        for (ArrayList<Entry> group : groups)
+        {
+            Node node = new Node(level, group);
+            node.setBlockID(indexStore.getTotalBlocksInIndexFile() + nodes.size());
+            nodes.add(node);
+            parentEntries.add(new Entry(node));
+        }
+        if(!indexStore.writeNewIndexFileBlocks(nodes))
+        {
+            throw new IllegalStateException("Couldn't write the nodes of level " + level + " to the indexfile.");
+        }
+        return parentEntries;
+    }
+
+    /**
+     * Divides entries into groups of spatially close entries: the entries are sorted by the center of their boxes
+     * in a dimension and cut into slabs, which are divided the same way in the next dimension, and in the last
+     * dimension into groups of at most the given capacity. The slabs and the groups are of even sizes, so every
+     * group of at least capacity entries in total gets about half of the capacity or more.
+     * @param entries the entries to be divided.
+     * @param dimension the dimension the entries are sorted by.
+     * @param capacity the most entries of a group.
+     * @param groups the list that the groups are added to.
+     */
+    private void sortTileRecursive(List<Entry> entries, int dimension, int capacity, ArrayList<ArrayList<Entry>> groups)
+    {
+        ArrayList<Entry> sortedEntries = new ArrayList<>(entries);
+        sortedEntries.sort(Comparator.comparingDouble(entry -> entry.getBoundingBox().getCenter().get(dimension)));
+        int nodes = (entries.size() + capacity - 1) / capacity;
+        int dimensions = indexStore.getDataDimensions();
+        int slabs = dimension == dimensions - 1 ? nodes : (int) Math.ceil(Math.pow(nodes, 1.0 / (dimensions - dimension)));
+        for (int slab = 0; slab < slabs; slab++)
+        {
+            List<Entry> slabEntries = sortedEntries.subList(slab * sortedEntries.size() / slabs, (slab + 1) * sortedEntries.size() / slabs);
+            if (slabEntries.isEmpty())
+            {
+                continue;
+            }
+            if (dimension == dimensions - 1)
+            {
+                groups.add(new ArrayList<>(slabEntries));
+            }
+            else
+            {
+                sortTileRecursive(slabEntries, dimension + 1, capacity, groups);
+            }
         }
     }
 
@@ -177,11 +544,11 @@ public class RStarTree {
         else
         {
             parentE.adjustBoxEntry(data);
-            FilesHelper.updateIndexFileBlock(parentN,totalLevels);
+            indexStore.updateIndexFileBlock(parentN,totalLevels);
             readID = parentE.getChildNodeBlockID();
         }
 
-        child = FilesHelper.readIndexFileBlock(readID);
+        child = indexStore.readIndexFileBlock(readID);
         if(child == null)
         {
             throw new IllegalStateException("The node read is null.");
@@ -190,13 +557,13 @@ public class RStarTree {
         if(child.getLevel() == level)
         {
             child.addEntry(data);
-            FilesHelper.updateIndexFileBlock(child,totalLevels);
+            indexStore.updateIndexFileBlock(child,totalLevels);
         }
         else
         {
             Entry bestEntry = pickSubTree(child,data.getBoundingBox(),level);
             Entry newEntry = insert(child,bestEntry,data,level);
-            child = FilesHelper.readIndexFileBlock(readID);
+            child = indexStore.readIndexFileBlock(readID);
             if(child == null)
             {
                 throw new IllegalStateException("The Node block is null.");
@@ -204,16 +571,16 @@ public class RStarTree {
             if(newEntry != null)
             {
                 child.addEntry(newEntry);
-                FilesHelper.updateIndexFileBlock(child,totalLevels);
+                indexStore.updateIndexFileBlock(child,totalLevels);
             }
             else
             {
-                FilesHelper.updateIndexFileBlock(child,totalLevels);
+                indexStore.updateIndexFileBlock(child,totalLevels);
                 return null;
             }
         }
 
-        if(child.getEntries().size() > Node.getMaxEntries())
+        if(child.getEntries().size() > indexStore.getMaxEntriesInNode(child.getLevel()))
         {
             return overflow(parentN,parentE,child);
         }
@@ -229,41 +596,7 @@ public class RStarTree {
      */
     private Entry pickSubTree(Node node, BoundingBox boundingBox, int level)
     {
-        Entry bestEntry;
-
-        if(node.getLevel() == level+1)
-        {
-            if(Node.getMaxEntries() > (CHOOSE_SUBTREE_P_ENTRIES*2)/3 && node.getEntries().size() > CHOOSE_SUBTREE_P_ENTRIES)
-            {
-                ArrayList<EntryAreaEnlargement> entryAreaEnlargements = new ArrayList<>();
-                for (Entry entry : node.getEntries())
-                {
-                    BoundingBox newBoundingBox = new BoundingBox(Bounds.findMinBounds(entry.getBoundingBox(),boundingBox));
-                    double areaEnlargement = newBoundingBox.getArea() - entry.getBoundingBox().getArea();
-                    entryAreaEnlargements.add(new EntryAreaEnlargement(entry,areaEnlargement));
-                }
-                entryAreaEnlargements.sort(EntryAreaEnlargement::compareTo);
-                ArrayList<Entry> sortedEntries = new ArrayList<>();
-                for (EntryAreaEnlargement entryAreaEnlargement : entryAreaEnlargements)
-                {
-                    sortedEntries.add(entryAreaEnlargement.getEntry());
-                }
-                bestEntry = Collections.min(sortedEntries.subList(0, CHOOSE_SUBTREE_P_ENTRIES), new EntryCompare.EntryEnlargementOverlapCompare(sortedEntries.subList(0, CHOOSE_SUBTREE_P_ENTRIES),boundingBox,node.getEntries()));
-                return bestEntry;
-            }
-
-            bestEntry = Collections.min(node.getEntries(), new EntryCompare.EntryEnlargementOverlapCompare(node.getEntries(),boundingBox,node.getEntries()));
-            return bestEntry;
-        }
-        ArrayList<EntryAreaEnlargement> entryAreaEnlargements = new ArrayList<>();
-        for (Entry entry : node.getEntries())
-        {
-            BoundingBox newBox = new BoundingBox(Bounds.findMinBounds(entry.getBoundingBox(),boundingBox));
-            double areaEnlargement = newBox.getArea() - entry.getBoundingBox().getArea();
-            entryAreaEnlargements.add(new EntryAreaEnlargement(entry,areaEnlargement));
-        }
-        bestEntry = Collections.min(entryAreaEnlargements,EntryAreaEnlargement::compareTo).getEntry();
-        return bestEntry;
+        return insertionStrategy.chooseSubtree(node, boundingBox, node.getLevel() == level+1);
     }
 
     /**
@@ -275,13 +608,17 @@ public class RStarTree {
      */
     private Entry overflow(Node parentN, Entry parentE, Node childN)
     {
-        if(childN.getBlockID() != ROOT_NODE_BLOCK_ID && !levelsInserted[childN.getLevel()-1])
+        if(insertionStrategy.usesForcedReinsert() && childN.getBlockID() != ROOT_NODE_BLOCK_ID && !levelsInserted[childN.getLevel()-1])
         {
             levelsInserted[childN.getLevel()-1] = true;
+            long startTime = System.nanoTime();
             reInsert(parentN,parentE,childN);
+            REINSERT_LATENCY.record(System.nanoTime() - startTime);
             return null;
         }
-        ArrayList<Node> splitN = childN.splitNode();
+        long startTime = System.nanoTime();
+        ArrayList<Node> splitN = insertionStrategy.splitNode(childN);
+        SPLIT_LATENCY.record(System.nanoTime() - startTime);
         if(splitN.size()!=2)
         {
             throw new IllegalStateException("The number of split nodes cannot be anything other than 2");
@@ -291,26 +628,26 @@ public class RStarTree {
 
         if(childN.getBlockID() != ROOT_NODE_BLOCK_ID)
         {
-            FilesHelper.updateIndexFileBlock(childN,totalLevels);
-            splitNode.setBlockID(FilesHelper.getTotalBlocksInIndexFile());
-            FilesHelper.writeNewIndexFileBlock(splitNode);
+            indexStore.updateIndexFileBlock(childN,totalLevels);
+            splitNode.setBlockID(indexStore.getTotalBlocksInIndexFile());
+            indexStore.writeNewIndexFileBlock(splitNode);
 
             parentE.adjustBoxEntries(childN.getEntries());
-            FilesHelper.updateIndexFileBlock(parentN,totalLevels);
+            indexStore.updateIndexFileBlock(parentN,totalLevels);
             return new Entry(splitNode);
         }
 
-        childN.setBlockID(FilesHelper.getTotalBlocksInIndexFile());
-        FilesHelper.writeNewIndexFileBlock(childN);
-        splitNode.setBlockID(FilesHelper.getTotalBlocksInIndexFile());
-        FilesHelper.writeNewIndexFileBlock(splitNode);
+        childN.setBlockID(indexStore.getTotalBlocksInIndexFile());
+        indexStore.writeNewIndexFileBlock(childN);
+        splitNode.setBlockID(indexStore.getTotalBlocksInIndexFile());
+        indexStore.writeNewIndexFileBlock(splitNode);
 
         ArrayList<Entry> newRooEntries = new ArrayList<>();
         newRooEntries.add(new Entry(childN));
         newRooEntries.add(new Entry(splitNode));
         Node newRoot = new Node(++totalLevels,newRooEntries);
         newRoot.setBlockID(ROOT_NODE_BLOCK_ID);
-        FilesHelper.updateIndexFileBlock(newRoot,totalLevels);
+        indexStore.updateIndexFileBlock(newRoot,totalLevels);
         return null;
     }
 
@@ -322,24 +659,26 @@ public class RStarTree {
      */
     private void reInsert(Node parentN, Entry parentE, Node childN)
     {
-        if(childN.getEntries().size() != Node.getMaxEntries() +1)
+        int maxEntries = indexStore.getMaxEntriesInNode(childN.getLevel());
+        if(childN.getEntries().size() != maxEntries +1)
         {
             throw new IllegalStateException("Cannot use reinsert for node with entries lower than M+1");
         }
+        int reinsertPEntries = (int) (REINSERT_P_ENTRIES * maxEntries);
 
         childN.getEntries().sort(new EntryCompare.EntryDistanceCenterCompare(childN.getEntries(),parentE.getBoundingBox()));
-        ArrayList<Entry> removedEntries = new ArrayList<>(childN.getEntries().subList(childN.getEntries().size()-REINSERT_P_ENTRIES,childN.getEntries().size()));
+        ArrayList<Entry> removedEntries = new ArrayList<>(childN.getEntries().subList(childN.getEntries().size()-reinsertPEntries,childN.getEntries().size()));
 
-        for (int i = 0; i < REINSERT_P_ENTRIES; i++)
+        for (int i = 0; i < reinsertPEntries; i++)
         {
             childN.getEntries().remove(childN.getEntries().size()-1);
         }
 
         parentE.adjustBoxEntries(childN.getEntries());
-        FilesHelper.updateIndexFileBlock(parentN,totalLevels);
-        FilesHelper.updateIndexFileBlock(childN,totalLevels);
+        indexStore.updateIndexFileBlock(parentN,totalLevels);
+        indexStore.updateIndexFileBlock(childN,totalLevels);
 
-        if(removedEntries.size() != REINSERT_P_ENTRIES)
+        if(removedEntries.size() != reinsertPEntries)
         {
             throw new IllegalStateException("Entries for reinsert are not the same amount as the removed ones.");
         }
@@ -348,14 +687,257 @@ public class RStarTree {
         }
     }
 
+    /**
+     * Adds a leaf entry to the insertion buffer of the root, pushing the buffer down if it becomes full.
+     * @param leafEntry the leaf entry of the inserted record.
+     */
+    private void insertBuffered(LeafEntry leafEntry)
+    {
+        ArrayList<Entry> entries = new ArrayList<>();
+        entries.add(leafEntry);
+        insertionBuffers.add(ROOT_NODE_BLOCK_ID, totalLevels, entries);
+        if (insertionBuffers.isFull(ROOT_NODE_BLOCK_ID))
+        {
+            pushDownRootBuffer(false);
+        }
+    }
+
+    /**
+     * Pushes the entries of the insertion buffer of the root down the tree, growing the tree by a new root if the root splits.
+     * @param emptyBuffers true to push the entries of all the buffers down to the leaves, instead of only the full ones.
+     */
+    private void pushDownRootBuffer(boolean emptyBuffers)
+    {
+        long startTime = System.nanoTime();
+        Node root = indexStore.readIndexFileBlock(ROOT_NODE_BLOCK_ID);
+        if (root == null)
+        {
+            throw new IllegalStateException("The root node read is null.");
+        }
+        ArrayList<Node> rootNodes = pushDown(root, insertionBuffers.take(ROOT_NODE_BLOCK_ID), emptyBuffers);
+        while (rootNodes.size() > 1)
+        {
+            // The root keeps its block, so the first of the nodes it was split into is moved to a new one
+            Node oldRoot = rootNodes.get(0);
+            oldRoot.setBlockID(indexStore.getTotalBlocksInIndexFile());
+            indexStore.writeNewIndexFileBlock(oldRoot);
+            ArrayList<Entry> newRootEntries = new ArrayList<>();
+            for (Node node : rootNodes)
+            {
+                newRootEntries.add(new Entry(node));
+            }
+            Node newRoot = new Node(++totalLevels, newRootEntries);
+            newRoot.setBlockID(ROOT_NODE_BLOCK_ID);
+            rootNodes = splitOverflowingNode(newRoot);
+        }
+        PUSH_DOWN_LATENCY.record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Pushes a batch of leaf entries down into the subtree of a node. The entries of an inner node are distributed to
+     * its children, each one to the child picked by the insertion strategy, and the box of every child is extended
+     * by its entries. The entries of a child with a buffer are added to the buffer and they are pushed down further
+     * only if the buffer becomes full, so a child is read and written once for all the entries pushed into it.
+     * The node is split as many times as needed for its entries to fit, instead of reinserting some of them.
+     * @param node the node, read from the indexfile.
+     * @param entries the leaf entries pushed into the node's subtree.
+     * @param emptyBuffers true to push the entries of all the buffers down to the leaves, instead of only the full ones.
+     * @return the nodes the node was split into, the node itself first, all of them written to the indexfile.
+     */
+    private ArrayList<Node> pushDown(Node node, ArrayList<Entry> entries, boolean emptyBuffers)
+    {
+        if (node.getLevel() == LEAF_LEVEL)
+        {
+            for (Entry entry : entries)
+            {
+                node.addEntry(entry);
+            }
+            return splitOverflowingNode(node);
+        }
+        IdentityHashMap<Entry, ArrayList<Entry>> childEntries = new IdentityHashMap<>(); // The entries pushed into every child
+        for (Entry entry : entries)
+        {
+            Entry childEntry = pickSubTree(node, entry.getBoundingBox(), LEAF_LEVEL);
+            childEntry.adjustBoxEntry(entry);
+            childEntries.computeIfAbsent(childEntry, child -> new ArrayList<>()).add(entry);
+        }
+        int childLevel = node.getLevel() - 1;
+        ArrayList<Entry> splitEntries = new ArrayList<>(); // The entries of the nodes the children were split into
+        for (Entry childEntry : node.getEntries())
+        {
+            ArrayList<Entry> pushedEntries = childEntries.getOrDefault(childEntry, new ArrayList<>());
+            long childID = childEntry.getChildNodeBlockID();
+            if (childLevel != LEAF_LEVEL)
+            {
+                if (!pushedEntries.isEmpty())
+                {
+                    insertionBuffers.add(childID, childLevel, pushedEntries);
+                }
+                boolean pushFurther = emptyBuffers ? insertionBuffers.hasBuffersUpToLevel(childLevel) : insertionBuffers.isFull(childID);
+                if (!pushFurther)
+                {
+                    continue;
+                }
+                pushedEntries = insertionBuffers.take(childID);
+            }
+            else if (pushedEntries.isEmpty())
+            {
+                continue;
+            }
+            Node child = indexStore.readIndexFileBlock(childID);
+            if (child == null)
+            {
+                throw new IllegalStateException("The node read is null.");
+            }
+            ArrayList<Node> childNodes = pushDown(child, pushedEntries, emptyBuffers);
+            childEntry.adjustBoxEntries(childNodes.get(0).getEntries());
+            for (int i = 1; i < childNodes.size(); i++)
+            {
+                splitEntries.add(new Entry(childNodes.get(i)));
+            }
+        }
+        for (Entry splitEntry : splitEntries)
+        {
+            node.addEntry(splitEntry);
+        }
+        return splitOverflowingNode(node);
+    }
+
+    /**
+     * Splits a node with the insertion strategy until every one of the nodes it was split into fits its entries,
+     * and writes the nodes to the indexfile, the first one in the block of the node and the others in new blocks.
+     * @param node the node, which may have more entries than the maximum of its level.
+     * @return the nodes the node was split into, the node itself first.
+     */
+    private ArrayList<Node> splitOverflowingNode(Node node)
+    {
+        ArrayList<Node> nodes = new ArrayList<>();
+        nodes.add(node);
+        int maxEntries = indexStore.getMaxEntriesInNode(node.getLevel());
+        int n = 0;
+        while (n < nodes.size())
+        {
+            Node current = nodes.get(n);
+            if (current.getEntries().size() <= maxEntries)
+            {
+                n++;
+                continue;
+            }
+            long startTime = System.nanoTime();
+            ArrayList<Node> splitN = insertionStrategy.splitNode(current);
+            SPLIT_LATENCY.record(System.nanoTime() - startTime);
+            current.setEntries(splitN.get(0).getEntries());
+            nodes.add(splitN.get(1));
+        }
+        indexStore.updateIndexFileBlock(node, totalLevels);
+        for (int i = 1; i < nodes.size(); i++)
+        {
+            nodes.get(i).setBlockID(indexStore.getTotalBlocksInIndexFile());
+            indexStore.writeNewIndexFileBlock(nodes.get(i));
+        }
+        return nodes;
+    }
+
+    /**
+     * Checks if the tree has entries in its insertion buffers, which the queries must search along with the tree.
+     * @return true if the insertions are buffered and some entries have not been pushed down to the leaves.
+     */
+    private boolean hasBufferedEntries()
+    {
+        return insertionBuffers != null && !insertionBuffers.isEmpty();
+    }
+
+    /**
+     * Gets the buffered entries of the buffers that pass a filter, as a leaf node that the queries can search.
+     * The node is only kept in memory.
+     * @param bufferFilter the test of the bounding box of a buffer, true if the buffer may hold results of a query.
+     * @return the leaf node of the entries.
+     */
+    private Node getBufferedLeaf(Predicate<BoundingBox> bufferFilter)
+    {
+        return new Node(LEAF_LEVEL, insertionBuffers.getEntries(bufferFilter));
+    }
+
+    /**
+     * Adds the buffered entries that overlap with a bounding box to the leaf entries found in the tree by a range query.
+     * @param searchBoundingBox the bounding box of the range query.
+     * @param leafEntries the leaf entries found in the tree, to which the buffered ones are added.
+     */
+    private void addBufferedRangeEntries(BoundingBox searchBoundingBox, ArrayList<LeafEntry> leafEntries)
+    {
+        if (hasBufferedEntries())
+        {
+            Node bufferedLeaf = getBufferedLeaf(bufferBox -> BoundingBox.checkBoxOverlap(bufferBox, searchBoundingBox));
+            leafEntries.addAll(new BoundingBoxRangeQuery(indexStore, searchBoundingBox).getQueryLeafEntries(bufferedLeaf));
+        }
+    }
+
+    /**
+     * Merges the nearest neighbours of a point found in the tree with the buffered entries, returning the K nearest of them.
+     * Only the buffers that are not farther from the point than the farthest neighbour found in the tree are searched.
+     * @param searchPoint the point around which the neighbours are found.
+     * @param k the amount of neighbours.
+     * @param neighbours the leaf entries of the neighbours found in the tree, the closest first.
+     * @return the leaf entries of the K nearest neighbours, the closest first.
+     */
+    private ArrayList<LeafEntry> addBufferedNeighbours(ArrayList<Double> searchPoint, int k, ArrayList<LeafEntry> neighbours)
+    {
+        if (!hasBufferedEntries())
+        {
+            return neighbours;
+        }
+        double radius = neighbours.size() < k ? Double.POSITIVE_INFINITY : neighbours.get(neighbours.size() - 1).getBoundingBox().findMinPointDistance(searchPoint);
+        Node bufferedLeaf = getBufferedLeaf(bufferBox -> bufferBox.findMinPointDistance(searchPoint) <= radius);
+        if (bufferedLeaf.getEntries().isEmpty())
+        {
+            return neighbours;
+        }
+        bufferedLeaf.getEntries().addAll(neighbours);
+        return new NearestNeighbourQuery(indexStore, searchPoint, k).getQueryLeafEntries(bufferedLeaf);
+    }
+
+    /**
+     * Gets the record IDs of leaf entries.
+     * @param leafEntries the leaf entries.
+     * @return the IDs of the records of the entries, in the same order.
+     */
+    private static ArrayList<Long> getRecordIds(ArrayList<LeafEntry> leafEntries)
+    {
+        ArrayList<Long> recordIds = new ArrayList<>();
+        for (LeafEntry leafEntry : leafEntries)
+        {
+            recordIds.add(leafEntry.getRecordID());
+        }
+        return recordIds;
+    }
+
     /**
      * Query which returns the ids of the Records that are inside the given searchBoundingBox.
      * @param searchBoundingBox the bounding box we want to search in.
      * @return the ids of the Records that are inside the given searchBoundingBox
      */
     ArrayList<Long> getBoundingBoxData(BoundingBox searchBoundingBox){
-        Query query = new BoundingBoxRangeQuery(searchBoundingBox);
-        return query.getQueryRecordIds(FilesHelper.readIndexFileBlock(ROOT_NODE_BLOCK_ID));
+        if (queryResultCache != null)
+        {
+            QueryStatistics statistics = new QueryStatistics();
+            statistics.start();
+            ArrayList<Long> cachedRecordIds = queryResultCache.getRange(searchBoundingBox);
+            if (cachedRecordIds != null)
+            {
+                finishCachedQuery(statistics, RANGE_LATENCY);
+                return cachedRecordIds;
+            }
+        }
+        Query query = new BoundingBoxRangeQuery(indexStore, searchBoundingBox);
+        ArrayList<LeafEntry> queryLeafEntries = query.getQueryLeafEntries(startQuery(query));
+        addBufferedRangeEntries(searchBoundingBox, queryLeafEntries);
+        ArrayList<Long> queryRecordIds = getRecordIds(queryLeafEntries);
+        finishQuery(query, RANGE_LATENCY);
+        if (queryResultCache != null)
+        {
+            queryResultCache.putRange(searchBoundingBox, queryRecordIds);
+        }
+        return queryRecordIds;
     }
 
     /**
@@ -365,8 +947,151 @@ public class RStarTree {
      * @return the ids of the K Records that are closer to the given point.
      */
     ArrayList<Long> getNearestNeighbours(ArrayList<Double> searchPoint, int k){
-        Query query = new NearestNeighbourQuery(searchPoint,k);
-        return query.getQueryRecordIds(FilesHelper.readIndexFileBlock(ROOT_NODE_BLOCK_ID));
+        if (queryResultCache != null)
+        {
+            QueryStatistics statistics = new QueryStatistics();
+            statistics.start();
+            ArrayList<Long> cachedRecordIds = queryResultCache.getNearestNeighbours(searchPoint, k);
+            if (cachedRecordIds != null)
+            {
+                finishCachedQuery(statistics, KNN_LATENCY);
+                return cachedRecordIds;
+            }
+        }
+        NearestNeighbourQuery query = new NearestNeighbourQuery(indexStore, searchPoint,k);
+        ArrayList<LeafEntry> queryLeafEntries = addBufferedNeighbours(searchPoint, k, query.getQueryLeafEntries(startQuery(query)));
+        ArrayList<Long> queryRecordIds = getRecordIds(queryLeafEntries);
+        finishQuery(query, KNN_LATENCY);
+        if (queryResultCache != null)
+        {
+            // With fewer than k records in the tree, any inserted record joins the neighbours.
+            // The radius of the tree's neighbours is not smaller than the radius of the neighbours merged with the buffered entries
+            double radius = queryRecordIds.size() < k ? Double.POSITIVE_INFINITY : query.getSearchPointRadius();
+            queryResultCache.putNearestNeighbours(searchPoint, k, queryRecordIds, radius);
+        }
+        return queryRecordIds;
+    }
+
+    /**
+     * Query which returns the Records that are inside the given searchBoundingBox.
+     * The records are read from the datafile blocks of the qualifying leaf entries, each block once.
+     * @param searchBoundingBox the bounding box we want to search in.
+     * @return the Records that are inside the given searchBoundingBox.
+     */
+    ArrayList<Record> getBoundingBoxRecords(BoundingBox searchBoundingBox){
+        Query query = new BoundingBoxRangeQuery(indexStore, searchBoundingBox);
+        ArrayList<LeafEntry> queryLeafEntries = query.getQueryLeafEntries(startQuery(query));
+        addBufferedRangeEntries(searchBoundingBox, queryLeafEntries);
+        ArrayList<Record> records = new RecordMaterializer(indexStore, query.getStatistics()).getRecords(queryLeafEntries);
+        finishQuery(query, RANGE_LATENCY);
+        return records;
+    }
+
+    /**
+     * Query which returns the coordinates, in the given dimensions, of the Records that are inside the given searchBoundingBox.
+     * The coordinates of point records are taken from the leaf entries without reading the datafile.
+     * @param searchBoundingBox the bounding box we want to search in.
+     * @param dimensions the dimensions of the coordinates that are returned.
+     * @return the projected coordinates of the Records that are inside the given searchBoundingBox.
+     */
+    ArrayList<ArrayList<Double>> getBoundingBoxCoordinates(BoundingBox searchBoundingBox, int[] dimensions){
+        Query query = new BoundingBoxRangeQuery(indexStore, searchBoundingBox);
+        ArrayList<LeafEntry> queryLeafEntries = query.getQueryLeafEntries(startQuery(query));
+        addBufferedRangeEntries(searchBoundingBox, queryLeafEntries);
+        ArrayList<ArrayList<Double>> coordinates = new RecordMaterializer(indexStore, query.getStatistics()).getCoordinates(queryLeafEntries, dimensions);
+        finishQuery(query, RANGE_LATENCY);
+        return coordinates;
+    }
+
+    /**
+     * Query which returns the K Records that are closer to the given point, the closest first.
+     * The records are read from the datafile blocks of the qualifying leaf entries, each block once.
+     * @param searchPoint the point around which we will find the neighbours.
+     * @param k the amount of neighbours.
+     * @return the K Records that are closer to the given point.
+     */
+    ArrayList<Record> getNearestNeighbourRecords(ArrayList<Double> searchPoint, int k){
+        Query query = new NearestNeighbourQuery(indexStore, searchPoint, k);
+        ArrayList<LeafEntry> queryLeafEntries = addBufferedNeighbours(searchPoint, k, query.getQueryLeafEntries(startQuery(query)));
+        ArrayList<Record> records = new RecordMaterializer(indexStore, query.getStatistics()).getRecords(queryLeafEntries);
+        finishQuery(query, KNN_LATENCY);
+        return records;
+    }
+
+    /**
+     * Query which returns the coordinates, in the given dimensions, of the K Records that are closer to the given point.
+     * The coordinates of point records are taken from the leaf entries without reading the datafile.
+     * @param searchPoint the point around which we will find the neighbours.
+     * @param k the amount of neighbours.
+     * @param dimensions the dimensions of the coordinates that are returned.
+     * @return the projected coordinates of the K Records that are closer to the given point.
+     */
+    ArrayList<ArrayList<Double>> getNearestNeighbourCoordinates(ArrayList<Double> searchPoint, int k, int[] dimensions){
+        Query query = new NearestNeighbourQuery(indexStore, searchPoint, k);
+        ArrayList<LeafEntry> queryLeafEntries = addBufferedNeighbours(searchPoint, k, query.getQueryLeafEntries(startQuery(query)));
+        ArrayList<ArrayList<Double>> coordinates = new RecordMaterializer(indexStore, query.getStatistics()).getCoordinates(queryLeafEntries, dimensions);
+        finishQuery(query, KNN_LATENCY);
+        return coordinates;
+    }
+
+    /**
+     * Executes many range queries at once, with a single traversal of the tree in which every node is read only once.
+     * @param searchBoundingBoxes the bounding boxes we want to search in.
+     * @return the ids of the Records inside every searchBoundingBox, in the order of the bounding boxes,
+     * the same as getBoundingBoxData returns for each of them.
+     */
+    ArrayList<ArrayList<Long>> getBoundingBoxDataBatch(ArrayList<BoundingBox> searchBoundingBoxes){
+        BatchQuery batchQuery = new BatchBoundingBoxRangeQuery(indexStore, searchBoundingBoxes);
+        ArrayList<ArrayList<Long>> queryRecordIds = batchQuery.getQueryRecordIds(startQuery(batchQuery));
+        if (hasBufferedEntries())
+        {
+            for (int q = 0; q < searchBoundingBoxes.size(); q++)
+            {
+                ArrayList<LeafEntry> bufferedLeafEntries = new ArrayList<>();
+                addBufferedRangeEntries(searchBoundingBoxes.get(q), bufferedLeafEntries);
+                queryRecordIds.get(q).addAll(getRecordIds(bufferedLeafEntries));
+            }
+        }
+        BATCH_RANGE_LATENCY.record(batchQuery.getStatistics().stop().getElapsedNanos());
+        return queryRecordIds;
+    }
+
+    /**
+     * Finds the K nearest neighbours of many points at once, with a single traversal of the tree in which every node is read only once.
+     * @param searchPoints the points around which we will find the neighbours.
+     * @param k the amount of neighbours of every point.
+     * @return the ids of the K Records that are closer to every point, in the order of the points,
+     * the same as getNearestNeighbours returns for each of them, except for neighbours at the same distance.
+     */
+    ArrayList<ArrayList<Long>> getNearestNeighboursBatch(ArrayList<ArrayList<Double>> searchPoints, int k){
+        BatchNearestNeighbourQuery batchQuery = new BatchNearestNeighbourQuery(indexStore, searchPoints, k);
+        ArrayList<ArrayList<Long>> queryRecordIds = new ArrayList<>();
+        ArrayList<ArrayList<LeafEntry>> queryLeafEntries = batchQuery.getQueryLeafEntries(startQuery(batchQuery));
+        for (int q = 0; q < searchPoints.size(); q++)
+        {
+            queryRecordIds.add(getRecordIds(addBufferedNeighbours(searchPoints.get(q), k, queryLeafEntries.get(q))));
+        }
+        BATCH_KNN_LATENCY.record(batchQuery.getStatistics().stop().getElapsedNanos());
+        return queryRecordIds;
+    }
+
+    /**
+     * Query which returns the ids of the Records whose distance from the given point is at most the given radius.
+     * @param searchPoint the center of the search.
+     * @param radius the largest distance of a record from the searchPoint.
+     * @return the ids of the Records within the radius of the given point.
+     */
+    ArrayList<Long> getRadiusData(ArrayList<Double> searchPoint, double radius){
+        Query query = new RadiusQuery(indexStore, searchPoint, radius);
+        ArrayList<LeafEntry> queryLeafEntries = query.getQueryLeafEntries(startQuery(query));
+        if (hasBufferedEntries())
+        {
+            Node bufferedLeaf = getBufferedLeaf(bufferBox -> bufferBox.findMinPointDistance(searchPoint) <= radius);
+            queryLeafEntries.addAll(new RadiusQuery(indexStore, searchPoint, radius).getQueryLeafEntries(bufferedLeaf));
+        }
+        ArrayList<Long> queryRecordIds = getRecordIds(queryLeafEntries);
+        finishQuery(query, RADIUS_LATENCY);
+        return queryRecordIds;
     }
 
     /**
@@ -376,8 +1101,24 @@ public class RStarTree {
      * @return the ids of the records that form the skyline.
      */
     ArrayList<Long> getSkyline() {
-        Query query = new SkylineQuery();
-        return query.getQueryRecordIds(FilesHelper.readIndexFileBlock(ROOT_NODE_BLOCK_ID));
+        Query query = new SkylineQuery(indexStore);
+        ArrayList<Long> queryRecordIds = query.getQueryRecordIds(startQuery(query));
+        if (hasBufferedEntries())
+        {
+            queryRecordIds.addAll(new SkylineQuery(indexStore).getQueryRecordIds(getBufferedLeaf(bufferBox -> true)));
+        }
+        finishQuery(query, SKYLINE_LATENCY);
+        return queryRecordIds;
+    }
+
+    /**
+     * Fetches the records with the given IDs, such as the IDs returned by a query, from the datafile.
+     * The records are located with the record location index and every datafile block is read only once.
+     * @param recordIds the IDs of the records.
+     * @return the records in the order of the given IDs, without the IDs that have no record.
+     */
+    ArrayList<Record> getRecords(ArrayList<Long> recordIds) {
+        return indexStore.readDataFileRecords(recordIds);
     }
 
     /**
@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+
+/**
+ * The RadiusQuery class is used for executing a radius query using the RStarTree index.
+ * It searches for the records whose distance from a search point is at most the given radius.
+ *
+ * @author Akompian Georgios
+ */
+class RadiusQuery extends Query {
+    private IndexStore indexStore; // The store of the index that is searched
+    private ArrayList<LeafEntry> qualifyingLeafEntries; // The leaf entries of the qualifying records
+    private ArrayList<Double> searchPoint; // The coordinates of the center of the search
+    private double radius; // The largest distance of a qualifying record from the searchPoint
+    private NodeKernels nodeKernels; // Used for calculating the distances of all the entries of a node at once
+
+    /**
+     * Constructs a new RadiusQuery with the specified search point and radius.
+     *
+     * @param indexStore  The IndexStore of the RStarTree that is searched.
+     * @param searchPoint The coordinates of the search point.
+     * @param radius      The radius around the search point.
+     * @throws IllegalArgumentException If the radius is negative.
+     */
+    RadiusQuery(IndexStore indexStore, ArrayList<Double> searchPoint, double radius) {
+        if (radius < 0)
+            throw new IllegalArgumentException("The radius of the query must not be negative");
+        this.indexStore = indexStore;
+        this.searchPoint = searchPoint;
+        this.radius = radius;
+        this.nodeKernels = new NodeKernels();
+    }
+
+    /**
+     * Returns the IDs of the records within the radius of the search point.
+     *
+     * @param node The root node of the RStarTree to start the query from.
+     * @return An ArrayList containing the qualifying record IDs.
+     */
+    @Override
+    ArrayList<Long> getQueryRecordIds(Node node) {
+        ArrayList<Long> qualifyingRecordIds = new ArrayList<>();
+        for (LeafEntry leafEntry : getQueryLeafEntries(node))
+            qualifyingRecordIds.add(leafEntry.getRecordID());
+        return qualifyingRecordIds;
+    }
+
+    /**
+     * Returns the leaf entries of the records within the radius of the search point.
+     *
+     * @param node The root node of the RStarTree to start the query from.
+     * @return An ArrayList containing the qualifying leaf entries.
+     */
+    @Override
+    ArrayList<LeafEntry> getQueryLeafEntries(Node node) {
+        qualifyingLeafEntries = new ArrayList<>();
+        search(node);
+        return qualifyingLeafEntries;
+    }
+
+    /**
+     * Recursively searches for records within the radius, descending only into the entries whose bounding box
+     * is not farther from the search point than the radius.
+     *
+     * @param node The current node being examined in the RStarTree.
+     */
+    private void search(Node node) {
+        getStatistics().nodeVisited(node);
+        nodeKernels.load(node);
+        int size = node.getEntries().size();
+        double[] distances = new double[size];
+        nodeKernels.findMinPointDistances(searchPoint, distances);
+        for (int i = 0; i < size; i++) {
+            if (distances[i] > radius)
+                continue;
+            if (node.getLevel() != RStarTree.getLeafLevel())
+                search(indexStore.readIndexFileBlock(node.getEntries().get(i).getChildNodeBlockID(), getStatistics()));
+            else
+                qualifyingLeafEntries.add((LeafEntry) node.getEntries().get(i));
+        }
+    }
+}
@@ -3,12 +3,14 @@ import java.util.ArrayList;
 
 /**
  * The Record class represents a point in n-dimensional space.
+ * The coordinates are kept as doubles, or as floats (float32) for indexes that store their coordinates in half the space.
  *
  * @author Akompian Georgios
  */
 class Record implements Serializable {
     private long id; // The unique id of the record
-    private ArrayList<Double> coordinates; // ArrayList with the coordinates of the Record's point
+    private ArrayList<Double> coordinates; // ArrayList with the coordinates of the Record's point, null if they are kept as floats
+    private float[] floatCoordinates; // The coordinates of the Record's point rounded to floats, null if they are kept as doubles
 
     /**
      * Constructs a Record with the given ID and coordinates.
@@ -25,20 +27,51 @@ class Record implements Serializable {
      * Constructs a Record from a string representation.
      *
      * @param recordInString A string containing the record's data.
+     * @param dataDimensions The number of dimensions of the record's point.
      * @throws IllegalArgumentException If the string format is incorrect.
      */
-    Record(String recordInString) throws IllegalArgumentException
+    Record(String recordInString, int dataDimensions) throws IllegalArgumentException
+    {
+        this(recordInString, dataDimensions, false);
+    }
+
+    /**
+     * Constructs a Record from a string representation, keeping its coordinates as doubles or as floats.
+     *
+     * @param recordInString     A string containing the record's data.
+     * @param dataDimensions     The number of dimensions of the record's point.
+     * @param float32Coordinates True to round the coordinates to the nearest float and keep them as floats.
+     * @throws IllegalArgumentException If the string format is incorrect.
+     */
+    Record(String recordInString, int dataDimensions, boolean float32Coordinates) throws IllegalArgumentException
     {
         String[] stringArray;
         stringArray = recordInString.split(FilesHelper.getDELIMITER()); // given string will be split by the argument delimiter provided
 
-        if (stringArray.length != FilesHelper.getDataDimensions() + 1)
+        if (stringArray.length != dataDimensions + 1)
             throw new IllegalArgumentException("In order to convert a String to a Record, a Long and a total amount of coordinates for each dimension must be given");
 
         id = Long.parseLong(stringArray[0]);
-        coordinates = new ArrayList<>();
-        for (int i = 1; i < stringArray.length ; i++)
-            coordinates.add(Double.parseDouble(stringArray[i]));
+        if (float32Coordinates) {
+            floatCoordinates = new float[dataDimensions];
+            for (int i = 1; i < stringArray.length ; i++)
+                floatCoordinates[i - 1] = (float) Double.parseDouble(stringArray[i]);
+        } else {
+            coordinates = new ArrayList<>();
+            for (int i = 1; i < stringArray.length ; i++)
+                coordinates.add(Double.parseDouble(stringArray[i]));
+        }
+    }
+
+    /**
+     * Constructs a Record with the given ID and float coordinates.
+     *
+     * @param id               The unique ID of the record.
+     * @param floatCoordinates The coordinates of the Record's point as floats.
+     */
+    Record(long id, float[] floatCoordinates) {
+        this.id = id;
+        this.floatCoordinates = floatCoordinates;
     }
 
     /**
@@ -58,9 +91,21 @@ class Record implements Serializable {
      */
     double getCoordinate(int dimension)
     {
+        if (floatCoordinates != null)
+            return floatCoordinates[dimension];
         return coordinates.get(dimension);
     }
 
+    /**
+     * Returns the number of dimensions of the record's point.
+     *
+     * @return The number of coordinates of the record.
+     */
+    int getDimensions()
+    {
+        return floatCoordinates != null ? floatCoordinates.length : coordinates.size();
+    }
+
     /**
      * Converts the Record to its string representation.
      *
@@ -68,9 +113,9 @@ class Record implements Serializable {
      */
     @Override
     public String toString() {
-        StringBuilder recordToString = new StringBuilder(id + "," + coordinates.get(0));
-        for(int i = 1; i < coordinates.size(); i++)
-            recordToString.append(",").append(coordinates.get(i));
+        StringBuilder recordToString = new StringBuilder(id + "," + getCoordinate(0));
+        for(int i = 1; i < getDimensions(); i++)
+            recordToString.append(",").append(getCoordinate(i));
         return String.valueOf(recordToString);
     }
     /**
@@ -86,8 +131,8 @@ class Record implements Serializable {
 
         boolean isBetterInSomeDimension = false;
 
-        for (int dimension = 0; dimension < coordinates.size(); dimension++) {
-            double thisCoordinate = coordinates.get(dimension);
+        for (int dimension = 0; dimension < getDimensions(); dimension++) {
+            double thisCoordinate = getCoordinate(dimension);
             double otherCoordinate = other.getCoordinate(dimension);
 
             if (thisCoordinate > otherCoordinate) {
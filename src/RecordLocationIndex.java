@@ -0,0 +1,477 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * The RecordLocationIndex is a persistent B+-tree over the IDs of the records of a datafile,
+ * which maps every record ID to the location of the record: its datafile block and its slot in that block.
+ * It is kept in its own file of the datafile's block size, with the same block layout as the other files
+ * (block 0 holds the metadata, every other block one serialized tree node).
+ * The tree is bulk loaded from the sorted IDs when the datafile is created, and new records are added with insert.
+ *
+ * @author Akompian Georgios
+ */
+class RecordLocationIndex {
+    private final String pathToFile; // The path of the file of the index
+    private final int blockSize; // The size of each block of the file
+    private int totalBlocks; // The total blocks written in the file, the metadata block included
+    private int rootBlockId; // The block of the root node
+    private int height; // The levels of the tree, 1 if the root is a leaf
+    private int leafCapacity; // The maximum entries of a leaf node
+    private int innerCapacity; // The maximum children of an inner node
+    private HashMap<Integer, Serializable> batchBlocks; // The blocks read or written during insertAll, null outside of it
+    private TreeSet<Integer> changedBatchBlocks; // The blocks written during insertAll, written to the file at its end
+
+    /**
+     * A node of the B+-tree. Leaves keep the location of every key, inner nodes the block of every child,
+     * with keys[i] the smallest key of the subtree of child i.
+     */
+    private static class LocationNode implements Serializable {
+        private final boolean leaf; // True if the node is a leaf
+        private int size; // The number of keys in the node
+        private final long[] keys; // The sorted record IDs (leaf) or the smallest ID of every child (inner node)
+        private final int[] blocks; // The datafile block of every record (leaf) or the block of every child (inner node)
+        private final int[] slots; // The slot of every record in its datafile block, null for inner nodes
+
+        /**
+         * Constructs an empty node with room for the given number of keys.
+         *
+         * @param leaf     True for a leaf node.
+         * @param capacity The maximum keys of the node.
+         */
+        LocationNode(boolean leaf, int capacity) {
+            this.leaf = leaf;
+            this.keys = new long[capacity];
+            this.blocks = new int[capacity];
+            this.slots = leaf ? new int[capacity] : null;
+        }
+
+        /**
+         * Finds the position of the last key that is not bigger than the given one.
+         *
+         * @param key The key.
+         * @return The position of the key, or -1 if all the keys are bigger.
+         */
+        int floor(long key) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle] <= key)
+                    low = middle + 1;
+                else
+                    high = middle - 1;
+            }
+            return high;
+        }
+    }
+
+    /**
+     * Constructs the index of the given file, which is opened with open or created with build.
+     *
+     * @param pathToFile The path of the file of the index.
+     * @param blockSize  The size of each block of the file in bytes, the same as the datafile's.
+     */
+    RecordLocationIndex(String pathToFile, int blockSize) {
+        this.pathToFile = pathToFile;
+        this.blockSize = blockSize;
+        try {
+            // The primitive arrays of a node grow by 16 bytes for every leaf entry and 12 bytes for every child,
+            // and the node is stored with one more key than its capacity before it is split
+            int freeBytes = blockSize - FilesHelper.serialize(blockSize).length - FilesHelper.serialize(new LocationNode(true, 0)).length;
+            leafCapacity = freeBytes / (Long.BYTES + 2 * Integer.BYTES) - 1;
+            freeBytes = blockSize - FilesHelper.serialize(blockSize).length - FilesHelper.serialize(new LocationNode(false, 0)).length;
+            innerCapacity = freeBytes / (Long.BYTES + Integer.BYTES) - 1;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (leafCapacity < 2 || innerCapacity < 3)
+            throw new IllegalStateException("A block of " + blockSize + " bytes is too small for the record location index");
+    }
+
+    /**
+     * Opens an existing index file.
+     *
+     * @return True if the file exists and was written with the same block size, false otherwise.
+     */
+    boolean open() {
+        if (!Files.exists(Paths.get(pathToFile)))
+            return false;
+        ArrayList<Integer> metaData = (ArrayList<Integer>) readBlock(0);
+        if (metaData == null || metaData.get(0) != blockSize)
+            return false;
+        totalBlocks = metaData.get(1);
+        rootBlockId = metaData.get(2);
+        height = metaData.get(3);
+        return true;
+    }
+
+    /**
+     * Creates the index file from the locations of all the records, replacing any existing one.
+     * The leaves are filled in ID order and the inner levels are built over them bottom-up.
+     *
+     * @param recordIds The ID of every record.
+     * @param blockIds  The datafile block of every record.
+     * @param slots     The slot of every record in its block.
+     * @param size      The number of records.
+     */
+    void build(long[] recordIds, int[] blockIds, int[] slots, int size) {
+        try {
+            Files.deleteIfExists(Paths.get(pathToFile));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(recordIds[a], recordIds[b]));
+
+        totalBlocks = 1;
+        height = 1;
+        // The level being built, as the smallest key and the block of every node
+        ArrayList<Long> levelKeys = new ArrayList<>();
+        ArrayList<Integer> levelBlocks = new ArrayList<>();
+        LocationNode leaf = new LocationNode(true, leafCapacity + 1);
+        for (int i = 0; i <= size; i++) {
+            if (i == size || leaf.size == leafCapacity) {
+                if (leaf.size > 0 || levelBlocks.isEmpty()) {
+                    levelKeys.add(leaf.keys[0]);
+                    levelBlocks.add(totalBlocks);
+                    writeBlock(totalBlocks++, leaf);
+                }
+                leaf = new LocationNode(true, leafCapacity + 1);
+                if (i == size)
+                    break;
+            }
+            leaf.keys[leaf.size] = recordIds[order[i]];
+            leaf.blocks[leaf.size] = blockIds[order[i]];
+            leaf.slots[leaf.size] = slots[order[i]];
+            leaf.size++;
+        }
+        while (levelBlocks.size() > 1) {
+            ArrayList<Long> parentKeys = new ArrayList<>();
+            ArrayList<Integer> parentBlocks = new ArrayList<>();
+            for (int start = 0; start < levelBlocks.size(); start += innerCapacity) {
+                LocationNode inner = new LocationNode(false, innerCapacity + 1);
+                for (int c = start; c < Math.min(start + innerCapacity, levelBlocks.size()); c++) {
+                    inner.keys[inner.size] = levelKeys.get(c);
+                    inner.blocks[inner.size] = levelBlocks.get(c);
+                    inner.size++;
+                }
+                parentKeys.add(inner.keys[0]);
+                parentBlocks.add(totalBlocks);
+                writeBlock(totalBlocks++, inner);
+            }
+            levelKeys = parentKeys;
+            levelBlocks = parentBlocks;
+            height++;
+        }
+        rootBlockId = levelBlocks.get(0);
+        writeMetaData();
+    }
+
+    /**
+     * Finds the location of a record.
+     *
+     * @param recordId The ID of the record.
+     * @return The datafile block and the slot of the record, or null if the ID is not in the index.
+     */
+    int[] find(long recordId) {
+        LocationNode leaf = findLeaf(recordId);
+        return leaf != null ? findInLeaf(leaf, recordId) : null;
+    }
+
+    /**
+     * Finds the locations of many records. The IDs are looked up in ascending order,
+     * so the records of the same leaf are found with a single descent of the tree.
+     *
+     * @param recordIds The IDs of the records.
+     * @return The datafile block and the slot of every record, in the order of the IDs, or null for IDs that are not in the index.
+     */
+    int[][] findAll(long[] recordIds) {
+        Integer[] order = new Integer[recordIds.length];
+        for (int i = 0; i < recordIds.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(recordIds[a], recordIds[b]));
+        int[][] locations = new int[recordIds.length][];
+        LocationNode leaf = null;
+        for (int i : order) {
+            long recordId = recordIds[i];
+            if (leaf == null || leaf.size == 0 || recordId < leaf.keys[0] || recordId > leaf.keys[leaf.size - 1])
+                leaf = findLeaf(recordId);
+            if (leaf != null)
+                locations[i] = findInLeaf(leaf, recordId);
+        }
+        return locations;
+    }
+
+    /**
+     * Descends the tree to the leaf whose range contains the given ID.
+     *
+     * @param recordId The ID of the record.
+     * @return The leaf, or null if the index could not be read.
+     */
+    private LocationNode findLeaf(long recordId) {
+        LocationNode node = (LocationNode) readBlock(rootBlockId);
+        while (node != null && !node.leaf) {
+            node = (LocationNode) readBlock(node.blocks[Math.max(0, node.floor(recordId))]);
+        }
+        return node;
+    }
+
+    /**
+     * Finds the location of a record in a leaf.
+     *
+     * @param leaf     The leaf.
+     * @param recordId The ID of the record.
+     * @return The datafile block and the slot of the record, or null if the ID is not in the leaf.
+     */
+    private static int[] findInLeaf(LocationNode leaf, long recordId) {
+        int position = leaf.floor(recordId);
+        if (position < 0 || leaf.keys[position] != recordId)
+            return null;
+        return new int[]{leaf.blocks[position], leaf.slots[position]};
+    }
+
+    /**
+     * Adds the location of a record to the index, replacing the location of an existing record with the same ID.
+     *
+     * @param recordId The ID of the record.
+     * @param blockId  The datafile block of the record.
+     * @param slot     The slot of the record in its block.
+     */
+    void insert(long recordId, int blockId, int slot) {
+        // The nodes from the root to the leaf, with the position of the child followed in every inner node
+        ArrayList<Integer> pathBlocks = new ArrayList<>();
+        ArrayList<LocationNode> pathNodes = new ArrayList<>();
+        int blockOfNode = rootBlockId;
+        LocationNode node = (LocationNode) readBlock(blockOfNode);
+        if (node == null)
+            throw new IllegalStateException("Could not read the record location index properly");
+        while (!node.leaf) {
+            pathBlocks.add(blockOfNode);
+            pathNodes.add(node);
+            int child = Math.max(0, node.floor(recordId));
+            if (recordId < node.keys[0])
+                node.keys[0] = recordId; // The smallest key of the subtree changes
+            blockOfNode = node.blocks[child];
+            node = (LocationNode) readBlock(blockOfNode);
+        }
+
+        int position = node.floor(recordId);
+        if (position >= 0 && node.keys[position] == recordId) {
+            node.blocks[position] = blockId;
+            node.slots[position] = slot;
+            writeBlock(blockOfNode, node);
+            return;
+        }
+        LocationNode leaf = new LocationNode(true, leafCapacity + 1);
+        copyWithInsert(node, leaf, position + 1, recordId, blockId, slot);
+
+        // Split the nodes that overflow, from the leaf up to the root
+        long newKey = 0;
+        int newBlock = -1;
+        LocationNode current = leaf;
+        int currentBlock = blockOfNode;
+        int lowestWrittenLevel = pathNodes.size(); // The nodes of the path from this level down are written
+        for (int level = pathNodes.size(); level >= 0; level--) {
+            lowestWrittenLevel = level;
+            int capacity = current.leaf ? leafCapacity : innerCapacity;
+            if (current.size <= capacity) {
+                writeBlock(currentBlock, current);
+                newBlock = -1;
+                break;
+            }
+            LocationNode right = new LocationNode(current.leaf, capacity + 1);
+            int half = current.size / 2;
+            right.size = current.size - half;
+            System.arraycopy(current.keys, half, right.keys, 0, right.size);
+            System.arraycopy(current.blocks, half, right.blocks, 0, right.size);
+            if (current.leaf)
+                System.arraycopy(current.slots, half, right.slots, 0, right.size);
+            current.size = half;
+            newKey = right.keys[0];
+            newBlock = totalBlocks++;
+            writeBlock(currentBlock, current);
+            writeBlock(newBlock, right);
+            if (level == 0)
+                break;
+            // Add the new node to the parent
+            LocationNode parent = pathNodes.get(level - 1);
+            LocationNode grownParent = new LocationNode(false, innerCapacity + 1);
+            copyWithInsert(parent, grownParent, parent.floor(newKey) + 1, newKey, newBlock, 0);
+            current = grownParent;
+            currentBlock = pathBlocks.get(level - 1);
+        }
+        if (newBlock != -1) {
+            // The root was split, so a new root is added over the two halves
+            LocationNode root = new LocationNode(false, innerCapacity + 1);
+            root.keys[0] = current.keys[0];
+            root.blocks[0] = currentBlock;
+            root.keys[1] = newKey;
+            root.blocks[1] = newBlock;
+            root.size = 2;
+            rootBlockId = totalBlocks++;
+            writeBlock(rootBlockId, root);
+            height++;
+        }
+        // Inner nodes above the written ones whose smallest key changed
+        for (int level = 0; level < lowestWrittenLevel; level++) {
+            if (pathNodes.get(level).keys[0] == recordId)
+                writeBlock(pathBlocks.get(level), pathNodes.get(level));
+        }
+        writeMetaData();
+    }
+
+    /**
+     * Adds the locations of many records to the index, as insert does for every one of them.
+     * The blocks of the tree are kept in memory for the whole batch, so that every node is read once,
+     * and the changed blocks are written once at its end, in their order.
+     *
+     * @param recordIds The ID of every record.
+     * @param blockIds  The datafile block of every record.
+     * @param slots     The slot of every record in its block.
+     * @param size      The number of records.
+     */
+    void insertAll(long[] recordIds, int[] blockIds, int[] slots, int size) {
+        batchBlocks = new HashMap<>();
+        changedBatchBlocks = new TreeSet<>();
+        try {
+            for (int i = 0; i < size; i++)
+                insert(recordIds[i], blockIds[i], slots[i]);
+        } finally {
+            HashMap<Integer, Serializable> blocks = batchBlocks;
+            batchBlocks = null;
+            try (RandomAccessFile f = new RandomAccessFile(new File(pathToFile), "rw")) {
+                for (int blockId : changedBatchBlocks) {
+                    f.seek((long) blockId * blockSize);
+                    f.write(makeBlock(blocks.get(blockId)));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            changedBatchBlocks = null;
+        }
+    }
+
+    /**
+     * Copies a node into a node with room for one more key, adding the given key at the given position.
+     *
+     * @param from     The node that is copied.
+     * @param to       The node with one more key of room.
+     * @param position The position of the new key.
+     * @param key      The new key.
+     * @param block    The block of the new key.
+     * @param slot     The slot of the new key, only used by leaves.
+     */
+    private static void copyWithInsert(LocationNode from, LocationNode to, int position, long key, int block, int slot) {
+        System.arraycopy(from.keys, 0, to.keys, 0, position);
+        System.arraycopy(from.blocks, 0, to.blocks, 0, position);
+        System.arraycopy(from.keys, position, to.keys, position + 1, from.size - position);
+        System.arraycopy(from.blocks, position, to.blocks, position + 1, from.size - position);
+        to.keys[position] = key;
+        to.blocks[position] = block;
+        if (from.leaf) {
+            System.arraycopy(from.slots, 0, to.slots, 0, position);
+            System.arraycopy(from.slots, position, to.slots, position + 1, from.size - position);
+            to.slots[position] = slot;
+        }
+        to.size = from.size + 1;
+    }
+
+    /**
+     * Retrieves the levels of the tree.
+     *
+     * @return The height of the tree, 1 if the root is a leaf.
+     */
+    int getHeight() {return height;}
+
+    /**
+     * Writes the metadata block (block size, total blocks, root block and height).
+     */
+    private void writeMetaData() {
+        ArrayList<Integer> metaData = new ArrayList<>();
+        metaData.add(blockSize);
+        metaData.add(totalBlocks);
+        metaData.add(rootBlockId);
+        metaData.add(height);
+        writeBlock(0, metaData);
+    }
+
+    /**
+     * Writes a serialized object, preceded by its length, in the given block of the file.
+     *
+     * @param blockId The block to be written.
+     * @param object  The node or the metadata.
+     */
+    private void writeBlock(int blockId, Serializable object) {
+        // During insertAll the block is only kept in memory, until the end of the batch
+        if (batchBlocks != null) {
+            batchBlocks.put(blockId, object);
+            changedBatchBlocks.add(blockId);
+            return;
+        }
+        try {
+            byte[] block = makeBlock(object);
+            RandomAccessFile f = new RandomAccessFile(new File(pathToFile), "rw");
+            f.seek((long) blockId * blockSize);
+            f.write(block);
+            f.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Serializes an object, preceded by its length, into a block of the file.
+     *
+     * @param object The node or the metadata.
+     * @return The bytes of the block.
+     * @throws IOException If the object cannot be serialized.
+     */
+    private byte[] makeBlock(Serializable object) throws IOException {
+        byte[] objectInBytes = FilesHelper.serialize(object);
+        byte[] goodPutLengthInBytes = FilesHelper.serialize(objectInBytes.length);
+        if (goodPutLengthInBytes.length + objectInBytes.length > blockSize)
+            throw new IllegalStateException("A node of the record location index exceeds the block size");
+        byte[] block = new byte[blockSize];
+        System.arraycopy(goodPutLengthInBytes, 0, block, 0, goodPutLengthInBytes.length);
+        System.arraycopy(objectInBytes, 0, block, goodPutLengthInBytes.length, objectInBytes.length);
+        return block;
+    }
+
+    /**
+     * Reads the serialized object of the given block of the file.
+     *
+     * @param blockId The block to be read.
+     * @return The node or the metadata, or null in case of errors.
+     */
+    private Object readBlock(int blockId) {
+        if (batchBlocks != null && batchBlocks.containsKey(blockId))
+            return batchBlocks.get(blockId);
+        try {
+            RandomAccessFile raf = new RandomAccessFile(new File(pathToFile), "r");
+            raf.seek((long) blockId * blockSize);
+            byte[] block = new byte[blockSize];
+            raf.readFully(block);
+            raf.close();
+
+            byte[] goodPutLengthInBytes = FilesHelper.serialize(new Random().nextInt());
+            System.arraycopy(block, 0, goodPutLengthInBytes, 0, goodPutLengthInBytes.length);
+            byte[] objectInBytes = new byte[(Integer) FilesHelper.deserialize(goodPutLengthInBytes)];
+            System.arraycopy(block, goodPutLengthInBytes.length, objectInBytes, 0, objectInBytes.length);
+            Object object = FilesHelper.deserialize(objectInBytes);
+            if (batchBlocks != null)
+                batchBlocks.put(blockId, (Serializable) object);
+            return object;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
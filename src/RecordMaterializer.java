@@ -0,0 +1,150 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * RecordMaterializer turns the leaf entries found by a query into the full records or into their coordinates.
+ * The entries already hold the datafile block of their records, so the entries are grouped by block and every
+ * needed datafile block is read only once, in ascending order, or in parallel when there are many of them.
+ * Coordinates of point records are taken from the bounds of the leaf entries, without reading the datafile.
+ *
+ * @author Akompian Georgios
+ */
+class RecordMaterializer {
+    private static final int PARALLEL_BLOCKS = 8; // The fewest datafile blocks that are read in parallel
+    private final IndexStore indexStore; // The store whose datafile the records are read from
+    private final QueryStatistics statistics; // The statistics of the query whose records are read, or null
+    private long dataBlocksRead; // The datafile blocks read by this materializer
+
+    /**
+     * Constructs a RecordMaterializer for the datafile of the given store.
+     *
+     * @param indexStore The IndexStore of the RStarTree whose query results are materialized.
+     */
+    RecordMaterializer(IndexStore indexStore) {
+        this(indexStore, null);
+    }
+
+    /**
+     * Constructs a RecordMaterializer for the datafile of the given store that records its reads in the statistics of a query.
+     *
+     * @param indexStore The IndexStore of the RStarTree whose query results are materialized.
+     * @param statistics The statistics of the query whose results are materialized.
+     */
+    RecordMaterializer(IndexStore indexStore, QueryStatistics statistics) {
+        this.indexStore = indexStore;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Retrieves the number of datafile blocks read by this materializer.
+     *
+     * @return The datafile blocks read.
+     */
+    long getDataBlocksRead() {return dataBlocksRead;}
+
+    /**
+     * Reads the records of the given leaf entries, reading every datafile block that holds any of them once.
+     *
+     * @param leafEntries The leaf entries found by a query.
+     * @return The records, in the order of the leaf entries, without the records that could not be found.
+     */
+    ArrayList<Record> getRecords(ArrayList<LeafEntry> leafEntries) {
+        ArrayList<Record> records = new ArrayList<>(leafEntries.size());
+        for (Record record : readRecords(leafEntries)) {
+            if (record != null)
+                records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Reads the records of the given leaf entries, grouped by their datafile block.
+     *
+     * @param leafEntries The leaf entries found by a query.
+     * @return The record of every leaf entry, null for entries whose record could not be found.
+     */
+    private Record[] readRecords(ArrayList<LeafEntry> leafEntries) {
+        // The distinct datafile blocks of the entries, in ascending order
+        long[] blockIds = new long[leafEntries.size()];
+        for (int i = 0; i < blockIds.length; i++)
+            blockIds[i] = leafEntries.get(i).getDataFileBlockID();
+        long[] distinctBlockIds = Arrays.stream(blockIds).sorted().distinct().toArray();
+
+        IntStream blocks = IntStream.range(0, distinctBlockIds.length);
+        if (distinctBlockIds.length >= PARALLEL_BLOCKS && Runtime.getRuntime().availableProcessors() > 1)
+            blocks = blocks.parallel();
+        // The records of every block, in the order of the blocks even when they are read in parallel
+        List<ArrayList<Record>> blockRecords = blocks.mapToObj(b -> indexStore.readDataFileBlock((int) distinctBlockIds[b], statistics))
+                .collect(Collectors.toList());
+        dataBlocksRead += distinctBlockIds.length;
+
+        // The records of every block by their ID
+        HashMap<Long, Record> recordsById = new HashMap<>();
+        for (ArrayList<Record> records : blockRecords) {
+            if (records == null)
+                throw new IllegalStateException("Couldn't read records from datafile properly.");
+            for (Record record : records)
+                recordsById.put(record.getId(), record);
+        }
+
+        Record[] records = new Record[leafEntries.size()];
+        for (int i = 0; i < records.length; i++) {
+            long recordId = leafEntries.get(i).getRecordID();
+            records[i] = recordsById.get(recordId);
+            if (records[i] == null) {
+                // The entry points to the wrong block, the record is found with the record location index instead
+                records[i] = indexStore.readDataFileRecord(recordId, statistics);
+                dataBlocksRead++;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Returns the coordinates of the given leaf entries' records in the given dimensions.
+     * Point records keep their coordinates in the bounds of their entries, so the datafile is only read
+     * for entries whose bounding box is not a point.
+     *
+     * @param leafEntries The leaf entries found by a query.
+     * @param dimensions  The dimensions that are kept, in the order they are returned.
+     * @return The projected coordinates, in the order of the leaf entries, without the records that could not be found.
+     */
+    ArrayList<ArrayList<Double>> getCoordinates(ArrayList<LeafEntry> leafEntries, int[] dimensions) {
+        ArrayList<ArrayList<Double>> coordinates = new ArrayList<>(leafEntries.size());
+        ArrayList<LeafEntry> boxEntries = new ArrayList<>();
+        ArrayList<Integer> boxPositions = new ArrayList<>();
+        for (LeafEntry leafEntry : leafEntries) {
+            ArrayList<Bounds> bounds = leafEntry.getBoundingBox().getBounds();
+            ArrayList<Double> point = new ArrayList<>(dimensions.length);
+            for (int d : dimensions) {
+                if (bounds.get(d).getLower() != bounds.get(d).getUpper()) {
+                    point = null;
+                    break;
+                }
+                point.add(bounds.get(d).getLower());
+            }
+            if (point == null) {
+                boxEntries.add(leafEntry);
+                boxPositions.add(coordinates.size());
+            }
+            coordinates.add(point);
+        }
+        if (!boxEntries.isEmpty()) {
+            Record[] records = readRecords(boxEntries);
+            for (int i = 0; i < records.length; i++) {
+                if (records[i] == null)
+                    continue;
+                ArrayList<Double> point = new ArrayList<>(dimensions.length);
+                for (int d : dimensions)
+                    point.add(records[i].getCoordinate(d));
+                coordinates.set(boxPositions.get(i), point);
+            }
+        }
+        coordinates.removeIf(point -> point == null);
+        return coordinates;
+    }
+}
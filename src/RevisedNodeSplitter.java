@@ -0,0 +1,103 @@
+/**
+ * This class implements the split of the revised R*-tree (RR*-tree).
+ * The split axis is chosen as in the R* split, by the minimum perimeter sum. On that axis, if some distributions have
+ * no overlap, the one with the smallest perimeter is chosen, otherwise the one with the smallest overlap.
+ * Both goal values are weighted by a Gaussian of the split position, so that balanced distributions are preferred
+ * over distributions near the minimum fill of a node.
+ * @author Christos Kontos
+ */
+class RevisedNodeSplitter extends NodeSplitter {
+    private static final double S = 0.5; // The spread of the weighting function, as suggested for the RR*-tree.
+    private static final double Y1 = Math.exp(-1 / (S * S));
+    private static final double YS = 1 / (1 - Y1);
+
+    /**
+     * The constructor of the splitter with the node capacities of the tree.
+     * @param minEntries the minimum entries (m) of a node of the tree.
+     * @param maxEntries the maximum entries (M) of a node of the tree.
+     */
+    RevisedNodeSplitter(int minEntries, int maxEntries)
+    {
+        super(minEntries, maxEntries);
+    }
+
+    /**
+     * This method chooses the distribution of the split axis with the minimum weighted goal value.
+     * For overlap free distributions the goal is the perimeter of the two groups minus the largest possible one,
+     * multiplied by the weight, so it is negative and bigger weights make it smaller.
+     * For overlapping distributions the goal is the overlap divided by the weight.
+     * @param size the number of entries.
+     */
+    @Override
+    protected void chooseSplitIndex(int size)
+    {
+        double minOverlapFreeGoal = Double.MAX_VALUE;
+        double minOverlapGoal = Double.MAX_VALUE;
+        int[] overlapFreeOrder = null;
+        int overlapFreeFirstGroupSize = 0;
+        int[] overlapOrder = lowerSortedOrder;
+        int overlapFirstGroupSize = minEntries;
+        for (int sort = 0; sort < 2; sort++)
+        {
+            int[] order = sort == 0 ? lowerSortedOrder : upperSortedOrder;
+            computePrefixSuffixBoxes(order, size);
+
+            // The box of all the entries is the last prefix box.
+            double maxPerimeter = 0;
+            int all = (size - 1) * dimensions;
+            for (int d = 0; d < dimensions; d++)
+            {
+                maxPerimeter += 2 * (prefixUpper[all+d] - prefixLower[all+d]);
+            }
+
+            for (int firstGroupSize = minEntries; firstGroupSize <= size - minEntries; firstGroupSize++)
+            {
+                int a = (firstGroupSize - 1) * dimensions;
+                int b = firstGroupSize * dimensions;
+                double overlap = 1;
+                double perimeter = 0;
+                for (int d = 0; d < dimensions; d++)
+                {
+                    double overlapD = Math.min(prefixUpper[a+d], suffixUpper[b+d]) - Math.max(prefixLower[a+d], suffixLower[b+d]);
+                    overlap = overlapD <= 0 ? 0 : overlap * overlapD;
+                    perimeter += (prefixUpper[a+d] - prefixLower[a+d]) + (suffixUpper[b+d] - suffixLower[b+d]);
+                }
+                double weight = weight(firstGroupSize, size);
+                if(overlap == 0)
+                {
+                    double goal = (perimeter - maxPerimeter) * weight;
+                    if(minOverlapFreeGoal > goal)
+                    {
+                        minOverlapFreeGoal = goal;
+                        overlapFreeOrder = order;
+                        overlapFreeFirstGroupSize = firstGroupSize;
+                    }
+                }
+                else if(overlapFreeOrder == null)
+                {
+                    double goal = overlap / weight;
+                    if(minOverlapGoal > goal)
+                    {
+                        minOverlapGoal = goal;
+                        overlapOrder = order;
+                        overlapFirstGroupSize = firstGroupSize;
+                    }
+                }
+            }
+        }
+        splitOrder = overlapFreeOrder != null ? overlapFreeOrder : overlapOrder;
+        splitFirstGroupSize = overlapFreeOrder != null ? overlapFreeFirstGroupSize : overlapFirstGroupSize;
+    }
+
+    /**
+     * Calculates the weight of a split position, which is 1 for the balanced split and falls to 0 at the ends.
+     * @param firstGroupSize the number of entries of the first group.
+     * @param size the number of entries.
+     * @return the weight of the split position.
+     */
+    private double weight(int firstGroupSize, int size)
+    {
+        double x = 2.0 * firstGroupSize / size - 1;
+        return YS * (Math.exp(-(x / S) * (x / S)) - Y1);
+    }
+}
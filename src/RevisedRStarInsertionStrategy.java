@@ -0,0 +1,47 @@
+import java.util.ArrayList;
+
+/**
+ * This class implements the insertion policy of the revised R*-tree (RR*-tree): ChooseSubtree by perimeter
+ * and overlap enlargement on every level, the split with weighted perimeter and overlap goals, and no forced reinsertion.
+ * @author Christos Kontos
+ */
+class RevisedRStarInsertionStrategy implements InsertionStrategy {
+    private final RevisedSubtreeChooser subtreeChooser;
+    private final RevisedNodeSplitter leafSplitter; // Used for the leaves.
+    private final RevisedNodeSplitter innerNodeSplitter; // Used for the inner nodes, which can have a different capacity.
+
+    /**
+     * The constructor of the strategy for the node capacities of the given store.
+     * @param indexStore the store with the files of the tree, already initialized.
+     */
+    RevisedRStarInsertionStrategy(IndexStore indexStore)
+    {
+        this.subtreeChooser = new RevisedSubtreeChooser(indexStore.getMaxEntriesInInnerNode());
+        this.leafSplitter = new RevisedNodeSplitter(indexStore.getMinEntriesInNode(), indexStore.getMaxEntriesInNode());
+        this.innerNodeSplitter = new RevisedNodeSplitter(indexStore.getMinEntriesInInnerNode(), indexStore.getMaxEntriesInInnerNode());
+    }
+
+    @Override
+    public Entry chooseSubtree(Node node, BoundingBox boundingBox, boolean childrenAreLeaves)
+    {
+        return subtreeChooser.chooseSubtree(node, boundingBox, childrenAreLeaves);
+    }
+
+    @Override
+    public ArrayList<Node> splitNode(Node node)
+    {
+        return node.isLeaf() ? leafSplitter.splitNode(node) : innerNodeSplitter.splitNode(node);
+    }
+
+    @Override
+    public boolean usesForcedReinsert()
+    {
+        return false;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "RR*";
+    }
+}
@@ -0,0 +1,180 @@
+import java.util.ArrayList;
+
+/**
+ * This class implements the ChooseSubtree step of the revised R*-tree (RR*-tree), used on every level of the tree.
+ * An entry that already contains the new box is chosen first. Otherwise the entries are ordered by perimeter
+ * enlargement, and if the first one does not enlarge its overlap with the rest it is chosen. If it does, only the
+ * entries up to the last one whose overlap with the first would grow are considered, and the one with the least
+ * overlap enlargement among them is chosen. The overlap is measured by area, or by perimeter if a candidate
+ * would have a zero area.
+ * @author Christos Kontos
+ */
+class RevisedSubtreeChooser extends SubtreeChooser {
+    private double[] perimeter;
+    private double[] perimeterEnlargement;
+
+    /**
+     * The constructor of the chooser.
+     * @param maxEntries the maximum entries (M) of a node of the tree.
+     */
+    RevisedSubtreeChooser(int maxEntries)
+    {
+        super(maxEntries, maxEntries + 1);
+    }
+
+    /**
+     * This method picks the entry of the node whose subtree the new box will be inserted into.
+     * @param node the node whose entries are examined.
+     * @param boundingBox the bounding box of the entry that is inserted.
+     * @param childrenAreLeaves not used, the same criteria are used on every level.
+     * @return the chosen entry.
+     */
+    @Override
+    Entry chooseSubtree(Node node, BoundingBox boundingBox, boolean childrenAreLeaves)
+    {
+        ArrayList<Entry> entries = node.getEntries();
+        int size = entries.size();
+        loadEntries(entries, boundingBox);
+        if(perimeter == null || perimeter.length < capacity)
+        {
+            perimeter = new double[capacity];
+            perimeterEnlargement = new double[capacity];
+        }
+
+        // [Covering entries] the one with the smallest area, or the smallest perimeter if some have zero area
+        int best = -1;
+        int bestByPerimeter = -1;
+        boolean zeroAreaCovers = false;
+        for (int e = 0; e < size; e++)
+        {
+            int offset = e * dimensions;
+            double entryArea = 1;
+            double entryPerimeter = 0;
+            double enlargedPerimeter = 0;
+            for (int d = 0; d < dimensions; d++)
+            {
+                double entryLower = lower[offset+d];
+                double entryUpper = upper[offset+d];
+                entryArea *= entryUpper - entryLower;
+                entryPerimeter += entryUpper - entryLower;
+                enlargedPerimeter += Math.max(entryUpper, newUpper[d]) - Math.min(entryLower, newLower[d]);
+            }
+            area[e] = entryArea;
+            perimeter[e] = entryPerimeter;
+            perimeterEnlargement[e] = enlargedPerimeter - entryPerimeter;
+            if(contains(offset))
+            {
+                zeroAreaCovers |= entryArea == 0;
+                if(best == -1 || area[e] < area[best])
+                    best = e;
+                if(bestByPerimeter == -1 || perimeter[e] < perimeter[bestByPerimeter])
+                    bestByPerimeter = e;
+            }
+        }
+        if(best != -1)
+        {
+            return entries.get(zeroAreaCovers ? bestByPerimeter : best);
+        }
+
+        // [Perimeter enlargement order]
+        selectCandidates(size, size);
+        int first = candidates[0];
+        int lastCandidate = 0;
+        for (int c = 1; c < size; c++)
+        {
+            if(overlapDifference(first, candidates[c], false) > 0)
+                lastCandidate = c;
+        }
+        if(lastCandidate == 0)
+        {
+            // The first entry can be enlarged without any overlap growth.
+            return entries.get(first);
+        }
+
+        // [Overlap enlargement] among the first lastCandidate+1 entries, by area unless a candidate would have none
+        boolean byArea = true;
+        for (int c = 0; c <= lastCandidate && byArea; c++)
+        {
+            int offset = candidates[c] * dimensions;
+            double enlargedArea = 1;
+            for (int d = 0; d < dimensions; d++)
+            {
+                enlargedArea *= Math.max(upper[offset+d], newUpper[d]) - Math.min(lower[offset+d], newLower[d]);
+            }
+            byArea = enlargedArea > 0;
+        }
+        best = first;
+        double bestOverlapEnlargement = Double.MAX_VALUE;
+        for (int c = 0; c <= lastCandidate; c++)
+        {
+            double overlapEnlargement = 0;
+            for (int j = 0; j <= lastCandidate; j++)
+            {
+                if(j != c)
+                    overlapEnlargement += overlapDifference(candidates[c], candidates[j], byArea);
+            }
+            if(overlapEnlargement < bestOverlapEnlargement)
+            {
+                bestOverlapEnlargement = overlapEnlargement;
+                best = candidates[c];
+                if(overlapEnlargement == 0)
+                    break;
+            }
+        }
+        return entries.get(best);
+    }
+
+    /**
+     * Orders the candidates by perimeter enlargement and then by area.
+     * @param entryA the index of the first entry.
+     * @param entryB the index of the second entry.
+     * @return a negative integer, zero, or a positive integer as the first entry is better, equal or worse than the second.
+     */
+    @Override
+    protected int compareCandidates(int entryA, int entryB)
+    {
+        if(perimeterEnlargement[entryA] == perimeterEnlargement[entryB])
+        {
+            return Double.compare(area[entryA], area[entryB]);
+        }
+        return Double.compare(perimeterEnlargement[entryA], perimeterEnlargement[entryB]);
+    }
+
+    /**
+     * Calculates how much the overlap of an entry with another entry grows if the first one is enlarged to include the new box.
+     * @param entry the index of the entry that is enlarged.
+     * @param other the index of the other entry.
+     * @param byArea true to measure the overlap by area, false to measure it by the perimeter of the intersection.
+     * @return the overlap growth.
+     */
+    private double overlapDifference(int entry, int other, boolean byArea)
+    {
+        int entryOffset = entry * dimensions;
+        int otherOffset = other * dimensions;
+        double overlap = byArea ? 1 : 0;
+        double enlargedOverlap = byArea ? 1 : 0;
+        boolean overlaps = true;
+        boolean enlargedOverlaps = true;
+        for (int d = 0; d < dimensions; d++)
+        {
+            double entryLower = lower[entryOffset+d];
+            double entryUpper = upper[entryOffset+d];
+            double overlapD = Math.min(entryUpper, upper[otherOffset+d]) - Math.max(entryLower, lower[otherOffset+d]);
+            double enlargedOverlapD = Math.min(Math.max(entryUpper, newUpper[d]), upper[otherOffset+d])
+                    - Math.max(Math.min(entryLower, newLower[d]), lower[otherOffset+d]);
+            overlaps &= overlapD >= 0;
+            enlargedOverlaps &= enlargedOverlapD >= 0;
+            if(byArea)
+            {
+                overlap *= Math.max(overlapD, 0);
+                enlargedOverlap *= Math.max(enlargedOverlapD, 0);
+            }
+            else
+            {
+                overlap += Math.max(overlapD, 0);
+                enlargedOverlap += Math.max(enlargedOverlapD, 0);
+            }
+        }
+        return (enlargedOverlaps ? enlargedOverlap : 0) - (overlaps ? overlap : 0);
+    }
+}
@@ -9,6 +9,7 @@ import java.util.PriorityQueue;
  * @author Akompian Georgios
  */
 class SeqNearestNeighbourQuery extends SeqScanQuery {
+    private IndexStore indexStore; // The store whose datafile is scanned.
     private ArrayList<Double> searchPoint; // The point for which nearest neighbors are sought.
     private int k; // The number of nearest neighbors to find.
     private PriorityQueue<IdDistancePair> nearestNeighbours; // Priority queue to store the nearest neighbors.
@@ -16,13 +17,15 @@ class SeqNearestNeighbourQuery extends SeqScanQuery {
     /**
      * Constructs a SeqNearestNeighbourQuery with the given search point and the number of nearest neighbors to find.
      *
+     * @param indexStore  The IndexStore whose datafile is scanned.
      * @param searchPoint The point for which nearest neighbors are sought.
      * @param k           The number of nearest neighbors to find.
      * @throws IllegalArgumentException If k is not a positive integer.
      */
-    SeqNearestNeighbourQuery(ArrayList<Double> searchPoint, int k) throws IllegalArgumentException {
+    SeqNearestNeighbourQuery(IndexStore indexStore, ArrayList<Double> searchPoint, int k) throws IllegalArgumentException {
         if (k < 0)
             throw new IllegalArgumentException("Parameter 'k' for the nearest neighbors must be a positive integer.");
+        this.indexStore = indexStore;
         this.searchPoint = searchPoint;
         this.k = k;
 
@@ -44,6 +47,7 @@ class SeqNearestNeighbourQuery extends SeqScanQuery {
     @Override
     ArrayList<Long> getQueryRecordIds() {
         ArrayList<Long> qualifyingRecordIds = new ArrayList<>();
+        getStatistics().start();
         findNeighbours();
 
         // Pop elements from the priority queue (max heap) to get the closest neighbors first.
@@ -54,6 +58,7 @@ class SeqNearestNeighbourQuery extends SeqScanQuery {
 
         // Reverse the list to return the closest neighbors first instead of farthest.
         Collections.reverse(qualifyingRecordIds);
+        getStatistics().stop();
         return qualifyingRecordIds;
     }
 
@@ -63,17 +68,18 @@ class SeqNearestNeighbourQuery extends SeqScanQuery {
      */
     private void findNeighbours() {
         int blockId = 1;
-        while (blockId < FilesHelper.getTotalBlocksInDatafile()) {
+        while (blockId < indexStore.getTotalBlocksInDatafile()) {
             ArrayList<Record> recordsInBlock;
-            recordsInBlock = FilesHelper.readDataFileBlock(blockId);
+            recordsInBlock = indexStore.readDataFileBlock(blockId, getStatistics());
             ArrayList<LeafEntry> entries = new ArrayList<>();
 
             if (recordsInBlock != null) {
+                getStatistics().recordsTested(recordsInBlock.size());
                 for (Record record : recordsInBlock) {
                     ArrayList<Bounds> boundsForEachDimension = new ArrayList<>();
 
                     // Since we have points as records, we set the lower and upper bounds to be the same.
-                    for (int d = 0; d < FilesHelper.getDataDimensions(); d++)
+                    for (int d = 0; d < indexStore.getDataDimensions(); d++)
                         boundsForEachDimension.add(new Bounds(record.getCoordinate(d), record.getCoordinate(d)));
 
                     entries.add(new LeafEntry(record.getId(), blockId, boundsForEachDimension));
@@ -7,15 +7,18 @@ import java.util.ArrayList;
  */
 class SeqScanBoundingBoxRangeQuery extends SeqScanQuery {
 
+    private IndexStore indexStore; // The store whose datafile is scanned
     private ArrayList<Long> qualifyingRecordIds; // Record ids used for queries
     private BoundingBox searchBoundingBox; // Bounding box used for range queries
 
     /**
      * Constructs a SeqScanBoundingBoxRangeQuery with the given search bounding box.
      *
+     * @param indexStore        The IndexStore whose datafile is scanned.
      * @param searchBoundingBox The bounding box used for range queries.
      */
-    SeqScanBoundingBoxRangeQuery(BoundingBox searchBoundingBox) {
+    SeqScanBoundingBoxRangeQuery(IndexStore indexStore, BoundingBox searchBoundingBox) {
+        this.indexStore = indexStore;
         this.searchBoundingBox = searchBoundingBox;
     }
 
@@ -27,7 +30,9 @@ class SeqScanBoundingBoxRangeQuery extends SeqScanQuery {
     @Override
     ArrayList<Long> getQueryRecordIds() {
         qualifyingRecordIds = new ArrayList<>();
+        getStatistics().start();
         search();
+        getStatistics().stop();
         return qualifyingRecordIds;
     }
 
@@ -36,19 +41,20 @@ class SeqScanBoundingBoxRangeQuery extends SeqScanQuery {
      */
     private void search(){
         int blockId = 1;
-        while(blockId < FilesHelper.getTotalBlocksInDatafile())
+        while(blockId < indexStore.getTotalBlocksInDatafile())
         {
             ArrayList<Record> recordsInBlock;
-            recordsInBlock = FilesHelper.readDataFileBlock(blockId);
+            recordsInBlock = indexStore.readDataFileBlock(blockId, getStatistics());
             ArrayList<LeafEntry> entries = new ArrayList<>();
 
             if (recordsInBlock != null)
             {
+                getStatistics().recordsTested(recordsInBlock.size());
                 for (Record record : recordsInBlock)
                 {
                     ArrayList<Bounds> boundsForEachDimension = new ArrayList<>();
                     // Since we have to do with points as records we set low and upper to be same
-                    for (int d = 0; d < FilesHelper.getDataDimensions(); d++)
+                    for (int d = 0; d < indexStore.getDataDimensions(); d++)
                         boundsForEachDimension.add(new Bounds(record.getCoordinate(d), record.getCoordinate(d)));
 
                     entries.add(new LeafEntry(record.getId(), blockId, boundsForEachDimension));
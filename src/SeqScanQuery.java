@@ -8,6 +8,15 @@ import java.util.ArrayList;
  */
 
 abstract class SeqScanQuery {
+    private final QueryStatistics statistics = new QueryStatistics(); // The execution statistics of the query
+
+    /**
+     * Retrieves the execution statistics of the query, filled in while the query is executed.
+     *
+     * @return The statistics of the query.
+     */
+    QueryStatistics getStatistics() {return statistics;}
+
     /**
      * Returns the IDs of the query's records that satisfy the query criteria.
      *
@@ -10,8 +10,10 @@ class SeqSkylineQuery extends SeqScanQuery {
     private BoundingBox queryBoundingBox;
     private PriorityQueue<Record> skylineCandidates;
     private int dimensions;
+    private IndexStore indexStore;
 
-    public SeqSkylineQuery(int dimensions) {
+    public SeqSkylineQuery(IndexStore indexStore, int dimensions) {
+        this.indexStore = indexStore;
         this.dimensions = dimensions;
         this.skylineCandidates = new PriorityQueue<>(new Comparator<Record>() {
             @Override
@@ -31,12 +33,14 @@ class SeqSkylineQuery extends SeqScanQuery {
     @Override
     public ArrayList<Long> getQueryRecordIds() {
         ArrayList<Long> skylineRecordIds = new ArrayList<>();
+        getStatistics().start();
         int blockId = 1;
 
-        while (blockId <= FilesHelper.getTotalBlocksInDatafile()) {
-            ArrayList<Record> recordsInBlock = FilesHelper.readDataFileBlock(blockId);
+        while (blockId < indexStore.getTotalBlocksInDatafile()) {
+            ArrayList<Record> recordsInBlock = indexStore.readDataFileBlock(blockId, getStatistics());
 
             if (recordsInBlock != null) {
+                getStatistics().recordsTested(recordsInBlock.size());
                 for (Record record : recordsInBlock) {
                     if (isSkyline(record)) {
                         skylineRecordIds.add(record.getId());
@@ -51,6 +55,7 @@ class SeqSkylineQuery extends SeqScanQuery {
             blockId++;
         }
 
+        getStatistics().stop();
         return skylineRecordIds;
     }
 
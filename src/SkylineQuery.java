@@ -9,8 +9,10 @@ import java.util.HashSet;
 */
  class SkylineQuery extends Query {
     //private ArrayList<Double> queryPoint; // The query point for skyline computation
+    private IndexStore indexStore; // The store of the index that is searched
 
-    SkylineQuery() {
+    SkylineQuery(IndexStore indexStore) {
+        this.indexStore = indexStore;
         //this.querypoint=querypoint;
     }
 
@@ -23,6 +25,7 @@ import java.util.HashSet;
 
     private void getSkyline(Node node, ArrayList<Long> skylineRecords) {
         Set<Entry> skylineSet = new HashSet<>(); // Maintain a set of skyline points
+        getStatistics().nodeVisited(node);
 
         if (node.isLeaf()) {
             // Leaf node, check each entry against the query point
@@ -48,7 +51,7 @@ import java.util.HashSet;
         } else {
             // Non-leaf node, recursively visit child nodes
             for (Entry entry : node.getEntries()) {
-                Node childNode = FilesHelper.readIndexFileBlock(entry.getChildNodeBlockID());
+                Node childNode = indexStore.readIndexFileBlock(entry.getChildNodeBlockID(), getStatistics());
                 if (childNode != null) {
                     getSkyline(childNode, skylineRecords);
                 }
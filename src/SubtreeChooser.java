@@ -0,0 +1,329 @@
+import java.util.ArrayList;
+
+/**
+ * This class implements the ChooseSubtree step of the R* insertion on primitive buffers.
+ * The area, the area enlargement and (for nodes pointing to leaves) the overlap enlargement of every entry
+ * are calculated in single passes over the bounds of the entries, without creating new bounding boxes or comparators.
+ * Following the revised R*-tree, if some entries already contain the new box (zero enlargement) the smallest of them
+ * is chosen without any overlap calculations, and the overlap enlargement check stops at the first candidate that does not enlarge the overlap at all.
+ * The buffers are kept between insertions, so an instance must be used by one tree (thread) at a time.
+ * @author Christos Kontos
+ */
+class SubtreeChooser {
+    protected final int maxEntries; // The maximum entries (M) of a node.
+    private final int pEntries; // The entries with the least area enlargement whose overlap enlargement is checked.
+    protected int dimensions;
+    protected int capacity; // The number of entries the buffers can hold.
+    protected double[] lower; // lower[e*dimensions+d] is the lower bound of entry e in dimension d.
+    protected double[] upper;
+    protected double[] newLower; // The bounds of the box that is inserted.
+    protected double[] newUpper;
+    protected double[] area;
+    protected double[] areaEnlargement;
+    protected int[] candidates; // The entry indexes sorted by compareCandidates.
+
+    /**
+     * The constructor of the chooser.
+     * @param maxEntries the maximum entries (M) of a node of the tree.
+     * @param pEntries the number of entries with the least area enlargement that are checked for overlap enlargement.
+     */
+    SubtreeChooser(int maxEntries, int pEntries)
+    {
+        this.maxEntries = maxEntries;
+        this.pEntries = pEntries;
+    }
+
+    /**
+     * This method picks the entry of the node whose subtree the new box will be inserted into.
+     * If the children of the node are leaves the entry with the least overlap enlargement is picked,
+     * then the least area enlargement and then the least area. Otherwise the entry with the least area enlargement,
+     * then the least area.
+     * @param node the node whose entries are examined.
+     * @param boundingBox the bounding box of the entry that is inserted.
+     * @param childrenAreLeaves true if the entries of the node point to nodes of the insertion level.
+     * @return the chosen entry.
+     */
+    Entry chooseSubtree(Node node, BoundingBox boundingBox, boolean childrenAreLeaves)
+    {
+        ArrayList<Entry> entries = node.getEntries();
+        int size = entries.size();
+        loadEntries(entries, boundingBox);
+
+        // Area and area enlargement of every entry, keeping the smallest entry that already contains the new box
+        computeAreaEnlargements(size);
+        int best = -1;
+        for (int e = 0; e < size; e++)
+        {
+            // Only an entry whose area does not grow can contain the new box.
+            if(areaEnlargement[e] == 0 && contains(e * dimensions))
+            {
+                // Among the entries that contain the box, the one with the smallest area
+                if(best == -1 || area[e] < area[best])
+                    best = e;
+            }
+        }
+        if(best != -1)
+        {
+            return entries.get(best);
+        }
+
+        if(!childrenAreLeaves)
+        {
+            best = 0;
+            for (int e = 1; e < size; e++)
+            {
+                if(compareAreaEnlargement(e, best) < 0)
+                    best = e;
+            }
+            return entries.get(best);
+        }
+
+        // Candidates ordered by area enlargement, of which only the first p are checked if the node is big
+        int candidatesChecked = size;
+        if(maxEntries > (pEntries*2)/3 && size > pEntries)
+        {
+            candidatesChecked = pEntries;
+        }
+        selectCandidates(size, candidatesChecked);
+
+        best = candidates[0];
+        double bestOverlapEnlargement = Double.MAX_VALUE;
+        for (int c = 0; c < candidatesChecked; c++)
+        {
+            int candidate = candidates[c];
+            double overlapEnlargement = overlapEnlargement(candidate, size);
+            // The candidates are in area enlargement order, so on equal overlap enlargement the earlier one stays.
+            if(overlapEnlargement < bestOverlapEnlargement)
+            {
+                bestOverlapEnlargement = overlapEnlargement;
+                best = candidate;
+                if(overlapEnlargement == 0)
+                    break;
+            }
+        }
+        return entries.get(best);
+    }
+
+    /**
+     * This method copies the bounds of the entries and of the new box into the buffers, growing them if needed.
+     * @param entries the entries of the node.
+     * @param boundingBox the bounding box that is inserted.
+     */
+    protected void loadEntries(ArrayList<Entry> entries, BoundingBox boundingBox)
+    {
+        int size = entries.size();
+        int boxDimensions = boundingBox.getBounds().size();
+        if(size > capacity || boxDimensions != dimensions)
+        {
+            dimensions = boxDimensions;
+            capacity = Math.max(size, maxEntries + 1);
+            lower = new double[capacity * dimensions];
+            upper = new double[capacity * dimensions];
+            newLower = new double[dimensions];
+            newUpper = new double[dimensions];
+            area = new double[capacity];
+            areaEnlargement = new double[capacity];
+            candidates = new int[capacity];
+        }
+        for (int d = 0; d < dimensions; d++)
+        {
+            newLower[d] = boundingBox.getBounds().get(d).getLower();
+            newUpper[d] = boundingBox.getBounds().get(d).getUpper();
+        }
+        for (int e = 0; e < size; e++)
+        {
+            ArrayList<Bounds> bounds = entries.get(e).getBoundingBox().getBounds();
+            for (int d = 0; d < dimensions; d++)
+            {
+                lower[e*dimensions+d] = bounds.get(d).getLower();
+                upper[e*dimensions+d] = bounds.get(d).getUpper();
+            }
+        }
+    }
+
+    /**
+     * This method calculates the area and the area enlargement of every entry, with unrolled loops for 2 and 3 dimensions.
+     * @param size the number of entries in the node.
+     */
+    private void computeAreaEnlargements(int size)
+    {
+        if(dimensions == 2)
+        {
+            double xLower = newLower[0], xUpper = newUpper[0];
+            double yLower = newLower[1], yUpper = newUpper[1];
+            for (int e = 0, offset = 0; e < size; e++, offset += 2)
+            {
+                double entryArea = (upper[offset] - lower[offset]) * (upper[offset+1] - lower[offset+1]);
+                double enlargedArea = (Math.max(upper[offset], xUpper) - Math.min(lower[offset], xLower))
+                        * (Math.max(upper[offset+1], yUpper) - Math.min(lower[offset+1], yLower));
+                area[e] = entryArea;
+                areaEnlargement[e] = enlargedArea - entryArea;
+            }
+        }
+        else if(dimensions == 3)
+        {
+            double xLower = newLower[0], xUpper = newUpper[0];
+            double yLower = newLower[1], yUpper = newUpper[1];
+            double zLower = newLower[2], zUpper = newUpper[2];
+            for (int e = 0, offset = 0; e < size; e++, offset += 3)
+            {
+                double entryArea = (upper[offset] - lower[offset]) * (upper[offset+1] - lower[offset+1])
+                        * (upper[offset+2] - lower[offset+2]);
+                double enlargedArea = (Math.max(upper[offset], xUpper) - Math.min(lower[offset], xLower))
+                        * (Math.max(upper[offset+1], yUpper) - Math.min(lower[offset+1], yLower))
+                        * (Math.max(upper[offset+2], zUpper) - Math.min(lower[offset+2], zLower));
+                area[e] = entryArea;
+                areaEnlargement[e] = enlargedArea - entryArea;
+            }
+        }
+        else
+        {
+            for (int e = 0; e < size; e++)
+            {
+                int offset = e * dimensions;
+                double entryArea = 1;
+                double enlargedArea = 1;
+                for (int d = 0; d < dimensions; d++)
+                {
+                    double entryLower = lower[offset+d];
+                    double entryUpper = upper[offset+d];
+                    entryArea *= entryUpper - entryLower;
+                    enlargedArea *= Math.max(entryUpper, newUpper[d]) - Math.min(entryLower, newLower[d]);
+                }
+                area[e] = entryArea;
+                areaEnlargement[e] = enlargedArea - entryArea;
+            }
+        }
+    }
+
+    /**
+     * Checks if the box of an entry contains the new box.
+     * @param offset the position of the entry's bounds in the buffers.
+     * @return true if the entry's box contains the new box.
+     */
+    protected boolean contains(int offset)
+    {
+        for (int d = 0; d < dimensions; d++)
+        {
+            if(lower[offset+d] > newLower[d] || upper[offset+d] < newUpper[d])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Calculates how much the overlap of an entry with the rest of the node's entries grows
+     * if its box is enlarged to include the new box.
+     * @param candidate the index of the entry.
+     * @param size the number of entries in the node.
+     * @return the overlap enlargement of the entry.
+     */
+    private double overlapEnlargement(int candidate, int size)
+    {
+        if(dimensions == 2)
+            return overlapEnlargement2D(candidate, size);
+        int candidateOffset = candidate * dimensions;
+        double enlargement = 0;
+        for (int e = 0; e < size; e++)
+        {
+            if(e == candidate)
+                continue;
+            int offset = e * dimensions;
+            double overlap = 1;
+            double enlargedOverlap = 1;
+            for (int d = 0; d < dimensions && enlargedOverlap > 0; d++)
+            {
+                double candidateLower = lower[candidateOffset+d];
+                double candidateUpper = upper[candidateOffset+d];
+                double otherLower = lower[offset+d];
+                double otherUpper = upper[offset+d];
+                double overlapD = Math.min(candidateUpper, otherUpper) - Math.max(candidateLower, otherLower);
+                double enlargedOverlapD = Math.min(Math.max(candidateUpper, newUpper[d]), otherUpper)
+                        - Math.max(Math.min(candidateLower, newLower[d]), otherLower);
+                overlap = overlapD <= 0 ? 0 : overlap * overlapD;
+                enlargedOverlap = enlargedOverlapD <= 0 ? 0 : enlargedOverlap * enlargedOverlapD;
+            }
+            enlargement += enlargedOverlap - overlap;
+        }
+        return enlargement;
+    }
+
+    /**
+     * The overlap enlargement of an entry for 2 dimensions, with the candidate's boxes kept in local variables.
+     * @param candidate the index of the entry.
+     * @param size the number of entries in the node.
+     * @return the overlap enlargement of the entry.
+     */
+    private double overlapEnlargement2D(int candidate, int size)
+    {
+        int candidateOffset = candidate * 2;
+        double xLower = lower[candidateOffset], xUpper = upper[candidateOffset];
+        double yLower = lower[candidateOffset+1], yUpper = upper[candidateOffset+1];
+        double enlargedXLower = Math.min(xLower, newLower[0]), enlargedXUpper = Math.max(xUpper, newUpper[0]);
+        double enlargedYLower = Math.min(yLower, newLower[1]), enlargedYUpper = Math.max(yUpper, newUpper[1]);
+        double enlargement = 0;
+        for (int e = 0, offset = 0; e < size; e++, offset += 2)
+        {
+            if(e == candidate)
+                continue;
+            double enlargedOverlapX = Math.min(enlargedXUpper, upper[offset]) - Math.max(enlargedXLower, lower[offset]);
+            double enlargedOverlapY = Math.min(enlargedYUpper, upper[offset+1]) - Math.max(enlargedYLower, lower[offset+1]);
+            if(enlargedOverlapX <= 0 || enlargedOverlapY <= 0)
+                continue; // The enlarged box does not overlap this entry, so neither does the original.
+            double overlapX = Math.min(xUpper, upper[offset]) - Math.max(xLower, lower[offset]);
+            double overlapY = Math.min(yUpper, upper[offset+1]) - Math.max(yLower, lower[offset+1]);
+            double overlap = overlapX <= 0 || overlapY <= 0 ? 0 : overlapX * overlapY;
+            enlargement += enlargedOverlapX * enlargedOverlapY - overlap;
+        }
+        return enlargement;
+    }
+
+    /**
+     * Compares two entries by their area enlargement and then by their area.
+     * @param entryA the index of the first entry.
+     * @param entryB the index of the second entry.
+     * @return a negative integer, zero, or a positive integer as the first entry is better, equal or worse than the second.
+     */
+    private int compareAreaEnlargement(int entryA, int entryB)
+    {
+        if(areaEnlargement[entryA] == areaEnlargement[entryB])
+        {
+            return Double.compare(area[entryA], area[entryB]);
+        }
+        return Double.compare(areaEnlargement[entryA], areaEnlargement[entryB]);
+    }
+
+    /**
+     * Compares two candidate entries for the overlap enlargement check, by area enlargement and then area.
+     * @param entryA the index of the first entry.
+     * @param entryB the index of the second entry.
+     * @return a negative integer, zero, or a positive integer as the first entry is better, equal or worse than the second.
+     */
+    protected int compareCandidates(int entryA, int entryB)
+    {
+        return compareAreaEnlargement(entryA, entryB);
+    }
+
+    /**
+     * Keeps the given number of best entries according to compareCandidates in the candidates buffer, in order.
+     * Each entry is inserted after the equal ones, so ties keep the order of the entries in the node.
+     * @param size the number of entries in the node.
+     * @param candidatesKept the number of candidates to keep.
+     */
+    protected void selectCandidates(int size, int candidatesKept)
+    {
+        int kept = 0;
+        for (int e = 0; e < size; e++)
+        {
+            if(kept == candidatesKept && compareCandidates(candidates[kept-1], e) <= 0)
+                continue;
+            int j = kept < candidatesKept ? kept++ : kept - 1;
+            while (j > 0 && compareCandidates(candidates[j-1], e) > 0)
+            {
+                candidates[j] = candidates[j-1];
+                j--;
+            }
+            candidates[j] = e;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * TreeBenchmark is the benchmark suite of the tree's build and query paths.
+ * For every dataset size, dimensionality and distribution it generates a dataset with the WorkloadGenerator and measures
+ * insertion, buffered insertion, bulk loading,
+ * node splits, range queries of several selectivities, KNN queries of several k and the skyline query,
+ * together with the sequential scan baselines of the queries.
+ * Every benchmark is run for WARMUP_ITERATIONS before MEASURED_ITERATIONS are timed, and every dataset is measured in
+ * a JVM of its own (a fork), so that the JIT compilation of one configuration does not affect the others.
+ * The results are written to a CSV file with one row per benchmark and parameter, so runs can be compared.
+ *
+ * @author Akompian Georgios
+ */
+public class TreeBenchmark {
+    private static final String PATH_TO_RESULTS = "treeBenchmarkResults.csv";
+    private static final String PATH_TO_BENCHMARK_CSV = "benchmarkData.csv";
+    private static final String PATH_TO_BENCHMARK_DATAFILE = "benchmarkDatafile.dat";
+    private static final String PATH_TO_BENCHMARK_INDEXFILE = "benchmarkIndexfile.dat";
+    private static final int[] DEFAULT_DATASET_SIZES = {1000, 5000};
+    private static final int[] DEFAULT_DIMENSIONS = {2, 3};
+    private static final String DEFAULT_DISTRIBUTIONS = "uniform";
+    private static final double[] RANGE_SELECTIVITIES = {0.001, 0.01, 0.1}; // The expected fraction of the data in each range window
+    private static final int[] KNN_K = {1, 10, 100};
+    private static final int QUERIES = 20; // The queries of every iteration of a query benchmark
+    private static final int SPLITS = 200; // The node splits of every iteration of the split benchmark
+    private static final int INSERTION_BUFFER_CAPACITY = 1000; // The capacity of the insertion buffers of the buffered insertion
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final int BUILD_WARMUP_ITERATIONS = 1; // The tree builds are much longer, so they are run fewer times
+    private static final int BUILD_MEASURED_ITERATIONS = 3;
+    private static final String HEADER = "Benchmark,Distribution,Dataset Size,Dimensions,Parameter,Iterations,Mean(us/op),Stddev(us/op),Min(us/op),Node Accesses/op";
+
+    /**
+     * Main method that runs the benchmarks of every dataset, each one in a forked JVM, and writes the results in a CSV file.
+     *
+     * @param args Optional arguments: the dataset sizes, the dimensions and the distributions of the WorkloadGenerator,
+     *             as comma separated lists (for example "1000,5000 2,3 uniform,gaussian"),
+     *             and "--no-fork" to run every dataset in this JVM.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 5 && args[0].equals("--run")) {
+            // A forked JVM that measures a single dataset
+            runDataset(Integer.parseInt(args[1]), Integer.parseInt(args[2]), WorkloadGenerator.Distribution.valueOf(args[3]), args[4]);
+            return;
+        }
+        ArrayList<String> arguments = new ArrayList<>();
+        boolean fork = true;
+        for (String arg : args) {
+            if (arg.equals("--no-fork"))
+                fork = false;
+            else
+                arguments.add(arg);
+        }
+        int[] datasetSizes = arguments.size() > 0 ? parseList(arguments.get(0)) : DEFAULT_DATASET_SIZES;
+        int[] dimensions = arguments.size() > 1 ? parseList(arguments.get(1)) : DEFAULT_DIMENSIONS;
+        String[] distributions = (arguments.size() > 2 ? arguments.get(2) : DEFAULT_DISTRIBUTIONS).split(",");
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(PATH_TO_RESULTS))) {
+            writer.write(HEADER + "\n");
+        }
+        for (String distributionName : distributions) {
+            WorkloadGenerator.Distribution distribution = WorkloadGenerator.Distribution.valueOf(distributionName.trim().toUpperCase());
+            for (int datasetSize : datasetSizes) {
+                for (int dataDimensions : dimensions) {
+                    if (fork) {
+                        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+                        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), TreeBenchmark.class.getName(), "--run",
+                                String.valueOf(datasetSize), String.valueOf(dataDimensions), distribution.name(), PATH_TO_RESULTS).inheritIO().start();
+                        if (process.waitFor() != 0)
+                            throw new IllegalStateException("The benchmark of " + datasetSize + " " + distributionName + " records in " + dataDimensions + " dimensions failed");
+                    } else
+                        runDataset(datasetSize, dataDimensions, distribution, PATH_TO_RESULTS);
+                }
+            }
+        }
+        Files.deleteIfExists(Paths.get(PATH_TO_BENCHMARK_CSV));
+        Files.deleteIfExists(Paths.get(PATH_TO_BENCHMARK_DATAFILE));
+        Files.deleteIfExists(Paths.get(FilesHelper.getPathToRecordIndexfile(PATH_TO_BENCHMARK_DATAFILE)));
+        Files.deleteIfExists(Paths.get(PATH_TO_BENCHMARK_INDEXFILE));
+    }
+
+    /**
+     * Runs all the benchmarks on a generated dataset and appends their results to the results file.
+     *
+     * @param datasetSize    The number of records of the dataset.
+     * @param dataDimensions The dimensions of the dataset.
+     * @param distribution   The distribution of the dataset's points.
+     * @param pathToResults  The path of the CSV file the results are appended to.
+     */
+    private static void runDataset(int datasetSize, int dataDimensions, WorkloadGenerator.Distribution distribution, String pathToResults) throws IOException {
+        Random random = new Random(datasetSize * 31L + dataDimensions);
+        double[][] points = WorkloadGenerator.generatePoints(distribution, datasetSize, dataDimensions, random);
+        WorkloadGenerator.writeDataset(PATH_TO_BENCHMARK_CSV, points, datasetSize);
+        ArrayList<String> results = new ArrayList<>();
+        String dataset = distribution.name().toLowerCase() + "," + datasetSize + "," + dataDimensions;
+
+        // Building by insertion and by bulk loading
+        IndexStore indexStore = newIndexStore(dataDimensions);
+        results.add("insert," + dataset + ",," + measureBuild(() -> new RStarTree(indexStore, true), indexStore, datasetSize));
+        results.add("bufferedInsert," + dataset + "," + INSERTION_BUFFER_CAPACITY + "," + measureBuild(() ->
+                new RStarTree(indexStore, true, new RStarInsertionStrategy(indexStore), INSERTION_BUFFER_CAPACITY), indexStore, datasetSize));
+        results.add("bulkLoad," + dataset + ",," + measureBuild(() -> new RStarTree(indexStore, true, true), indexStore, datasetSize));
+
+        // Splitting overflowing leaves of random points
+        int maxEntries = indexStore.getMaxEntriesInNode();
+        NodeSplitter nodeSplitter = new NodeSplitter(indexStore.getMinEntriesInNode(), maxEntries);
+        ArrayList<Node> overflowingNodes = new ArrayList<>();
+        for (int n = 0; n < SPLITS; n++) {
+            ArrayList<Entry> entries = new ArrayList<>();
+            for (int e = 0; e <= maxEntries; e++)
+                entries.add(new LeafEntry(e, 0, randomPoint(random, dataDimensions)));
+            overflowingNodes.add(new Node(RStarTree.getLeafLevel(), entries));
+        }
+        results.add("split," + dataset + "," + (maxEntries + 1) + "," + measure(indexStore, SPLITS, () -> {
+            for (Node node : overflowingNodes)
+                nodeSplitter.splitNode(node);
+        }));
+
+        // The queries on the tree built by insertion and their sequential scan baselines
+        IndexStore queryIndexStore = newIndexStore(dataDimensions);
+        RStarTree rStarTree = new RStarTree(queryIndexStore, true);
+        for (double selectivity : RANGE_SELECTIVITIES) {
+            ArrayList<BoundingBox> windows = WorkloadGenerator.makeRangeWindows(points, datasetSize, selectivity, QUERIES, random);
+            results.add("range," + dataset + "," + selectivity + "," + measure(queryIndexStore, QUERIES, () -> {
+                for (BoundingBox window : windows)
+                    rStarTree.getBoundingBoxData(window);
+            }));
+            results.add("seqScanRange," + dataset + "," + selectivity + "," + measure(queryIndexStore, QUERIES, () -> {
+                for (BoundingBox window : windows)
+                    new SeqScanBoundingBoxRangeQuery(queryIndexStore, window).getQueryRecordIds();
+            }));
+        }
+        ArrayList<ArrayList<Double>> knnPoints = WorkloadGenerator.makeKnnPoints(points, datasetSize, QUERIES, random);
+        for (int k : KNN_K) {
+            results.add("knn," + dataset + "," + k + "," + measure(queryIndexStore, QUERIES, () -> {
+                for (ArrayList<Double> point : knnPoints)
+                    rStarTree.getNearestNeighbours(point, k);
+            }));
+            results.add("seqScanKnn," + dataset + "," + k + "," + measure(queryIndexStore, QUERIES, () -> {
+                for (ArrayList<Double> point : knnPoints)
+                    new SeqNearestNeighbourQuery(queryIndexStore, point, k).getQueryRecordIds();
+            }));
+        }
+        results.add("skyline," + dataset + ",," + measure(queryIndexStore, 1, rStarTree::getSkyline));
+        results.add("seqScanSkyline," + dataset + ",," + measure(queryIndexStore, 1,
+                () -> new SeqSkylineQuery(queryIndexStore, dataDimensions).getQueryRecordIds()));
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(pathToResults, true))) {
+            for (String row : results) {
+                System.out.println(row);
+                writer.write(row + "\n");
+            }
+        }
+    }
+
+    /**
+     * Creates a new datafile and indexfile for the benchmark dataset.
+     *
+     * @param dataDimensions The dimensions of the dataset.
+     * @return The IndexStore of the new files.
+     */
+    private static IndexStore newIndexStore(int dataDimensions) {
+        IndexStore indexStore = new IndexStore(PATH_TO_BENCHMARK_CSV, PATH_TO_BENCHMARK_DATAFILE, PATH_TO_BENCHMARK_INDEXFILE);
+        indexStore.initializeDataFile(dataDimensions, true);
+        indexStore.initializeIndexFile(dataDimensions, true);
+        return indexStore;
+    }
+
+    /**
+     * Measures building a tree, starting every build from a new indexfile.
+     *
+     * @param build       The build of the tree.
+     * @param indexStore  The IndexStore of the tree.
+     * @param datasetSize The number of records inserted by every build.
+     * @return The iterations and the time per inserted record, as a CSV fragment.
+     */
+    private static String measureBuild(Runnable build, IndexStore indexStore, int datasetSize) {
+        double[] times = new double[BUILD_MEASURED_ITERATIONS];
+        for (int iteration = -BUILD_WARMUP_ITERATIONS; iteration < BUILD_MEASURED_ITERATIONS; iteration++) {
+            indexStore.initializeIndexFile(indexStore.getDataDimensions(), true);
+            long startTime = System.nanoTime();
+            build.run();
+            long stopTime = System.nanoTime();
+            if (iteration >= 0)
+                times[iteration] = (stopTime - startTime) / 1000.0 / datasetSize;
+        }
+        return statistics(times) + ",";
+    }
+
+    /**
+     * Runs the workload for WARMUP_ITERATIONS and then measures it for MEASURED_ITERATIONS.
+     *
+     * @param indexStore The IndexStore whose node accesses are counted.
+     * @param operations The operations (queries or splits) of a single run of the workload.
+     * @param workload   The operations to be measured.
+     * @return The iterations, the time statistics per operation and the node accesses per operation, as a CSV fragment.
+     */
+    private static String measure(IndexStore indexStore, int operations, Runnable workload) {
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++)
+            workload.run();
+        double[] times = new double[MEASURED_ITERATIONS];
+        long startBlocksRead = indexStore.getIndexBlocksRead();
+        for (int iteration = 0; iteration < MEASURED_ITERATIONS; iteration++) {
+            long startTime = System.nanoTime();
+            workload.run();
+            long stopTime = System.nanoTime();
+            times[iteration] = (stopTime - startTime) / 1000.0 / operations;
+        }
+        double nodeAccesses = (indexStore.getIndexBlocksRead() - startBlocksRead) / ((double) MEASURED_ITERATIONS * operations);
+        return statistics(times) + "," + nodeAccesses;
+    }
+
+    /**
+     * Calculates the statistics of the measured iterations.
+     *
+     * @param times The time per operation of every iteration.
+     * @return The iterations, the mean, the standard deviation and the minimum, as a CSV fragment.
+     */
+    private static String statistics(double[] times) {
+        double sum = 0;
+        double min = Double.MAX_VALUE;
+        for (double time : times) {
+            sum += time;
+            min = Math.min(min, time);
+        }
+        double mean = sum / times.length;
+        double squares = 0;
+        for (double time : times)
+            squares += (time - mean) * (time - mean);
+        double stddev = times.length > 1 ? Math.sqrt(squares / (times.length - 1)) : 0;
+        return times.length + "," + String.format("%.3f", mean) + "," + String.format("%.3f", stddev) + "," + String.format("%.3f", min);
+    }
+
+    /**
+     * Creates the bounds of a random point in the unit cube.
+     *
+     * @param random         The random generator used.
+     * @param dataDimensions The dimensions of the point.
+     * @return The bounds of the point in every dimension.
+     */
+    private static ArrayList<Bounds> randomPoint(Random random, int dataDimensions) {
+        ArrayList<Bounds> bounds = new ArrayList<>();
+        for (int d = 0; d < dataDimensions; d++) {
+            double coordinate = random.nextDouble();
+            bounds.add(new Bounds(coordinate, coordinate));
+        }
+        return bounds;
+    }
+
+    /**
+     * Parses a comma separated list of integers.
+     *
+     * @param list The list.
+     * @return The integers of the list.
+     */
+    private static int[] parseList(String list) {
+        String[] values = list.split(",");
+        int[] integers = new int[values.length];
+        for (int i = 0; i < values.length; i++)
+            integers[i] = Integer.parseInt(values[i].trim());
+        return integers;
+    }
+}
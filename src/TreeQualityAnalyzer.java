@@ -0,0 +1,293 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+/**
+ * TreeQualityAnalyzer walks the nodes of an indexfile and reports the quality of the tree on every level:
+ * the nodes and their fill factor, the total and average area and margin of their bounding boxes, the overlap of
+ * sibling nodes, the dead space of the nodes (the part of a node's bounding box that no entry covers) and the
+ * expected disk accesses of uniformly placed window queries of several sizes.
+ * The report is written as a CSV file with one row per level, so the reports of two trees (for example one built
+ * by insertion and one bulk loaded, or one before and one after many updates) can be compared with --compare.
+ *
+ * @author Christos Kontos
+ */
+public class TreeQualityAnalyzer {
+    private static final String PATH_TO_REPORT = "treeQualityReport.csv";
+    private static final double[] DEFAULT_WINDOW_SIDES = {0.001, 0.01, 0.1}; // Side of the query windows, as a fraction of the data's extent
+    private static final int DEAD_SPACE_SAMPLES = 32; // The random points of every node tested for being covered by an entry
+    private static final String ALL_LEVELS = "All";
+    private final IndexStore indexStore; // The store of the tree that is analysed
+    private final double[] windowSides; // The sides of the query windows whose disk accesses are estimated
+    private final Random random = new Random(DEAD_SPACE_SAMPLES); // The generator of the dead space samples
+    private final LinkedHashMap<Integer, LevelStatistics> levels = new LinkedHashMap<>(); // The statistics of every level, the root's first
+    private double[] dataExtent; // The extent of the root's bounding box in every dimension
+
+    /**
+     * The statistics of the nodes of a level.
+     */
+    private static class LevelStatistics {
+        private final ArrayList<Double> fills = new ArrayList<>(); // The fill factor of every node
+        private long entries; // The entries of all the nodes
+        private double totalArea; // The sum of the areas of the nodes' bounding boxes
+        private double totalMargin; // The sum of the margins of the nodes' bounding boxes
+        private double siblingOverlap; // The sum of the overlap of every pair of nodes with the same parent
+        private double deadArea; // The estimated area of the nodes' bounding boxes that is not covered by any entry
+        private double[] accesses; // The expected accesses of the level's nodes by a window query of every side
+    }
+
+    /**
+     * Constructs an analyzer of the tree of the given store.
+     *
+     * @param indexStore  The IndexStore of the tree, with its indexfile initialized.
+     * @param windowSides The sides of the query windows whose disk accesses are estimated, as fractions of the data's extent.
+     */
+    TreeQualityAnalyzer(IndexStore indexStore, double[] windowSides) {
+        this.indexStore = indexStore;
+        this.windowSides = windowSides;
+    }
+
+    /**
+     * Main method that analyses a tree and writes its report, or compares two reports.
+     *
+     * @param args Optional arguments: the indexfile, the report file and the window sides as a comma
+     *             separated list (for example "indexfile.dat report.csv 0.01,0.05"),
+     *             or "--compare" followed by two report files.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("--compare")) {
+            compareReports(args[1], args[2]);
+            return;
+        }
+        String pathToIndexfile = args.length > 0 ? args[0] : FilesHelper.PATH_TO_INDEXFILE;
+        String pathToReport = args.length > 1 ? args[1] : PATH_TO_REPORT;
+        double[] windowSides = DEFAULT_WINDOW_SIDES;
+        if (args.length > 2) {
+            String[] sides = args[2].split(",");
+            windowSides = new double[sides.length];
+            for (int i = 0; i < sides.length; i++)
+                windowSides[i] = Double.parseDouble(sides[i].trim());
+        }
+
+        // Only the indexfile is read, its dimensions and block format are taken from its metadata block
+        if (!Files.exists(Paths.get(pathToIndexfile)))
+            throw new IllegalArgumentException("There is no indexfile " + pathToIndexfile);
+        IndexStore indexStore = new IndexStore(FilesHelper.getPathToCsv(), FilesHelper.PATH_TO_DATAFILE, pathToIndexfile);
+        indexStore.initializeIndexFile(0, false);
+        ArrayList<String> report = new TreeQualityAnalyzer(indexStore, windowSides).analyse();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(pathToReport))) {
+            for (String row : report) {
+                System.out.println(row);
+                writer.write(row + "\n");
+            }
+        }
+    }
+
+    /**
+     * Walks the tree and creates its report.
+     *
+     * @return The rows of the report, the header first, then one row per level from the root down and one for all the levels.
+     */
+    ArrayList<String> analyse() {
+        Node root = indexStore.readIndexFileBlock(RStarTree.getRootNodeBlockId());
+        if (root == null || root.getEntries().isEmpty())
+            throw new IllegalStateException("The tree of " + indexStore.getPathToIndexfile() + " is empty");
+        ArrayList<Bounds> rootBounds = Bounds.findMinBounds(root.getEntries());
+        dataExtent = new double[rootBounds.size()];
+        for (int d = 0; d < dataExtent.length; d++)
+            dataExtent[d] = rootBounds.get(d).getUpper() - rootBounds.get(d).getLower();
+        analyseNode(root);
+
+        ArrayList<String> report = new ArrayList<>();
+        StringBuilder header = new StringBuilder("Level,Nodes,Entries,Min Fill,Mean Fill,Median Fill,Max Fill,Nodes Under Half Full,"
+                + "Total Area,Average Area,Total Margin,Average Margin,Sibling Overlap,Overlap/Area,Dead Space");
+        for (double side : windowSides)
+            header.append(",Accesses (window ").append(side).append(")");
+        report.add(header.toString());
+
+        long nodes = 0;
+        long entries = 0;
+        double[] accesses = new double[windowSides.length];
+        for (LevelStatistics level : levels.values()) {
+            nodes += level.fills.size();
+            entries += level.entries;
+            for (int w = 0; w < windowSides.length; w++)
+                accesses[w] += level.accesses[w];
+        }
+        for (Integer level : levels.keySet())
+            report.add(level + "," + toCsv(levels.get(level)));
+
+        StringBuilder all = new StringBuilder(ALL_LEVELS + "," + nodes + "," + entries + ",,,,,,,,,,,,");
+        for (double access : accesses)
+            all.append(',').append(format(access));
+        report.add(all.toString());
+        return report;
+    }
+
+    /**
+     * Adds a node to the statistics of its level and analyses its children.
+     *
+     * @param node The node.
+     */
+    private void analyseNode(Node node) {
+        LevelStatistics level = levels.computeIfAbsent(node.getLevel(), key -> {
+            LevelStatistics statistics = new LevelStatistics();
+            statistics.accesses = new double[windowSides.length];
+            return statistics;
+        });
+        ArrayList<Entry> entries = node.getEntries();
+        BoundingBox boundingBox = new BoundingBox(Bounds.findMinBounds(entries));
+        level.fills.add((double) entries.size() / indexStore.getMaxEntriesInNode(node.getLevel()));
+        level.entries += entries.size();
+        level.totalArea += boundingBox.getArea();
+        level.totalMargin += boundingBox.getPerimeter();
+        level.deadArea += boundingBox.getArea() * uncoveredFraction(boundingBox, entries);
+
+        // A window query accesses the node if the window's lower corner falls in the node's box extended by the window
+        for (int w = 0; w < windowSides.length; w++) {
+            double probability = 1;
+            for (int d = 0; d < dataExtent.length; d++) {
+                if (dataExtent[d] > 0) {
+                    Bounds bounds = boundingBox.getBounds().get(d);
+                    probability *= Math.min(1, (bounds.getUpper() - bounds.getLower() + windowSides[w] * dataExtent[d]) / dataExtent[d]);
+                }
+            }
+            level.accesses[w] += probability;
+        }
+
+        if (node.getLevel() == RStarTree.getLeafLevel())
+            return;
+        double overlap = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            for (int j = i + 1; j < entries.size(); j++)
+                overlap += BoundingBox.calcOverlapVal(entries.get(i).getBoundingBox(), entries.get(j).getBoundingBox());
+        }
+        for (Entry entry : entries) {
+            Node child = indexStore.readIndexFileBlock(entry.getChildNodeBlockID());
+            if (child == null)
+                throw new IllegalStateException("The node of block " + entry.getChildNodeBlockID() + " could not be read");
+            analyseNode(child);
+        }
+        levels.get(node.getLevel() - 1).siblingOverlap += overlap;
+    }
+
+    /**
+     * Estimates the fraction of a node's bounding box that none of its entries covers, by testing random points of the box.
+     *
+     * @param boundingBox The bounding box of the node.
+     * @param entries     The entries of the node.
+     * @return The fraction of the sample points not covered by any entry.
+     */
+    private double uncoveredFraction(BoundingBox boundingBox, ArrayList<Entry> entries) {
+        if (boundingBox.getArea() == 0)
+            return 0;
+        ArrayList<Bounds> bounds = boundingBox.getBounds();
+        double[] point = new double[bounds.size()];
+        int uncovered = 0;
+        for (int s = 0; s < DEAD_SPACE_SAMPLES; s++) {
+            for (int d = 0; d < point.length; d++)
+                point[d] = bounds.get(d).getLower() + random.nextDouble() * (bounds.get(d).getUpper() - bounds.get(d).getLower());
+            boolean covered = false;
+            for (int e = 0; e < entries.size() && !covered; e++) {
+                ArrayList<Bounds> entryBounds = entries.get(e).getBoundingBox().getBounds();
+                covered = true;
+                for (int d = 0; d < point.length && covered; d++)
+                    covered = entryBounds.get(d).getLower() <= point[d] && point[d] <= entryBounds.get(d).getUpper();
+            }
+            if (!covered)
+                uncovered++;
+        }
+        return (double) uncovered / DEAD_SPACE_SAMPLES;
+    }
+
+    /**
+     * Writes the statistics of a level as a row of the report, without the level.
+     *
+     * @param level The statistics of the level.
+     * @return The statistics as a csv fragment.
+     */
+    private String toCsv(LevelStatistics level) {
+        ArrayList<Double> fills = new ArrayList<>(level.fills);
+        Collections.sort(fills);
+        int nodes = fills.size();
+        double fillSum = 0;
+        int underHalfFull = 0;
+        for (double fill : fills) {
+            fillSum += fill;
+            if (fill < 0.5)
+                underHalfFull++;
+        }
+        StringBuilder row = new StringBuilder();
+        row.append(nodes).append(',').append(level.entries).append(',')
+                .append(format(fills.get(0))).append(',').append(format(fillSum / nodes)).append(',')
+                .append(format(fills.get(nodes / 2))).append(',').append(format(fills.get(nodes - 1))).append(',')
+                .append(underHalfFull).append(',')
+                .append(format(level.totalArea)).append(',').append(format(level.totalArea / nodes)).append(',')
+                .append(format(level.totalMargin)).append(',').append(format(level.totalMargin / nodes)).append(',')
+                .append(format(level.siblingOverlap)).append(',').append(format(level.totalArea > 0 ? level.siblingOverlap / level.totalArea : 0)).append(',')
+                .append(format(level.totalArea > 0 ? level.deadArea / level.totalArea : 0));
+        for (double access : level.accesses)
+            row.append(',').append(format(access));
+        return row.toString();
+    }
+
+    /**
+     * Prints the values of two reports next to each other, with the change of every value, matching their rows by level.
+     *
+     * @param pathToBefore The report of the first tree.
+     * @param pathToAfter  The report of the second tree.
+     */
+    private static void compareReports(String pathToBefore, String pathToAfter) throws IOException {
+        LinkedHashMap<String, String[]> before = readReport(pathToBefore);
+        LinkedHashMap<String, String[]> after = readReport(pathToAfter);
+        String[] header = before.remove("Level");
+        after.remove("Level");
+        System.out.println("Level,Metric,Before,After,Change(%)");
+        for (String level : before.keySet()) {
+            String[] afterRow = after.get(level);
+            if (afterRow == null)
+                continue;
+            String[] beforeRow = before.get(level);
+            for (int c = 1; c < Math.min(header.length, Math.min(beforeRow.length, afterRow.length)); c++) {
+                if (beforeRow[c].isEmpty() || afterRow[c].isEmpty())
+                    continue;
+                double beforeValue = Double.parseDouble(beforeRow[c]);
+                double afterValue = Double.parseDouble(afterRow[c]);
+                String change = beforeValue != 0 ? String.format("%.1f", (afterValue - beforeValue) / Math.abs(beforeValue) * 100) : "";
+                System.out.println(level + "," + header[c] + "," + beforeRow[c] + "," + afterRow[c] + "," + change);
+            }
+        }
+    }
+
+    /**
+     * Reads the rows of a report by their level.
+     *
+     * @param pathToReport The report file.
+     * @return The values of every row, by the row's level (the header by "Level").
+     */
+    private static LinkedHashMap<String, String[]> readReport(String pathToReport) throws IOException {
+        LinkedHashMap<String, String[]> rows = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(pathToReport))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",", -1);
+                rows.put(values[0], values);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Formats a value of the report with enough significant digits for areas of any scale.
+     *
+     * @param value The value.
+     * @return The formatted value.
+     */
+    private static String format(double value) {
+        return String.format("%.6g", value);
+    }
+}
@@ -12,17 +12,18 @@ class UserInterface {
     /**
      * Starts the application by initializing the files based on the user's options.
      *
+     * @param indexStore The IndexStore whose files will be initialized.
      * @return True if records are inserted from the data file, false otherwise.
      */
-    static boolean startApplication() {
-        boolean filesExist = Files.exists(Paths.get(FilesHelper.PATH_TO_DATAFILE));
+    static boolean startApplication(IndexStore indexStore) {
+        boolean filesExist = Files.exists(Paths.get(indexStore.getPathToDatafile()));
         boolean resetFiles = false;
 
         Scanner scan = new Scanner(System.in); // Scanner used to get input from the user
 
         if (filesExist) {
             System.out.println("Existed data-file and index-file found.");
-            System.out.print("Do you want to create new ones based on the data of the " + FilesHelper.getPathToCsv() + " file? (y/n): ");
+            System.out.print("Do you want to create new ones based on the data of the " + indexStore.getPathToCsv() + " file? (y/n): ");
             String answer;
             while (true) {
                 answer = scan.nextLine().trim().toLowerCase();
@@ -43,13 +44,59 @@ class UserInterface {
 
         if (!filesExist || resetFiles) {
             insertRecordsFromDataFile = true;
-            System.out.print("Give the dimensions of the spatial data (dimensions need to be the same as the data saved in " + FilesHelper.getPathToCsv() + "): ");
+            System.out.print("Give the dimensions of the spatial data (dimensions need to be the same as the data saved in " + indexStore.getPathToCsv() + "): ");
             dataDimensions = scan.nextInt();
             System.out.println();
+            while (true) {
+                System.out.print("Give the block size of the files in KB (0 for the default of " + FilesHelper.BLOCK_SIZE / 1024 + "KB): ");
+                int blockSizeInKB = scan.nextInt();
+                System.out.println();
+                if (blockSizeInKB == 0)
+                    break;
+                else if (blockSizeInKB > 0) {
+                    indexStore.setBlockSize(blockSizeInKB * 1024);
+                    break;
+                } else
+                    System.out.println("The block size must be a positive integer");
+            }
+            while (true) {
+                System.out.print("Give the bits that the inner nodes store the bounds of their children in, for a higher fanout (8 or 16, 0 for no compression): ");
+                int innerNodeQuantizationBits = scan.nextInt();
+                System.out.println();
+                if (innerNodeQuantizationBits == 0 || QuantizedNode.isSupported(innerNodeQuantizationBits)) {
+                    indexStore.setInnerNodeQuantizationBits(innerNodeQuantizationBits);
+                    break;
+                } else
+                    System.out.println("The bits must be 8, 16 or 0");
+            }
+            while (true) {
+                System.out.print("Do you want to store the coordinates as floats (float32), for about twice the records per block? (y/n): ");
+                String answer = scan.next().trim().toLowerCase();
+                System.out.println();
+                if (answer.equals("y") || answer.equals("n")) {
+                    indexStore.setFloat32Coordinates(answer.equals("y"));
+                    break;
+                } else
+                    System.out.println("Please answer with y/n: ");
+            }
+            while (true) {
+                System.out.print("Do you want to compress the datafile blocks and the leaves of the index, for faster scans? (y/n): ");
+                String answer = scan.next().trim().toLowerCase();
+                System.out.println();
+                if (answer.equals("y") || answer.equals("n")) {
+                    indexStore.setPageCompression(answer.equals("y"));
+                    break;
+                } else
+                    System.out.println("Please answer with y/n: ");
+            }
         }
 
-        FilesHelper.initializeDataFile(dataDimensions, resetFiles);
-        FilesHelper.initializeIndexFile(dataDimensions, resetFiles);
+        // A new datafile is loaded from the csv file with a thread per processor
+        if (insertRecordsFromDataFile)
+            indexStore.initializeDataFileInParallel(dataDimensions, Runtime.getRuntime().availableProcessors());
+        else
+            indexStore.initializeDataFile(dataDimensions, false);
+        indexStore.initializeIndexFile(dataDimensions, resetFiles);
 
         return insertRecordsFromDataFile;
     }
@@ -61,6 +108,7 @@ class UserInterface {
      */
     static void runApplication(RStarTree rStarTree) {
         Scanner scan = new Scanner(System.in); // Scanner used to get input from the user
+        IndexStore indexStore = rStarTree.getIndexStore();
 
         System.out.println("Do you want to print the bounds for each inner node of the RStarTree? (y/n): ");
         String answer; // Variable used to store the user's input
@@ -85,7 +133,7 @@ class UserInterface {
             // Selecting the type of query
             switchLabel:
             while (true) {
-                System.out.println("Query Options: 1) Search for Records that overlap with a given bounding box, 2) Skyline, 3) K-NN or 0) To Exit");
+                System.out.println("Query Options: 1) Search for Records that overlap with a given bounding box, 2) Skyline, 3) K-NN, 4) Export the metrics, 5) Append the records of a csv file, 6) Set the read queue depth of the range queries or 0) To Exit");
                 System.out.print("Select the type of query to execute: ");
                 querySelection = scan.nextLine().trim().toLowerCase();
                 System.out.println();
@@ -96,7 +144,7 @@ class UserInterface {
                         System.out.println("Range Query within a bounding box selected");
                         System.out.println("Give the lower and upper bounds of the bounding box for each dimension (input example for each dimension: 33.4 38.13)");
                         ArrayList<Bounds> queryBounds = new ArrayList<>();
-                        for (int i = 0; i < FilesHelper.getDataDimensions(); i++) {
+                        for (int i = 0; i < indexStore.getDataDimensions(); i++) {
                             while (true) {
                                 int dim = i + 1;
                                 System.out.print("Give the bounds for dimension " + dim + ": ");
@@ -120,10 +168,11 @@ class UserInterface {
                             System.out.print(id + ", ");
                         System.out.println();
                         System.out.println("Time taken: " + (double) (stopRangeQueryTime - startRangeQueryTime) / 1000000 + " ms");
+                        System.out.println(rStarTree.getLastQueryStatistics());
 
                         // Sequential Scan - Range Query
                         System.out.print("Sequential Scan - Range Query: ");
-                        SeqScanBoundingBoxRangeQuery sequentialScanBoundingBoxRangeQuery = new SeqScanBoundingBoxRangeQuery(new BoundingBox(queryBounds));
+                        SeqScanBoundingBoxRangeQuery sequentialScanBoundingBoxRangeQuery = new SeqScanBoundingBoxRangeQuery(indexStore, new BoundingBox(queryBounds));
                         long startSequentialRangeQueryTime = System.nanoTime();
                         queryRecords = sequentialScanBoundingBoxRangeQuery.getQueryRecordIds();
                         long stopSequentialRangeQueryTime = System.nanoTime();
@@ -132,6 +181,7 @@ class UserInterface {
                             System.out.print(id + ", ");
                         System.out.println();
                         System.out.println("Time taken: " + (double) (stopSequentialRangeQueryTime - startSequentialRangeQueryTime) / 1000000 + " ms");
+                        System.out.println(sequentialScanBoundingBoxRangeQuery.getStatistics());
                         System.out.println();
                         System.out.println(queryRecords.size() + " Results");
                         break switchLabel;
@@ -148,13 +198,14 @@ class UserInterface {
                             System.out.print(id + ", ");
                         System.out.println();
                         System.out.println("Time taken for Skyline using R star tree: " + (double) (stopSkyTime - startSkyTime) / 1000000 + " ms");
+                        System.out.println(rStarTree.getLastQueryStatistics());
                         break switchLabel;
                     case "3":
                         // KNN Query
                         System.out.println("K-NN query selected");
                         System.out.println("Give the coordinate of each axis that the reference point's center is (input example for each dimension : 33.4)");
                         ArrayList<Double> point = new ArrayList<>(); // The point's center
-                        for (int i = 0; i < FilesHelper.getDataDimensions(); i++) {
+                        for (int i = 0; i < indexStore.getDataDimensions(); i++) {
                             int dim = i + 1;
                             System.out.print("Give the coordinate of the reference point's center in dimension " + dim + ": ");
                             double coordinate = scan.nextDouble();
@@ -181,8 +232,9 @@ class UserInterface {
                             System.out.print(id + ", ");
                         System.out.println();
                         System.out.println("Time taken for KNN using R star tree: " + (double) (stopKNNTime - startKNNTime) / 1000000 + " ms");
+                        System.out.println(rStarTree.getLastQueryStatistics());
                         System.out.print("Sequential KNN Query: ");
-                        SeqScanQuery sequentialNearestNeighboursQuery = new SeqNearestNeighbourQuery(point, k);
+                        SeqScanQuery sequentialNearestNeighboursQuery = new SeqNearestNeighbourQuery(indexStore, point, k);
                         long startSequentialKNNTime = System.nanoTime();
                         queryRecords = sequentialNearestNeighboursQuery.getQueryRecordIds();
                         long stopSequentialKNNTime = System.nanoTime();
@@ -190,14 +242,39 @@ class UserInterface {
                             System.out.print(id + ", ");
                         System.out.println();
                         System.out.println("Time taken for KNN using sequential scan: " + (double) (stopSequentialKNNTime - startSequentialKNNTime) / 1000000 + " ms");
+                        System.out.println(sequentialNearestNeighboursQuery.getStatistics());
                         System.out.println();
 
+                        break switchLabel;
+                    case "4":
+                        // Metrics in the Prometheus text format
+                        if (MetricsRegistry.getInstance().writePrometheusText("metrics.prom"))
+                            System.out.println("The metrics were written to metrics.prom");
+                        System.out.println(MetricsRegistry.getInstance().toPrometheusText());
+                        break switchLabel;
+                    case "5":
+                        // The new records are added to the datafile and the tree, without rebuilding them
+                        System.out.print("Give the path of the csv file with the new records: ");
+                        String pathToDeltaCsv = scan.nextLine().trim();
+                        System.out.println();
+                        rStarTree.appendRecords(pathToDeltaCsv);
+                        break switchLabel;
+                    case "6":
+                        // The range queries read up to this many indexfile blocks at a time
+                        System.out.print("Give the most indexfile blocks that a range query reads at a time (currently " + indexStore.getReadQueueDepth() + ", 1 to read them one at a time): ");
+                        String readQueueDepth = scan.nextLine().trim();
+                        System.out.println();
+                        try {
+                            indexStore.setReadQueueDepth(Integer.parseInt(readQueueDepth));
+                        } catch (IllegalArgumentException e) {
+                            System.out.println("The read queue depth must be a positive integer");
+                        }
                         break switchLabel;
                     case "0":
                         System.out.println("Exiting the application ...");
                         break switchLabel;
                     default:
-                        System.out.println("Please answer with 1, 2, 3, or 0 ");
+                        System.out.println("Please answer with 1, 2, 3, 4, 5, 6, or 0 ");
                         break;
                 }
             }
@@ -0,0 +1,351 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * WorkloadGenerator writes synthetic datasets, together with query workloads that match them, so that benchmarks
+ * and capacity planning run on known and repeatable data of any size and dimensionality.
+ * The datasets are written in the csv format the IndexStore reads (an ID followed by the coordinates) and their points
+ * lie in the unit cube. Every dataset and workload is determined by its seed.
+ * The query workloads are range windows of a target selectivity, KNN points drawn from the data distribution
+ * and mixed streams of reads (range and KNN queries) and writes (insertions of new records).
+ *
+ * @author Akompian Georgios
+ */
+public class WorkloadGenerator {
+    private static final long FIRST_ID = 1; // The ID of the first record of every dataset
+    private static final int CLUSTERS = 10; // The clusters of the Gaussian distribution
+    private static final double MIN_CLUSTER_DEVIATION = 0.01; // The range of the standard deviation of every cluster
+    private static final double MAX_CLUSTER_DEVIATION = 0.05;
+    private static final int ZIPF_CELLS = 1024; // The cells of every dimension that the Zipf distribution ranks
+    private static final double ZIPF_EXPONENT = 1.0;
+    private static final int POINTS_PER_TRAJECTORY = 100; // The average number of positions of every moving object
+    private static final double TRAJECTORY_SPEED = 0.002; // The distance covered by an object between two positions
+    private static final double TRAJECTORY_TURN = 0.3; // The standard deviation of the change of direction at every position
+    private static final double TRAJECTORY_NOISE = 0.0002; // The standard deviation of the measurement error of every position
+    private static final int SELECTIVITY_SAMPLE = 20000; // The most points used for fitting the range windows to a selectivity
+    private static final double[] DEFAULT_SELECTIVITIES = {0.001, 0.01, 0.1};
+    private static final int DEFAULT_QUERIES = 100; // The queries of every selectivity and the KNN points
+    private static final int DEFAULT_MIXED_OPERATIONS = 1000;
+    private static final double DEFAULT_READ_FRACTION = 0.9; // The fraction of the mixed stream's operations that are queries
+    private static final int DEFAULT_K = 10;
+
+    /**
+     * The distributions of the generated points.
+     */
+    enum Distribution {
+        UNIFORM, // Points drawn uniformly from the unit cube
+        GAUSSIAN, // Points drawn from Gaussian clusters of random centers and deviations
+        ZIPF, // Points whose every coordinate falls in a cell ranked by a Zipf distribution, dense near the origin
+        TRAJECTORY // Positions of objects moving with a slowly changing direction, in the order they are reported
+    }
+
+    /**
+     * Main method that writes a dataset and its query workloads.
+     * Writes the dataset to "prefix.csv", the range windows to "prefixRange.csv", the KNN points to "prefixKnn.csv"
+     * and the mixed stream to "prefixMixed.csv".
+     *
+     * @param args Optional arguments: the distribution (uniform, gaussian, zipf or trajectory), the dataset size,
+     *             the dimensions, the seed and the prefix of the files (for example "gaussian 100000 2 7 clusters").
+     */
+    public static void main(String[] args) {
+        Distribution distribution = args.length > 0 ? Distribution.valueOf(args[0].toUpperCase()) : Distribution.UNIFORM;
+        int datasetSize = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int dataDimensions = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        String prefix = args.length > 4 ? args[4] : distribution.name().toLowerCase();
+        if (datasetSize < 1 || dataDimensions < 1)
+            throw new IllegalArgumentException("The dataset size and the dimensions must be positive");
+
+        Random random = new Random(seed);
+        // The points after the dataset are the ones inserted by the mixed stream
+        double[][] points = generatePoints(distribution, datasetSize + DEFAULT_MIXED_OPERATIONS, dataDimensions, random);
+        try {
+            writeDataset(prefix + ".csv", points, datasetSize);
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(prefix + "Range.csv"))) {
+                StringBuilder tagString = new StringBuilder("Selectivity");
+                for (int d = 0; d < dataDimensions; d++)
+                    tagString.append(",Lower ").append(d + 1).append(",Upper ").append(d + 1);
+                writer.write(tagString.append('\n').toString());
+                for (double selectivity : DEFAULT_SELECTIVITIES) {
+                    for (BoundingBox window : makeRangeWindows(points, datasetSize, selectivity, DEFAULT_QUERIES, random))
+                        writer.write(selectivity + "," + toCsv(window) + "\n");
+                }
+            }
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(prefix + "Knn.csv"))) {
+                for (ArrayList<Double> point : makeKnnPoints(points, datasetSize, DEFAULT_QUERIES, random))
+                    writer.write(toCsv(point) + "\n");
+            }
+            writeMixedWorkload(prefix + "Mixed.csv", points, datasetSize, DEFAULT_MIXED_OPERATIONS, DEFAULT_READ_FRACTION, random);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Generates points of the given distribution in the unit cube.
+     *
+     * @param distribution   The distribution of the points.
+     * @param size           The number of points.
+     * @param dataDimensions The dimensions of the points.
+     * @param random         The random generator used.
+     * @return The coordinates of every point.
+     */
+    static double[][] generatePoints(Distribution distribution, int size, int dataDimensions, Random random) {
+        double[][] points = new double[size][dataDimensions];
+        switch (distribution) {
+            case UNIFORM:
+                for (double[] point : points) {
+                    for (int d = 0; d < dataDimensions; d++)
+                        point[d] = random.nextDouble();
+                }
+                break;
+            case GAUSSIAN:
+                double[][] centers = new double[CLUSTERS][dataDimensions];
+                double[] deviations = new double[CLUSTERS];
+                for (int c = 0; c < CLUSTERS; c++) {
+                    for (int d = 0; d < dataDimensions; d++)
+                        centers[c][d] = 0.1 + 0.8 * random.nextDouble();
+                    deviations[c] = MIN_CLUSTER_DEVIATION + (MAX_CLUSTER_DEVIATION - MIN_CLUSTER_DEVIATION) * random.nextDouble();
+                }
+                for (double[] point : points) {
+                    int cluster = random.nextInt(CLUSTERS);
+                    for (int d = 0; d < dataDimensions; d++)
+                        point[d] = clamp(centers[cluster][d] + deviations[cluster] * random.nextGaussian());
+                }
+                break;
+            case ZIPF:
+                // The cumulative probability of the cells, the cell of rank r having a probability proportional to 1/r^s
+                double[] cumulative = new double[ZIPF_CELLS];
+                double sum = 0;
+                for (int cell = 0; cell < ZIPF_CELLS; cell++) {
+                    sum += 1 / Math.pow(cell + 1, ZIPF_EXPONENT);
+                    cumulative[cell] = sum;
+                }
+                for (double[] point : points) {
+                    for (int d = 0; d < dataDimensions; d++) {
+                        int cell = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                        if (cell < 0)
+                            cell = -cell - 1;
+                        point[d] = (Math.min(cell, ZIPF_CELLS - 1) + random.nextDouble()) / ZIPF_CELLS;
+                    }
+                }
+                break;
+            case TRAJECTORY:
+                generateTrajectories(points, dataDimensions, random);
+                break;
+        }
+        return points;
+    }
+
+    /**
+     * Generates the positions of moving objects, reported one after the other at every time step.
+     * Every object starts at a random position and moves with a constant speed, turning a little at every step
+     * and bouncing off the borders of the unit cube, and every reported position has a small measurement error.
+     *
+     * @param points         The array the positions are written to.
+     * @param dataDimensions The dimensions of the positions.
+     * @param random         The random generator used.
+     */
+    private static void generateTrajectories(double[][] points, int dataDimensions, Random random) {
+        int objects = Math.max(1, points.length / POINTS_PER_TRAJECTORY);
+        double[][] positions = new double[objects][dataDimensions];
+        double[][] directions = new double[objects][];
+        for (int o = 0; o < objects; o++) {
+            for (int d = 0; d < dataDimensions; d++)
+                positions[o][d] = random.nextDouble();
+            directions[o] = randomDirection(null, dataDimensions, random);
+        }
+        for (int p = 0; p < points.length; p++) {
+            int o = p % objects;
+            directions[o] = randomDirection(directions[o], dataDimensions, random);
+            for (int d = 0; d < dataDimensions; d++) {
+                double position = positions[o][d] + TRAJECTORY_SPEED * directions[o][d];
+                if (position < 0 || position > 1) {
+                    directions[o][d] = -directions[o][d];
+                    position = positions[o][d] + TRAJECTORY_SPEED * directions[o][d];
+                }
+                positions[o][d] = position;
+                points[p][d] = clamp(position + TRAJECTORY_NOISE * random.nextGaussian());
+            }
+        }
+    }
+
+    /**
+     * Creates a random unit direction, or turns the given one by a random angle.
+     *
+     * @param direction      The current direction, or null for a new random direction.
+     * @param dataDimensions The dimensions of the direction.
+     * @param random         The random generator used.
+     * @return The new direction.
+     */
+    private static double[] randomDirection(double[] direction, int dataDimensions, Random random) {
+        double[] newDirection = new double[dataDimensions];
+        double length = 0;
+        for (int d = 0; d < dataDimensions; d++) {
+            newDirection[d] = direction == null ? random.nextGaussian() : direction[d] + TRAJECTORY_TURN * random.nextGaussian();
+            length += newDirection[d] * newDirection[d];
+        }
+        length = Math.sqrt(length);
+        for (int d = 0; d < dataDimensions; d++)
+            newDirection[d] = length == 0 ? 0 : newDirection[d] / length;
+        return newDirection;
+    }
+
+    /**
+     * Writes the first points as a dataset in the csv format of the IndexStore, with IDs starting from FIRST_ID.
+     *
+     * @param pathToCsv   The path of the csv file.
+     * @param points      The points.
+     * @param datasetSize The number of points written.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    static void writeDataset(String pathToCsv, double[][] points, int datasetSize) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(pathToCsv))) {
+            for (int p = 0; p < datasetSize; p++) {
+                StringBuilder line = new StringBuilder(String.valueOf(FIRST_ID + p));
+                for (double coordinate : points[p])
+                    line.append(FilesHelper.getDELIMITER()).append(coordinate);
+                writer.write(line.append('\n').toString());
+            }
+        }
+    }
+
+    /**
+     * Creates range windows that each contain about the given fraction of the dataset.
+     * Every window is a hypercube centered on a random point of the dataset, whose half side is the Chebyshev distance
+     * of the center from its (selectivity * points)-th nearest point of a sample of the dataset, so that the windows
+     * keep their selectivity in the dense and in the sparse areas of any distribution.
+     *
+     * @param points      The points, of which the first datasetSize are the dataset.
+     * @param datasetSize The number of points in the dataset.
+     * @param selectivity The fraction of the dataset that every window should contain.
+     * @param queries     The number of windows.
+     * @param random      The random generator used.
+     * @return The range windows.
+     */
+    static ArrayList<BoundingBox> makeRangeWindows(double[][] points, int datasetSize, double selectivity, int queries, Random random) {
+        if (selectivity <= 0 || selectivity > 1)
+            throw new IllegalArgumentException("The selectivity of a range window must be in (0, 1]");
+        int sampleSize = Math.min(datasetSize, SELECTIVITY_SAMPLE);
+        int[] sample = new int[sampleSize];
+        for (int s = 0; s < sampleSize; s++)
+            sample[s] = sampleSize == datasetSize ? s : random.nextInt(datasetSize);
+        int rank = Math.max(1, (int) Math.round(selectivity * sampleSize)) - 1;
+
+        ArrayList<BoundingBox> windows = new ArrayList<>(queries);
+        double[] distances = new double[sampleSize];
+        for (int q = 0; q < queries; q++) {
+            double[] center = points[random.nextInt(datasetSize)];
+            for (int s = 0; s < sampleSize; s++) {
+                double distance = 0;
+                for (int d = 0; d < center.length; d++)
+                    distance = Math.max(distance, Math.abs(points[sample[s]][d] - center[d]));
+                distances[s] = distance;
+            }
+            Arrays.sort(distances);
+            double halfSide = distances[rank];
+            ArrayList<Bounds> bounds = new ArrayList<>(center.length);
+            for (double coordinate : center)
+                bounds.add(new Bounds(coordinate - halfSide, coordinate + halfSide));
+            windows.add(new BoundingBox(bounds));
+        }
+        return windows;
+    }
+
+    /**
+     * Creates KNN query points that follow the distribution of the data, by taking random points of the dataset.
+     *
+     * @param points      The points, of which the first datasetSize are the dataset.
+     * @param datasetSize The number of points in the dataset.
+     * @param queries     The number of query points.
+     * @param random      The random generator used.
+     * @return The coordinates of the query points.
+     */
+    static ArrayList<ArrayList<Double>> makeKnnPoints(double[][] points, int datasetSize, int queries, Random random) {
+        ArrayList<ArrayList<Double>> knnPoints = new ArrayList<>(queries);
+        for (int q = 0; q < queries; q++) {
+            ArrayList<Double> point = new ArrayList<>();
+            for (double coordinate : points[random.nextInt(datasetSize)])
+                point.add(coordinate);
+            knnPoints.add(point);
+        }
+        return knnPoints;
+    }
+
+    /**
+     * Writes a mixed stream of reads and writes, one operation per line:
+     * "insert,id,coordinates" for the insertion of a new record, taken in order from the points after the dataset,
+     * "range,selectivity,lower and upper bounds" for a range query and "knn,k,coordinates" for a KNN query.
+     * The reads are range and KNN queries in equal parts, made from the points inserted so far.
+     *
+     * @param pathToWorkload The path of the workload file.
+     * @param points         The points, of which the first datasetSize are the dataset and the rest can be inserted.
+     * @param datasetSize    The number of points in the dataset.
+     * @param operations     The number of operations.
+     * @param readFraction   The fraction of the operations that are reads.
+     * @param random         The random generator used.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    static void writeMixedWorkload(String pathToWorkload, double[][] points, int datasetSize, int operations, double readFraction, Random random) throws IOException {
+        int inserted = datasetSize;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(pathToWorkload))) {
+            for (int o = 0; o < operations; o++) {
+                if (random.nextDouble() >= readFraction && inserted < points.length) {
+                    ArrayList<Double> point = new ArrayList<>();
+                    for (double coordinate : points[inserted])
+                        point.add(coordinate);
+                    writer.write("insert," + (FIRST_ID + inserted) + "," + toCsv(point) + "\n");
+                    inserted++;
+                } else if (random.nextBoolean()) {
+                    double selectivity = DEFAULT_SELECTIVITIES[random.nextInt(DEFAULT_SELECTIVITIES.length)];
+                    writer.write("range," + selectivity + "," + toCsv(makeRangeWindows(points, inserted, selectivity, 1, random).get(0)) + "\n");
+                } else
+                    writer.write("knn," + DEFAULT_K + "," + toCsv(makeKnnPoints(points, inserted, 1, random).get(0)) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Writes the bounds of a bounding box as the lower and the upper bound of every dimension, separated by the delimiter.
+     *
+     * @param boundingBox The bounding box.
+     * @return The bounds as a csv fragment.
+     */
+    private static String toCsv(BoundingBox boundingBox) {
+        StringBuilder line = new StringBuilder();
+        for (Bounds bounds : boundingBox.getBounds()) {
+            if (line.length() > 0)
+                line.append(FilesHelper.getDELIMITER());
+            line.append(bounds.getLower()).append(FilesHelper.getDELIMITER()).append(bounds.getUpper());
+        }
+        return line.toString();
+    }
+
+    /**
+     * Writes the coordinates of a point separated by the delimiter.
+     *
+     * @param point The coordinates.
+     * @return The coordinates as a csv fragment.
+     */
+    private static String toCsv(ArrayList<Double> point) {
+        StringBuilder line = new StringBuilder();
+        for (Double coordinate : point) {
+            if (line.length() > 0)
+                line.append(FilesHelper.getDELIMITER());
+            line.append(coordinate);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Keeps a coordinate within the unit cube.
+     *
+     * @param coordinate The coordinate.
+     * @return The coordinate, moved to the closest border if it lies outside [0, 1].
+     */
+    private static double clamp(double coordinate) {
+        return Math.max(0, Math.min(1, coordinate));
+    }
+}